@@ -0,0 +1,63 @@
+// JMH benchmarks for the keypair and file ports, run on the desktop JVM.
+//
+// The port sources are compiled straight from ../src/main/java together with
+// minimal android.* and androidx.annotation stand-ins (src/main/java) and a software keystore
+// registered under the "AndroidKeyStore" provider name, so the repo code runs
+// unchanged. Numbers are for comparing changes to the port's own logic; they
+// say nothing about TEE or StrongBox latency on a device.
+//
+//   gradle -p benchmarks jmh
+//
+// Results are written as JSON to build/results/jmh/results.json.
+
+plugins {
+    java
+    id("me.champeau.jmh") version "0.7.2"
+}
+
+java {
+    toolchain {
+        languageVersion.set(JavaLanguageVersion.of(17))
+    }
+}
+
+sourceSets {
+    main {
+        java {
+            srcDir("../src/main/java/com/bcsccore/bcsc-keypair-port")
+            // SharedPreferences- and file-backed metadata and the sample need a real
+            // Context; the benchmarks use an in-memory KeyPairInfoSource.
+            exclude("repos/keypairinfo/SimpleKeyPairInfoSource.java")
+            exclude("repos/keypairinfo/FileKeyPairInfoSource.java")
+            exclude("example/**")
+            exclude("**/*.md")
+            // File readers only; decryption needs the AndroidKeyStore and a real Context.
+            srcDir("../src/main/java/com/bcsccore/bcsc-file-port/src/main/java")
+            exclude("com/bcsccore/fileport/decryption/**")
+            exclude("com/bcsccore/fileport/encryption/**")
+        }
+    }
+}
+
+tasks.withType<JavaCompile>().configureEach {
+    options.encoding = "UTF-8"
+}
+
+dependencies {
+    implementation("com.nimbusds:nimbus-jose-jwt:9.37.3")
+    // Baseline for the metadata encoding benchmark: the legacy JSON form.
+    jmhImplementation("com.google.code.gson:gson:2.10.1")
+}
+
+jmh {
+    jmhVersion.set("1.37")
+    resultFormat.set("JSON")
+    resultsFile.set(layout.buildDirectory.file("results/jmh/results.json"))
+    fork.set(1)
+    warmupIterations.set(3)
+    iterations.set(5)
+    timeOnIteration.set("2s")
+    warmup.set("1s")
+    // Narrow a run with -PjmhIncludes=ReconcileBenchmark
+    (project.findProperty("jmhIncludes") as String?)?.let { includes.set(listOf(it)) }
+}
@@ -0,0 +1,106 @@
+package com.bcsccore.fileport;
+
+import android.content.Context;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Reading a whole file and touching every byte, at sizes from a token file to
+ * a photo or video evidence file: the stream read SimpleFileReader used
+ * before, a FileChannel read into a heap buffer, and readFileBuffer, which
+ * reads onto the heap below ChannelFileReadStrategy's threshold and maps at or
+ * above it. Every variant sums the contents so mapped pages are actually loaded.
+ *
+ * <p>The file stays in the page cache between iterations, so this measures
+ * copying and mapping overhead, not storage latency.
+ *
+ * <p>A mapping is released only when its buffer is collected. Collecting
+ * between iterations keeps a tight loop of mapped reads under the process's
+ * map count limit, which mapping every small file would quickly exceed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FileReadBenchmark {
+
+  private static final String FILE_NAME = "evidence.bin";
+
+  @Param({"4096", "65536", "262144", "1048576", "8388608"})
+  public int fileSize;
+
+  private File dir;
+  private File file;
+  private SimpleFileReader defaultReader;
+  private final FileReadStrategy heap = new ChannelFileReadStrategy(Long.MAX_VALUE);
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    dir = Files.createTempDirectory("file-read-bench").toFile();
+    file = new File(dir, FILE_NAME);
+    byte[] contents = new byte[fileSize];
+    new Random(42).nextBytes(contents);
+    try (FileOutputStream out = new FileOutputStream(file)) {
+      out.write(contents);
+    }
+    defaultReader = new SimpleFileReader(new Context(dir));
+  }
+
+  @TearDown(Level.Iteration)
+  public void releaseMappings() {
+    System.gc();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    file.delete();
+    dir.delete();
+  }
+
+  /** SimpleFileReader.readFile before the read strategy: one stream read into a byte[]. */
+  @Benchmark
+  public long streamRead() throws IOException {
+    try (FileInputStream fis = new FileInputStream(file)) {
+      byte[] data = new byte[(int) file.length()];
+      int read = fis.read(data);
+      return sum(ByteBuffer.wrap(data, 0, read));
+    }
+  }
+
+  @Benchmark
+  public long channelHeapRead() throws IOException {
+    return sum(heap.read(file));
+  }
+
+  /** What callers get: heap below the default threshold, mapped at or above it. */
+  @Benchmark
+  public long readFileBuffer() {
+    return sum(defaultReader.readFileBuffer(FILE_NAME));
+  }
+
+  private static long sum(ByteBuffer buffer) {
+    long sum = 0;
+    while (buffer.remaining() >= Long.BYTES) {
+      sum += buffer.getLong();
+    }
+    while (buffer.hasRemaining()) {
+      sum += buffer.get();
+    }
+    return sum;
+  }
+}
@@ -0,0 +1,134 @@
+package com.bcsccore.fileport;
+
+import android.content.Context;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * A prefix query over a directory of token-sized files, half of which match:
+ * the eager query EnhancedFileReader ran before, which read and stat'ed every
+ * match, against the lazy one when the caller only looks at names and sizes
+ * and when it reads every match anyway. Lazy queries are answered from the
+ * directory index, both reused and just after a change forces a new listing.
+ *
+ * <p>readBcscFiles runs five prefix queries; the rescanning variant lists the
+ * directory for each, as it did before the index.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PatternQueryBenchmark {
+
+  private static final String PREFIX = "tokens";
+
+  @Param({"10", "100", "1000"})
+  public int fileCount;
+
+  @Param({"4096", "65536"})
+  public int fileSize;
+
+  private File dir;
+  private EnhancedFileReader reader;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    dir = Files.createTempDirectory("pattern-query-bench").toFile();
+    byte[] contents = new byte[fileSize];
+    new Random(42).nextBytes(contents);
+    for (int i = 0; i < fileCount; i++) {
+      String name = (i % 2 == 0 ? PREFIX : "other") + "_" + i;
+      try (FileOutputStream out = new FileOutputStream(new File(dir, name))) {
+        out.write(contents);
+      }
+    }
+    // Old enough that the index trusts its listing straight away
+    dir.setLastModified(System.currentTimeMillis() - 60_000L);
+    reader = new EnhancedFileReader(new Context(dir));
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    for (File file : dir.listFiles()) {
+      file.delete();
+    }
+    dir.delete();
+  }
+
+  /** readFilesWithPrefix before lazy FileData: every match read and stat'ed up front. */
+  @Benchmark
+  public long eagerSizes() {
+    List<FileData> matches = new ArrayList<>();
+    for (String filename : reader.listFiles()) {
+      if (filename.startsWith(PREFIX)) {
+        matches.add(new FileData(filename, reader.readFile(filename), reader.getFileSize(filename)));
+      }
+    }
+    long total = 0;
+    for (FileData match : matches) {
+      total += match.getFileSize();
+    }
+    return total;
+  }
+
+  @Benchmark
+  public long lazySizes() {
+    long total = 0;
+    for (FileData match : reader.readFilesWithPrefix(PREFIX)) {
+      total += match.getFileSize();
+    }
+    return total;
+  }
+
+  /** What a query costs right after the directory changes. */
+  @Benchmark
+  public long lazySizesRelisted() {
+    reader.getDirectoryIndex().invalidate();
+    return lazySizes();
+  }
+
+  /** The worst case for lazy loading: every match's contents are used. */
+  @Benchmark
+  public long lazyContents() {
+    long total = 0;
+    for (FileData match : reader.readFilesWithPrefix(PREFIX)) {
+      total += match.getData().length;
+    }
+    return total;
+  }
+
+  /** readBcscFiles before the index: a listing and a scan per prefix. */
+  @Benchmark
+  public int bcscFilesRescanning() {
+    List<FileData> matches = new ArrayList<>();
+    for (String prefix : new String[] {"tokens", "accounts", "providers", "keypair", "credentials"}) {
+      for (String filename : reader.listFiles()) {
+        if (filename.startsWith(prefix)) {
+          File file = new File(dir, filename);
+          matches.add(new LazyFileData(reader, filename, file.isFile() ? file.length() : 0, file.lastModified(), false));
+        }
+      }
+    }
+    return matches.size();
+  }
+
+  @Benchmark
+  public int readBcscFiles() {
+    return reader.readBcscFiles().length;
+  }
+}
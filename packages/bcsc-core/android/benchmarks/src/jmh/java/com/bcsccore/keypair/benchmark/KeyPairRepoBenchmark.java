@@ -0,0 +1,95 @@
+package com.bcsccore.keypair.benchmark;
+
+import com.bcsccore.keypair.benchmark.keystore.SoftwareAndroidKeyStore;
+import com.bcsccore.keypair.core.exceptions.BcscException;
+import com.bcsccore.keypair.core.interfaces.KeyAlgorithmProfile;
+import com.bcsccore.keypair.core.models.BcscKeyPair;
+import com.bcsccore.keypair.core.utils.SharedKeyStore;
+import com.bcsccore.keypair.core.utils.SimpleLog;
+import com.bcsccore.keypair.repos.key.BcscKeyPairRepo;
+import com.bcsccore.keypair.repos.key.EcKeyAlgorithmProfile;
+import com.bcsccore.keypair.repos.key.RsaKeyAlgorithmProfile;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import java.security.KeyStore;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Steady-state cost of the repo's hot paths once the current key exists:
+ * resolving it, signing with it and exporting its public JWK. Key generation
+ * happens once in setup and is not measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class KeyPairRepoBenchmark {
+
+  @Param({"rsa", "ec"})
+  public String profile;
+
+  private BcscKeyPairRepo repo;
+  private BcscKeyPair currentKeyPair;
+  private JWTClaimsSet claimsSet;
+
+  @Setup(Level.Trial)
+  public void setUp() throws BcscException {
+    SimpleLog.setLevel(SimpleLog.Level.NONE);
+    SoftwareAndroidKeyStore.install();
+    SoftwareAndroidKeyStore.deleteAllEntries();
+
+    KeyAlgorithmProfile algorithmProfile = "ec".equals(profile)
+        ? new EcKeyAlgorithmProfile()
+        : new RsaKeyAlgorithmProfile();
+    SharedKeyStore sharedKeyStore = new SharedKeyStore(() -> {
+      KeyStore keyStore = KeyStore.getInstance(SharedKeyStore.KEYSTORE_TYPE);
+      keyStore.load(null);
+      return keyStore;
+    });
+    repo = new BcscKeyPairRepo.Builder(new InMemoryKeyPairInfoSource())
+        .setSharedKeyStore(sharedKeyStore)
+        .setKeyAlgorithmProfile(algorithmProfile)
+        .build();
+    currentKeyPair = repo.getCurrentBcscKeyPair();
+
+    Date now = new Date();
+    claimsSet = new JWTClaimsSet.Builder()
+        .issuer("benchmark-client")
+        .subject("benchmark-client")
+        .audience("https://idsit.gov.bc.ca/device/")
+        .jwtID("4c7c2a1e-2f0a-4a36-8f0e-0d3f8c0b7a11")
+        .issueTime(now)
+        .expirationTime(new Date(now.getTime() + 60_000L))
+        .build();
+  }
+
+  @Benchmark
+  public BcscKeyPair getCurrentBcscKeyPair() throws BcscException {
+    return repo.getCurrentBcscKeyPair();
+  }
+
+  @Benchmark
+  public SignedJWT signClaimsSet() throws BcscException {
+    return repo.signClaimsSet(claimsSet);
+  }
+
+  @Benchmark
+  public String signAndSerializeClaimsSet() throws BcscException {
+    return repo.signAndSerializeClaimsSet(claimsSet);
+  }
+
+  @Benchmark
+  public JWK convertBcscKeyPairToJWK() {
+    return repo.convertBcscKeyPairToJWK(currentKeyPair);
+  }
+}
@@ -0,0 +1,72 @@
+package com.bcsccore.keypair.benchmark;
+
+import com.bcsccore.keypair.benchmark.keystore.SoftwareAndroidKeyStore;
+import com.bcsccore.keypair.core.utils.SharedKeyStore;
+import com.bcsccore.keypair.core.utils.SimpleLog;
+import com.bcsccore.keypair.repos.key.BcscKeyPairRepo;
+import java.lang.reflect.Method;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.KeyStore;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Cost of rebuilding metadata from the keystore when it has been lost:
+ * every invocation starts with empty metadata and no alias index, so the
+ * keystore is enumerated and one entry is backfilled per alias.
+ *
+ * <p>{@code reconcileKeyPairInfoWithKeyStore} is private; it is called through
+ * reflection, as the unit tests do. The reflective call is a constant few
+ * nanoseconds next to the work being measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ReconcileBenchmark {
+
+  @Param({"1", "10", "100"})
+  public int aliasCount;
+
+  private InMemoryKeyPairInfoSource infoSource;
+  private BcscKeyPairRepo repo;
+  private KeyStore keyStore;
+  private Method reconcile;
+
+  @Setup(Level.Trial)
+  public void setUp() throws Exception {
+    SimpleLog.setLevel(SimpleLog.Level.NONE);
+    SoftwareAndroidKeyStore.install();
+    SoftwareAndroidKeyStore.deleteAllEntries();
+
+    // Reconcile only enumerates aliases, so every alias can share one key.
+    KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+    generator.initialize(2048);
+    KeyPair keyPair = generator.generateKeyPair();
+    for (int i = 1; i <= aliasCount; i++) {
+      SoftwareAndroidKeyStore.putEntry("rsa" + i, keyPair);
+    }
+
+    keyStore = KeyStore.getInstance(SharedKeyStore.KEYSTORE_TYPE);
+    keyStore.load(null);
+    infoSource = new InMemoryKeyPairInfoSource();
+    repo = new BcscKeyPairRepo(infoSource, new SharedKeyStore(() -> keyStore));
+    reconcile = BcscKeyPairRepo.class.getDeclaredMethod("reconcileKeyPairInfoWithKeyStore", KeyStore.class);
+    reconcile.setAccessible(true);
+  }
+
+  @Benchmark
+  public InMemoryKeyPairInfoSource reconcileKeyPairInfoWithKeyStore() throws Exception {
+    infoSource.clear();
+    reconcile.invoke(repo, keyStore);
+    return infoSource;
+  }
+}
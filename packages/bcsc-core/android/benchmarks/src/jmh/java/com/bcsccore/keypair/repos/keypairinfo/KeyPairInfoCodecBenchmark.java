@@ -0,0 +1,111 @@
+package com.bcsccore.keypair.repos.keypairinfo;
+
+import com.bcsccore.keypair.core.models.KeyBacking;
+import com.bcsccore.keypair.core.models.KeyPairInfo;
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Cost of turning the stored key pair metadata back into KeyPairInfo objects:
+ * the binary form SimpleKeyPairInfoSource writes now, against the Gson JSON
+ * map it wrote before. Both start from the String SharedPreferences returns.
+ *
+ * <p>Lives in the codec's package because the codec is package-private. The
+ * JSON side mirrors SimpleKeyPairInfoSource's legacy data class.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class KeyPairInfoCodecBenchmark {
+
+  private static final Type JSON_TYPE = new TypeToken<HashMap<String, JsonEntry>>(){}.getType();
+
+  @Param({"2", "10", "100"})
+  public int entryCount;
+
+  private final Gson gson = new Gson();
+  private List<KeyPairInfo> infos;
+  private String binary;
+  private String json;
+
+  /** Same shape as SimpleKeyPairInfoSource's legacy KeyPairInfoData. */
+  static final class JsonEntry {
+    String alias;
+    Long createdAt;
+    String backing;
+    Long lastUsedAt;
+    Long signCount;
+  }
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    long now = System.currentTimeMillis();
+    infos = new ArrayList<>(entryCount);
+    Map<String, JsonEntry> jsonMap = new HashMap<>();
+    for (int i = 1; i <= entryCount; i++) {
+      KeyPairInfo info = new KeyPairInfo("rsa" + i, now - i * 86_400_000L, KeyBacking.TEE, now - i, i * 10L);
+      infos.add(info);
+      JsonEntry entry = new JsonEntry();
+      entry.alias = info.getAlias();
+      entry.createdAt = info.getCreatedAt();
+      entry.backing = info.getBacking().name();
+      entry.lastUsedAt = info.getLastUsedAt();
+      entry.signCount = info.getSignCount();
+      jsonMap.put(info.getAlias(), entry);
+    }
+    binary = Base64.getEncoder().encodeToString(KeyPairInfoCodec.encode(infos));
+    json = gson.toJson(jsonMap);
+  }
+
+  @Benchmark
+  public HashMap<String, KeyPairInfo> decodeBinary() {
+    return KeyPairInfoCodec.decode(Base64.getDecoder().decode(binary));
+  }
+
+  @Benchmark
+  public HashMap<String, KeyPairInfo> parseJson() {
+    HashMap<String, JsonEntry> entries = gson.fromJson(json, JSON_TYPE);
+    HashMap<String, KeyPairInfo> result = new HashMap<>();
+    for (JsonEntry entry : entries.values()) {
+      result.put(entry.alias, new KeyPairInfo(entry.alias, entry.createdAt, KeyBacking.valueOf(entry.backing),
+          entry.lastUsedAt, entry.signCount));
+    }
+    return result;
+  }
+
+  @Benchmark
+  public String encodeBinary() {
+    return Base64.getEncoder().encodeToString(KeyPairInfoCodec.encode(infos));
+  }
+
+  @Benchmark
+  public String encodeJson() {
+    Map<String, JsonEntry> jsonMap = new HashMap<>();
+    for (KeyPairInfo info : infos) {
+      JsonEntry entry = new JsonEntry();
+      entry.alias = info.getAlias();
+      entry.createdAt = info.getCreatedAt();
+      entry.backing = info.getBacking().name();
+      entry.lastUsedAt = info.getLastUsedAt();
+      entry.signCount = info.getSignCount();
+      jsonMap.put(info.getAlias(), entry);
+    }
+    return gson.toJson(jsonMap);
+  }
+}
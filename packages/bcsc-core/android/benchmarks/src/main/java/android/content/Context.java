@@ -0,0 +1,20 @@
+package android.content;
+
+import java.io.File;
+
+/**
+ * JVM stand-in for the part of {@code android.content.Context} the file port
+ * reads: the app's private files directory.
+ */
+public class Context {
+
+  private final File filesDir;
+
+  public Context(File filesDir) {
+    this.filesDir = filesDir;
+  }
+
+  public File getFilesDir() {
+    return filesDir;
+  }
+}
@@ -0,0 +1,37 @@
+package android.os;
+
+/**
+ * JVM stand-in for the parts of {@code android.os.Build} the keypair port reads.
+ * Reports a current API level so the port takes its modern code paths.
+ */
+public final class Build {
+
+  public static final String MANUFACTURER = "jvm";
+  public static final String MODEL = "benchmark";
+
+  private Build() {
+  }
+
+  public static final class VERSION {
+    public static final int SDK_INT = VERSION_CODES.UPSIDE_DOWN_CAKE;
+
+    private VERSION() {
+    }
+  }
+
+  public static final class VERSION_CODES {
+    public static final int M = 23;
+    public static final int N = 24;
+    public static final int O = 26;
+    public static final int O_MR1 = 27;
+    public static final int P = 28;
+    public static final int Q = 29;
+    public static final int R = 30;
+    public static final int S = 31;
+    public static final int TIRAMISU = 33;
+    public static final int UPSIDE_DOWN_CAKE = 34;
+
+    private VERSION_CODES() {
+    }
+  }
+}
@@ -0,0 +1,15 @@
+package android.os;
+
+/**
+ * JVM stand-in for {@code android.os.Handler}.
+ */
+public class Handler {
+
+  public Handler(Looper looper) {
+    throw new UnsupportedOperationException("No looper on the JVM");
+  }
+
+  public final boolean post(Runnable r) {
+    throw new UnsupportedOperationException("No looper on the JVM");
+  }
+}
@@ -0,0 +1,19 @@
+package android.os;
+
+/**
+ * JVM stand-in for {@code android.os.Looper}. There is no main thread to post
+ * to, so the benchmarks never construct a {@code KeyPairPreGenerator}.
+ */
+public final class Looper {
+
+  private Looper() {
+  }
+
+  public static Looper getMainLooper() {
+    throw new UnsupportedOperationException("No main looper on the JVM");
+  }
+
+  public static MessageQueue myQueue() {
+    throw new UnsupportedOperationException("No message queue on the JVM");
+  }
+}
@@ -0,0 +1,21 @@
+package android.os;
+
+/**
+ * JVM stand-in for {@code android.os.MessageQueue}.
+ */
+public final class MessageQueue {
+
+  /**
+   * Callback invoked when the queue runs out of messages.
+   */
+  public interface IdleHandler {
+    boolean queueIdle();
+  }
+
+  private MessageQueue() {
+  }
+
+  public void addIdleHandler(IdleHandler handler) {
+    throw new UnsupportedOperationException("No message queue on the JVM");
+  }
+}
@@ -0,0 +1,99 @@
+package android.security.keystore;
+
+import java.security.spec.AlgorithmParameterSpec;
+
+/**
+ * JVM stand-in for {@code KeyGenParameterSpec}. Keeps only what the software
+ * keystore needs to generate and store a key: the alias, key size, curve and
+ * whether StrongBox was requested. Digests and paddings are accepted and ignored.
+ */
+public final class KeyGenParameterSpec implements AlgorithmParameterSpec {
+
+  private final String keystoreAlias;
+  private final int purposes;
+  private final int keySize;
+  private final AlgorithmParameterSpec algorithmParameterSpec;
+  private final boolean strongBoxBacked;
+
+  private KeyGenParameterSpec(Builder builder) {
+    this.keystoreAlias = builder.keystoreAlias;
+    this.purposes = builder.purposes;
+    this.keySize = builder.keySize;
+    this.algorithmParameterSpec = builder.algorithmParameterSpec;
+    this.strongBoxBacked = builder.strongBoxBacked;
+  }
+
+  public String getKeystoreAlias() {
+    return keystoreAlias;
+  }
+
+  public int getPurposes() {
+    return purposes;
+  }
+
+  /**
+   * @return the requested key size in bits, or -1 when not set
+   */
+  public int getKeySize() {
+    return keySize;
+  }
+
+  public AlgorithmParameterSpec getAlgorithmParameterSpec() {
+    return algorithmParameterSpec;
+  }
+
+  public boolean isStrongBoxBacked() {
+    return strongBoxBacked;
+  }
+
+  public static final class Builder {
+    private final String keystoreAlias;
+    private final int purposes;
+    private int keySize = -1;
+    private AlgorithmParameterSpec algorithmParameterSpec;
+    private boolean strongBoxBacked;
+
+    public Builder(String keystoreAlias, int purposes) {
+      if (keystoreAlias == null || keystoreAlias.isEmpty()) {
+        throw new IllegalArgumentException("keystoreAlias must not be empty");
+      }
+      this.keystoreAlias = keystoreAlias;
+      this.purposes = purposes;
+    }
+
+    public Builder setKeySize(int keySize) {
+      this.keySize = keySize;
+      return this;
+    }
+
+    public Builder setAlgorithmParameterSpec(AlgorithmParameterSpec spec) {
+      this.algorithmParameterSpec = spec;
+      return this;
+    }
+
+    public Builder setDigests(String... digests) {
+      return this;
+    }
+
+    public Builder setEncryptionPaddings(String... paddings) {
+      return this;
+    }
+
+    public Builder setSignaturePaddings(String... paddings) {
+      return this;
+    }
+
+    public Builder setInvalidatedByBiometricEnrollment(boolean invalidate) {
+      return this;
+    }
+
+    public Builder setIsStrongBoxBacked(boolean strongBoxBacked) {
+      this.strongBoxBacked = strongBoxBacked;
+      return this;
+    }
+
+    public KeyGenParameterSpec build() {
+      return new KeyGenParameterSpec(this);
+    }
+  }
+}
@@ -0,0 +1,24 @@
+package android.security.keystore;
+
+/**
+ * JVM stand-in for the {@code KeyProperties} constants the keypair port uses.
+ */
+public final class KeyProperties {
+
+  public static final int PURPOSE_ENCRYPT = 1;
+  public static final int PURPOSE_DECRYPT = 2;
+  public static final int PURPOSE_SIGN = 4;
+  public static final int PURPOSE_VERIFY = 8;
+
+  public static final String KEY_ALGORITHM_RSA = "RSA";
+  public static final String KEY_ALGORITHM_EC = "EC";
+
+  public static final String DIGEST_SHA256 = "SHA-256";
+  public static final String DIGEST_SHA512 = "SHA-512";
+
+  public static final String ENCRYPTION_PADDING_RSA_PKCS1 = "PKCS1Padding";
+  public static final String SIGNATURE_PADDING_RSA_PKCS1 = "PKCS1";
+
+  private KeyProperties() {
+  }
+}
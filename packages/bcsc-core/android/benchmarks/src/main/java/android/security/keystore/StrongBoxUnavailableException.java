@@ -0,0 +1,19 @@
+package android.security.keystore;
+
+import java.security.ProviderException;
+
+/**
+ * JVM stand-in for {@code StrongBoxUnavailableException}. The software
+ * keystore throws it for every StrongBox request, as a device without
+ * StrongBox would.
+ */
+public class StrongBoxUnavailableException extends ProviderException {
+
+  public StrongBoxUnavailableException() {
+    super();
+  }
+
+  public StrongBoxUnavailableException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,32 @@
+package android.util;
+
+/**
+ * JVM stand-in for {@code android.util.Log}. Discards everything so logging
+ * cost doesn't leak into the measurements; benchmarks also set
+ * {@code SimpleLog} to {@code NONE}.
+ */
+public final class Log {
+
+  private Log() {
+  }
+
+  public static int d(String tag, String msg) {
+    return 0;
+  }
+
+  public static int i(String tag, String msg) {
+    return 0;
+  }
+
+  public static int w(String tag, String msg) {
+    return 0;
+  }
+
+  public static int e(String tag, String msg) {
+    return 0;
+  }
+
+  public static int e(String tag, String msg, Throwable tr) {
+    return 0;
+  }
+}
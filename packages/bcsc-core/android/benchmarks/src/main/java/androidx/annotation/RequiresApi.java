@@ -0,0 +1,18 @@
+package androidx.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * JVM stand-in for {@code androidx.annotation.RequiresApi}; documentation only.
+ */
+@Retention(RetentionPolicy.CLASS)
+@Target({ElementType.TYPE, ElementType.METHOD, ElementType.CONSTRUCTOR,
+    ElementType.FIELD, ElementType.PACKAGE})
+public @interface RequiresApi {
+  int value() default 1;
+
+  int api() default 1;
+}
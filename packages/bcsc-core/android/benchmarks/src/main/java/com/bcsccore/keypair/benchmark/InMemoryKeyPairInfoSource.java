@@ -0,0 +1,83 @@
+package com.bcsccore.keypair.benchmark;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import com.bcsccore.keypair.core.interfaces.KeyPairInfoSource;
+import com.bcsccore.keypair.core.models.AliasIndex;
+import com.bcsccore.keypair.core.models.KeyPairInfo;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Metadata source held in memory, standing in for
+ * {@code SimpleKeyPairInfoSource} so the benchmarks measure the repo rather
+ * than SharedPreferences. Persists the alias index like the real source does.
+ */
+public final class InMemoryKeyPairInfoSource implements KeyPairInfoSource {
+
+  private final ConcurrentHashMap<String, KeyPairInfo> store = new ConcurrentHashMap<>();
+
+  @Nullable
+  private volatile String stagedAlias;
+
+  @Nullable
+  private volatile AliasIndex aliasIndex;
+
+  @Override
+  public KeyPairInfo getKeyPairInfo(String kid) {
+    return store.get(kid);
+  }
+
+  @Override
+  public HashMap<String, KeyPairInfo> getKeyPairInfo() {
+    return new HashMap<>(store);
+  }
+
+  @Override
+  public void saveKeyPairInfo(KeyPairInfo info) {
+    store.put(info.getAlias(), info);
+  }
+
+  @Override
+  public void deleteKeyPairInfo(String alias) {
+    store.remove(alias);
+  }
+
+  @Override
+  public void deleteKeyPairInfos(@NonNull Collection<String> aliases) {
+    store.keySet().removeAll(aliases);
+  }
+
+  @Nullable
+  @Override
+  public String getStagedAlias() {
+    return stagedAlias;
+  }
+
+  @Override
+  public void saveStagedAlias(@Nullable String alias) {
+    stagedAlias = alias;
+  }
+
+  @Nullable
+  @Override
+  public AliasIndex getAliasIndex() {
+    return aliasIndex;
+  }
+
+  @Override
+  public void saveAliasIndex(@Nullable AliasIndex index) {
+    aliasIndex = index;
+  }
+
+  /**
+   * Drop all metadata, the staged alias and the alias index, as after an
+   * app-data wipe that left the keystore intact.
+   */
+  public void clear() {
+    store.clear();
+    stagedAlias = null;
+    aliasIndex = null;
+  }
+}
@@ -0,0 +1,41 @@
+package com.bcsccore.keypair.benchmark.keystore;
+
+import java.security.PublicKey;
+import java.security.cert.Certificate;
+
+/**
+ * Minimal certificate that only carries a public key. The repo reads nothing
+ * but {@link #getPublicKey()} from keystore certificates.
+ */
+final class PublicKeyCertificate extends Certificate {
+
+  private final PublicKey publicKey;
+
+  PublicKeyCertificate(PublicKey publicKey) {
+    super("SOFTWARE");
+    this.publicKey = publicKey;
+  }
+
+  @Override
+  public byte[] getEncoded() {
+    return publicKey.getEncoded();
+  }
+
+  @Override
+  public void verify(PublicKey key) {
+  }
+
+  @Override
+  public void verify(PublicKey key, String sigProvider) {
+  }
+
+  @Override
+  public String toString() {
+    return "PublicKeyCertificate[" + publicKey.getAlgorithm() + "]";
+  }
+
+  @Override
+  public PublicKey getPublicKey() {
+    return publicKey;
+  }
+}
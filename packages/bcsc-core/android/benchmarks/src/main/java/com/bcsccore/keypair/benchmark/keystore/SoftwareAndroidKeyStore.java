@@ -0,0 +1,54 @@
+package com.bcsccore.keypair.benchmark.keystore;
+
+import java.security.KeyPair;
+import java.security.Provider;
+import java.security.Security;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Software security provider registered under the {@code AndroidKeyStore}
+ * name, so {@code KeyStore.getInstance("AndroidKeyStore")} and
+ * {@code KeyPairGenerator.getInstance(alg, "AndroidKeyStore")} resolve on the
+ * desktop JVM. Keys live in a process-wide in-memory map, the way the real
+ * keystore is shared by every handle in the app.
+ */
+public final class SoftwareAndroidKeyStore extends Provider {
+
+  public static final String NAME = "AndroidKeyStore";
+
+  static final Map<String, KeyPair> ENTRIES = new ConcurrentHashMap<>();
+
+  private SoftwareAndroidKeyStore() {
+    super(NAME, "1.0", "Software stand-in for the Android KeyStore");
+    put("KeyStore." + NAME, SoftwareKeyStoreSpi.class.getName());
+    put("KeyPairGenerator.RSA", SoftwareKeyPairGeneratorSpi.Rsa.class.getName());
+    put("KeyPairGenerator.EC", SoftwareKeyPairGeneratorSpi.Ec.class.getName());
+  }
+
+  /**
+   * Register the provider if it isn't already. It is appended after the JDK
+   * providers so plain {@code KeyPairGenerator.getInstance("RSA")} still
+   * resolves to the JDK, which this provider generates with.
+   */
+  public static synchronized void install() {
+    if (Security.getProvider(NAME) == null) {
+      Security.addProvider(new SoftwareAndroidKeyStore());
+    }
+  }
+
+  /**
+   * Store a key pair under an alias without going through generation, for
+   * seeding many aliases cheaply.
+   */
+  public static void putEntry(String alias, KeyPair keyPair) {
+    ENTRIES.put(alias, keyPair);
+  }
+
+  /**
+   * Delete every entry.
+   */
+  public static void deleteAllEntries() {
+    ENTRIES.clear();
+  }
+}
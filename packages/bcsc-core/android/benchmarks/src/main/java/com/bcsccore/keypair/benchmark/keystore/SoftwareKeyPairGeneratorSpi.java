@@ -0,0 +1,82 @@
+package com.bcsccore.keypair.benchmark.keystore;
+
+import android.security.keystore.KeyGenParameterSpec;
+import android.security.keystore.StrongBoxUnavailableException;
+import java.security.GeneralSecurityException;
+import java.security.InvalidAlgorithmParameterException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.KeyPairGeneratorSpi;
+import java.security.ProviderException;
+import java.security.SecureRandom;
+import java.security.spec.AlgorithmParameterSpec;
+
+/**
+ * Generates a key pair with the JDK and stores it under the spec's alias,
+ * mirroring how the Android KeyStore generator persists what it creates.
+ * StrongBox requests always fail, as on a device without StrongBox.
+ */
+public abstract class SoftwareKeyPairGeneratorSpi extends KeyPairGeneratorSpi {
+
+  private final String algorithm;
+  private KeyGenParameterSpec spec;
+
+  SoftwareKeyPairGeneratorSpi(String algorithm) {
+    this.algorithm = algorithm;
+  }
+
+  @Override
+  public void initialize(int keysize, SecureRandom random) {
+    throw new UnsupportedOperationException("Initialize with a KeyGenParameterSpec");
+  }
+
+  @Override
+  public void initialize(AlgorithmParameterSpec params, SecureRandom random)
+      throws InvalidAlgorithmParameterException {
+    if (!(params instanceof KeyGenParameterSpec)) {
+      throw new InvalidAlgorithmParameterException("Expected a KeyGenParameterSpec");
+    }
+    this.spec = (KeyGenParameterSpec) params;
+  }
+
+  @Override
+  public KeyPair generateKeyPair() {
+    if (spec == null) {
+      throw new IllegalStateException("Not initialized");
+    }
+    if (spec.isStrongBoxBacked()) {
+      throw new StrongBoxUnavailableException("No StrongBox in the software keystore");
+    }
+    try {
+      KeyPairGenerator delegate = KeyPairGenerator.getInstance(algorithm);
+      if (spec.getAlgorithmParameterSpec() != null) {
+        delegate.initialize(spec.getAlgorithmParameterSpec());
+      } else if (spec.getKeySize() > 0) {
+        delegate.initialize(spec.getKeySize());
+      }
+      KeyPair keyPair = delegate.generateKeyPair();
+      SoftwareAndroidKeyStore.ENTRIES.put(spec.getKeystoreAlias(), keyPair);
+      return keyPair;
+    } catch (GeneralSecurityException e) {
+      throw new ProviderException("Failed to generate " + algorithm + " key pair", e);
+    }
+  }
+
+  /**
+   * RSA generator registered as {@code KeyPairGenerator.RSA}.
+   */
+  public static final class Rsa extends SoftwareKeyPairGeneratorSpi {
+    public Rsa() {
+      super("RSA");
+    }
+  }
+
+  /**
+   * EC generator registered as {@code KeyPairGenerator.EC}.
+   */
+  public static final class Ec extends SoftwareKeyPairGeneratorSpi {
+    public Ec() {
+      super("EC");
+    }
+  }
+}
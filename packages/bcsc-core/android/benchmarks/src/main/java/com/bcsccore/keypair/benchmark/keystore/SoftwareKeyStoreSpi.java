@@ -0,0 +1,119 @@
+package com.bcsccore.keypair.benchmark.keystore;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.Key;
+import java.security.KeyPair;
+import java.security.KeyStore;
+import java.security.KeyStoreException;
+import java.security.KeyStoreSpi;
+import java.security.PrivateKey;
+import java.security.cert.Certificate;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Enumeration;
+
+/**
+ * KeyStore SPI over {@link SoftwareAndroidKeyStore#ENTRIES}. Like the Android
+ * KeyStore it needs no password and no stream to load, and hands out
+ * private key entries with a null protection parameter.
+ */
+public final class SoftwareKeyStoreSpi extends KeyStoreSpi {
+
+  @Override
+  public Key engineGetKey(String alias, char[] password) {
+    KeyPair keyPair = SoftwareAndroidKeyStore.ENTRIES.get(alias);
+    return keyPair == null ? null : keyPair.getPrivate();
+  }
+
+  @Override
+  public Certificate[] engineGetCertificateChain(String alias) {
+    Certificate certificate = engineGetCertificate(alias);
+    return certificate == null ? null : new Certificate[] {certificate};
+  }
+
+  @Override
+  public Certificate engineGetCertificate(String alias) {
+    KeyPair keyPair = SoftwareAndroidKeyStore.ENTRIES.get(alias);
+    return keyPair == null ? null : new PublicKeyCertificate(keyPair.getPublic());
+  }
+
+  @Override
+  public Date engineGetCreationDate(String alias) {
+    return SoftwareAndroidKeyStore.ENTRIES.containsKey(alias) ? new Date() : null;
+  }
+
+  @Override
+  public KeyStore.Entry engineGetEntry(String alias, KeyStore.ProtectionParameter protParam) {
+    KeyPair keyPair = SoftwareAndroidKeyStore.ENTRIES.get(alias);
+    if (keyPair == null) {
+      return null;
+    }
+    return new KeyStore.PrivateKeyEntry(keyPair.getPrivate(),
+        new Certificate[] {new PublicKeyCertificate(keyPair.getPublic())});
+  }
+
+  @Override
+  public void engineSetKeyEntry(String alias, Key key, char[] password, Certificate[] chain)
+      throws KeyStoreException {
+    if (!(key instanceof PrivateKey) || chain == null || chain.length == 0) {
+      throw new KeyStoreException("Only private keys with a certificate are supported");
+    }
+    SoftwareAndroidKeyStore.ENTRIES.put(alias, new KeyPair(chain[0].getPublicKey(), (PrivateKey) key));
+  }
+
+  @Override
+  public void engineSetKeyEntry(String alias, byte[] key, Certificate[] chain) throws KeyStoreException {
+    throw new KeyStoreException("Encoded keys are not supported");
+  }
+
+  @Override
+  public void engineSetCertificateEntry(String alias, Certificate cert) throws KeyStoreException {
+    throw new KeyStoreException("Certificate entries are not supported");
+  }
+
+  @Override
+  public void engineDeleteEntry(String alias) {
+    SoftwareAndroidKeyStore.ENTRIES.remove(alias);
+  }
+
+  @Override
+  public Enumeration<String> engineAliases() {
+    return Collections.enumeration(SoftwareAndroidKeyStore.ENTRIES.keySet());
+  }
+
+  @Override
+  public boolean engineContainsAlias(String alias) {
+    return SoftwareAndroidKeyStore.ENTRIES.containsKey(alias);
+  }
+
+  @Override
+  public int engineSize() {
+    return SoftwareAndroidKeyStore.ENTRIES.size();
+  }
+
+  @Override
+  public boolean engineIsKeyEntry(String alias) {
+    return SoftwareAndroidKeyStore.ENTRIES.containsKey(alias);
+  }
+
+  @Override
+  public boolean engineIsCertificateEntry(String alias) {
+    return false;
+  }
+
+  @Override
+  public String engineGetCertificateAlias(Certificate cert) {
+    return null;
+  }
+
+  @Override
+  public void engineStore(OutputStream stream, char[] password) {
+    throw new UnsupportedOperationException("The software keystore is not persisted");
+  }
+
+  @Override
+  public void engineLoad(InputStream stream, char[] password) {
+    // Entries are process-wide; there is nothing to read.
+  }
+}
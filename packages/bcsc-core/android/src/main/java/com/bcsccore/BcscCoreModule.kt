@@ -5,6 +5,7 @@ import android.app.NotificationChannel
 import android.app.NotificationManager
 import android.bluetooth.BluetoothAdapter
 import android.content.Context
+import android.content.pm.PackageManager
 import android.os.Build
 import android.provider.Settings
 import android.security.keystore.KeyProperties
@@ -15,6 +16,7 @@ import androidx.fragment.app.FragmentActivity
 
 // React Native imports
 import com.facebook.react.bridge.Arguments
+import com.facebook.react.bridge.LifecycleEventListener
 import com.facebook.react.bridge.Promise
 import com.facebook.react.bridge.ReactApplicationContext
 import com.facebook.react.bridge.ReactMethod
@@ -41,12 +43,15 @@ import java.security.PrivateKey
 import java.security.PublicKey
 import java.security.UnrecoverableEntryException
 import java.security.cert.Certificate
+import java.text.ParseException
 import java.text.SimpleDateFormat
 import java.util.Base64
 import java.util.Date
 import java.util.Locale
 import java.util.TimeZone
 import java.util.UUID
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CompletionException
 import java.util.concurrent.ExecutorService
 import java.util.concurrent.Executors
 import java.util.concurrent.RejectedExecutionException
@@ -63,7 +68,9 @@ import com.nimbusds.jose.Payload
 import com.nimbusds.jose.crypto.RSADecrypter
 import com.nimbusds.jose.crypto.RSAEncrypter
 import com.nimbusds.jose.crypto.RSASSAVerifier
+import com.nimbusds.jose.jwk.ECKey
 import com.nimbusds.jose.jwk.JWK
+import com.nimbusds.jose.jwk.JWKSet
 import com.nimbusds.jose.jwk.RSAKey
 import com.nimbusds.jwt.JWTClaimsSet
 import com.nimbusds.jwt.SignedJWT
@@ -73,19 +80,39 @@ import com.bcsccore.keypair.core.exceptions.BcscException
 import com.bcsccore.keypair.core.exceptions.KeyAlreadyExistsException
 import com.bcsccore.keypair.core.exceptions.KeyNotFoundException
 import com.bcsccore.keypair.core.exceptions.KeypairGenerationException
+import com.bcsccore.keypair.core.interfaces.AsyncBcscKeyPairSource
 import com.bcsccore.keypair.core.interfaces.BcscKeyPairSource
+import com.bcsccore.keypair.core.interfaces.KeyAlgorithmProfile
+import com.bcsccore.keypair.core.interfaces.KeyStoreMetrics
 import com.bcsccore.keypair.core.interfaces.KeyPairInfoSource
 import com.bcsccore.keypair.core.models.BcscKeyPair
+import com.bcsccore.keypair.core.models.ClientAssertionPoolStats
+import com.bcsccore.keypair.core.models.KeyBacking
 import com.bcsccore.keypair.core.models.KeyPairInfo
+import com.bcsccore.keypair.core.models.KeyRetentionPolicy
+import com.bcsccore.keypair.core.models.KeyStoreOperationStats
+import com.bcsccore.keypair.core.utils.LogRingBuffer
+import com.bcsccore.keypair.core.utils.SharedKeyStore
+import com.bcsccore.keypair.core.utils.SimpleLog
 import com.bcsccore.keypair.repos.key.BcscKeyPairRepo
+import com.bcsccore.keypair.repos.key.ClientAssertionPool
+import com.bcsccore.keypair.repos.key.ExecutorAsyncBcscKeyPairSource
+import com.bcsccore.keypair.repos.key.KeyStoreExecutor
+import com.bcsccore.keypair.repos.key.KeyPairPreGenerator
+import com.bcsccore.keypair.repos.key.KeyUsageTracker
+import com.bcsccore.keypair.repos.key.RsaKeyAlgorithmProfile
+import com.bcsccore.keypair.repos.metrics.HistogramKeyStoreMetrics
+import com.bcsccore.keypair.repos.keypairinfo.FileKeyPairInfoSource
 import com.bcsccore.keypair.repos.keypairinfo.SimpleKeyPairInfoSource
 
 // BCSC File Port imports
 import com.bcsccore.fileport.FileReader
 import com.bcsccore.fileport.FileReaderFactory
+import com.bcsccore.fileport.decryption.BcscFileDecryptor
 import com.bcsccore.fileport.decryption.DecryptedFileData
 import com.bcsccore.fileport.decryption.DecryptedFileReader
 import com.bcsccore.fileport.decryption.DecryptionException
+import com.bcsccore.fileport.encryption.AndroidKeyStoreSource
 import com.facebook.react.bridge.Dynamic
 
 // Authentication service imports
@@ -164,6 +191,17 @@ class BcscCoreModule(
 
         // Exclusive upper bound passed to SecureRandom.nextInt() to produce a single decimal digit (0-9)
         private const val DECIMAL_DIGIT_BOUND = 10
+
+        // Number of recent keypair-port log events kept for getNativeDiagnosticLog
+        private const val DIAGNOSTIC_LOG_CAPACITY = 256
+
+        // Process-wide so events survive module reloads; registered once per process.
+        private val diagnosticLog: LogRingBuffer =
+            LogRingBuffer(DIAGNOSTIC_LOG_CAPACITY).also {
+                // Debug-level keypair diagnostics are only built in debug builds.
+                SimpleLog.setLevel(if (BuildConfig.DEBUG) SimpleLog.Level.DEBUG else SimpleLog.Level.INFO)
+                SimpleLog.addSink(it)
+            }
     }
 
     override fun getName(): String = NAME
@@ -172,12 +210,71 @@ class BcscCoreModule(
     @Volatile
     private var notificationChannelCreated = false
 
-    // Initialize the BC Services Card KeyPair functionality
-    private val keyPairSource: BcscKeyPairSource by lazy {
-        val keyPairInfoSource = SimpleKeyPairInfoSource(reactApplicationContext)
-        BcscKeyPairRepo(keyPairInfoSource)
+    // Stages the next rotation key off-thread so rotation doesn't block on RSA-4096 generation.
+    private val keyPairPreGeneratorDelegate = lazy { KeyPairPreGenerator() }
+
+    // Key metadata in SharedPreferences, or in a dedicated file when built with keyPairInfoStorage=file.
+    private val keyPairInfoSourceDelegate =
+        lazy<KeyPairInfoSource> {
+            if (BuildConfig.KEY_PAIR_INFO_FILE_STORAGE) {
+                FileKeyPairInfoSource(reactApplicationContext)
+            } else {
+                SimpleKeyPairInfoSource(reactApplicationContext)
+            }
+        }
+
+    private val keyPairInfoSource: KeyPairInfoSource by keyPairInfoSourceDelegate
+
+    // Counts signatures per alias in memory and writes them to key metadata in batches.
+    private val keyUsageTrackerDelegate = lazy { KeyUsageTracker(keyPairInfoSource) }
+
+    // The kind of key the repo generates; its keys are the only ones it enumerates.
+    private val keyAlgorithmProfile: KeyAlgorithmProfile = RsaKeyAlgorithmProfile()
+
+    // Initialize the BC Services Card KeyPair functionality. When built with keyPairStrongBox=true,
+    // new keys request StrongBox and fall back to the TEE; the backing is recorded per alias and in
+    // getKeyStoreMetrics.
+    private val keyPairSourceDelegate =
+        lazy<BcscKeyPairSource> {
+            BcscKeyPairRepo
+                .Builder(keyPairInfoSource)
+                .setKeyAlgorithmProfile(keyAlgorithmProfile)
+                .setPreGenerator(keyPairPreGeneratorDelegate.value)
+                .setMetrics(HistogramKeyStoreMetrics.getInstance())
+                .setPreferStrongBox(BuildConfig.KEY_PAIR_STRONG_BOX)
+                .setUsageTracker(keyUsageTrackerDelegate.value)
+                .build()
+        }
+
+    private val keyPairSource: BcscKeyPairSource by keyPairSourceDelegate
+
+    // Runs keystore work off the module thread; signing jumps ahead of reads, writes and cleanup.
+    private val keyStoreExecutorDelegate = lazy { KeyStoreExecutor() }
+
+    private val asyncKeyPairSource: AsyncBcscKeyPairSource by lazy {
+        ExecutorAsyncBcscKeyPairSource(keyPairSource, keyStoreExecutorDelegate.value)
     }
 
+    // Pre-signed refresh-token client assertions, so a refresh doesn't wait on the keystore. Refreshes
+    // mostly follow a return to the foreground, so that is when the pool signs ahead for a due one.
+    private val clientAssertionPoolDelegate =
+        lazy {
+            ClientAssertionPool(asyncKeyPairSource).also {
+                reactApplicationContext.addLifecycleEventListener(clientAssertionPrefillListener)
+            }
+        }
+
+    private val clientAssertionPrefillListener =
+        object : LifecycleEventListener {
+            override fun onHostResume() {
+                clientAssertionPoolDelegate.value.prefillDue()
+            }
+
+            override fun onHostPause() {}
+
+            override fun onHostDestroy() {}
+        }
+
     // Initialize native-compatible storage for rollback support
     private val nativeStorage: NativeCompatibleStorage by lazy {
         NativeCompatibleStorage(reactApplicationContext)
@@ -192,13 +289,19 @@ class BcscCoreModule(
         keyAlias: String,
         promise: Promise,
     ) {
-        try {
-            // Use the bcsc-keypair-port to get the key pair
-            val bcscKeyPair = keyPairSource.getBcscKeyPair(keyAlias)
-
+        // Use the bcsc-keypair-port to get the key pair, off the module thread
+        asyncKeyPairSource.getBcscKeyPair(keyAlias).whenSettled(
+            onError = { e ->
+                if (e is BcscException) {
+                    promise.reject("E_KEY_EXPORT_FAILED", "Error retrieving key pair: ${e.devMessage}", e)
+                } else {
+                    promise.reject("E_KEY_ERROR", "Unexpected error retrieving key pair: ${e.message}", e)
+                }
+            },
+        ) { bcscKeyPair ->
             if (bcscKeyPair == null) {
                 promise.reject("E_KEY_NOT_FOUND", "Key pair with alias '$keyAlias' not found.")
-                return
+                return@whenSettled
             }
 
             // Convert to React Native response format
@@ -223,43 +326,40 @@ class BcscCoreModule(
             }
 
             promise.resolve(keyPair)
-        } catch (e: BcscException) {
-            promise.reject("E_KEY_EXPORT_FAILED", "Error retrieving key pair: ${e.devMessage}", e)
-        } catch (e: Exception) {
-            promise.reject("E_KEY_ERROR", "Unexpected error retrieving key pair: ${e.message}", e)
         }
     }
 
     @ReactMethod
     override fun getAllKeys(promise: Promise) {
-        try {
+        asyncKeyPairSource.run(AsyncBcscKeyPairSource.Priority.READ) { source ->
             // Check if KeyStore is available
-            if (!keyPairSource.isAvailable()) {
-                promise.reject("E_KEYSTORE_UNAVAILABLE", "Android KeyStore is not available on this device")
-                return
-            }
+            requireKeyStoreAvailable(source)
 
             // Enumerate every rsa\d+ alias the keystore actually holds. This is the
             // source of truth for the recovery flow: matching local keys against the
             // server's jwks requires visibility into orphan aliases that metadata
             // may not yet track.
-            val infos = keyPairSource.getAllBcscKeyPairInfos()
-
+            source.getAllBcscKeyPairInfos()
+        }.whenSettled(
+            onError = { e -> rejectKeyStoreError(promise, e, "accessing keystore") },
+        ) { infos ->
             val privateKeys: WritableArray = Arguments.createArray()
             for (info in infos) {
                 val keyInfo: WritableMap = Arguments.createMap()
                 keyInfo.putString("id", info.getAlias())
-                keyInfo.putString("keyType", "RSA")
-                keyInfo.putInt("keySize", 4096)
+                // Only aliases of the repo's profile are enumerated, so it describes every key.
+                keyInfo.putString("keyType", keyAlgorithmProfile.getKeyAlgorithm())
+                keyInfo.putInt("keySize", keyAlgorithmProfile.getKeySize())
                 keyInfo.putDouble("created", info.getCreatedAt().toDouble())
+                info.getBacking()?.let { keyInfo.putString("backing", backingKey(it)) }
+                if (info.getLastUsedAt() > 0L) {
+                    keyInfo.putDouble("lastUsedAt", info.getLastUsedAt().toDouble())
+                }
+                keyInfo.putDouble("signCount", info.getSignCount().toDouble())
                 privateKeys.pushMap(keyInfo)
             }
 
             promise.resolve(privateKeys)
-        } catch (e: BcscException) {
-            promise.reject("E_KEYSTORE_ERROR", "Error accessing keystore: ${e.devMessage}", e)
-        } catch (e: Exception) {
-            promise.reject("E_KEYSTORE_ERROR", "Unexpected error accessing keystore: ${e.message}", e)
         }
     }
 
@@ -273,23 +373,24 @@ class BcscCoreModule(
      * comparison must still be decode-tolerant (the server may also hold legacy/iOS-shaped
      * encodings from earlier registrations) — see jwk-modulus.ts.
      *
-     * Skips (and logs) any alias whose key pair can't be read or isn't RSA, rather than
-     * failing the whole call — a single unreadable/foreign alias shouldn't block recovery
-     * from seeing every OTHER key.
+     * Skips (and logs) any alias whose key pair can't be read, rather than failing the whole
+     * call — a single unreadable alias shouldn't block recovery from seeing every OTHER key.
+     * Rejects with E_UNSUPPORTED_KEY_TYPE for keys that aren't RSA, which have no n/e to
+     * return; [findKeysMatchingJwks] matches them by thumbprint instead.
      */
     @ReactMethod
     fun getAllKeysWithPublicInfo(promise: Promise) {
-        try {
-            if (!keyPairSource.isAvailable()) {
-                promise.reject("E_KEYSTORE_UNAVAILABLE", "Android KeyStore is not available on this device")
-                return
+        asyncKeyPairSource.run(AsyncBcscKeyPairSource.Priority.READ) { source ->
+            requireKeyStoreAvailable(source)
+            if (keyAlgorithmProfile.getKeyAlgorithm() != KeyProperties.KEY_ALGORITHM_RSA) {
+                throw unsupportedKeyType("${keyAlgorithmProfile.getKeyAlgorithm()} keys")
             }
 
-            val infos = keyPairSource.getAllBcscKeyPairInfos()
+            val infos = source.getAllBcscKeyPairInfos()
             val result: WritableArray = Arguments.createArray()
             for (info in infos) {
                 try {
-                    val bcscKeyPair = keyPairSource.getBcscKeyPair(info.getAlias())
+                    val bcscKeyPair = source.getBcscKeyPair(info.getAlias())
                     if (bcscKeyPair == null) {
                         Log.w(
                             NAME,
@@ -297,17 +398,19 @@ class BcscCoreModule(
                         )
                         continue
                     }
-                    val jwk = keyPairSource.convertBcscKeyPairToJWK(bcscKeyPair)
+                    val jwk = source.convertBcscKeyPairToJWK(bcscKeyPair)
                     if (jwk !is RSAKey) {
-                        Log.w(NAME, "getAllKeysWithPublicInfo: alias '${info.getAlias()}' is not an RSA key; skipping")
-                        continue
+                        throw unsupportedKeyType("alias '${info.getAlias()}', a ${jwk.keyType} key,")
                     }
                     val entry: WritableMap = Arguments.createMap()
                     entry.putString("id", info.getAlias())
                     entry.putDouble("created", info.getCreatedAt().toDouble())
                     entry.putString("n", jwk.modulus.toString())
                     entry.putString("e", jwk.publicExponent.toString())
+                    entry.putString("thumbprint", source.getJWKThumbprint(bcscKeyPair))
                     result.pushMap(entry)
+                } catch (e: KeyStoreRejection) {
+                    throw e
                 } catch (e: Exception) {
                     Log.w(
                         NAME,
@@ -315,13 +418,41 @@ class BcscCoreModule(
                     )
                 }
             }
+            result
+        }.whenSettled(
+            onError = { e -> rejectKeyStoreError(promise, e, "accessing keystore") },
+        ) { result -> promise.resolve(result) }
+    }
 
-            promise.resolve(result)
-        } catch (e: BcscException) {
-            promise.reject("E_KEYSTORE_ERROR", "Error accessing keystore: ${e.devMessage}", e)
-        } catch (e: Exception) {
-            promise.reject("E_KEYSTORE_ERROR", "Unexpected error accessing keystore: ${e.message}", e)
-        }
+    /**
+     * Find the local aliases whose public key is in the server's jwks, compared by RFC 7638
+     * thumbprint after re-encoding each server key, so legacy/iOS-shaped encodings and drifted
+     * kids still match. Local thumbprints are indexed by the repo, so unlike
+     * [getAllKeysWithPublicInfo] a repeat call after a 401 doesn't re-read every keystore entry.
+     *
+     * @param jwks the server's JWK set as JSON text ({"keys": [...]})
+     */
+    @ReactMethod
+    fun findKeysMatchingJwks(
+        jwks: String,
+        promise: Promise,
+    ) {
+        val jwkSet =
+            try {
+                JWKSet.parse(jwks)
+            } catch (e: ParseException) {
+                promise.reject("E_INVALID_JWKS", "Invalid jwks: ${e.message}", e)
+                return
+            }
+
+        asyncKeyPairSource
+            .findAliasesMatchingJWKSet(jwkSet)
+            .whenSettled(
+                onError = { e -> rejectKeyStoreError(promise, e, "matching keys against jwks") },
+            ) { aliases ->
+                Log.d(NAME, "findKeysMatchingJwks: $aliases match ${jwkSet.keys.size} server key(s)")
+                promise.resolve(toStringArray(aliases))
+            }
     }
 
     /**
@@ -334,23 +465,17 @@ class BcscCoreModule(
         alias: String,
         promise: Promise,
     ) {
-        try {
-            if (!keyPairSource.isAvailable()) {
-                promise.reject("E_KEYSTORE_UNAVAILABLE", "Android KeyStore is not available on this device")
-                return
-            }
-            val present = keyPairSource.getAllBcscKeyPairInfos().any { it.getAlias() == alias }
+        // Check and mark run as one keystore job so a concurrent delete can't slip in between.
+        asyncKeyPairSource.run(AsyncBcscKeyPairSource.Priority.WRITE) { source ->
+            requireKeyStoreAvailable(source)
+            val present = source.getAllBcscKeyPairInfos().any { it.getAlias() == alias }
             if (!present) {
-                promise.reject("E_KEY_NOT_FOUND", "Alias '$alias' is not present in the keystore")
-                return
+                throw KeyStoreRejection("E_KEY_NOT_FOUND", "Alias '$alias' is not present in the keystore")
             }
-            keyPairSource.markActiveBcscKeyPair(alias)
-            promise.resolve(null)
-        } catch (e: BcscException) {
-            promise.reject("E_KEYSTORE_ERROR", "Error marking active alias: ${e.devMessage}", e)
-        } catch (e: Exception) {
-            promise.reject("E_KEYSTORE_ERROR", "Unexpected error marking active alias: ${e.message}", e)
-        }
+            source.markActiveBcscKeyPair(alias)
+        }.whenSettled(
+            onError = { e -> rejectKeyStoreError(promise, e, "marking active alias") },
+        ) { promise.resolve(null) }
     }
 
     /**
@@ -361,40 +486,200 @@ class BcscCoreModule(
      * keystore with zero rsa\d+ aliases, which would brick signing entirely.
      * The JS recovery layer is authoritative for never deleting the matched
      * alias; this guard exists so that a buggy caller (or future regression)
-     * cannot wipe the device's last private key. Mirrors the iOS guard.
+     * cannot wipe the device's last private key. Mirrors the iOS guard. The
+     * count re-reads the keystore rather than the repo's alias index, which
+     * can be up to a day stale.
      */
     @ReactMethod
     fun deleteKey(
         alias: String,
         promise: Promise,
     ) {
-        try {
-            if (!keyPairSource.isAvailable()) {
-                promise.reject("E_KEYSTORE_UNAVAILABLE", "Android KeyStore is not available on this device")
-                return
-            }
+        // Count and delete run as one keystore job so the last-key guard can't be raced.
+        asyncKeyPairSource.run(AsyncBcscKeyPairSource.Priority.WRITE) { source ->
+            requireKeyStoreAvailable(source)
             val remainingCount =
                 try {
-                    keyPairSource.getAllBcscKeyPairInfos().count { it.getAlias() != alias }
+                    source.auditBcscKeyPairInfos().count { it.getAlias() != alias }
                 } catch (_: Exception) {
                     -1
                 }
             if (remainingCount == 0) {
-                promise.reject(
+                throw KeyStoreRejection(
                     "E_KEY_DELETE_REFUSED_LAST",
                     "Refusing to delete '$alias': would leave the keystore with no private keys",
                 )
-                return
             }
-            keyPairSource.deleteBcscKeyPair(alias)
-            promise.resolve(null)
-        } catch (e: BcscException) {
-            promise.reject("E_KEYSTORE_ERROR", "Error deleting key: ${e.devMessage}", e)
+            source.deleteBcscKeyPair(alias)
+        }.whenSettled(
+            onError = { e -> rejectKeyStoreError(promise, e, "deleting key") },
+        ) { promise.resolve(null) }
+    }
+
+    /**
+     * Delete every key pair the retention policy doesn't keep, as one batched
+     * background job, and report what was deleted. Omitted policy fields fall
+     * back to [KeyRetentionPolicy.DEFAULT].
+     */
+    @ReactMethod
+    fun applyKeyRetentionPolicy(
+        policy: ReadableMap,
+        promise: Promise,
+    ) {
+        val defaults = KeyRetentionPolicy.DEFAULT
+        val keepNewest = if (policy.hasKey("keepNewest")) policy.getInt("keepNewest") else defaults.keepNewest
+        val maxAgeMillis =
+            if (policy.hasKey("maxAgeMs")) policy.getDouble("maxAgeMs").toLong() else defaults.maxAgeMillis
+        val keepUsedWithinMillis =
+            if (policy.hasKey("keepUsedWithinMs")) {
+                policy.getDouble("keepUsedWithinMs").toLong()
+            } else {
+                defaults.keepUsedWithinMillis
+            }
+        val confirmedKids = mutableListOf<String>()
+        policy.getArray("serverConfirmedKids")?.let { kids ->
+            for (i in 0 until kids.size()) {
+                kids.getString(i)?.let { confirmedKids.add(it) }
+            }
+        }
+
+        asyncKeyPairSource
+            .cleanUpBcscKeyPairs(KeyRetentionPolicy(keepNewest, maxAgeMillis, confirmedKids, keepUsedWithinMillis))
+            .whenSettled(
+                onError = { e -> rejectKeyStoreError(promise, e, "cleaning up keys") },
+            ) { report ->
+                Log.d(NAME, "applyKeyRetentionPolicy: deleted ${report.deleted}, failed ${report.failed}")
+                val result = Arguments.createMap()
+                result.putArray("deleted", toStringArray(report.deleted))
+                result.putArray("failed", toStringArray(report.failed))
+                result.putArray("retained", toStringArray(report.retained))
+                promise.resolve(result)
+            }
+    }
+
+    private fun toStringArray(values: List<String>): WritableArray {
+        val array = Arguments.createArray()
+        for (value in values) {
+            array.pushString(value)
+        }
+        return array
+    }
+
+    /**
+     * The most recent keypair-port log events (oldest first), one formatted line each, for
+     * attaching to support reports without logcat access.
+     */
+    @ReactMethod
+    fun getNativeDiagnosticLog(promise: Promise) {
+        try {
+            val result = Arguments.createArray()
+            for (event in diagnosticLog.snapshot()) {
+                result.pushString(event.toString())
+            }
+            promise.resolve(result)
         } catch (e: Exception) {
-            promise.reject("E_KEYSTORE_ERROR", "Unexpected error deleting key: ${e.message}", e)
+            promise.reject("E_DIAGNOSTIC_LOG_ERROR", "Unexpected error reading diagnostic log: ${e.message}", e)
         }
     }
 
+    /**
+     * Latency summary for the keystore operations behind every key and signing call, accumulated
+     * since process start: p50/p95/p99/max and totals per operation, plus key generation per
+     * alias. Lets slow unlocks be correlated with device model (included in the result).
+     */
+    @ReactMethod
+    fun getKeyStoreMetrics(promise: Promise) {
+        try {
+            val metrics = HistogramKeyStoreMetrics.getInstance()
+            val result = Arguments.createMap()
+            result.putDouble("startedAt", metrics.startedAtMillis.toDouble())
+            result.putString("deviceModel", "${Build.MANUFACTURER} ${Build.MODEL}")
+            result.putInt("sdkInt", Build.VERSION.SDK_INT)
+            result.putBoolean(
+                "strongBoxAvailable",
+                Build.VERSION.SDK_INT >= Build.VERSION_CODES.P &&
+                    reactApplicationContext.packageManager.hasSystemFeature(
+                        PackageManager.FEATURE_STRONGBOX_KEYSTORE,
+                    ),
+            )
+
+            val operations = Arguments.createMap()
+            for ((operation, stats) in metrics.snapshot()) {
+                operations.putMap(metricsKey(operation), keyStoreStatsToMap(stats))
+            }
+            result.putMap("operations", operations)
+
+            val generationByAlias = Arguments.createArray()
+            for ((alias, stats) in metrics.snapshotKeyGenerationByAlias()) {
+                val entry = keyStoreStatsToMap(stats)
+                entry.putString("alias", alias)
+                generationByAlias.pushMap(entry)
+            }
+            result.putArray("keyGenerationByAlias", generationByAlias)
+
+            val byBacking = Arguments.createMap()
+            for ((backing, perOperation) in metrics.snapshotByBacking()) {
+                val backingStats = Arguments.createMap()
+                for ((operation, stats) in perOperation) {
+                    backingStats.putMap(metricsKey(operation), keyStoreStatsToMap(stats))
+                }
+                byBacking.putMap(backingKey(backing), backingStats)
+            }
+            result.putMap("byBacking", byBacking)
+
+            // Reading stats must not create the pool (and with it the keystore executor).
+            val poolStats =
+                if (clientAssertionPoolDelegate.isInitialized()) {
+                    clientAssertionPoolDelegate.value.snapshot()
+                } else {
+                    ClientAssertionPoolStats.EMPTY
+                }
+            val assertionPool = Arguments.createMap()
+            assertionPool.putDouble("hits", poolStats.hits.toDouble())
+            assertionPool.putDouble("misses", poolStats.misses.toDouble())
+            assertionPool.putDouble("minted", poolStats.minted.toDouble())
+            assertionPool.putDouble("mintFailures", poolStats.mintFailures.toDouble())
+            assertionPool.putDouble("expired", poolStats.expired.toDouble())
+            assertionPool.putDouble("invalidated", poolStats.invalidated.toDouble())
+            assertionPool.putInt("ready", poolStats.ready)
+            result.putMap("assertionPool", assertionPool)
+
+            promise.resolve(result)
+        } catch (e: Exception) {
+            promise.reject("E_METRICS_ERROR", "Unexpected error reading keystore metrics: ${e.message}", e)
+        }
+    }
+
+    private fun metricsKey(operation: KeyStoreMetrics.Operation): String =
+        when (operation) {
+            KeyStoreMetrics.Operation.KEYSTORE_LOAD -> "keystoreLoad"
+            KeyStoreMetrics.Operation.ALIAS_ENUMERATION -> "aliasEnumeration"
+            KeyStoreMetrics.Operation.RECONCILE -> "reconcile"
+            KeyStoreMetrics.Operation.KEY_GENERATION -> "keyGeneration"
+            KeyStoreMetrics.Operation.ENTRY_FETCH -> "entryFetch"
+            KeyStoreMetrics.Operation.SIGNING -> "signing"
+            KeyStoreMetrics.Operation.SIGN_BATCH -> "signBatch"
+        }
+
+    private fun backingKey(backing: KeyBacking): String =
+        when (backing) {
+            KeyBacking.STRONGBOX -> "strongbox"
+            KeyBacking.TEE -> "tee"
+        }
+
+    // Durations are reported in (fractional) milliseconds to match the rest of the JS surface.
+    private fun keyStoreStatsToMap(stats: KeyStoreOperationStats): WritableMap {
+        val map = Arguments.createMap()
+        map.putDouble("count", stats.count.toDouble())
+        map.putDouble("failures", stats.failures.toDouble())
+        map.putDouble("totalMs", stats.totalMicros / 1000.0)
+        map.putDouble("p50Ms", stats.p50Micros / 1000.0)
+        map.putDouble("p95Ms", stats.p95Micros / 1000.0)
+        map.putDouble("p99Ms", stats.p99Micros / 1000.0)
+        map.putDouble("maxMs", stats.maxMicros / 1000.0)
+        return map
+    }
+
     @ReactMethod
     override fun getToken(
         tokenType: Int,
@@ -441,7 +726,11 @@ class BcscCoreModule(
             }
 
             // Use DecryptedFileReader to read and decrypt the token file
-            val decryptedFileReader = DecryptedFileReader(reactApplicationContext)
+            val decryptedFileReader =
+                DecryptedFileReader(
+                    reactApplicationContext,
+                    BcscFileDecryptor(reactApplicationContext, AndroidKeyStoreSource(SharedKeyStore.getInstance()::get)),
+                )
             val issuerName = nativeStorage.getDefaultIssuerName()
             val relativePath = "$issuerName/$accountId/tokens"
             val tokenFilePath = "${baseDir.absolutePath}/$relativePath"
@@ -1260,46 +1549,43 @@ class BcscCoreModule(
         }
 
         try {
-            // Create JWT assertion for OAuth2 client credentials
-            val now = Date()
-            val expiration = Date(now.time + JWT_EXPIRATION_SECONDS * 1000)
-
-            val claimsSet =
-                JWTClaimsSet
-                    .Builder()
-                    .audience(issuer)
-                    .issuer(clientID)
-                    .subject(clientID)
-                    .issueTime(now)
-                    .expirationTime(expiration)
-                    .jwtID(UUID.randomUUID().toString())
-                    .build()
+            // Take a pre-signed client assertion when one is ready; the pool signs one on demand
+            // otherwise. It isn't refilled here: it pre-signs on host resume when a refresh is due.
+            clientAssertionPoolDelegate.value.acquire(issuer, clientID).whenSettled(
+                onError = { e -> rejectRefreshTokenRequest(promise, e) },
+            ) { clientAssertion ->
+                // Format OAuth2 request body for refresh token
+                val assertionType = "urn:ietf:params:oauth:client-assertion-type:jwt-bearer"
+                val grantType = "refresh_token"
+
+                // Use the actual refresh token provided as parameter
+                val body =
+                    "grant_type=$grantType&client_id=$clientID&client_assertion_type=$assertionType" +
+                        "&client_assertion=$clientAssertion&refresh_token=$refreshToken"
 
-            // Sign the JWT assertion
-            val clientAssertion = keyPairSource.signAndSerializeClaimsSet(claimsSet)
-
-            // Format OAuth2 request body for refresh token
-            val assertionType = "urn:ietf:params:oauth:client-assertion-type:jwt-bearer"
-            val grantType = "refresh_token"
-
-            // Use the actual refresh token provided as parameter
-            val body =
-                "grant_type=$grantType&client_id=$clientID&client_assertion_type=$assertionType" +
-                    "&client_assertion=$clientAssertion&refresh_token=$refreshToken"
+                Log.d(
+                    NAME,
+                    "getRefreshTokenRequestBody: Successfully created request body with issuer: $issuer, clientID: $clientID",
+                )
+                promise.resolve(body)
+            }
+        } catch (e: Exception) {
+            rejectRefreshTokenRequest(promise, e)
+        }
+    }
 
-            Log.d(
-                NAME,
-                "getRefreshTokenRequestBody: Successfully created request body with issuer: $issuer, clientID: $clientID",
-            )
-            promise.resolve(body)
-        } catch (e: BcscException) {
+    private fun rejectRefreshTokenRequest(
+        promise: Promise,
+        e: Throwable,
+    ) {
+        if (e is BcscException) {
             Log.e(NAME, "getRefreshTokenRequestBody: BCSC error: ${e.devMessage}", e)
             promise.reject(
                 "E_JWT_SIGN_FAILED",
                 "Error creating refresh token request: ${e.devMessage}",
                 e,
             )
-        } catch (e: Exception) {
+        } else {
             Log.e(NAME, "getRefreshTokenRequestBody: Unexpected error: ${e.message}", e)
             promise.reject("E_JWT_SIGN_FAILED", "Unexpected error creating refresh token request: ${e.message}", e)
         }
@@ -1318,10 +1604,6 @@ class BcscCoreModule(
             // Use empty string if deviceToken is not provided
             val actualDeviceToken = deviceToken ?: ""
 
-            // FIXME: Do we need this currentKeyPair? is the call doing something important but we don't need the ouput?
-            // Get the current (newest) key pair for signing
-            val currentKeyPair = keyPairSource.getCurrentBcscKeyPair()
-
             // Build JWT claims set for pairing code signing
             val claimsSet =
                 JWTClaimsSet
@@ -1345,24 +1627,18 @@ class BcscCoreModule(
                     .claim("has_other_accounts", false) // This could be made dynamic
                     .build()
 
-            // Sign the JWT using bcsc-keypair-port
-            val signedJWT = keyPairSource.signAndSerializeClaimsSet(claimsSet)
-
-            Log.d(
-                NAME,
-                "signPairingCode: Successfully signed pairing code with issuer: $issuer, clientID: $clientID",
-            )
-            promise.resolve(signedJWT)
-        } catch (e: BcscException) {
-            Log.e(NAME, "signPairingCode: BCSC signing error: ${e.devMessage}", e)
-            promise.reject(
-                "E_JWT_SIGN_FAILED",
-                "Error signing pairing code: ${e.devMessage}",
-                e,
-            )
+            // Sign the JWT using bcsc-keypair-port; the signer resolves the current key itself
+            asyncKeyPairSource.signAndSerializeClaimsSet(claimsSet).whenSettled(
+                onError = { e -> rejectSignedJwt(promise, e, "signPairingCode", "signed pairing code") },
+            ) { signedJWT ->
+                Log.d(
+                    NAME,
+                    "signPairingCode: Successfully signed pairing code with issuer: $issuer, clientID: $clientID",
+                )
+                promise.resolve(signedJWT)
+            }
         } catch (e: Exception) {
-            Log.e(NAME, "signPairingCode: Unexpected error: ${e.message}", e)
-            promise.reject("E_JWT_SIGN_FAILED", "Unexpected error signing pairing code: ${e.message}", e)
+            rejectSignedJwt(promise, e, "signPairingCode", "signed pairing code")
         }
     }
 
@@ -1378,155 +1654,173 @@ class BcscCoreModule(
             // Use empty string if deviceToken is not provided
             val actualDeviceToken = deviceToken ?: ""
 
-            // Get or create the current key pair
-            val currentKeyPair = keyPairSource.getCurrentBcscKeyPair()
-
-            // Convert the public key to JWK format
-            val publicKeyJWK = keyPairSource.convertBcscKeyPairToJWK(currentKeyPair)
-
-            // Create device info JWT claims
-            val deviceInfoClaimsBuilder =
-                JWTClaimsSet
-                    .Builder()
-                    .claim("app_set_id", getAppSetId())
-                    .claim("system_name", "Android")
-                    .claim("system_version", Build.VERSION.RELEASE)
-                    .claim("device_model", Build.MODEL)
-                    .claim("device_id", getDeviceIdSync())
-                    .claim("device_token", actualDeviceToken)
-                    .claim("device_name", getDeviceName())
-                    .claim("fcm_device_token", fcmDeviceToken)
-                    .claim("mobile_id_version", getAppVersion())
-                    .claim("mobile_id_build", getAppBuildNumber())
-                    .claim("has_other_accounts", false)
-
-            // Add attestation if provided
-            if (attestation != null && attestation.isNotEmpty()) {
-                deviceInfoClaimsBuilder.claim("attestation", attestation)
-            }
-
-            val deviceInfoClaims = deviceInfoClaimsBuilder.build()
-
-            // Create unsigned device info JWT with "none" algorithm (similar to iOS implementation)
-            val deviceInfoJWTAsString =
-                try {
-                    createUnsignedJWT(deviceInfoClaims)
-                } catch (e: JSONException) {
-                    Log.e(NAME, "getDynamicClientRegistrationBody: toJSONString method failure: ${e.message}", e)
-                    promise.reject(
-                        "E_120_TOJSONSTRING_METHOD_FAILURE",
-                        "Failed to convert device info JWT to JSON string: ${e.message}",
-                        e,
-                    )
-                    return
-                } catch (e: Exception) {
-                    Log.e(NAME, "getDynamicClientRegistrationBody: JWT device info error: ${e.message}", e)
-                    promise.reject(
-                        "E_120_JWT_DEVICE_INFO_ERROR",
-                        "Error creating device info JWT: ${e.message}",
-                        e,
-                    )
-                    return
+            // Get or create the current key pair off the module thread
+            asyncKeyPairSource.getCurrentBcscKeyPair().whenSettled(
+                onError = { e -> rejectDynamicClientRegistration(promise, e) },
+            ) { currentKeyPair ->
+                // Convert the public key to JWK format
+                val publicKeyJWK = asyncKeyPairSource.source.convertBcscKeyPairToJWK(currentKeyPair)
+
+                // Create device info JWT claims
+                val deviceInfoClaimsBuilder =
+                    JWTClaimsSet
+                        .Builder()
+                        .claim("app_set_id", getAppSetId())
+                        .claim("system_name", "Android")
+                        .claim("system_version", Build.VERSION.RELEASE)
+                        .claim("device_model", Build.MODEL)
+                        .claim("device_id", getDeviceIdSync())
+                        .claim("device_token", actualDeviceToken)
+                        .claim("device_name", getDeviceName())
+                        .claim("fcm_device_token", fcmDeviceToken)
+                        .claim("mobile_id_version", getAppVersion())
+                        .claim("mobile_id_build", getAppBuildNumber())
+                        .claim("has_other_accounts", false)
+
+                // Add attestation if provided
+                if (attestation != null && attestation.isNotEmpty()) {
+                    deviceInfoClaimsBuilder.claim("attestation", attestation)
                 }
 
-            // Use nickname if provided, otherwise fall back to device name
-            val clientName = if (!nickname.isNullOrEmpty()) nickname else getDeviceName()
-
-            // Create the dynamic client registration body structure using JSONObject for proper serialization
-            val registrationBodyJson =
-                JSONObject().apply {
-                    put("client_name", clientName)
-                    put(
-                        "redirect_uris",
-                        JSONArray().apply {
-                            put("http://localhost:8080/")
-                        },
-                    )
-                    put(
-                        "grant_types",
-                        JSONArray().apply {
-                            put("authorization_code")
-                        },
-                    )
-                    put("token_endpoint_auth_method", "private_key_jwt")
-                    put(
-                        "jwks",
-                        JSONObject().apply {
-                            put(
-                                "keys",
-                                JSONArray().apply {
-                                    // Add the JWK with proper base64url-encoded RSA parameters
-                                    put(
-                                        JSONObject().apply {
-                                            val rsaKey = publicKeyJWK.toRSAKey()
-                                            put("kty", publicKeyJWK.keyType.value)
-                                            // RSAKey.getPublicExponent() and getModulus() return Base64URL objects
-                                            // Base64URL.toString() gives base64url string
-                                            put("e", rsaKey.publicExponent.toString())
-                                            // Base64URL.toString() gives base64url string
-                                            put("n", rsaKey.modulus.toString())
-                                            put("kid", publicKeyJWK.keyID ?: "rsa1")
-                                            put("alg", publicKeyJWK.algorithm?.name ?: "RS512")
-                                        },
-                                    )
-                                },
-                            )
-                        },
-                    )
-                    put("device_info", deviceInfoJWTAsString)
-                    put("application_type", "native")
-                }
+                val deviceInfoClaims = deviceInfoClaimsBuilder.build()
+
+                // Create unsigned device info JWT with "none" algorithm (similar to iOS implementation)
+                val deviceInfoJWTAsString =
+                    try {
+                        createUnsignedJWT(deviceInfoClaims)
+                    } catch (e: JSONException) {
+                        Log.e(NAME, "getDynamicClientRegistrationBody: toJSONString method failure: ${e.message}", e)
+                        promise.reject(
+                            "E_120_TOJSONSTRING_METHOD_FAILURE",
+                            "Failed to convert device info JWT to JSON string: ${e.message}",
+                            e,
+                        )
+                        return@whenSettled
+                    } catch (e: Exception) {
+                        Log.e(NAME, "getDynamicClientRegistrationBody: JWT device info error: ${e.message}", e)
+                        promise.reject(
+                            "E_120_JWT_DEVICE_INFO_ERROR",
+                            "Error creating device info JWT: ${e.message}",
+                            e,
+                        )
+                        return@whenSettled
+                    }
 
-            // Convert to serialized JSON string
-            val registrationBodyAsString = registrationBodyJson.toString()
+                // Use nickname if provided, otherwise fall back to device name
+                val clientName = if (!nickname.isNullOrEmpty()) nickname else getDeviceName()
+
+                // Create the dynamic client registration body structure using JSONObject for proper serialization
+                val registrationBodyJson =
+                    JSONObject().apply {
+                        put("client_name", clientName)
+                        put(
+                            "redirect_uris",
+                            JSONArray().apply {
+                                put("http://localhost:8080/")
+                            },
+                        )
+                        put(
+                            "grant_types",
+                            JSONArray().apply {
+                                put("authorization_code")
+                            },
+                        )
+                        put("token_endpoint_auth_method", "private_key_jwt")
+                        put(
+                            "jwks",
+                            JSONObject().apply {
+                                put(
+                                    "keys",
+                                    JSONArray().apply {
+                                        // Add the JWK with proper base64url-encoded public parameters
+                                        put(
+                                            JSONObject().apply {
+                                                put("kty", publicKeyJWK.keyType.value)
+                                                if (publicKeyJWK is ECKey) {
+                                                    // EC profile: curve plus base64url x/y coordinates
+                                                    put("crv", publicKeyJWK.curve.name)
+                                                    put("x", publicKeyJWK.x.toString())
+                                                    put("y", publicKeyJWK.y.toString())
+                                                } else {
+                                                    val rsaKey = publicKeyJWK.toRSAKey()
+                                                    // getPublicExponent() and getModulus() return Base64URL objects
+                                                    // Base64URL.toString() gives base64url string
+                                                    put("e", rsaKey.publicExponent.toString())
+                                                    // Base64URL.toString() gives base64url string
+                                                    put("n", rsaKey.modulus.toString())
+                                                }
+                                                put("kid", publicKeyJWK.keyID ?: "rsa1")
+                                                put("alg", publicKeyJWK.algorithm?.name ?: "RS512")
+                                            },
+                                        )
+                                    },
+                                )
+                            },
+                        )
+                        put("device_info", deviceInfoJWTAsString)
+                        put("application_type", "native")
+                    }
 
-            Log.d(NAME, "getDynamicClientRegistrationBody: Successfully created DCR body")
-            promise.resolve(registrationBodyAsString)
-        } catch (e: KeyAlreadyExistsException) {
-            Log.e(NAME, "getDynamicClientRegistrationBody: Key already exists: ${e.devMessage}", e)
-            promise.reject(
-                "E_120_KEYCHAIN_KEY_EXISTS_ERROR",
-                "Key pair already exists: ${e.devMessage}",
-                e,
-            )
-        } catch (e: KeyNotFoundException) {
-            Log.e(NAME, "getDynamicClientRegistrationBody: Key not found: ${e.devMessage}", e)
-            promise.reject(
-                "E_120_KEYCHAIN_KEY_DOESNT_EXIST_ERROR",
-                "Key pair not found: ${e.devMessage}",
-                e,
-            )
-        } catch (e: KeypairGenerationException) {
-            Log.e(NAME, "getDynamicClientRegistrationBody: Keypair generation error: ${e.devMessage}", e)
-            promise.reject(
-                "E_120_KEYCHAIN_KEY_GENERATION_ERROR",
-                "Failed to generate or retrieve key pair for client registration: ${e.devMessage}",
-                e,
-            )
-        } catch (e: JSONException) {
-            Log.e(NAME, "getDynamicClientRegistrationBody: toJSON method failure: ${e.message}", e)
-            promise.reject(
-                "E_120_TOJSON_METHOD_FAILURE",
-                "Failed to serialize client registration data: ${e.message}",
-                e,
-            )
-        } catch (e: BcscException) {
-            Log.e(NAME, "getDynamicClientRegistrationBody: BCSC error: ${e.devMessage}", e)
-            promise.reject(
-                "E_BCSC_DCR_ERROR",
-                "Error creating dynamic client registration with bcsc-keypair-port: ${e.devMessage}",
-                e,
-            )
-        } catch (e: org.json.JSONException) {
-            Log.e(NAME, "getDynamicClientRegistrationBody: JSON serialization error: ${e.message}", e)
-            promise.reject(
-                "E_JSON_SERIALIZATION_FAILED",
-                "Failed to serialize client registration data: ${e.message}",
-                e,
-            )
+                // Convert to serialized JSON string
+                val registrationBodyAsString = registrationBodyJson.toString()
+
+                Log.d(NAME, "getDynamicClientRegistrationBody: Successfully created DCR body")
+                promise.resolve(registrationBodyAsString)
+            }
         } catch (e: Exception) {
-            Log.e(NAME, "getDynamicClientRegistrationBody: Unexpected error: ${e.message}", e)
-            promise.reject("E_DCR_ERROR", "Unexpected error creating dynamic client registration: ${e.message}", e)
+            rejectDynamicClientRegistration(promise, e)
+        }
+    }
+
+    private fun rejectDynamicClientRegistration(
+        promise: Promise,
+        e: Throwable,
+    ) {
+        when (e) {
+            is KeyAlreadyExistsException -> {
+                Log.e(NAME, "getDynamicClientRegistrationBody: Key already exists: ${e.devMessage}", e)
+                promise.reject(
+                    "E_120_KEYCHAIN_KEY_EXISTS_ERROR",
+                    "Key pair already exists: ${e.devMessage}",
+                    e,
+                )
+            }
+            is KeyNotFoundException -> {
+                Log.e(NAME, "getDynamicClientRegistrationBody: Key not found: ${e.devMessage}", e)
+                promise.reject(
+                    "E_120_KEYCHAIN_KEY_DOESNT_EXIST_ERROR",
+                    "Key pair not found: ${e.devMessage}",
+                    e,
+                )
+            }
+            is KeypairGenerationException -> {
+                Log.e(NAME, "getDynamicClientRegistrationBody: Keypair generation error: ${e.devMessage}", e)
+                promise.reject(
+                    "E_120_KEYCHAIN_KEY_GENERATION_ERROR",
+                    "Failed to generate or retrieve key pair for client registration: ${e.devMessage}",
+                    e,
+                )
+            }
+            is JSONException -> {
+                Log.e(NAME, "getDynamicClientRegistrationBody: toJSON method failure: ${e.message}", e)
+                promise.reject(
+                    "E_120_TOJSON_METHOD_FAILURE",
+                    "Failed to serialize client registration data: ${e.message}",
+                    e,
+                )
+            }
+            is BcscException -> {
+                Log.e(NAME, "getDynamicClientRegistrationBody: BCSC error: ${e.devMessage}", e)
+                promise.reject(
+                    "E_BCSC_DCR_ERROR",
+                    "Error creating dynamic client registration with bcsc-keypair-port: ${e.devMessage}",
+                    e,
+                )
+            }
+            else -> {
+                Log.e(NAME, "getDynamicClientRegistrationBody: Unexpected error: ${e.message}", e)
+                promise.reject("E_DCR_ERROR", "Unexpected error creating dynamic client registration: ${e.message}", e)
+            }
         }
     }
 
@@ -1567,26 +1861,52 @@ class BcscCoreModule(
                     .build()
 
             // Sign the JWT assertion using bcsc-keypair-port
-            val clientAssertion = keyPairSource.signAndSerializeClaimsSet(claimsSet)
+            asyncKeyPairSource.signAndSerializeClaimsSet(claimsSet).whenSettled(
+                onError = { e -> rejectDeviceCodeRequest(promise, e) },
+            ) { clientAssertion ->
+                // Format OAuth2 device code request body (matching iOS implementation)
+                val grantType = "urn:ietf:params:oauth:grant-type:device_code"
+                val assertionType = "urn:ietf:params:oauth:client-assertion-type:jwt-bearer"
+
+                val body =
+                    "grant_type=$grantType&device_code=$deviceCode&code=$confirmationCode" +
+                        "&client_id=$clientId&client_assertion_type=$assertionType&client_assertion=$clientAssertion"
 
-            // Format OAuth2 device code request body (matching iOS implementation)
-            val grantType = "urn:ietf:params:oauth:grant-type:device_code"
-            val assertionType = "urn:ietf:params:oauth:client-assertion-type:jwt-bearer"
+                Log.d(NAME, "getDeviceCodeRequestBody: Successfully created device code request body")
+                promise.resolve(body)
+            }
+        } catch (e: Exception) {
+            rejectDeviceCodeRequest(promise, e)
+        }
+    }
 
-            val body =
-                "grant_type=$grantType&device_code=$deviceCode&code=$confirmationCode" +
-                    "&client_id=$clientId&client_assertion_type=$assertionType&client_assertion=$clientAssertion"
+    private fun rejectSignedJwt(
+        promise: Promise,
+        e: Throwable,
+        method: String,
+        what: String,
+    ) {
+        if (e is BcscException) {
+            Log.e(NAME, "$method: BCSC signing error: ${e.devMessage}", e)
+            promise.reject("E_JWT_SIGN_FAILED", "Error creating $what: ${e.devMessage}", e)
+        } else {
+            Log.e(NAME, "$method: Unexpected error: ${e.message}", e)
+            promise.reject("E_JWT_SIGN_FAILED", "Unexpected error creating $what: ${e.message}", e)
+        }
+    }
 
-            Log.d(NAME, "getDeviceCodeRequestBody: Successfully created device code request body")
-            promise.resolve(body)
-        } catch (e: BcscException) {
+    private fun rejectDeviceCodeRequest(
+        promise: Promise,
+        e: Throwable,
+    ) {
+        if (e is BcscException) {
             Log.e(NAME, "getDeviceCodeRequestBody: BCSC error: ${e.devMessage}", e)
             promise.reject(
                 "E_BCSC_DEVICE_CODE_ERROR",
                 "Error creating device code request with bcsc-keypair-port: ${e.devMessage}",
                 e,
             )
-        } catch (e: Exception) {
+        } else {
             Log.e(NAME, "getDeviceCodeRequestBody: Unexpected error: ${e.message}", e)
             promise.reject("E_DEVICE_CODE_ERROR", "Unexpected error creating device code request: ${e.message}", e)
         }
@@ -1608,20 +1928,14 @@ class BcscCoreModule(
                     .build()
 
             // Sign the JWT using bcsc-keypair-port
-            val signedJWT = keyPairSource.signAndSerializeClaimsSet(claimsSet)
-
-            Log.d(NAME, "createPreVerificationJWT: Successfully created pre-verification JWT")
-            promise.resolve(signedJWT)
-        } catch (e: BcscException) {
-            Log.e(NAME, "createPreVerificationJWT: BCSC signing error: ${e.devMessage}", e)
-            promise.reject(
-                "E_JWT_SIGN_FAILED",
-                "Error creating pre-verification JWT: ${e.devMessage}",
-                e,
-            )
+            asyncKeyPairSource.signAndSerializeClaimsSet(claimsSet).whenSettled(
+                onError = { e -> rejectSignedJwt(promise, e, "createPreVerificationJWT", "pre-verification JWT") },
+            ) { signedJWT ->
+                Log.d(NAME, "createPreVerificationJWT: Successfully created pre-verification JWT")
+                promise.resolve(signedJWT)
+            }
         } catch (e: Exception) {
-            Log.e(NAME, "createPreVerificationJWT: Unexpected error: ${e.message}", e)
-            promise.reject("E_JWT_SIGN_FAILED", "Unexpected error creating pre-verification JWT: ${e.message}", e)
+            rejectSignedJwt(promise, e, "createPreVerificationJWT", "pre-verification JWT")
         }
     }
 
@@ -1645,16 +1959,14 @@ class BcscCoreModule(
             val claimsSet = claimsSetBuilder.build()
 
             // Sign the JWT using bcsc-keypair-port
-            val signedJWT = keyPairSource.signAndSerializeClaimsSet(claimsSet)
-
-            Log.d(NAME, "createSignedJWT: Successfully created JWT")
-            promise.resolve(signedJWT)
-        } catch (e: BcscException) {
-            Log.e(NAME, "createSignedJWT: BCSC signing error: ${e.devMessage}", e)
-            promise.reject("E_JWT_SIGN_FAILED", "Error creating signed JWT: ${e.devMessage}", e)
+            asyncKeyPairSource.signAndSerializeClaimsSet(claimsSet).whenSettled(
+                onError = { e -> rejectSignedJwt(promise, e, "createSignedJWT", "signed JWT") },
+            ) { signedJWT ->
+                Log.d(NAME, "createSignedJWT: Successfully created JWT")
+                promise.resolve(signedJWT)
+            }
         } catch (e: Exception) {
-            Log.e(NAME, "createSignedJWT: Unexpected error: ${e.message}", e)
-            promise.reject("E_JWT_SIGN_FAILED", "Unexpected error creating signed JWT: ${e.message}", e)
+            rejectSignedJwt(promise, e, "createSignedJWT", "signed JWT")
         }
     }
 
@@ -1730,12 +2042,15 @@ class BcscCoreModule(
      * included), so a failure while gathering diagnostics must never break decoding —
      * the whole body is guarded and degrades to a fallback string.
      */
-    private fun decodeDiagnosticsSummary(jweString: String): String =
+    private fun decodeDiagnosticsSummary(
+        source: BcscKeyPairSource,
+        jweString: String,
+    ): String =
         try {
             val header = incomingJWEHeader(jweString)
             val aliases: List<String> =
                 try {
-                    keyPairSource
+                    source
                         .getAllBcscKeyPairInfos()
                         .sortedByDescending { it.getCreatedAt() }
                         .map { it.getAlias() }
@@ -1758,100 +2073,109 @@ class BcscCoreModule(
         key: ReadableMap?,
         promise: Promise,
     ) {
-        // Built once up front so every failure path reports the same picture, which is what
-        // makes 2507 reports self-classifying in the field.
-        val diagnostics = decodeDiagnosticsSummary(jweString)
-        try {
-            // Get the current (latest) key pair for decryption
-            val currentKeyPair = keyPairSource.getCurrentBcscKeyPair()
-
-            if (currentKeyPair.getKeyPair()?.private == null) {
-                promise.reject("E_NO_KEYS_FOUND", "No private key available for decryption $diagnostics")
-                return
-            }
-
-            // Parse the JWE object
-            val jweObject = JWEObject.parse(jweString)
+        // The inventory and the key lookup run as one keystore job. The diagnostics are built
+        // once up front so every failure path reports the same picture, which is what makes
+        // 2507 reports self-classifying in the field.
+        asyncKeyPairSource.run(AsyncBcscKeyPairSource.Priority.READ) { source ->
+            Pair(decodeDiagnosticsSummary(source, jweString), runCatching { source.getCurrentBcscKeyPair() })
+        }.whenSettled(
+            onError = { e ->
+                Log.e(NAME, "decodePayload: Unexpected error: ${e.message}", e)
+                promise.reject("E_PAYLOAD_DECODE_ERROR", "Unable to decode payload: ${e.message}", e)
+            },
+        ) { (diagnostics, currentKeyPairResult) ->
+            try {
+                // Get the current (latest) key pair for decryption
+                val currentKeyPair = currentKeyPairResult.getOrThrow()
 
-            // Create RSA decrypter with the private key
-            val rsaDecrypter = RSADecrypter(currentKeyPair.getKeyPair()!!.private)
+                if (currentKeyPair.getKeyPair()?.private == null) {
+                    promise.reject("E_NO_KEYS_FOUND", "No private key available for decryption $diagnostics")
+                    return@whenSettled
+                }
 
-            // Decrypt the JWE to get the inner JWT (compact JWS)
-            jweObject.decrypt(rsaDecrypter)
-            val jwtPayload = jweObject.payload.toString()
+                // Parse the JWE object
+                val jweObject = JWEObject.parse(jweString)
+
+                // Create RSA decrypter with the private key
+                val rsaDecrypter = RSADecrypter(currentKeyPair.getKeyPair()!!.private)
+
+                // Decrypt the JWE to get the inner JWT (compact JWS)
+                jweObject.decrypt(rsaDecrypter)
+                val jwtPayload = jweObject.payload.toString()
+
+                // Parse the inner JWS and verify its signature. `verified` is a flag (never throws); the
+                // caller decides what to do when it is false. A malformed inner token maps to
+                // E_FAILED_TO_PARSE_JWS, distinct from the outer JWE parse failure handled below.
+                val signedJWT =
+                    try {
+                        SignedJWT.parse(jwtPayload)
+                    } catch (e: java.text.ParseException) {
+                        Log.e(NAME, "decodePayload: inner JWS parse error: ${e.message}", e)
+                        promise.reject("E_FAILED_TO_PARSE_JWS", "Invalid JWS format in decrypted payload", e)
+                        return@whenSettled
+                    }
+                val verified = if (key != null) verifyJwtSignature(signedJWT, key) else false
 
-            // Parse the inner JWS and verify its signature. `verified` is a flag (never throws); the
-            // caller decides what to do when it is false. A malformed inner token maps to
-            // E_FAILED_TO_PARSE_JWS, distinct from the outer JWE parse failure handled below.
-            val signedJWT =
-                try {
-                    SignedJWT.parse(jwtPayload)
-                } catch (e: java.text.ParseException) {
-                    Log.e(NAME, "decodePayload: inner JWS parse error: ${e.message}", e)
-                    promise.reject("E_FAILED_TO_PARSE_JWS", "Invalid JWS format in decrypted payload", e)
-                    return
+                // Parse the JWT to extract and decode the payload (claims)
+                val jwtSegments = jwtPayload.split(".")
+                if (jwtSegments.size != JWS_COMPACT_SEGMENT_COUNT) {
+                    promise.reject("E_FAILED_TO_PARSE_JWS", "Invalid JWS format in decrypted payload $diagnostics")
+                    return@whenSettled
                 }
-            val verified = if (key != null) verifyJwtSignature(signedJWT, key) else false
 
-            // Parse the JWT to extract and decode the payload (claims)
-            val jwtSegments = jwtPayload.split(".")
-            if (jwtSegments.size != JWS_COMPACT_SEGMENT_COUNT) {
-                promise.reject("E_FAILED_TO_PARSE_JWS", "Invalid JWS format in decrypted payload $diagnostics")
-                return
-            }
+                // Get the payload segment (second segment) and decode it
+                var base64Payload = jwtSegments[1]
 
-            // Get the payload segment (second segment) and decode it
-            var base64Payload = jwtSegments[1]
-
-            // Add padding if necessary (base64url to base64 conversion)
-            val requiredLength = (4 * kotlin.math.ceil(base64Payload.length / 4.0)).toInt()
-            val paddingLength = requiredLength - base64Payload.length
-            if (paddingLength > 0) {
-                base64Payload += "=".repeat(paddingLength)
-            }
+                // Add padding if necessary (base64url to base64 conversion)
+                val requiredLength = (4 * kotlin.math.ceil(base64Payload.length / 4.0)).toInt()
+                val paddingLength = requiredLength - base64Payload.length
+                if (paddingLength > 0) {
+                    base64Payload += "=".repeat(paddingLength)
+                }
 
-            // Convert base64url to base64 (replace URL-safe characters)
-            base64Payload = base64Payload.replace("-", "+").replace("_", "/")
+                // Convert base64url to base64 (replace URL-safe characters)
+                base64Payload = base64Payload.replace("-", "+").replace("_", "/")
 
-            // Decode the base64 payload
-            val decodedBytes = android.util.Base64.decode(base64Payload, android.util.Base64.DEFAULT)
-            val decodedPayload = String(decodedBytes, Charsets.UTF_8)
+                // Decode the base64 payload
+                val decodedBytes = android.util.Base64.decode(base64Payload, android.util.Base64.DEFAULT)
+                val decodedPayload = String(decodedBytes, Charsets.UTF_8)
 
-            // Return the verification flag alongside the raw claims JSON string
-            val result =
-                Arguments.createMap().apply {
-                    putBoolean("verified", verified)
-                    putString("claims", decodedPayload)
-                }
+                // Return the verification flag alongside the raw claims JSON string
+                val result =
+                    Arguments.createMap().apply {
+                        putBoolean("verified", verified)
+                        putString("claims", decodedPayload)
+                    }
 
-            Log.d(NAME, "decodePayload: decoded JWE payload, verified=$verified")
-            promise.resolve(result)
-        } catch (e: BcscException) {
-            // Key retrieval / keystore problem (key unavailable, OEM keystore error, invalidation).
-            Log.e(NAME, "decodePayload: BCSC key error: ${e.devMessage} $diagnostics", e)
-            promise.reject(
-                "E_BCSC_DECODE_ERROR",
-                "Error accessing key for JWE decryption: ${e.devMessage} $diagnostics",
-                e,
-            )
-        } catch (e: java.text.ParseException) {
-            // Malformed / truncated / replaced JWE on the wire (transport corruption).
-            Log.e(NAME, "decodePayload: JWE parse error: ${e.message} $diagnostics", e)
-            promise.reject("E_JWE_PARSE_ERROR", "Invalid JWE format: ${e.message} $diagnostics", e)
-        } catch (e: com.nimbusds.jose.JOSEException) {
-            // Wrong key (kidMatchesLocal=false) or unsupported alg/enc — read the diagnostics.
-            Log.e(NAME, "decodePayload: JWE decryption error: ${e.message} $diagnostics", e)
-            promise.reject("E_JWE_DECRYPT_ERROR", "Failed to decrypt JWE: ${e.message} $diagnostics", e)
-        } catch (e: IllegalArgumentException) {
-            Log.e(NAME, "decodePayload: Base64 decode error: ${e.message} $diagnostics", e)
-            promise.reject(
-                "E_FAILED_TO_PARSE_JWS",
-                "Failed to decode JWS payload segment: ${e.message} $diagnostics",
-                e,
-            )
-        } catch (e: Exception) {
-            Log.e(NAME, "decodePayload: Unexpected error: ${e.message} $diagnostics", e)
-            promise.reject("E_PAYLOAD_DECODE_ERROR", "Unable to decode payload: ${e.message} $diagnostics", e)
+                Log.d(NAME, "decodePayload: decoded JWE payload, verified=$verified")
+                promise.resolve(result)
+            } catch (e: BcscException) {
+                // Key retrieval / keystore problem (key unavailable, OEM keystore error, invalidation).
+                Log.e(NAME, "decodePayload: BCSC key error: ${e.devMessage} $diagnostics", e)
+                promise.reject(
+                    "E_BCSC_DECODE_ERROR",
+                    "Error accessing key for JWE decryption: ${e.devMessage} $diagnostics",
+                    e,
+                )
+            } catch (e: java.text.ParseException) {
+                // Malformed / truncated / replaced JWE on the wire (transport corruption).
+                Log.e(NAME, "decodePayload: JWE parse error: ${e.message} $diagnostics", e)
+                promise.reject("E_JWE_PARSE_ERROR", "Invalid JWE format: ${e.message} $diagnostics", e)
+            } catch (e: com.nimbusds.jose.JOSEException) {
+                // Wrong key (kidMatchesLocal=false) or unsupported alg/enc — read the diagnostics.
+                Log.e(NAME, "decodePayload: JWE decryption error: ${e.message} $diagnostics", e)
+                promise.reject("E_JWE_DECRYPT_ERROR", "Failed to decrypt JWE: ${e.message} $diagnostics", e)
+            } catch (e: IllegalArgumentException) {
+                Log.e(NAME, "decodePayload: Base64 decode error: ${e.message} $diagnostics", e)
+                promise.reject(
+                    "E_FAILED_TO_PARSE_JWS",
+                    "Failed to decode JWS payload segment: ${e.message} $diagnostics",
+                    e,
+                )
+            } catch (e: Exception) {
+                Log.e(NAME, "decodePayload: Unexpected error: ${e.message} $diagnostics", e)
+                promise.reject("E_PAYLOAD_DECODE_ERROR", "Unable to decode payload: ${e.message} $diagnostics", e)
+            }
         }
     }
 
@@ -1895,9 +2219,9 @@ class BcscCoreModule(
             )
 
             // Create signed JWT following iOS pattern (makeSignedJWTForAccountLogin)
-            val signedJWT =
+            val claimsSet =
                 try {
-                    createSignedJWTForAccountLogin(
+                    accountLoginClaimsSet(
                         accessToken,
                         clientId,
                         issuer,
@@ -1911,28 +2235,40 @@ class BcscCoreModule(
                     return
                 }
 
-            // Convert JWK ReadableMap to RSA public key for encryption (matching iOS)
-            val publicKey =
-                try {
-                    convertJWKToRSAPublicKey(key)
-                } catch (e: Exception) {
-                    Log.e(NAME, "createQuickLoginJWT: Failed to convert JWK to public key: ${e.message}")
-                    promise.reject("E_JWK_TO_KEY_FAILED", "Failed to convert JWK to RSA public key: ${e.message}", e)
-                    return
-                }
+            // Sign the JWT using current key pair (matching iOS signJWT)
+            asyncKeyPairSource.signAndSerializeClaimsSet(claimsSet).whenSettled(
+                onError = { e ->
+                    Log.e(NAME, "createQuickLoginJWT: Failed to create signed JWT: ${e.message}")
+                    promise.reject("E_JWT_CREATION_FAILED", "Failed to create signed JWT: ${e.message}", e)
+                },
+            ) { signedJWT ->
+                // Convert JWK ReadableMap to RSA public key for encryption (matching iOS)
+                val publicKey =
+                    try {
+                        convertJWKToRSAPublicKey(key)
+                    } catch (e: Exception) {
+                        Log.e(NAME, "createQuickLoginJWT: Failed to convert JWK to public key: ${e.message}")
+                        promise.reject(
+                            "E_JWK_TO_KEY_FAILED",
+                            "Failed to convert JWK to RSA public key: ${e.message}",
+                            e,
+                        )
+                        return@whenSettled
+                    }
 
-            // Encrypt the signed JWT with the provided public key (matching iOS encryptJWTWithPublicKey)
-            val encryptedJWT =
-                try {
-                    encryptJWTWithRSAPublicKey(signedJWT, publicKey)
-                } catch (e: Exception) {
-                    Log.e(NAME, "createQuickLoginJWT: Failed to encrypt JWT: ${e.message}")
-                    promise.reject("E_JWT_ENCRYPTION_FAILED", "Failed to encrypt JWT: ${e.message}", e)
-                    return
-                }
+                // Encrypt the signed JWT with the provided public key (matching iOS encryptJWTWithPublicKey)
+                val encryptedJWT =
+                    try {
+                        encryptJWTWithRSAPublicKey(signedJWT, publicKey)
+                    } catch (e: Exception) {
+                        Log.e(NAME, "createQuickLoginJWT: Failed to encrypt JWT: ${e.message}")
+                        promise.reject("E_JWT_ENCRYPTION_FAILED", "Failed to encrypt JWT: ${e.message}", e)
+                        return@whenSettled
+                    }
 
-            Log.d(NAME, "createQuickLoginJWT: Successfully created and encrypted quick login JWT")
-            promise.resolve(encryptedJWT)
+                Log.d(NAME, "createQuickLoginJWT: Successfully created and encrypted quick login JWT")
+                promise.resolve(encryptedJWT)
+            }
         } catch (e: BcscException) {
             Log.e(NAME, "createQuickLoginJWT: BCSC error: ${e.devMessage}", e)
             promise.reject("E_JWT_SIGN_FAILED", "Error creating quick login JWT: ${e.devMessage}", e)
@@ -1943,17 +2279,17 @@ class BcscCoreModule(
     }
 
     /**
-     * Creates a signed JWT for account login following iOS QuickLoginProtocol pattern
-     * This matches the makeSignedJWTForAccountLogin method in iOS
+     * Builds the claims of the account login JWT following iOS QuickLoginProtocol pattern
+     * This matches the makeSignedJWTForAccountLogin method in iOS, minus the signing
      */
-    private fun createSignedJWTForAccountLogin(
+    private fun accountLoginClaimsSet(
         accessToken: String,
         clientId: String,
         issuer: String,
         clientRefId: String,
         fcmDeviceToken: String,
         deviceToken: String,
-    ): String {
+    ): JWTClaimsSet {
         // Generate random UUID for JWT ID (matching iOS pattern)
         val randomUUID = UUID.randomUUID().toString().lowercase()
         val seconds = Date().time / 1000 // Unix timestamp in seconds
@@ -1962,30 +2298,26 @@ class BcscCoreModule(
         val hmacNonce = createAssertionFactoryHMAC(accessToken, randomUUID, clientId.lowercase())
 
         // Build JWT claims following BCSC pattern
-        val claimsSet =
-            JWTClaimsSet
-                .Builder()
-                .audience(issuer)
-                .issuer(clientId.lowercase()) // Match iOS lowercasing
-                .claim("client_ref_id", clientRefId)
-                .claim("nonce", hmacNonce)
-                .issueTime(Date(seconds * 1000)) // Convert back to Date
-                .jwtID(randomUUID)
-                // Add device information claims (matching iOS addDeviceInfoClaims)
-                .claim("system_name", "Android")
-                .claim("system_version", Build.VERSION.RELEASE)
-                .claim("device_model", Build.MODEL)
-                .claim("device_id", UUID.randomUUID().toString())
-                .claim("device_token", deviceToken)
-                .claim("fcm_device_token", fcmDeviceToken)
-                .claim("mobile_id_version", getAppVersion())
-                .claim("mobile_id_build", getAppBuildNumber())
-                .claim("app_set_id", getAppSetId())
-                .claim("has_other_accounts", false)
-                .build()
-
-        // Sign the JWT using current key pair (matching iOS signJWT)
-        return keyPairSource.signAndSerializeClaimsSet(claimsSet)
+        return JWTClaimsSet
+            .Builder()
+            .audience(issuer)
+            .issuer(clientId.lowercase()) // Match iOS lowercasing
+            .claim("client_ref_id", clientRefId)
+            .claim("nonce", hmacNonce)
+            .issueTime(Date(seconds * 1000)) // Convert back to Date
+            .jwtID(randomUUID)
+            // Add device information claims (matching iOS addDeviceInfoClaims)
+            .claim("system_name", "Android")
+            .claim("system_version", Build.VERSION.RELEASE)
+            .claim("device_model", Build.MODEL)
+            .claim("device_id", UUID.randomUUID().toString())
+            .claim("device_token", deviceToken)
+            .claim("fcm_device_token", fcmDeviceToken)
+            .claim("mobile_id_version", getAppVersion())
+            .claim("mobile_id_build", getAppBuildNumber())
+            .claim("app_set_id", getAppSetId())
+            .claim("has_other_accounts", false)
+            .build()
     }
 
     /**
@@ -2187,6 +2519,22 @@ class BcscCoreModule(
     @ReactMethod
     override fun clearAllKeychainData(promise: Promise) {
         keychainClearingService.clearAll()
+        // Usage of the deleted keys must not be flushed into a new key that reuses an alias.
+        if (keyUsageTrackerDelegate.isInitialized()) {
+            keyUsageTrackerDelegate.value.discardAll()
+        }
+        // The prefs-backed source notices the clear on its next read; the file-backed one serves from memory.
+        if (keyPairInfoSourceDelegate.isInitialized()) {
+            (keyPairInfoSource as? FileKeyPairInfoSource)?.clear()
+        }
+        // The repo must not keep signing with its cached key, and assertions signed with the deleted keys
+        // must not be served. Invalidating first also stales anything the pool signs meanwhile.
+        if (keyPairSourceDelegate.isInitialized()) {
+            keyPairSource.invalidateSigningKey()
+        }
+        if (clientAssertionPoolDelegate.isInitialized()) {
+            clientAssertionPoolDelegate.value.clear()
+        }
         promise.resolve(null)
     }
 
@@ -4165,16 +4513,91 @@ class BcscCoreModule(
     private val backgroundExecutor: ExecutorService by backgroundExecutorDelegate
 
     /**
-     * Shuts the background executor down on teardown, without initializing one that was never used.
+     * Shuts the background executor and key pre-generator down on teardown, and flushes key usage
+     * statistics, without initializing any of them if it was never used.
      * shutdown(), not shutdownNow(): an in-flight migration must never be interrupted mid-keystore-write.
      */
     override fun invalidate() {
         if (backgroundExecutorDelegate.isInitialized()) {
             backgroundExecutorDelegate.value.shutdown()
         }
+        if (keyPairPreGeneratorDelegate.isInitialized()) {
+            keyPairPreGeneratorDelegate.value.shutdown()
+        }
+        if (clientAssertionPoolDelegate.isInitialized()) {
+            reactApplicationContext.removeLifecycleEventListener(clientAssertionPrefillListener)
+            clientAssertionPoolDelegate.value.clear()
+        }
+        if (keyStoreExecutorDelegate.isInitialized()) {
+            keyStoreExecutorDelegate.value.shutdown()
+        }
+        if (keyUsageTrackerDelegate.isInitialized()) {
+            keyUsageTrackerDelegate.value.shutdown()
+        }
         super.invalidate()
     }
 
+    // MARK: - Keystore Executor Helpers
+
+    /**
+     * Rejection raised from inside a keystore job, carrying the promise error code.
+     */
+    private class KeyStoreRejection(
+        val code: String,
+        message: String,
+    ) : Exception(message)
+
+    private fun unsupportedKeyType(what: String) =
+        KeyStoreRejection(
+            "E_UNSUPPORTED_KEY_TYPE",
+            "getAllKeysWithPublicInfo only returns RSA public keys; $what can be matched with findKeysMatchingJwks",
+        )
+
+    /**
+     * Throws [KeyStoreRejection] with E_KEYSTORE_UNAVAILABLE when the keystore can't be used.
+     */
+    private fun requireKeyStoreAvailable(source: BcscKeyPairSource) {
+        if (!source.isAvailable()) {
+            throw KeyStoreRejection("E_KEYSTORE_UNAVAILABLE", "Android KeyStore is not available on this device")
+        }
+    }
+
+    /**
+     * Rejects a keystore promise with the module's E_KEYSTORE_ERROR conventions.
+     */
+    private fun rejectKeyStoreError(
+        promise: Promise,
+        e: Throwable,
+        action: String,
+    ) {
+        when (e) {
+            is KeyStoreRejection -> promise.reject(e.code, e.message)
+            is BcscException -> promise.reject("E_KEYSTORE_ERROR", "Error $action: ${e.devMessage}", e)
+            else -> promise.reject("E_KEYSTORE_ERROR", "Unexpected error $action: ${e.message}", e)
+        }
+    }
+
+    /**
+     * Settles a keystore future on its completing thread. [onError] receives the
+     * unwrapped failure, including anything [onResult] throws.
+     */
+    private fun <T> CompletableFuture<T>.whenSettled(
+        onError: (Throwable) -> Unit,
+        onResult: (T) -> Unit,
+    ) {
+        whenComplete { result, error ->
+            if (error != null) {
+                onError(if (error is CompletionException && error.cause != null) error.cause!! else error)
+                return@whenComplete
+            }
+            try {
+                onResult(result)
+            } catch (e: Exception) {
+                onError(e)
+            }
+        }
+    }
+
     // MARK: - JSON Conversion Helpers
 
     /**
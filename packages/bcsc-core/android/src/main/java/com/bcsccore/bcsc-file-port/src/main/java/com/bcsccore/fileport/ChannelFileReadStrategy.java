@@ -0,0 +1,71 @@
+package com.bcsccore.fileport;
+
+import androidx.annotation.NonNull;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Default read strategy. Files below a size threshold are read through a
+ * FileChannel straight into an exactly-sized heap buffer, looping until the
+ * whole file is in. Files at or above the threshold are memory-mapped
+ * read-only, so their pages are loaded on access instead of copied up front.
+ * 
+ * A mapping costs more to set up than a small read, and is released only when
+ * its buffer is garbage collected, so small files are never mapped. A mapping
+ * stays valid after the file is replaced by rename, which is how the BCSC
+ * files are written; a file truncated in place while mapped faults on access.
+ */
+public class ChannelFileReadStrategy implements FileReadStrategy {
+    
+    /**
+     * Files this size or larger are memory-mapped
+     */
+    public static final long DEFAULT_MAP_THRESHOLD_BYTES = 256 * 1024;
+    
+    private final long mapThresholdBytes;
+    
+    /**
+     * Constructor using {@link #DEFAULT_MAP_THRESHOLD_BYTES}
+     */
+    public ChannelFileReadStrategy() {
+        this(DEFAULT_MAP_THRESHOLD_BYTES);
+    }
+    
+    /**
+     * Constructor
+     * @param mapThresholdBytes files this size or larger are memory-mapped; Long.MAX_VALUE to never map
+     */
+    public ChannelFileReadStrategy(long mapThresholdBytes) {
+        this.mapThresholdBytes = mapThresholdBytes;
+    }
+    
+    @Override
+    @NonNull
+    public ByteBuffer read(@NonNull File file) throws IOException {
+        try (FileInputStream fis = new FileInputStream(file);
+             FileChannel channel = fis.getChannel()) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("File too large to read: " + size + " bytes");
+            }
+            
+            if (size >= mapThresholdBytes) {
+                // The mapping outlives the channel
+                return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            }
+            
+            ByteBuffer buffer = ByteBuffer.allocate((int) size);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) {
+                    // File shrank since its size was taken
+                    break;
+                }
+            }
+            buffer.flip();
+            return buffer;
+        }
+    }
+}
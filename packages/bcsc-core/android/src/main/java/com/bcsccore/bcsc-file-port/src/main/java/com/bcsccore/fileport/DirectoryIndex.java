@@ -0,0 +1,154 @@
+package com.bcsccore.fileport;
+
+import android.os.FileObserver;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import java.io.File;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps a {@link DirectorySnapshot} of one directory current, listing it
+ * again only when it may have changed
+ *
+ * A snapshot is reused while the directory's modification time is unchanged.
+ * That time moves whenever an entry is created, deleted or renamed into place,
+ * which covers files written through a temporary file and rename. Writing an
+ * existing file in place doesn't move it, so sizes and times in the snapshot
+ * can lag such writes until {@link #invalidate()} is called or the index is
+ * {@link #startWatching() watching} the directory. A listing taken within
+ * {@link #RACY_WINDOW_MS} of the directory's last change is never reused,
+ * since a further change in the same clock tick wouldn't move the time.
+ *
+ * Indexes are shared per directory, so every reader of the directory reuses
+ * the same listing.
+ */
+public final class DirectoryIndex {
+    
+    /** How recent a directory change can be, relative to its listing, for the listing to be trusted */
+    public static final long RACY_WINDOW_MS = 1000;
+    
+    private static final int WATCHED_EVENTS = FileObserver.CREATE | FileObserver.DELETE
+            | FileObserver.MOVED_FROM | FileObserver.MOVED_TO | FileObserver.MODIFY
+            | FileObserver.CLOSE_WRITE | FileObserver.ATTRIB
+            | FileObserver.DELETE_SELF | FileObserver.MOVE_SELF;
+    
+    private static final ConcurrentHashMap<String, DirectoryIndex> INDEXES = new ConcurrentHashMap<>();
+    
+    @NonNull
+    private final File directory;
+    
+    // Bumped by invalidate(); a snapshot started before a bump is stale
+    private final AtomicInteger changeCount = new AtomicInteger();
+    
+    @Nullable
+    private volatile DirectorySnapshot snapshot;
+    
+    // Guarded by this
+    @Nullable
+    private FileObserver observer;
+    
+    private DirectoryIndex(@NonNull File directory) {
+        this.directory = directory;
+    }
+    
+    /**
+     * Get the shared index for a directory
+     * @param directory the directory to index
+     * @return the index, created on first use
+     */
+    @NonNull
+    public static DirectoryIndex forDirectory(@NonNull File directory) {
+        String path = directory.getAbsolutePath();
+        DirectoryIndex index = INDEXES.get(path);
+        
+        if (index == null) {
+            DirectoryIndex created = new DirectoryIndex(new File(path));
+            index = INDEXES.putIfAbsent(path, created);
+            if (index == null) {
+                index = created;
+            }
+        }
+        
+        return index;
+    }
+    
+    /**
+     * Get the indexed directory
+     * @return the directory
+     */
+    @NonNull
+    public File getDirectory() {
+        return directory;
+    }
+    
+    /**
+     * Get a current snapshot, listing the directory again if it may have changed
+     * @return the snapshot
+     */
+    @NonNull
+    public DirectorySnapshot snapshot() {
+        DirectorySnapshot current = snapshot;
+        if (current != null && isCurrent(current)) {
+            return current;
+        }
+        
+        synchronized (this) {
+            current = snapshot;
+            if (current == null || !isCurrent(current)) {
+                current = DirectorySnapshot.list(directory, changeCount.get());
+                snapshot = current;
+            }
+            return current;
+        }
+    }
+    
+    /**
+     * Discard the current snapshot, so the next query lists the directory again
+     */
+    public void invalidate() {
+        changeCount.incrementAndGet();
+    }
+    
+    /**
+     * Invalidate on every change inside the directory, including in-place writes,
+     * until {@link #stopWatching()}. Does nothing if already watching.
+     */
+    @SuppressWarnings("deprecation") // FileObserver(File, int) needs API 29
+    public synchronized void startWatching() {
+        if (observer != null) {
+            return;
+        }
+        
+        observer = new FileObserver(directory.getPath(), WATCHED_EVENTS) {
+            @Override
+            public void onEvent(int event, @Nullable String path) {
+                invalidate();
+            }
+        };
+        observer.startWatching();
+        // Changes made before the watch started aren't reported
+        invalidate();
+    }
+    
+    /**
+     * Stop invalidating on changes; modification time checks still apply
+     */
+    public synchronized void stopWatching() {
+        if (observer != null) {
+            observer.stopWatching();
+            observer = null;
+        }
+    }
+    
+    private boolean isCurrent(@NonNull DirectorySnapshot current) {
+        if (current.changeCount != changeCount.get()) {
+            return false;
+        }
+        
+        long directoryLastModified = current.getDirectoryLastModified();
+        return directoryLastModified != 0
+                && directoryLastModified < current.getListedAt() - RACY_WINDOW_MS
+                && directory.lastModified() == directoryLastModified;
+    }
+}
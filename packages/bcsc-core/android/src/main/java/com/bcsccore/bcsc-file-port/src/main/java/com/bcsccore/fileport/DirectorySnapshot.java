@@ -0,0 +1,326 @@
+package com.bcsccore.fileport;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Immutable listing of a directory with each entry's size and modification time
+ *
+ * Names are kept sorted, and a second copy sorted by reversed name, so prefix
+ * and suffix queries binary-search to the matching range instead of scanning
+ * every entry; a wildcard pattern narrows to the range of its literal prefix
+ * first. Sizes and times are as of the listing.
+ */
+public final class DirectorySnapshot {
+    
+    private static final Comparator<Entry> BY_NAME = new Comparator<Entry>() {
+        @Override
+        public int compare(Entry a, Entry b) {
+            return a.name.compareTo(b.name);
+        }
+    };
+    
+    private static final Comparator<Entry> BY_REVERSED_NAME = new Comparator<Entry>() {
+        @Override
+        public int compare(Entry a, Entry b) {
+            return a.reversedName.compareTo(b.reversedName);
+        }
+    };
+    
+    // Both sorted once at construction and never modified
+    @NonNull
+    private final Entry[] byName;
+    
+    @NonNull
+    private final Entry[] byReversedName;
+    
+    private final long directoryLastModified;
+    
+    private final long listedAt;
+    
+    // DirectoryIndex's change count when the listing started
+    final int changeCount;
+    
+    private DirectorySnapshot(@NonNull Entry[] byName, long directoryLastModified, long listedAt, int changeCount) {
+        this.byName = byName;
+        this.byReversedName = byName.clone();
+        Arrays.sort(this.byReversedName, BY_REVERSED_NAME);
+        this.directoryLastModified = directoryLastModified;
+        this.listedAt = listedAt;
+        this.changeCount = changeCount;
+    }
+    
+    /**
+     * List a directory once
+     * @param directory the directory to list
+     * @return the snapshot; empty if the directory can't be listed
+     */
+    @NonNull
+    public static DirectorySnapshot list(@NonNull File directory) {
+        return list(directory, 0);
+    }
+    
+    @NonNull
+    static DirectorySnapshot list(@NonNull File directory, int changeCount) {
+        // Taken before listing, so a change made while listing moves the directory past it
+        long directoryLastModified = directory.lastModified();
+        long listedAt = System.currentTimeMillis();
+        String[] names = directory.list();
+        
+        if (names == null) {
+            return new DirectorySnapshot(new Entry[0], directoryLastModified, listedAt, changeCount);
+        }
+        
+        Entry[] entries = new Entry[names.length];
+        for (int i = 0; i < names.length; i++) {
+            File file = new File(directory, names[i]);
+            // Directories and vanished entries report size 0, as FileReader.getFileSize does
+            long size = file.isFile() ? file.length() : 0;
+            entries[i] = new Entry(names[i], size, file.lastModified());
+        }
+        Arrays.sort(entries, BY_NAME);
+        return new DirectorySnapshot(entries, directoryLastModified, listedAt, changeCount);
+    }
+    
+    /**
+     * Get the directory's modification time when it was listed
+     * @return milliseconds since epoch, or 0 if unknown
+     */
+    public long getDirectoryLastModified() {
+        return directoryLastModified;
+    }
+    
+    /**
+     * Get when the directory was listed
+     * @return milliseconds since epoch
+     */
+    public long getListedAt() {
+        return listedAt;
+    }
+    
+    /**
+     * Get the number of entries
+     * @return the count
+     */
+    public int size() {
+        return byName.length;
+    }
+    
+    /**
+     * Look up an entry by name
+     * @param name the entry name
+     * @return the entry, or null if it wasn't listed
+     */
+    @Nullable
+    public Entry get(@NonNull String name) {
+        int position = lowerBound(byName, name, false);
+        return position < byName.length && byName[position].name.equals(name) ? byName[position] : null;
+    }
+    
+    /**
+     * Get all entries
+     * @return entries in name order
+     */
+    @NonNull
+    public List<Entry> entries() {
+        return Collections.unmodifiableList(Arrays.asList(byName));
+    }
+    
+    /**
+     * Get entries whose names start with a prefix
+     * @param prefix the name prefix
+     * @return matching entries in name order
+     */
+    @NonNull
+    public List<Entry> withPrefix(@NonNull String prefix) {
+        return range(byName, prefix, false);
+    }
+    
+    /**
+     * Get entries whose names end with a suffix
+     * @param suffix the name suffix
+     * @return matching entries in name order
+     */
+    @NonNull
+    public List<Entry> withSuffix(@NonNull String suffix) {
+        List<Entry> matches = new ArrayList<>(range(byReversedName, reverse(suffix), true));
+        Collections.sort(matches, BY_NAME);
+        return Collections.unmodifiableList(matches);
+    }
+    
+    /**
+     * Get entries whose names match a wildcard pattern
+     * @param pattern pattern with * and ? wildcards
+     * @return matching entries in name order
+     */
+    @NonNull
+    public List<Entry> matching(@NonNull String pattern) {
+        int wildcard = 0;
+        while (wildcard < pattern.length() && pattern.charAt(wildcard) != '*' && pattern.charAt(wildcard) != '?') {
+            wildcard++;
+        }
+        
+        // Without wildcards the pattern names a single entry
+        if (wildcard == pattern.length()) {
+            Entry entry = get(pattern);
+            return entry != null ? Collections.singletonList(entry) : Collections.<Entry>emptyList();
+        }
+        
+        List<Entry> candidates = withPrefix(pattern.substring(0, wildcard));
+        Pattern compiledPattern = Pattern.compile(wildcardToRegex(pattern));
+        List<Entry> matches = new ArrayList<>();
+        for (Entry entry : candidates) {
+            if (compiledPattern.matcher(entry.name).matches()) {
+                matches.add(entry);
+            }
+        }
+        return Collections.unmodifiableList(matches);
+    }
+    
+    /**
+     * Convert wildcard pattern to regex
+     * @param wildcardPattern pattern with * and ? wildcards
+     * @return regex pattern
+     */
+    @NonNull
+    static String wildcardToRegex(@NonNull String wildcardPattern) {
+        StringBuilder sb = new StringBuilder(wildcardPattern.length());
+        sb.append('^');
+        
+        for (int i = 0; i < wildcardPattern.length(); ++i) {
+            char c = wildcardPattern.charAt(i);
+            switch (c) {
+                case '*':
+                    sb.append(".*");
+                    break;
+                case '?':
+                    sb.append('.');
+                    break;
+                case '(':
+                case ')':
+                case '[':
+                case ']':
+                case '$':
+                case '^':
+                case '.':
+                case '{':
+                case '}':
+                case '|':
+                case '\\':
+                    sb.append("\\");
+                    sb.append(c);
+                    break;
+                default:
+                    sb.append(c);
+                    break;
+            }
+        }
+        
+        sb.append('$');
+        return sb.toString();
+    }
+    
+    // Keys sharing a prefix are contiguous in sorted order
+    @NonNull
+    private static List<Entry> range(@NonNull Entry[] sorted, @NonNull String prefix, boolean reversed) {
+        int start = lowerBound(sorted, prefix, reversed);
+        int end = start;
+        while (end < sorted.length && key(sorted[end], reversed).startsWith(prefix)) {
+            end++;
+        }
+        return Collections.unmodifiableList(Arrays.asList(sorted).subList(start, end));
+    }
+    
+    private static int lowerBound(@NonNull Entry[] sorted, @NonNull String key, boolean reversed) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (key(sorted[mid], reversed).compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+    
+    @NonNull
+    private static String key(@NonNull Entry entry, boolean reversed) {
+        return reversed ? entry.reversedName : entry.name;
+    }
+    
+    // Char by char, unlike StringBuilder.reverse, so suffixes that split a surrogate pair still match
+    @NonNull
+    private static String reverse(@NonNull String value) {
+        char[] chars = new char[value.length()];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = value.charAt(chars.length - 1 - i);
+        }
+        return new String(chars);
+    }
+    
+    /**
+     * A listed directory entry
+     */
+    public static final class Entry {
+        
+        @NonNull
+        private final String name;
+        
+        @NonNull
+        private final String reversedName;
+        
+        private final long size;
+        
+        private final long lastModified;
+        
+        Entry(@NonNull String name, long size, long lastModified) {
+            this.name = name;
+            this.reversedName = reverse(name);
+            this.size = size;
+            this.lastModified = lastModified;
+        }
+        
+        /**
+         * Get the entry name
+         * @return name relative to the directory
+         */
+        @NonNull
+        public String getName() {
+            return name;
+        }
+        
+        /**
+         * Get the size when listed
+         * @return size in bytes, 0 for anything other than a regular file
+         */
+        public long getSize() {
+            return size;
+        }
+        
+        /**
+         * Get the modification time when listed
+         * @return milliseconds since epoch, or 0 if unknown
+         */
+        public long getLastModified() {
+            return lastModified;
+        }
+        
+        @Override
+        public String toString() {
+            return "Entry{" +
+                    "name='" + name + '\'' +
+                    ", size=" + size +
+                    ", lastModified=" + lastModified +
+                    '}';
+        }
+    }
+}
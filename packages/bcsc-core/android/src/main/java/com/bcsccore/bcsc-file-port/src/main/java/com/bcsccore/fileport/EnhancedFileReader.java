@@ -3,90 +3,97 @@ package com.bcsccore.fileport;
 import android.content.Context;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
-import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.regex.Pattern;
 
 /**
  * Enhanced file reader with pattern matching capabilities
+ *
+ * Pattern queries are answered from the directory's shared
+ * {@link DirectoryIndex} and return {@link LazyFileData}, so the directory is
+ * only listed again when it has changed, and a file's contents are only read
+ * when its data is first asked for. The index watches the directory from the
+ * first reader on, so files written in place are listed again too.
  */
 public class EnhancedFileReader extends SimpleFileReader implements PatternFileReader {
     
+    private final boolean releaseUnderMemoryPressure;
+    
+    @NonNull
+    private final DirectoryIndex directoryIndex;
+    
     /**
      * Constructor
      * @param context Android application context
      */
     public EnhancedFileReader(@NonNull Context context) {
-        super(context);
+        this(context, new ChannelFileReadStrategy(), false);
+    }
+    
+    /**
+     * Constructor
+     * @param context Android application context
+     * @param readStrategy how file contents are read
+     */
+    public EnhancedFileReader(@NonNull Context context, @NonNull FileReadStrategy readStrategy) {
+        this(context, readStrategy, false);
+    }
+    
+    /**
+     * Constructor
+     * @param context Android application context
+     * @param readStrategy how file contents are read
+     * @param releaseUnderMemoryPressure true to let contents read through returned FileData be
+     *                                   collected under memory pressure and read again on next access
+     */
+    public EnhancedFileReader(@NonNull Context context, @NonNull FileReadStrategy readStrategy,
+            boolean releaseUnderMemoryPressure) {
+        super(context, readStrategy);
+        this.releaseUnderMemoryPressure = releaseUnderMemoryPressure;
+        this.directoryIndex = DirectoryIndex.forDirectory(context.getFilesDir());
+        // In-place writes don't move the directory's modification time
+        directoryIndex.startWatching();
+    }
+    
+    /**
+     * Get the index pattern queries are answered from, shared with every other
+     * reader of the same directory
+     * @return the directory index
+     */
+    @NonNull
+    public DirectoryIndex getDirectoryIndex() {
+        return directoryIndex;
     }
     
     @Override
     @NonNull
     public FileData[] readFilesMatching(@NonNull String pattern) {
-        String[] matchingFiles = listFilesMatching(pattern);
-        List<FileData> fileDataList = new ArrayList<>();
-        
-        for (String filename : matchingFiles) {
-            byte[] data = readFile(filename);
-            long fileSize = getFileSize(filename);
-            fileDataList.add(new FileData(filename, data, fileSize));
-        }
-        
-        return fileDataList.toArray(new FileData[0]);
+        return toFileData(directoryIndex.snapshot().matching(pattern));
     }
     
     @Override
     @NonNull
     public String[] listFilesMatching(@NonNull String pattern) {
-        String[] allFiles = listFiles();
-        List<String> matchingFiles = new ArrayList<>();
-        
-        // Convert wildcard pattern to regex
-        String regexPattern = wildcardToRegex(pattern);
-        Pattern compiledPattern = Pattern.compile(regexPattern);
+        List<DirectorySnapshot.Entry> entries = directoryIndex.snapshot().matching(pattern);
+        String[] matchingFiles = new String[entries.size()];
         
-        for (String filename : allFiles) {
-            if (compiledPattern.matcher(filename).matches()) {
-                matchingFiles.add(filename);
-            }
+        for (int i = 0; i < matchingFiles.length; i++) {
+            matchingFiles[i] = entries.get(i).getName();
         }
         
-        return matchingFiles.toArray(new String[0]);
+        return matchingFiles;
     }
     
     @Override
     @NonNull
     public FileData[] readFilesWithPrefix(@NonNull String prefix) {
-        String[] allFiles = listFiles();
-        List<FileData> fileDataList = new ArrayList<>();
-        
-        for (String filename : allFiles) {
-            if (filename.startsWith(prefix)) {
-                byte[] data = readFile(filename);
-                long fileSize = getFileSize(filename);
-                fileDataList.add(new FileData(filename, data, fileSize));
-            }
-        }
-        
-        return fileDataList.toArray(new FileData[0]);
+        return toFileData(directoryIndex.snapshot().withPrefix(prefix));
     }
     
     @Override
     @NonNull
     public FileData[] readFilesWithSuffix(@NonNull String suffix) {
-        String[] allFiles = listFiles();
-        List<FileData> fileDataList = new ArrayList<>();
-        
-        for (String filename : allFiles) {
-            if (filename.endsWith(suffix)) {
-                byte[] data = readFile(filename);
-                long fileSize = getFileSize(filename);
-                fileDataList.add(new FileData(filename, data, fileSize));
-            }
-        }
-        
-        return fileDataList.toArray(new FileData[0]);
+        return toFileData(directoryIndex.snapshot().withSuffix(suffix));
     }
     
     /**
@@ -105,64 +112,39 @@ public class EnhancedFileReader extends SimpleFileReader implements PatternFileR
     @NonNull
     public FileData[] readBcscFiles() {
         List<FileData> allBcscFiles = new ArrayList<>();
+        // One snapshot answers every prefix
+        DirectorySnapshot snapshot = directoryIndex.snapshot();
         
-        // Add token files
-        FileData[] tokenFiles = readFilesWithPrefix("tokens");
-        for (FileData fileData : tokenFiles) {
-            allBcscFiles.add(fileData);
-        }
-        
-        // Add other common BCSC files
-        String[] commonPrefixes = {"accounts", "providers", "keypair", "credentials"};
-        for (String prefix : commonPrefixes) {
-            FileData[] files = readFilesWithPrefix(prefix);
-            for (FileData fileData : files) {
-                allBcscFiles.add(fileData);
+        // Token files first, then other common BCSC files
+        String[] prefixes = {"tokens", "accounts", "providers", "keypair", "credentials"};
+        for (String prefix : prefixes) {
+            for (DirectorySnapshot.Entry entry : snapshot.withPrefix(prefix)) {
+                allBcscFiles.add(lazyFileData(entry));
             }
         }
         
         return allBcscFiles.toArray(new FileData[0]);
     }
     
-    /**
-     * Convert wildcard pattern to regex
-     * @param wildcardPattern pattern with * and ? wildcards
-     * @return regex pattern
-     */
-    private String wildcardToRegex(String wildcardPattern) {
-        StringBuilder sb = new StringBuilder(wildcardPattern.length());
-        sb.append('^');
+    @NonNull
+    private FileData[] toFileData(@NonNull List<DirectorySnapshot.Entry> entries) {
+        FileData[] fileData = new FileData[entries.size()];
         
-        for (int i = 0; i < wildcardPattern.length(); ++i) {
-            char c = wildcardPattern.charAt(i);
-            switch (c) {
-                case '*':
-                    sb.append(".*");
-                    break;
-                case '?':
-                    sb.append('.');
-                    break;
-                case '(':
-                case ')':
-                case '[':
-                case ']':
-                case '$':
-                case '^':
-                case '.':
-                case '{':
-                case '}':
-                case '|':
-                case '\\':
-                    sb.append("\\");
-                    sb.append(c);
-                    break;
-                default:
-                    sb.append(c);
-                    break;
-            }
+        for (int i = 0; i < fileData.length; i++) {
+            fileData[i] = lazyFileData(entries.get(i));
         }
         
-        sb.append('$');
-        return sb.toString();
+        return fileData;
+    }
+    
+    /**
+     * Describe a listed file without reading it
+     * @param entry the file's entry in a directory snapshot
+     * @return FileData that reads the contents on first access
+     */
+    @NonNull
+    private FileData lazyFileData(@NonNull DirectorySnapshot.Entry entry) {
+        return new LazyFileData(this, entry.getName(), entry.getSize(), entry.getLastModified(),
+                releaseUnderMemoryPressure);
     }
 }
@@ -5,6 +5,8 @@ import androidx.annotation.Nullable;
 
 /**
  * Data class representing a file and its contents
+ *
+ * Subclasses may read the contents on demand; see {@link LazyFileData}.
  */
 public class FileData {
     
@@ -59,7 +61,7 @@ public class FileData {
      * @return true if data is available, false otherwise
      */
     public boolean hasData() {
-        return data != null;
+        return getData() != null;
     }
     
     /**
@@ -68,6 +70,8 @@ public class FileData {
      */
     @Nullable
     public String getDataAsString() {
+        byte[] data = getData();
+        
         if (data == null) {
             return null;
         }
@@ -0,0 +1,21 @@
+package com.bcsccore.fileport;
+
+import androidx.annotation.NonNull;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Strategy for reading a file's contents into memory
+ */
+public interface FileReadStrategy {
+    
+    /**
+     * Read the whole file
+     * @param file the file to read
+     * @return a buffer the caller owns, whose remaining bytes are the file contents; may be read-only
+     * @throws IOException if the file can't be read
+     */
+    @NonNull
+    ByteBuffer read(@NonNull File file) throws IOException;
+}
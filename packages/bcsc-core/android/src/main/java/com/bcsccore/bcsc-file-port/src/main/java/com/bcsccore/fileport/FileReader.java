@@ -3,6 +3,7 @@ package com.bcsccore.fileport;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import java.io.File;
+import java.nio.ByteBuffer;
 
 /**
  * Interface for file operations
@@ -17,6 +18,19 @@ public interface FileReader {
     @Nullable
     byte[] readFile(@NonNull String filename);
     
+    /**
+     * Read a file into a buffer without copying it into a byte array.
+     * Large files may come back as a read-only memory-mapped buffer.
+     * The default wraps {@link #readFile(String)}, so it still copies.
+     * @param filename the name of the file to read
+     * @return buffer whose remaining bytes are the file contents, or null if file doesn't exist or can't be read
+     */
+    @Nullable
+    default ByteBuffer readFileBuffer(@NonNull String filename) {
+        byte[] data = readFile(filename);
+        return data != null ? ByteBuffer.wrap(data) : null;
+    }
+    
     /**
      * Check if a file exists
      * @param filename the name of the file to check
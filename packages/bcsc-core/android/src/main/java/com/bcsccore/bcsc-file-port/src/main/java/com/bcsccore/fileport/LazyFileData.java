@@ -0,0 +1,118 @@
+package com.bcsccore.fileport;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import java.lang.ref.SoftReference;
+
+/**
+ * FileData that reads the file's contents on the first call to {@link #getData()}.
+ *
+ * Name, size and modification time are taken when the directory is listed, so
+ * callers that only need those never read the file. Once the contents are held,
+ * the size is theirs rather than the listed one. Once read, the contents
+ * are kept, or held softly when created as releasable so the garbage collector
+ * can drop them under memory pressure; they are then read again on next access
+ * and may reflect later changes to the file.
+ */
+public class LazyFileData extends FileData {
+    
+    @NonNull
+    private final FileReader reader;
+    
+    private final long lastModified;
+    
+    private final boolean releasable;
+    
+    // Guarded by this
+    private boolean loaded;
+    
+    @Nullable
+    private byte[] data;
+    
+    @Nullable
+    private SoftReference<byte[]> softData;
+    
+    /**
+     * Constructor
+     * @param reader the reader the contents are read through
+     * @param filename the name of the file
+     * @param fileSize the size of the file in bytes when listed
+     * @param lastModified the file's modification time in milliseconds since epoch when listed, or 0 if unknown
+     * @param releasable true to let the contents be collected under memory pressure once read
+     */
+    public LazyFileData(@NonNull FileReader reader, @NonNull String filename, long fileSize,
+            long lastModified, boolean releasable) {
+        super(filename, null, fileSize);
+        this.reader = reader;
+        this.lastModified = lastModified;
+        this.releasable = releasable;
+    }
+    
+    /**
+     * Get the file data, reading it on first access
+     * @return file contents as byte array, or null if file couldn't be read
+     */
+    @Override
+    @Nullable
+    public synchronized byte[] getData() {
+        if (loaded) {
+            if (!releasable) {
+                return data;
+            }
+            // A failed read is remembered as a null reference; a collected one reads again
+            byte[] held = softData != null ? softData.get() : null;
+            if (held != null || softData == null) {
+                return held;
+            }
+        }
+        
+        byte[] read = reader.readFile(getFilename());
+        loaded = true;
+        if (releasable) {
+            softData = read != null ? new SoftReference<>(read) : null;
+        } else {
+            data = read;
+        }
+        return read;
+    }
+    
+    /**
+     * Get the file size: the size of the contents if they are held, otherwise
+     * the size when listed
+     * @return file size in bytes
+     */
+    @Override
+    public synchronized long getFileSize() {
+        byte[] held = releasable ? (softData != null ? softData.get() : null) : data;
+        return held != null ? held.length : super.getFileSize();
+    }
+    
+    /**
+     * Check whether the contents are currently held, without reading them
+     * @return true if the contents have been read and not released
+     */
+    public synchronized boolean isLoaded() {
+        if (!loaded) {
+            return false;
+        }
+        return releasable ? softData != null && softData.get() != null : data != null;
+    }
+    
+    /**
+     * Get the file's modification time as listed
+     * @return milliseconds since epoch, or 0 if unknown
+     */
+    public long getLastModified() {
+        return lastModified;
+    }
+    
+    @Override
+    public String toString() {
+        return "LazyFileData{" +
+                "filename='" + getFilename() + '\'' +
+                ", fileSize=" + getFileSize() +
+                ", lastModified=" + lastModified +
+                ", loaded=" + isLoaded() +
+                '}';
+    }
+}
@@ -11,7 +11,8 @@ public interface PatternFileReader extends FileReader {
     /**
      * Read files matching a specific pattern
      * @param pattern the pattern to match (supports wildcards)
-     * @return array of FileData objects containing filename and content
+     * @return array of FileData objects containing filename and content,
+     *         which implementations may read when it is first accessed
      */
     @NonNull
     FileData[] readFilesMatching(@NonNull String pattern);
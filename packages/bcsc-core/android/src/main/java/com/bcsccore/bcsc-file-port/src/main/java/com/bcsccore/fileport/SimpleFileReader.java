@@ -4,8 +4,8 @@ import android.content.Context;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 /**
  * Simple file reader implementation for reading files from app's private directory
@@ -15,36 +15,55 @@ public class SimpleFileReader implements FileReader {
     @NonNull
     private final Context context;
     
+    @NonNull
+    private final FileReadStrategy readStrategy;
+    
     /**
      * Constructor
      * @param context Android application context
      */
     public SimpleFileReader(@NonNull Context context) {
+        this(context, new ChannelFileReadStrategy());
+    }
+    
+    /**
+     * Constructor
+     * @param context Android application context
+     * @param readStrategy how file contents are read
+     */
+    public SimpleFileReader(@NonNull Context context, @NonNull FileReadStrategy readStrategy) {
         this.context = context;
+        this.readStrategy = readStrategy;
     }
     
     @Override
     @Nullable
     public byte[] readFile(@NonNull String filename) {
-        File file = new File(context.getFilesDir(), filename);
+        ByteBuffer buffer = readFileBuffer(filename);
         
-        if (!file.exists() || !file.isFile()) {
+        if (buffer == null) {
             return null;
         }
         
-        try (FileInputStream fis = new FileInputStream(file)) {
-            byte[] data = new byte[(int) file.length()];
-            int bytesRead = fis.read(data);
-            
-            if (bytesRead != data.length) {
-                // Partial read, return what we got
-                byte[] partialData = new byte[bytesRead];
-                System.arraycopy(data, 0, partialData, 0, bytesRead);
-                return partialData;
-            }
-            
-            return data;
-            
+        // A heap buffer holding exactly the file hands over its array without a copy
+        if (buffer.hasArray() && buffer.arrayOffset() == 0 && buffer.position() == 0
+                && buffer.remaining() == buffer.array().length) {
+            return buffer.array();
+        }
+        
+        byte[] data = new byte[buffer.remaining()];
+        buffer.get(data);
+        return data;
+    }
+    
+    @Override
+    @Nullable
+    public ByteBuffer readFileBuffer(@NonNull String filename) {
+        File file = new File(context.getFilesDir(), filename);
+        
+        // Opening fails for missing files and directories, so no separate existence check
+        try {
+            return readStrategy.read(file);
         } catch (IOException e) {
             return null;
         }
@@ -16,10 +16,16 @@ import com.bcsccore.fileport.encryption.KeySource;
  */
 public class BcscFileDecryptor implements FileDecryptor {
     
+    private final KeySource keySource;
+    
     private final Encryption encryption;
     
     public BcscFileDecryptor(@NonNull Context context) {
-        KeySource keySource = new AndroidKeyStoreSource();
+        this(context, new AndroidKeyStoreSource());
+    }
+    
+    public BcscFileDecryptor(@NonNull Context context, @NonNull KeySource keySource) {
+        this.keySource = keySource;
         this.encryption = new AESEncryptor(keySource);
     }
     
@@ -44,7 +50,6 @@ public class BcscFileDecryptor implements FileDecryptor {
     public boolean isAvailable() {
         try {
             // Test if we can get the secret key
-            KeySource keySource = new AndroidKeyStoreSource();
             keySource.getSecretKey();
             return true;
         } catch (Exception e) {
@@ -21,8 +21,12 @@ public class DecryptedFileReader {
     private final FileDecryptor decryptor;
     
     public DecryptedFileReader(@NonNull Context context) {
+        this(context, new BcscFileDecryptor(context));
+    }
+    
+    public DecryptedFileReader(@NonNull Context context, @NonNull FileDecryptor decryptor) {
         this.fileReader = FileReaderFactory.createEnhancedFileReader(context);
-        this.decryptor = new BcscFileDecryptor(context);
+        this.decryptor = decryptor;
     }
     
     public DecryptedFileReader(@NonNull Context context, @NonNull String customDirectory) {
@@ -12,12 +12,37 @@ import javax.crypto.SecretKey;
 /**
  * Android KeyStore implementation for providing secret keys.
  * This uses the same key alias and configuration as the original BCSC system.
+ * By default the keystore is loaded on each access; an app that already holds
+ * a loaded keystore can supply it through a {@link KeyStoreProvider}.
  */
 public class AndroidKeyStoreSource implements KeySource {
 
     private static final String ALIAS_ENC = "enc1";
     private static final String KEYSTORE_TYPE = "AndroidKeyStore";
 
+    /**
+     * Supplies the loaded AndroidKeyStore
+     */
+    public interface KeyStoreProvider {
+        @NonNull
+        KeyStore getKeyStore() throws Exception;
+    }
+
+    @NonNull
+    private final KeyStoreProvider keyStoreProvider;
+
+    public AndroidKeyStoreSource() {
+        this(() -> {
+            KeyStore keyStore = KeyStore.getInstance(KEYSTORE_TYPE);
+            keyStore.load(null);
+            return keyStore;
+        });
+    }
+
+    public AndroidKeyStoreSource(@NonNull KeyStoreProvider keyStoreProvider) {
+        this.keyStoreProvider = keyStoreProvider;
+    }
+
     @NonNull
     @Override
     public SecretKey getSecretKey() throws Exception {
@@ -32,9 +57,7 @@ public class AndroidKeyStoreSource implements KeySource {
 
     @NonNull
     private KeyStore loadAndroidKeyStore() throws Exception {
-        KeyStore keyStore = KeyStore.getInstance(KEYSTORE_TYPE);
-        keyStore.load(null);
-        return keyStore;
+        return keyStoreProvider.getKeyStore();
     }
 
     private void generateSecretKey(String alias) throws Exception {
@@ -0,0 +1,129 @@
+package com.bcsccore.keypair.core.interfaces;
+
+import androidx.annotation.NonNull;
+import com.bcsccore.keypair.core.exceptions.BcscException;
+import com.bcsccore.keypair.core.models.BcscKeyPair;
+import com.bcsccore.keypair.core.models.KeyCleanupReport;
+import com.bcsccore.keypair.core.models.KeyPairInfo;
+import com.bcsccore.keypair.core.models.KeyRetentionPolicy;
+import com.bcsccore.keypair.core.models.SignedClaimsResult;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jwt.JWTClaimsSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking companion to {@link BcscKeyPairSource}.
+ *
+ * Every method returns immediately; the keystore work runs on a dedicated
+ * executor and the future completes with the result, or exceptionally with
+ * the {@link BcscException} the blocking call would have thrown. Callers on
+ * the React Native module thread use this so a slow keystore never stalls
+ * other bridge calls.
+ */
+public interface AsyncBcscKeyPairSource {
+
+  /**
+   * Scheduling priority of keystore work, highest first. Queued signatures
+   * run ahead of reads, writes and cleanup; prefetching work nobody is
+   * waiting on yet runs last.
+   */
+  enum Priority {
+    SIGN,
+    READ,
+    WRITE,
+    CLEANUP,
+    PREFETCH
+  }
+
+  /**
+   * A unit of blocking work against the underlying source, for callers that
+   * need several calls to run together on the keystore executor.
+   * @param <T> the result type
+   */
+  interface Task<T> {
+    T run(@NonNull BcscKeyPairSource source) throws Exception;
+  }
+
+  /**
+   * Get the blocking source the async calls delegate to. Only use it for
+   * calls that don't touch the keystore, e.g. JWK conversion of a key pair
+   * that was already loaded.
+   * @return the underlying source
+   */
+  @NonNull
+  BcscKeyPairSource getSource();
+
+  /**
+   * @see BcscKeyPairSource#getCurrentBcscKeyPair()
+   */
+  @NonNull
+  CompletableFuture<BcscKeyPair> getCurrentBcscKeyPair();
+
+  /**
+   * @see BcscKeyPairSource#getBcscKeyPair(String)
+   * @return a future completed with the key pair, or with null if the alias is absent
+   */
+  @NonNull
+  CompletableFuture<BcscKeyPair> getBcscKeyPair(@NonNull String kid);
+
+  /**
+   * @see BcscKeyPairSource#getNewBcscKeyPair()
+   */
+  @NonNull
+  CompletableFuture<BcscKeyPair> getNewBcscKeyPair();
+
+  /**
+   * @see BcscKeyPairSource#signAndSerializeClaimsSet(JWTClaimsSet)
+   */
+  @NonNull
+  CompletableFuture<String> signAndSerializeClaimsSet(@NonNull JWTClaimsSet claimsSet);
+
+  /**
+   * @see BcscKeyPairSource#signAndSerializeAll(List)
+   */
+  @NonNull
+  CompletableFuture<List<SignedClaimsResult>> signAndSerializeAll(@NonNull List<JWTClaimsSet> claimsSets);
+
+  /**
+   * @see BcscKeyPairSource#getAllBcscKeyPairInfos()
+   */
+  @NonNull
+  CompletableFuture<List<KeyPairInfo>> getAllBcscKeyPairInfos();
+
+  /**
+   * @see BcscKeyPairSource#findAliasesMatchingJWKSet(JWKSet)
+   */
+  @NonNull
+  CompletableFuture<List<String>> findAliasesMatchingJWKSet(@NonNull JWKSet jwkSet);
+
+  /**
+   * @see BcscKeyPairSource#markActiveBcscKeyPair(String)
+   */
+  @NonNull
+  CompletableFuture<Void> markActiveBcscKeyPair(@NonNull String alias);
+
+  /**
+   * @see BcscKeyPairSource#deleteBcscKeyPair(String)
+   */
+  @NonNull
+  CompletableFuture<Void> deleteBcscKeyPair(@NonNull String alias);
+
+  /**
+   * @see BcscKeyPairSource#cleanUpBcscKeyPairs(KeyRetentionPolicy)
+   */
+  @NonNull
+  CompletableFuture<KeyCleanupReport> cleanUpBcscKeyPairs(@NonNull KeyRetentionPolicy policy);
+
+  /**
+   * Run several blocking calls together as one keystore job, e.g. a check
+   * followed by a write.
+   * @param priority the scheduling priority of the job
+   * @param task the work to run
+   * @param <T> the result type
+   * @return a future completed with the task's result
+   */
+  @NonNull
+  <T> CompletableFuture<T> run(@NonNull Priority priority, @NonNull Task<T> task);
+
+}
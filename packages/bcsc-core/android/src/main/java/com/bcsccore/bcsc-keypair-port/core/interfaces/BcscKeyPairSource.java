@@ -3,12 +3,20 @@ package com.bcsccore.keypair.core.interfaces;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import com.bcsccore.keypair.core.models.BcscKeyPair;
+import com.bcsccore.keypair.core.models.KeyCleanupReport;
 import com.bcsccore.keypair.core.models.KeyPairInfo;
+import com.bcsccore.keypair.core.models.KeyRetentionPolicy;
+import com.bcsccore.keypair.core.models.SignedClaimsResult;
+import com.bcsccore.keypair.core.exceptions.AlertKey;
 import com.bcsccore.keypair.core.exceptions.BcscException;
 import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
 import com.nimbusds.jwt.JWTClaimsSet;
 import com.nimbusds.jwt.SignedJWT;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Interface for BC Services Card key pair operations.
@@ -17,6 +25,12 @@ import java.util.List;
  */
 public interface BcscKeyPairSource {
 
+  /**
+   * Returned by {@link #getSigningKeyVersion()} by sources that don't track
+   * changes to their signing key.
+   */
+  long UNVERSIONED = -1L;
+
   /**
    * Check if the key store is available and functional.
    * @return true if key store operations are available
@@ -49,6 +63,14 @@ public interface BcscKeyPairSource {
   @NonNull
   BcscKeyPair getNewBcscKeyPair() throws BcscException;
 
+  /**
+   * Pre-generate the key pair the next {@link #getNewBcscKeyPair()} will
+   * return, off the calling thread, so rotation only has to promote it.
+   * Returns immediately. Implementations that don't pre-generate ignore it.
+   */
+  default void stageNextBcscKeyPair() {
+  }
+
   /**
    * Delete a specific key pair.
    * @param alias the alias of the key pair to delete
@@ -61,12 +83,43 @@ public interface BcscKeyPairSource {
    * The createdAt on each result reflects metadata when present, or 0 when
    * the alias exists in the keystore but has no metadata entry yet.
    * Used by the recovery flow to match local keys against the server jwks.
+   * Sources may serve this from a cached list of keystore aliases, so it can
+   * be stale; use {@link #auditBcscKeyPairInfos()} before deleting keys.
    * @return list of KeyPairInfo entries; empty list if the keystore is empty.
    * @throws BcscException if the keystore cannot be read
    */
   @NonNull
   List<KeyPairInfo> getAllBcscKeyPairInfos() throws BcscException;
 
+  /**
+   * Like {@link #getAllBcscKeyPairInfos()}, but re-reads the platform keystore
+   * instead of trusting any cached list of its aliases. The default returns
+   * {@link #getAllBcscKeyPairInfos()}; sources that cache aliases override it.
+   * @return list of KeyPairInfo entries; empty list if the keystore is empty.
+   * @throws BcscException if the keystore cannot be read
+   */
+  @NonNull
+  default List<KeyPairInfo> auditBcscKeyPairInfos() throws BcscException {
+    return getAllBcscKeyPairInfos();
+  }
+
+  /**
+   * Find the local key pairs whose public key is in the server's jwks, by
+   * RFC 7638 thumbprint. Keys are compared by value, so a kid that drifted
+   * across migrations, or a legacy encoding of the same key, still matches.
+   * Local thumbprints are indexed, so repeated calls don't re-read keystore
+   * entries; generating or deleting a key invalidates its entry.
+   * The default throws; sources that can enumerate their keys should override it.
+   * @param jwkSet the server's public keys
+   * @return the matching aliases, in numeric order of the number in the alias
+   *         (rsa2 before rsa10); empty if none match
+   * @throws BcscException if the keystore cannot be read, or the source doesn't support matching
+   */
+  @NonNull
+  default List<String> findAliasesMatchingJWKSet(@NonNull JWKSet jwkSet) throws BcscException {
+    throw new BcscException("findAliasesMatchingJWKSet is unsupported by " + getClass().getName());
+  }
+
   /**
    * Mark the given alias as the active (newest) key by stamping its
    * createdAt to now. Creates a metadata entry if none exists. Does not
@@ -77,12 +130,47 @@ public interface BcscKeyPairSource {
   void markActiveBcscKeyPair(@NonNull String alias) throws BcscException;
 
   /**
-   * Clean up old key pairs to manage storage.
-   * Typically removes the oldest key pair if more than 3 exist.
-   * @throws BcscException if cleanup fails
+   * Clean up old key pairs to manage storage, applying
+   * {@link KeyRetentionPolicy#DEFAULT}.
+   * @throws BcscException if cleanup fails, including when a keystore entry
+   *         could not be deleted
+   * @deprecated use {@link #cleanUpBcscKeyPairs(KeyRetentionPolicy)} with
+   *     {@link KeyRetentionPolicy#DEFAULT} and check the report's failures
    */
+  @Deprecated
   void cleanUpBcscKeyPairs() throws BcscException;
 
+  /**
+   * Delete every key pair the policy doesn't retain, in one batch: metadata
+   * is read and written once and the keystore is loaded once.
+   * The default only supports {@link KeyRetentionPolicy#DEFAULT}, which it
+   * applies through {@link #cleanUpBcscKeyPairs()}, and reports the key pairs
+   * that were enumerated before but not after as deleted; sources should
+   * override it.
+   * @param policy decides which key pairs to keep
+   * @return what was deleted, what could not be deleted, and what was kept
+   * @throws BcscException if metadata cannot be read or written, or the
+   *         source doesn't support the policy
+   */
+  @NonNull
+  @SuppressWarnings("deprecation")
+  default KeyCleanupReport cleanUpBcscKeyPairs(@NonNull KeyRetentionPolicy policy) throws BcscException {
+    if (policy != KeyRetentionPolicy.DEFAULT) {
+      throw new BcscException("Retention policies are unsupported by " + getClass().getName());
+    }
+    Set<String> before = new HashSet<>();
+    for (KeyPairInfo info : getAllBcscKeyPairInfos()) {
+      before.add(info.getAlias());
+    }
+    cleanUpBcscKeyPairs();
+    List<String> retained = new ArrayList<>();
+    for (KeyPairInfo info : getAllBcscKeyPairInfos()) {
+      retained.add(info.getAlias());
+    }
+    before.removeAll(retained);
+    return new KeyCleanupReport(before, new ArrayList<>(), retained);
+  }
+
   /**
    * Convert a key pair to JWK format for public key sharing.
    * @param bcscKeyPair the key pair to convert
@@ -91,6 +179,26 @@ public interface BcscKeyPairSource {
   @NonNull
   JWK convertBcscKeyPairToJWK(@NonNull BcscKeyPair bcscKeyPair);
 
+  /**
+   * Get the RFC 7638 SHA-256 thumbprint of a key pair's public JWK. Two JWKs
+   * for the same public key have the same thumbprint regardless of how their
+   * parameters were encoded, so this is the cheap way to compare against jwks.
+   * The default computes it from {@link #convertBcscKeyPairToJWK} on every
+   * call; sources that memoize JWKs should override it.
+   * @param bcscKeyPair the key pair
+   * @return the base64url-encoded thumbprint
+   * @throws BcscException if the thumbprint cannot be computed
+   */
+  @NonNull
+  default String getJWKThumbprint(@NonNull BcscKeyPair bcscKeyPair) throws BcscException {
+    try {
+      return convertBcscKeyPairToJWK(bcscKeyPair).computeThumbprint().toString();
+    } catch (Exception e) {
+      throw new BcscException("Failed to compute JWK thumbprint for '"
+          + bcscKeyPair.getKeyInfo().getAlias() + "': " + e.getMessage());
+    }
+  }
+
   /**
    * Sign a JWT claims set and return the serialized JWT string.
    * @param claimsSet the claims to sign
@@ -100,6 +208,51 @@ public interface BcscKeyPairSource {
   @NonNull
   String signAndSerializeClaimsSet(@NonNull JWTClaimsSet claimsSet) throws BcscException;
 
+  /**
+   * Sign several JWT claims sets with the current key pair, resolving the key
+   * once for the whole batch.
+   * The default signs them one by one through {@link #signAndSerializeClaimsSet};
+   * sources that cache the signing key should override it.
+   * @param claimsSets the claims to sign
+   * @return one result per claims set, in the same order; each holds either
+   *         the serialized JWT or the error for that item
+   */
+  @NonNull
+  default List<SignedClaimsResult> signAndSerializeAll(@NonNull List<JWTClaimsSet> claimsSets) {
+    List<SignedClaimsResult> results = new ArrayList<>(claimsSets.size());
+    for (JWTClaimsSet claimsSet : claimsSets) {
+      try {
+        results.add(SignedClaimsResult.success(signAndSerializeClaimsSet(claimsSet)));
+      } catch (BcscException e) {
+        results.add(SignedClaimsResult.failure(e));
+      } catch (RuntimeException e) {
+        results.add(SignedClaimsResult.failure(
+            new BcscException(AlertKey.ERR_207_UNABLE_TO_SIGN_CLAIMS_SET, e.getMessage(), e)));
+      }
+    }
+    return results;
+  }
+
+  /**
+   * Get a counter that changes whenever the key this source signs with may
+   * have changed: rotation, promotion, deletion, cleanup, a failed signature
+   * or {@link #invalidateSigningKey()}. Never touches the keystore. Holders of
+   * material signed earlier read it before signing and compare it later to
+   * tell whether the signing key has changed since. Only equality is meaningful.
+   * @return the current version, or {@link #UNVERSIONED} if this source doesn't track it
+   */
+  default long getSigningKeyVersion() {
+    return UNVERSIONED;
+  }
+
+  /**
+   * Forget the resolved signing key after the keystore or the key metadata
+   * was changed outside this source, e.g. by a keychain clear. The next
+   * signature resolves the current key again.
+   */
+  default void invalidateSigningKey() {
+  }
+
   /**
    * Sign a JWT claims set and return the SignedJWT object.
    * @param claimsSet the claims to sign
@@ -0,0 +1,98 @@
+package com.bcsccore.keypair.core.interfaces;
+
+import android.security.keystore.KeyGenParameterSpec;
+import androidx.annotation.NonNull;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSSigner;
+import com.nimbusds.jose.jwk.JWK;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+
+/**
+ * Describes one kind of signing key the key pair repository can generate and use:
+ * how it is generated in the keystore, which JWS algorithm signs with it, how its
+ * public half is published as a JWK, and which alias prefix its keys are stored under.
+ */
+public interface KeyAlgorithmProfile {
+
+  /**
+   * Get the alias prefix for keys of this profile. Aliases are the prefix
+   * followed by a rotation number, e.g. rsa1, rsa2.
+   * @return the alias prefix
+   */
+  @NonNull
+  String getAliasPrefix();
+
+  /**
+   * Get the keystore key algorithm name, as passed to KeyPairGenerator.
+   * @return the key algorithm (a KeyProperties.KEY_ALGORITHM_* value)
+   */
+  @NonNull
+  String getKeyAlgorithm();
+
+  /**
+   * Get the key size in bits.
+   * @return the key size
+   */
+  int getKeySize();
+
+  /**
+   * Get the JWS algorithm used to sign with keys of this profile.
+   * @return the JWS algorithm
+   */
+  @NonNull
+  JWSAlgorithm getJwsAlgorithm();
+
+  /**
+   * Build the keystore generation spec for a new key.
+   * @param alias the alias to generate the key under
+   * @return the generation spec
+   */
+  @NonNull
+  KeyGenParameterSpec buildKeyGenParameterSpec(@NonNull String alias);
+
+  /**
+   * Build the keystore generation spec for a new key, optionally requesting
+   * StrongBox. The default only supports the regular backing; profiles that
+   * can be generated in StrongBox override it.
+   * @param alias the alias to generate the key under
+   * @param strongBoxBacked true to request a StrongBox-backed key (API 28+)
+   * @return the generation spec
+   * @throws UnsupportedOperationException if StrongBox was requested but the
+   *         profile can't express it
+   */
+  @NonNull
+  default KeyGenParameterSpec buildKeyGenParameterSpec(@NonNull String alias, boolean strongBoxBacked) {
+    if (strongBoxBacked) {
+      throw new UnsupportedOperationException(getClass().getSimpleName() + " does not support StrongBox");
+    }
+    return buildKeyGenParameterSpec(alias);
+  }
+
+  /**
+   * Create a JWS signer for a private key of this profile.
+   * @param privateKey the private key
+   * @return the signer
+   * @throws JOSEException if the key is not usable for this profile
+   */
+  @NonNull
+  JWSSigner createSigner(@NonNull PrivateKey privateKey) throws JOSEException;
+
+  /**
+   * Convert a public key of this profile to its public JWK.
+   * @param publicKey the public key
+   * @param kid the key identifier to embed
+   * @return the public JWK
+   */
+  @NonNull
+  JWK toJWK(@NonNull PublicKey publicKey, @NonNull String kid);
+
+  /**
+   * Check whether a public key belongs to this profile.
+   * @param publicKey the public key
+   * @return true if this profile can sign with and publish the key
+   */
+  boolean matches(@NonNull PublicKey publicKey);
+
+}
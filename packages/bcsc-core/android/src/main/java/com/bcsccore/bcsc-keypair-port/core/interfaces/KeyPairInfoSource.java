@@ -3,8 +3,14 @@ package com.bcsccore.keypair.core.interfaces;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import com.bcsccore.keypair.core.exceptions.BcscException;
+import com.bcsccore.keypair.core.models.AliasIndex;
+import com.bcsccore.keypair.core.models.CreatedAtIndex;
 import com.bcsccore.keypair.core.models.KeyPairInfo;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Interface for managing key pair metadata information.
@@ -12,6 +18,24 @@ import java.util.HashMap;
  */
 public interface KeyPairInfoSource {
 
+  /**
+   * Returned by {@link #getVersion()} by sources that don't track changes.
+   */
+  long UNVERSIONED = -1L;
+
+  /**
+   * A change to the key pair information, applied by {@link #updateKeyPairInfo}.
+   */
+  interface Mutator {
+    /**
+     * Change the key pair information in place. Entries left untouched (the
+     * same KeyPairInfo instance under the same alias) are not rewritten.
+     * @param infos a mutable copy of every stored entry, keyed by alias
+     * @throws BcscException to abort the update without writing anything
+     */
+    void mutate(@NonNull HashMap<String, KeyPairInfo> infos) throws BcscException;
+  }
+
   /**
    * Get information for a specific key pair.
    * @param kid the key identifier (alias)
@@ -28,6 +52,29 @@ public interface KeyPairInfoSource {
   @NonNull
   HashMap<String, KeyPairInfo> getKeyPairInfo() throws BcscException;
 
+  /**
+   * Get all stored key pair information ordered by creation time.
+   * The default sorts {@link #getKeyPairInfo()} on every call; sources that
+   * cache their entries should keep the index alongside and maintain it on
+   * writes.
+   * @return the entries, oldest first
+   * @throws BcscException if retrieval fails
+   */
+  @NonNull
+  default CreatedAtIndex getCreatedAtIndex() throws BcscException {
+    return CreatedAtIndex.of(getKeyPairInfo().values());
+  }
+
+  /**
+   * Get a counter that changes whenever the stored key pair information
+   * changes, so callers can tell cheaply whether something they derived from
+   * it is stale. Only equality is meaningful.
+   * @return the current version, or {@link #UNVERSIONED} if this source doesn't track changes
+   */
+  default long getVersion() {
+    return UNVERSIONED;
+  }
+
   /**
    * Save key pair information.
    * @param info the key pair information to save
@@ -35,6 +82,19 @@ public interface KeyPairInfoSource {
    */
   void saveKeyPairInfo(KeyPairInfo info) throws BcscException;
 
+  /**
+   * Save key pair information for several aliases at once.
+   * The default saves them one by one; sources that can write a single
+   * batch should override it.
+   * @param infos the key pair information to save
+   * @throws BcscException if saving fails
+   */
+  default void saveKeyPairInfos(@NonNull Collection<KeyPairInfo> infos) throws BcscException {
+    for (KeyPairInfo info : infos) {
+      saveKeyPairInfo(info);
+    }
+  }
+
   /**
    * Delete key pair information.
    * @param alias the alias of the key pair info to delete
@@ -42,4 +102,93 @@ public interface KeyPairInfoSource {
    */
   void deleteKeyPairInfo(String alias) throws BcscException;
 
+  /**
+   * Delete key pair information for several aliases at once.
+   * The default deletes them one by one; sources that can write a single
+   * batch should override it.
+   * @param aliases the aliases of the key pair info to delete
+   * @throws BcscException if deletion fails
+   */
+  default void deleteKeyPairInfos(@NonNull Collection<String> aliases) throws BcscException {
+    for (String alias : aliases) {
+      deleteKeyPairInfo(alias);
+    }
+  }
+
+  /**
+   * Apply several changes to the key pair information as one update: the
+   * mutator sees the current entries and its result is persisted in one
+   * write, or not at all if it changed nothing. Updates are serialized, so a
+   * read-modify-write in the mutator can't lose a concurrent update.
+   *
+   * The default serializes updates on this source and replays the result
+   * through {@link #saveKeyPairInfos} and {@link #deleteKeyPairInfos}; it is
+   * not atomic against the single-entry methods. Sources that can should
+   * override it with a single atomic write.
+   * @param mutator the change to apply
+   * @throws BcscException if the mutator aborts or persisting fails
+   */
+  default void updateKeyPairInfo(@NonNull Mutator mutator) throws BcscException {
+    synchronized (this) {
+      HashMap<String, KeyPairInfo> before = getKeyPairInfo();
+      HashMap<String, KeyPairInfo> after = new HashMap<>(before);
+      mutator.mutate(after);
+
+      List<KeyPairInfo> changed = new ArrayList<>();
+      for (Map.Entry<String, KeyPairInfo> entry : after.entrySet()) {
+        if (before.get(entry.getKey()) != entry.getValue()) {
+          changed.add(entry.getValue());
+        }
+      }
+      List<String> removed = new ArrayList<>(before.keySet());
+      removed.removeAll(after.keySet());
+
+      if (!changed.isEmpty()) {
+        saveKeyPairInfos(changed);
+      }
+      if (!removed.isEmpty()) {
+        deleteKeyPairInfos(removed);
+      }
+    }
+  }
+
+  /**
+   * Get the alias of the pre-generated spare key pair awaiting promotion.
+   * A staged alias exists in the keystore but has no metadata entry yet.
+   * Sources that don't persist a staged alias return null, and no spare is
+   * pre-generated.
+   * @return the staged alias, or null if no spare is staged
+   */
+  @Nullable
+  default String getStagedAlias() {
+    return null;
+  }
+
+  /**
+   * Record the alias of the pre-generated spare key pair.
+   * @param alias the staged alias, or null to clear it
+   * @throws BcscException if saving fails
+   */
+  default void saveStagedAlias(@Nullable String alias) throws BcscException {
+  }
+
+  /**
+   * Get the persisted index of key aliases held in the keystore.
+   * Sources that don't persist an index return null, and the keystore is
+   * enumerated on every lookup instead.
+   * @return the alias index, or null if none is stored
+   */
+  @Nullable
+  default AliasIndex getAliasIndex() {
+    return null;
+  }
+
+  /**
+   * Persist the index of key aliases held in the keystore.
+   * @param index the index to store, or null to drop it and force a re-audit
+   * @throws BcscException if saving fails
+   */
+  default void saveAliasIndex(@Nullable AliasIndex index) throws BcscException {
+  }
+
 }
@@ -0,0 +1,59 @@
+package com.bcsccore.keypair.core.interfaces;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import com.bcsccore.keypair.core.models.KeyBacking;
+
+/**
+ * Receives latency measurements for keystore operations performed by a
+ * {@link BcscKeyPairSource}.
+ *
+ * Implementations are called on whichever thread ran the operation, including
+ * the signing hot path, so {@link #record} must be cheap and thread-safe.
+ */
+public interface KeyStoreMetrics {
+
+  /**
+   * The keystore operations that are measured.
+   */
+  enum Operation {
+    KEYSTORE_LOAD,
+    ALIAS_ENUMERATION,
+    RECONCILE,
+    KEY_GENERATION,
+    ENTRY_FETCH,
+    SIGNING,
+    /** A whole signAndSerializeAll batch: key resolution plus every signature. */
+    SIGN_BATCH
+  }
+
+  /**
+   * Metrics sink that discards every measurement.
+   */
+  KeyStoreMetrics NONE = (operation, alias, elapsedNanos, success) -> { };
+
+  /**
+   * Record one completed operation.
+   * @param operation the operation that ran
+   * @param alias the key alias the operation targeted, or null if it is not alias-specific
+   * @param elapsedNanos the wall-clock duration in nanoseconds
+   * @param success false if the operation threw
+   */
+  void record(@NonNull Operation operation, @Nullable String alias, long elapsedNanos, boolean success);
+
+  /**
+   * Record one completed operation on a key with known backing. Used for key
+   * generation and signing, so StrongBox and TEE latency can be compared.
+   * The default ignores the backing.
+   * @param operation the operation that ran
+   * @param alias the key alias the operation targeted
+   * @param backing the hardware the key lives in (or was requested in), or null if unknown
+   * @param elapsedNanos the wall-clock duration in nanoseconds
+   * @param success false if the operation threw
+   */
+  default void record(@NonNull Operation operation, @NonNull String alias, @Nullable KeyBacking backing,
+      long elapsedNanos, boolean success) {
+    record(operation, alias, elapsedNanos, success);
+  }
+
+}
@@ -0,0 +1,88 @@
+package com.bcsccore.keypair.core.models;
+
+import androidx.annotation.NonNull;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * Persisted snapshot of the key aliases this port holds in the keystore,
+ * so key lookups don't have to enumerate the whole AndroidKeyStore (which
+ * also holds other libraries' aliases) on every call.
+ *
+ * The index is kept up to date on generate and delete, and re-verified
+ * against the keystore when it is missing, found stale, or older than the
+ * audit interval.
+ */
+public class AliasIndex {
+
+  @NonNull
+  private final SortedSet<String> aliases;
+
+  private final long auditedAt;
+
+  /**
+   * Create an alias index.
+   * @param aliases the key aliases present in the keystore
+   * @param auditedAt when the index was last verified against the keystore, in milliseconds since epoch
+   */
+  public AliasIndex(@NonNull Collection<String> aliases, long auditedAt) {
+    this.aliases = Collections.unmodifiableSortedSet(new TreeSet<>(aliases));
+    this.auditedAt = auditedAt;
+  }
+
+  /**
+   * Get the indexed aliases.
+   * @return the aliases, in lexical order
+   */
+  @NonNull
+  public SortedSet<String> getAliases() {
+    return aliases;
+  }
+
+  /**
+   * Get when the index was last verified against the keystore.
+   * @return the audit time in milliseconds since epoch
+   */
+  public long getAuditedAt() {
+    return auditedAt;
+  }
+
+  /**
+   * Copy the index with an alias added. The audit time is unchanged.
+   * @param alias the alias that was generated
+   * @return the updated index
+   */
+  @NonNull
+  public AliasIndex withAlias(@NonNull String alias) {
+    TreeSet<String> updated = new TreeSet<>(aliases);
+    updated.add(alias);
+    return new AliasIndex(updated, auditedAt);
+  }
+
+  /**
+   * Copy the index with an alias removed. The audit time is unchanged.
+   * @param alias the alias that was deleted
+   * @return the updated index
+   */
+  @NonNull
+  public AliasIndex withoutAlias(@NonNull String alias) {
+    TreeSet<String> updated = new TreeSet<>(aliases);
+    updated.remove(alias);
+    return new AliasIndex(updated, auditedAt);
+  }
+
+  /**
+   * Copy the index with several aliases removed. The audit time is unchanged.
+   * @param removed the aliases that were deleted
+   * @return the updated index
+   */
+  @NonNull
+  public AliasIndex withoutAliases(@NonNull Collection<String> removed) {
+    TreeSet<String> updated = new TreeSet<>(aliases);
+    updated.removeAll(removed);
+    return new AliasIndex(updated, auditedAt);
+  }
+
+}
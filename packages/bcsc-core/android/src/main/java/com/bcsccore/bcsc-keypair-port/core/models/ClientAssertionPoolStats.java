@@ -0,0 +1,101 @@
+package com.bcsccore.keypair.core.models;
+
+/**
+ * Point-in-time counters for a client assertion pool since it was created.
+ */
+public class ClientAssertionPoolStats {
+
+  /** Stats for a pool that hasn't been used. */
+  public static final ClientAssertionPoolStats EMPTY = new ClientAssertionPoolStats(0L, 0L, 0L, 0L, 0L, 0L, 0);
+
+  private final long hits;
+
+  private final long misses;
+
+  private final long minted;
+
+  private final long mintFailures;
+
+  private final long expired;
+
+  private final long invalidated;
+
+  private final int ready;
+
+  /**
+   * Create a stats snapshot.
+   * @param hits acquisitions served from the pool
+   * @param misses acquisitions that had to sign on demand
+   * @param minted assertions signed in the background and added to the pool
+   * @param mintFailures background signatures that failed or were rejected
+   * @param expired pooled assertions dropped because they were close to expiry
+   * @param invalidated pooled assertions dropped because the signing key changed
+   * @param ready assertions currently pooled across all (issuer, client) pairs
+   */
+  public ClientAssertionPoolStats(long hits, long misses, long minted, long mintFailures,
+      long expired, long invalidated, int ready) {
+    this.hits = hits;
+    this.misses = misses;
+    this.minted = minted;
+    this.mintFailures = mintFailures;
+    this.expired = expired;
+    this.invalidated = invalidated;
+    this.ready = ready;
+  }
+
+  /**
+   * Get the number of acquisitions served from the pool.
+   * @return the hit count
+   */
+  public long getHits() {
+    return hits;
+  }
+
+  /**
+   * Get the number of acquisitions that had to sign on demand.
+   * @return the miss count
+   */
+  public long getMisses() {
+    return misses;
+  }
+
+  /**
+   * Get the number of assertions signed in the background.
+   * @return the minted count
+   */
+  public long getMinted() {
+    return minted;
+  }
+
+  /**
+   * Get the number of background signatures that failed or were rejected.
+   * @return the failure count
+   */
+  public long getMintFailures() {
+    return mintFailures;
+  }
+
+  /**
+   * Get the number of pooled assertions dropped close to expiry, unused.
+   * @return the expired count
+   */
+  public long getExpired() {
+    return expired;
+  }
+
+  /**
+   * Get the number of pooled assertions dropped because the signing key changed.
+   * @return the invalidated count
+   */
+  public long getInvalidated() {
+    return invalidated;
+  }
+
+  /**
+   * Get the number of assertions currently pooled.
+   * @return the ready count
+   */
+  public int getReady() {
+    return ready;
+  }
+}
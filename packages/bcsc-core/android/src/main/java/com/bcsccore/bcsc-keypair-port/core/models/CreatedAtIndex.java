@@ -0,0 +1,152 @@
+package com.bcsccore.keypair.core.models;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable view of key pair information ordered by creation time, oldest
+ * first, with ties broken by alias so the order doesn't depend on map
+ * iteration order.
+ *
+ * Metadata sources keep one alongside their cached entries and derive the
+ * next index from the previous one on each write ({@link #updated}), so the
+ * newest and oldest key pair are found without scanning or sorting.
+ */
+public final class CreatedAtIndex {
+
+  /** Oldest first; ties broken by alias. */
+  public static final Comparator<KeyPairInfo> OLDEST_FIRST = (a, b) -> {
+    int byCreatedAt = Long.compare(a.getCreatedAt(), b.getCreatedAt());
+    return byCreatedAt != 0 ? byCreatedAt : a.getAlias().compareTo(b.getAlias());
+  };
+
+  public static final CreatedAtIndex EMPTY = new CreatedAtIndex(new KeyPairInfo[0]);
+
+  // Sorted by OLDEST_FIRST; never modified after construction.
+  @NonNull
+  private final KeyPairInfo[] ordered;
+
+  private CreatedAtIndex(@NonNull KeyPairInfo[] ordered) {
+    this.ordered = ordered;
+  }
+
+  /**
+   * Build an index by sorting the given entries.
+   * @param infos key pair information with distinct aliases
+   * @return the index
+   */
+  @NonNull
+  public static CreatedAtIndex of(@NonNull Collection<KeyPairInfo> infos) {
+    if (infos.isEmpty()) {
+      return EMPTY;
+    }
+    KeyPairInfo[] ordered = infos.toArray(new KeyPairInfo[0]);
+    Arrays.sort(ordered, OLDEST_FIRST);
+    return new CreatedAtIndex(ordered);
+  }
+
+  /**
+   * Derive the index for a changed set of entries from this one, which must
+   * index {@code before}. Entries that are the same instance in both maps keep
+   * their place; only new or replaced entries are sorted, then merged in.
+   * @param before the entries this index was built from, keyed by alias
+   * @param after the changed entries, keyed by alias
+   * @return the index for {@code after}
+   */
+  @NonNull
+  public CreatedAtIndex updated(@NonNull Map<String, KeyPairInfo> before,
+      @NonNull Map<String, KeyPairInfo> after) {
+    List<KeyPairInfo> added = new ArrayList<>();
+    for (Map.Entry<String, KeyPairInfo> entry : after.entrySet()) {
+      if (before.get(entry.getKey()) != entry.getValue()) {
+        added.add(entry.getValue());
+      }
+    }
+    if (added.isEmpty() && before.size() == after.size()) {
+      return this;
+    }
+    Collections.sort(added, OLDEST_FIRST);
+
+    KeyPairInfo[] merged = new KeyPairInfo[after.size()];
+    int kept = 0;
+    int next = 0;
+    int count = 0;
+    while (kept < ordered.length || next < added.size()) {
+      if (kept < ordered.length && after.get(ordered[kept].getAlias()) != ordered[kept]) {
+        // Removed or replaced.
+        kept++;
+      } else if (next >= added.size()
+          || (kept < ordered.length && OLDEST_FIRST.compare(ordered[kept], added.get(next)) <= 0)) {
+        merged[count++] = ordered[kept++];
+      } else {
+        merged[count++] = added.get(next++);
+      }
+    }
+    return new CreatedAtIndex(merged);
+  }
+
+  /**
+   * Get the most recently created key pair.
+   * @return the newest entry, or null if there are none
+   */
+  @Nullable
+  public KeyPairInfo newest() {
+    return ordered.length > 0 ? ordered[ordered.length - 1] : null;
+  }
+
+  /**
+   * Get the least recently created key pair.
+   * @return the oldest entry, or null if there are none
+   */
+  @Nullable
+  public KeyPairInfo oldest() {
+    return ordered.length > 0 ? ordered[0] : null;
+  }
+
+  /**
+   * Get the number of indexed key pairs.
+   * @return the count
+   */
+  public int size() {
+    return ordered.length;
+  }
+
+  /**
+   * Get the key pair at a position in creation order.
+   * @param position 0 for the oldest, {@code size() - 1} for the newest
+   * @return the entry
+   * @throws IndexOutOfBoundsException if the position is out of range
+   */
+  @NonNull
+  public KeyPairInfo get(int position) {
+    return ordered[position];
+  }
+
+  /**
+   * Count the key pairs created before a cutoff, by binary search. They are
+   * the first entries in creation order.
+   * @param cutoffMillis the creation time, exclusive
+   * @return how many entries were created before the cutoff
+   */
+  public int countCreatedBefore(long cutoffMillis) {
+    int low = 0;
+    int high = ordered.length;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (ordered[mid].getCreatedAt() < cutoffMillis) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+}
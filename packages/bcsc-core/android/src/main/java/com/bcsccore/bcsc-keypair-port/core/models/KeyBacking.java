@@ -0,0 +1,24 @@
+package com.bcsccore.keypair.core.models;
+
+/**
+ * The secure hardware a key pair was generated in.
+ *
+ * Recorded per alias at generation time. Key pairs generated before backing
+ * was tracked, or staged spares promoted after a process restart, have no
+ * recorded backing.
+ */
+public enum KeyBacking {
+
+  /**
+   * A dedicated secure element (StrongBox KeyMint). Slower to sign with, but
+   * resistant to attacks on the main processor.
+   */
+  STRONGBOX,
+
+  /**
+   * The default keystore backing: the trusted execution environment, or
+   * whatever the platform falls back to on devices without one.
+   */
+  TEE
+
+}
@@ -0,0 +1,64 @@
+package com.bcsccore.keypair.core.models;
+
+import androidx.annotation.NonNull;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of one retention cleanup pass.
+ */
+public class KeyCleanupReport {
+
+  @NonNull
+  private final List<String> deleted;
+
+  @NonNull
+  private final List<String> failed;
+
+  @NonNull
+  private final List<String> retained;
+
+  /**
+   * Create a cleanup report.
+   * @param deleted aliases whose keystore entry and metadata were deleted
+   * @param failed aliases whose metadata was deleted but whose keystore entry could not be
+   * @param retained aliases the policy kept
+   */
+  public KeyCleanupReport(@NonNull Collection<String> deleted,
+      @NonNull Collection<String> failed,
+      @NonNull Collection<String> retained) {
+    this.deleted = Collections.unmodifiableList(new ArrayList<>(deleted));
+    this.failed = Collections.unmodifiableList(new ArrayList<>(failed));
+    this.retained = Collections.unmodifiableList(new ArrayList<>(retained));
+  }
+
+  /**
+   * Get the aliases that were deleted.
+   * @return the deleted aliases, oldest first
+   */
+  @NonNull
+  public List<String> getDeleted() {
+    return deleted;
+  }
+
+  /**
+   * Get the aliases whose keystore entry could not be deleted.
+   * @return the failed aliases, oldest first
+   */
+  @NonNull
+  public List<String> getFailed() {
+    return failed;
+  }
+
+  /**
+   * Get the aliases the policy kept.
+   * @return the retained aliases
+   */
+  @NonNull
+  public List<String> getRetained() {
+    return retained;
+  }
+
+}
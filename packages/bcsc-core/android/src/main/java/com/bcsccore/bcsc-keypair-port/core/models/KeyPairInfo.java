@@ -1,28 +1,62 @@
 package com.bcsccore.keypair.core.models;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
 /**
  * Metadata information about a key pair stored in Android KeyStore.
  * Contains the alias (identifier) and creation timestamp for tracking
- * and managing multiple key pairs.
+ * and managing multiple key pairs, plus how often and how recently the key
+ * pair has signed.
  */
 public class KeyPairInfo {
 
   @NonNull
   private final String alias;
 
-  @NonNull
-  private final Long createdAt;
+  private final long createdAt;
+
+  @Nullable
+  private final KeyBacking backing;
+
+  private final long lastUsedAt;
+
+  private final long signCount;
+
+  /**
+   * Create new key pair information with no recorded backing.
+   * @param alias the unique identifier for this key pair in the keystore
+   * @param createdAt the timestamp when this key pair was created
+   */
+  public KeyPairInfo(@NonNull String alias, long createdAt) {
+    this(alias, createdAt, null);
+  }
 
   /**
    * Create new key pair information.
    * @param alias the unique identifier for this key pair in the keystore
    * @param createdAt the timestamp when this key pair was created
+   * @param backing the hardware the key pair was generated in, or null if unknown
+   */
+  public KeyPairInfo(@NonNull String alias, long createdAt, @Nullable KeyBacking backing) {
+    this(alias, createdAt, backing, 0L, 0L);
+  }
+
+  /**
+   * Create new key pair information with usage statistics.
+   * @param alias the unique identifier for this key pair in the keystore
+   * @param createdAt the timestamp when this key pair was created
+   * @param backing the hardware the key pair was generated in, or null if unknown
+   * @param lastUsedAt when the key pair last signed, or 0 if it never has
+   * @param signCount how many signatures the key pair has made
    */
-  public KeyPairInfo(@NonNull String alias, @NonNull Long createdAt) {
+  public KeyPairInfo(@NonNull String alias, long createdAt, @Nullable KeyBacking backing,
+      long lastUsedAt, long signCount) {
     this.alias = alias;
     this.createdAt = createdAt;
+    this.backing = backing;
+    this.lastUsedAt = lastUsedAt;
+    this.signCount = signCount;
   }
 
   /**
@@ -38,9 +72,66 @@ public class KeyPairInfo {
    * Get the creation timestamp for this key pair.
    * @return the creation time in milliseconds since epoch
    */
-  @NonNull
-  public Long getCreatedAt() {
+  public long getCreatedAt() {
     return createdAt;
   }
 
+  /**
+   * Get the hardware this key pair was generated in.
+   * @return the backing, or null if it was not recorded
+   */
+  @Nullable
+  public KeyBacking getBacking() {
+    return backing;
+  }
+
+  /**
+   * Get when this key pair last signed.
+   * @return the time in milliseconds since epoch, or 0 if it never has
+   */
+  public long getLastUsedAt() {
+    return lastUsedAt;
+  }
+
+  /**
+   * Get how many signatures this key pair has made since usage was first tracked.
+   * @return the signature count
+   */
+  public long getSignCount() {
+    return signCount;
+  }
+
+  /**
+   * Copy this info with a new creation timestamp, keeping backing and usage.
+   * @param newCreatedAt the new creation timestamp
+   * @return the updated copy
+   */
+  @NonNull
+  public KeyPairInfo withCreatedAt(long newCreatedAt) {
+    return new KeyPairInfo(alias, newCreatedAt, backing, lastUsedAt, signCount);
+  }
+
+  /**
+   * Copy this info with a new backing, keeping creation time and usage.
+   * @param newBacking the new backing
+   * @return the updated copy
+   */
+  @NonNull
+  public KeyPairInfo withBacking(@Nullable KeyBacking newBacking) {
+    return new KeyPairInfo(alias, createdAt, newBacking, lastUsedAt, signCount);
+  }
+
+  /**
+   * Copy this info with additional usage folded in.
+   * @param usedAt when the additional signatures were made; the later of this
+   *        and the current last-used time is kept
+   * @param additionalSignatures how many signatures to add to the count
+   * @return the updated copy
+   */
+  @NonNull
+  public KeyPairInfo withAddedUsage(long usedAt, long additionalSignatures) {
+    return new KeyPairInfo(alias, createdAt, backing, Math.max(lastUsedAt, usedAt),
+        signCount + additionalSignatures);
+  }
+
 }
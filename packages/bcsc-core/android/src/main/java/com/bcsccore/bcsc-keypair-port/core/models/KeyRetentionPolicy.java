@@ -0,0 +1,140 @@
+package com.bcsccore.keypair.core.models;
+
+import androidx.annotation.NonNull;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Decides which key pairs a cleanup pass deletes.
+ *
+ * The newest key pair (the one signing today) and any kid the server has
+ * confirmed are always kept. Every other key pair is deleted when it falls
+ * outside the {@code keepNewest} newest, or when it is older than
+ * {@code maxAgeMillis} (if set), unless it signed within the last
+ * {@code keepUsedWithinMillis} (if set). Only key pairs tracked in metadata are
+ * considered, so orphan keystore aliases kept for recovery are never touched.
+ */
+public class KeyRetentionPolicy {
+
+  /**
+   * Keep the two newest key pairs, the steady state the original one-step
+   * cleanup converged to.
+   */
+  public static final KeyRetentionPolicy DEFAULT = new KeyRetentionPolicy(2, 0L, Collections.emptySet());
+
+  private final int keepNewest;
+
+  private final long maxAgeMillis;
+
+  private final long keepUsedWithinMillis;
+
+  @NonNull
+  private final Set<String> serverConfirmedKids;
+
+  /**
+   * Create a retention policy.
+   * @param keepNewest how many of the newest key pairs to keep; values below 1 are treated as 1
+   * @param maxAgeMillis delete key pairs older than this, or 0 for no age limit
+   * @param serverConfirmedKids kids the server still accepts; these are never deleted
+   */
+  public KeyRetentionPolicy(int keepNewest, long maxAgeMillis, @NonNull Collection<String> serverConfirmedKids) {
+    this(keepNewest, maxAgeMillis, serverConfirmedKids, 0L);
+  }
+
+  /**
+   * Create a retention policy that also keeps recently used key pairs.
+   * @param keepNewest how many of the newest key pairs to keep; values below 1 are treated as 1
+   * @param maxAgeMillis delete key pairs older than this, or 0 for no age limit
+   * @param serverConfirmedKids kids the server still accepts; these are never deleted
+   * @param keepUsedWithinMillis never delete key pairs that signed within this
+   *        window, e.g. the key rotated away from while requests signed with it
+   *        may still be in flight; 0 to ignore usage
+   */
+  public KeyRetentionPolicy(int keepNewest, long maxAgeMillis, @NonNull Collection<String> serverConfirmedKids,
+      long keepUsedWithinMillis) {
+    this.keepNewest = Math.max(1, keepNewest);
+    this.maxAgeMillis = Math.max(0L, maxAgeMillis);
+    this.keepUsedWithinMillis = Math.max(0L, keepUsedWithinMillis);
+    this.serverConfirmedKids = Collections.unmodifiableSet(new HashSet<>(serverConfirmedKids));
+  }
+
+  /**
+   * Get how many of the newest key pairs are kept.
+   * @return the count, at least 1
+   */
+  public int getKeepNewest() {
+    return keepNewest;
+  }
+
+  /**
+   * Get the age past which key pairs are deleted.
+   * @return the maximum age in milliseconds, or 0 for no age limit
+   */
+  public long getMaxAgeMillis() {
+    return maxAgeMillis;
+  }
+
+  /**
+   * Get the window within which a key pair's last signature keeps it.
+   * @return the window in milliseconds, or 0 if usage is ignored
+   */
+  public long getKeepUsedWithinMillis() {
+    return keepUsedWithinMillis;
+  }
+
+  /**
+   * Get the kids that are never deleted.
+   * @return the server-confirmed kids
+   */
+  @NonNull
+  public Set<String> getServerConfirmedKids() {
+    return serverConfirmedKids;
+  }
+
+  /**
+   * Compute the complete delete set in one pass.
+   * @param infos the tracked key pairs
+   * @param nowMillis the current time in milliseconds since epoch
+   * @return the aliases to delete, oldest first
+   */
+  @NonNull
+  public List<String> selectForDeletion(@NonNull Collection<KeyPairInfo> infos, long nowMillis) {
+    return selectForDeletion(CreatedAtIndex.of(infos), nowMillis);
+  }
+
+  /**
+   * Compute the complete delete set from key pairs already in creation order.
+   * @param index the tracked key pairs
+   * @param nowMillis the current time in milliseconds since epoch
+   * @return the aliases to delete, oldest first
+   */
+  @NonNull
+  public List<String> selectForDeletion(@NonNull CreatedAtIndex index, long nowMillis) {
+    // Past the keepNewest newest and past the age limit are both a run of the
+    // oldest entries, so the candidates are the longer run, never reaching the newest.
+    int candidates = index.size() - keepNewest;
+    if (maxAgeMillis > 0L) {
+      candidates = Math.max(candidates, index.countCreatedBefore(nowMillis - maxAgeMillis));
+    }
+    candidates = Math.min(candidates, index.size() - 1);
+
+    List<String> doomed = new ArrayList<>();
+    for (int position = 0; position < candidates; position++) {
+      KeyPairInfo info = index.get(position);
+      if (serverConfirmedKids.contains(info.getAlias())) {
+        continue;
+      }
+      boolean recentlyUsed = keepUsedWithinMillis > 0L && info.getLastUsedAt() > 0L
+          && nowMillis - info.getLastUsedAt() <= keepUsedWithinMillis;
+      if (!recentlyUsed) {
+        doomed.add(info.getAlias());
+      }
+    }
+    return doomed;
+  }
+
+}
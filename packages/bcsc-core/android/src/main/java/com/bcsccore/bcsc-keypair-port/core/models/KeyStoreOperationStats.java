@@ -0,0 +1,101 @@
+package com.bcsccore.keypair.core.models;
+
+/**
+ * Point-in-time latency summary for one keystore operation.
+ * Percentiles are bucket upper bounds from a log-scale histogram, so they are
+ * accurate to within a factor of two and never exceed the observed maximum.
+ */
+public class KeyStoreOperationStats {
+
+  private final long count;
+
+  private final long failures;
+
+  private final long totalMicros;
+
+  private final long p50Micros;
+
+  private final long p95Micros;
+
+  private final long p99Micros;
+
+  private final long maxMicros;
+
+  /**
+   * Create a latency summary.
+   * @param count the number of recorded operations
+   * @param failures how many of them failed
+   * @param totalMicros the summed duration in microseconds
+   * @param p50Micros the median duration in microseconds
+   * @param p95Micros the 95th percentile duration in microseconds
+   * @param p99Micros the 99th percentile duration in microseconds
+   * @param maxMicros the longest duration in microseconds
+   */
+  public KeyStoreOperationStats(long count, long failures, long totalMicros,
+      long p50Micros, long p95Micros, long p99Micros, long maxMicros) {
+    this.count = count;
+    this.failures = failures;
+    this.totalMicros = totalMicros;
+    this.p50Micros = p50Micros;
+    this.p95Micros = p95Micros;
+    this.p99Micros = p99Micros;
+    this.maxMicros = maxMicros;
+  }
+
+  /**
+   * Get the number of recorded operations.
+   * @return the count, including failures
+   */
+  public long getCount() {
+    return count;
+  }
+
+  /**
+   * Get the number of failed operations.
+   * @return the failure count
+   */
+  public long getFailures() {
+    return failures;
+  }
+
+  /**
+   * Get the summed duration of all operations.
+   * @return the total in microseconds
+   */
+  public long getTotalMicros() {
+    return totalMicros;
+  }
+
+  /**
+   * Get the median duration.
+   * @return the 50th percentile in microseconds
+   */
+  public long getP50Micros() {
+    return p50Micros;
+  }
+
+  /**
+   * Get the 95th percentile duration.
+   * @return the 95th percentile in microseconds
+   */
+  public long getP95Micros() {
+    return p95Micros;
+  }
+
+  /**
+   * Get the 99th percentile duration.
+   * @return the 99th percentile in microseconds
+   */
+  public long getP99Micros() {
+    return p99Micros;
+  }
+
+  /**
+   * Get the longest duration.
+   * @return the maximum in microseconds
+   */
+  public long getMaxMicros() {
+    return maxMicros;
+  }
+
+}
@@ -0,0 +1,71 @@
+package com.bcsccore.keypair.core.models;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import com.bcsccore.keypair.core.exceptions.BcscException;
+
+/**
+ * Outcome of signing one claims set in a batch.
+ * Holds either the serialized JWT or the error that prevented signing it,
+ * so one bad claims set does not fail the rest of the batch.
+ */
+public class SignedClaimsResult {
+
+  @Nullable
+  private final String serialized;
+
+  @Nullable
+  private final BcscException error;
+
+  private SignedClaimsResult(@Nullable String serialized, @Nullable BcscException error) {
+    this.serialized = serialized;
+    this.error = error;
+  }
+
+  /**
+   * Create a successful result.
+   * @param serialized the signed JWT in compact serialization
+   * @return the result
+   */
+  @NonNull
+  public static SignedClaimsResult success(@NonNull String serialized) {
+    return new SignedClaimsResult(serialized, null);
+  }
+
+  /**
+   * Create a failed result.
+   * @param error the reason the claims set could not be signed
+   * @return the result
+   */
+  @NonNull
+  public static SignedClaimsResult failure(@NonNull BcscException error) {
+    return new SignedClaimsResult(null, error);
+  }
+
+  /**
+   * Check whether the claims set was signed.
+   * @return true if a serialized JWT is available
+   */
+  public boolean isSuccess() {
+    return error == null;
+  }
+
+  /**
+   * Get the signed JWT.
+   * @return the serialized JWT, or null if signing failed
+   */
+  @Nullable
+  public String getSerialized() {
+    return serialized;
+  }
+
+  /**
+   * Get the signing error.
+   * @return the error, or null if signing succeeded
+   */
+  @Nullable
+  public BcscException getError() {
+    return error;
+  }
+
+}
@@ -0,0 +1,175 @@
+package com.bcsccore.keypair.core.utils;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded, lock-free {@link SimpleLog.Sink} that keeps the most recent log
+ * events in memory so they can be exported on demand (e.g. attached to a
+ * support report) without reading logcat.
+ *
+ * Writers claim a sequence number and overwrite the oldest slot; they never
+ * block each other or readers. A snapshot taken while writers are active may
+ * skip events that were overwritten mid-read, never return torn ones.
+ */
+public final class LogRingBuffer implements SimpleLog.Sink {
+
+  /**
+   * One captured log event.
+   */
+  public static final class Event {
+
+    private final long sequence;
+
+    private final long timestampMillis;
+
+    @NonNull
+    private final SimpleLog.Level level;
+
+    @NonNull
+    private final String tag;
+
+    @NonNull
+    private final String message;
+
+    @Nullable
+    private final String throwable;
+
+    Event(long sequence, long timestampMillis, @NonNull SimpleLog.Level level, @NonNull String tag,
+        @NonNull String message, @Nullable String throwable) {
+      this.sequence = sequence;
+      this.timestampMillis = timestampMillis;
+      this.level = level;
+      this.tag = tag;
+      this.message = message;
+      this.throwable = throwable;
+    }
+
+    /**
+     * Get when the event was logged.
+     * @return the time in milliseconds since epoch
+     */
+    public long getTimestampMillis() {
+      return timestampMillis;
+    }
+
+    /**
+     * Get the event's level.
+     * @return the level
+     */
+    @NonNull
+    public SimpleLog.Level getLevel() {
+      return level;
+    }
+
+    /**
+     * Get the event's tag.
+     * @return the tag
+     */
+    @NonNull
+    public String getTag() {
+      return tag;
+    }
+
+    /**
+     * Get the event's message.
+     * @return the message
+     */
+    @NonNull
+    public String getMessage() {
+      return message;
+    }
+
+    /**
+     * Get the attached throwable, captured as its class name and message.
+     * @return the throwable description, or null if none was logged
+     */
+    @Nullable
+    public String getThrowable() {
+      return throwable;
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+      SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSZ", Locale.ROOT);
+      return format.format(new Date(timestampMillis)) + " " + level.name().charAt(0) + "/" + tag + ": " + message
+          + (throwable != null ? " (" + throwable + ")" : "");
+    }
+  }
+
+  private final int capacity;
+
+  private final AtomicReferenceArray<Event> slots;
+
+  private final AtomicLong nextSequence = new AtomicLong();
+
+  /**
+   * Create a ring buffer holding up to the given number of events.
+   * @param capacity the number of most recent events to keep
+   */
+  public LogRingBuffer(int capacity) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("capacity must be positive: " + capacity);
+    }
+    this.capacity = capacity;
+    this.slots = new AtomicReferenceArray<>(capacity);
+  }
+
+  @Override
+  public void log(@NonNull SimpleLog.Level level, @NonNull String tag, @NonNull String message,
+      @Nullable Throwable throwable) {
+    final long sequence = nextSequence.getAndIncrement();
+    // Only the throwable's description is kept so the buffer never pins
+    // large object graphs reachable from an exception.
+    final String throwableDescription = throwable != null
+        ? throwable.getClass().getName() + ": " + throwable.getMessage()
+        : null;
+    slots.set((int) (sequence % capacity),
+        new Event(sequence, System.currentTimeMillis(), level, tag, message, throwableDescription));
+  }
+
+  /**
+   * Copy the retained events, oldest first.
+   * @return the most recent events, at most the buffer's capacity
+   */
+  @NonNull
+  public List<Event> snapshot() {
+    final long end = nextSequence.get();
+    final long start = Math.max(0L, end - capacity);
+    List<Event> result = new ArrayList<>((int) (end - start));
+    for (long sequence = start; sequence < end; sequence++) {
+      Event event = slots.get((int) (sequence % capacity));
+      // Skip slots not yet written by a racing writer or already overwritten.
+      if (event != null && event.sequence == sequence) {
+        result.add(event);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Drop every retained event.
+   */
+  public void clear() {
+    for (int i = 0; i < capacity; i++) {
+      slots.set(i, null);
+    }
+  }
+
+  /**
+   * Get the maximum number of retained events.
+   * @return the capacity
+   */
+  public int getCapacity() {
+    return capacity;
+  }
+
+}
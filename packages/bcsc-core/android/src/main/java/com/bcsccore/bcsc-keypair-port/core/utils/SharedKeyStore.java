@@ -0,0 +1,96 @@
+package com.bcsccore.keypair.core.utils;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import java.security.KeyStore;
+
+/**
+ * Process-wide, lazily-loaded handle to the AndroidKeyStore.
+ *
+ * Every KeyStore.getInstance + load(null) is a binder round trip to the
+ * keystore service, so the store is loaded once and the same instance is
+ * shared by BcscKeyPairRepo, KeychainClearingService and, injected by the
+ * module, the file port's AndroidKeyStoreSource. The loaded instance is a thin
+ * client: every call goes to the keystore service, so entries generated or
+ * deleted after loading, by any consumer, are visible through it without
+ * reloading. Deleting entries therefore needs no invalidation.
+ */
+public final class SharedKeyStore {
+
+  public static final String KEYSTORE_TYPE = "AndroidKeyStore";
+
+  private static final String TAG = "SharedKeyStore";
+
+  private static final SharedKeyStore INSTANCE = new SharedKeyStore(() -> {
+    KeyStore keyStore = KeyStore.getInstance(KEYSTORE_TYPE);
+    keyStore.load(null);
+    return keyStore;
+  });
+
+  /**
+   * Loads a KeyStore instance. Overridable so tests can supply a stand-in.
+   */
+  public interface Loader {
+    @NonNull
+    KeyStore load() throws Exception;
+  }
+
+  @NonNull
+  private final Loader loader;
+
+  private final Object lock = new Object();
+
+  @Nullable
+  private volatile KeyStore keyStore;
+
+  /**
+   * Create a handle backed by a custom loader.
+   * Production code should use {@link #getInstance()}.
+   * @param loader the loader invoked on first access and after invalidation
+   */
+  public SharedKeyStore(@NonNull Loader loader) {
+    this.loader = loader;
+  }
+
+  /**
+   * Get the process-wide AndroidKeyStore handle.
+   * @return the shared handle
+   */
+  @NonNull
+  public static SharedKeyStore getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * Get the loaded keystore, loading it on first access.
+   * @return the loaded keystore
+   * @throws Exception if the keystore cannot be loaded
+   */
+  @NonNull
+  public KeyStore get() throws Exception {
+    KeyStore current = keyStore;
+    if (current != null) {
+      return current;
+    }
+    synchronized (lock) {
+      current = keyStore;
+      if (current == null) {
+        current = loader.load();
+        keyStore = current;
+        SimpleLog.d(TAG, "Loaded " + KEYSTORE_TYPE);
+      }
+      return current;
+    }
+  }
+
+  /**
+   * Drop the loaded keystore so the next {@link #get()} reloads it.
+   * Not needed after deleting entries; lets tests swap in a fresh store.
+   */
+  public void invalidate() {
+    synchronized (lock) {
+      keyStore = null;
+    }
+  }
+
+}
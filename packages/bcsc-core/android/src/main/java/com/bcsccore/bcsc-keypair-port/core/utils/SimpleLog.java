@@ -1,15 +1,90 @@
 package com.bcsccore.keypair.core.utils;
 
 import android.util.Log;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
 
 /**
  * Simple logging utility class.
  * This is a simplified replacement for the complex Log class in the original project.
- * Uses standard Android Log for output.
+ * Uses standard Android Log for output, plus any registered {@link Sink}s.
+ *
+ * Messages below the runtime level (see {@link #setLevel(Level)}) are dropped
+ * before anything is built. Hot paths pass a {@link Supplier} so disabled
+ * levels allocate nothing:
+ * <pre>
+ *   SimpleLog.d(TAG, () -&gt; "Loaded key pairs: " + infoMap.keySet());
+ * </pre>
  */
 public class SimpleLog {
 
-  private static final boolean DEBUG_ENABLED = true; // Set to false for production
+  /**
+   * Log levels, from most to least verbose.
+   */
+  public enum Level {
+    DEBUG,
+    INFO,
+    WARN,
+    ERROR,
+    NONE
+  }
+
+  /**
+   * Receives every message that passes the runtime level, after it is built.
+   * Called on the logging thread, so implementations must be cheap and thread-safe.
+   */
+  public interface Sink {
+    void log(@NonNull Level level, @NonNull String tag, @NonNull String message, @Nullable Throwable throwable);
+  }
+
+  private static volatile Level level = Level.DEBUG;
+
+  private static final CopyOnWriteArrayList<Sink> sinks = new CopyOnWriteArrayList<>();
+
+  /**
+   * Set the lowest level that is logged. Defaults to {@link Level#DEBUG}.
+   * @param newLevel the new minimum level; {@link Level#NONE} disables logging
+   */
+  public static void setLevel(@NonNull Level newLevel) {
+    level = newLevel;
+  }
+
+  /**
+   * Get the lowest level that is logged.
+   * @return the current minimum level
+   */
+  @NonNull
+  public static Level getLevel() {
+    return level;
+  }
+
+  /**
+   * Check whether a level is currently logged. Use to guard diagnostics
+   * that are expensive to collect, not just to format.
+   * @param candidate the level to check
+   * @return true if messages at this level are logged
+   */
+  public static boolean isLoggable(@NonNull Level candidate) {
+    return candidate != Level.NONE && candidate.ordinal() >= level.ordinal();
+  }
+
+  /**
+   * Register a sink that receives every logged message.
+   * @param sink the sink to add
+   */
+  public static void addSink(@NonNull Sink sink) {
+    sinks.addIfAbsent(sink);
+  }
+
+  /**
+   * Unregister a sink.
+   * @param sink the sink to remove
+   */
+  public static void removeSink(@NonNull Sink sink) {
+    sinks.remove(sink);
+  }
 
   /**
    * Log a debug message.
@@ -17,8 +92,20 @@ public class SimpleLog {
    * @param message the message to log
    */
   public static void d(String tag, String message) {
-    if (DEBUG_ENABLED) {
+    if (isLoggable(Level.DEBUG)) {
       Log.d(tag, message);
+      dispatch(Level.DEBUG, tag, message, null);
+    }
+  }
+
+  /**
+   * Log a debug message built only if debug logging is enabled.
+   * @param tag the tag for the log message
+   * @param message supplies the message to log
+   */
+  public static void d(String tag, Supplier<String> message) {
+    if (isLoggable(Level.DEBUG)) {
+      d(tag, message.get());
     }
   }
 
@@ -28,8 +115,20 @@ public class SimpleLog {
    * @param message the message to log
    */
   public static void i(String tag, String message) {
-    if (DEBUG_ENABLED) {
+    if (isLoggable(Level.INFO)) {
       Log.i(tag, message);
+      dispatch(Level.INFO, tag, message, null);
+    }
+  }
+
+  /**
+   * Log an info message built only if info logging is enabled.
+   * @param tag the tag for the log message
+   * @param message supplies the message to log
+   */
+  public static void i(String tag, Supplier<String> message) {
+    if (isLoggable(Level.INFO)) {
+      i(tag, message.get());
     }
   }
 
@@ -39,8 +138,20 @@ public class SimpleLog {
    * @param message the message to log
    */
   public static void w(String tag, String message) {
-    if (DEBUG_ENABLED) {
+    if (isLoggable(Level.WARN)) {
       Log.w(tag, message);
+      dispatch(Level.WARN, tag, message, null);
+    }
+  }
+
+  /**
+   * Log a warning message built only if warning logging is enabled.
+   * @param tag the tag for the log message
+   * @param message supplies the message to log
+   */
+  public static void w(String tag, Supplier<String> message) {
+    if (isLoggable(Level.WARN)) {
+      w(tag, message.get());
     }
   }
 
@@ -50,8 +161,9 @@ public class SimpleLog {
    * @param message the message to log
    */
   public static void e(String tag, String message) {
-    if (DEBUG_ENABLED) {
+    if (isLoggable(Level.ERROR)) {
       Log.e(tag, message);
+      dispatch(Level.ERROR, tag, message, null);
     }
   }
 
@@ -62,8 +174,26 @@ public class SimpleLog {
    * @param throwable the throwable to log
    */
   public static void e(String tag, String message, Throwable throwable) {
-    if (DEBUG_ENABLED) {
+    if (isLoggable(Level.ERROR)) {
       Log.e(tag, message, throwable);
+      dispatch(Level.ERROR, tag, message, throwable);
+    }
+  }
+
+  private static void dispatch(@NonNull Level messageLevel, String tag, String message,
+      @Nullable Throwable throwable) {
+    if (sinks.isEmpty()) {
+      return;
+    }
+    final String safeTag = tag != null ? tag : "";
+    final String safeMessage = message != null ? message : "null";
+    for (Sink sink : sinks) {
+      try {
+        sink.log(messageLevel, safeTag, safeMessage, throwable);
+      } catch (RuntimeException e) {
+        // A broken sink must never break the caller that was only logging.
+        Log.w("SimpleLog", "Log sink failed: " + e.getMessage());
+      }
     }
   }
 
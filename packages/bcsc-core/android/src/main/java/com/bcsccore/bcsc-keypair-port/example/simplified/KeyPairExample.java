@@ -5,6 +5,8 @@ import androidx.annotation.NonNull;
 import com.bcsccore.keypair.core.interfaces.BcscKeyPairSource;
 import com.bcsccore.keypair.core.interfaces.KeyPairInfoSource;
 import com.bcsccore.keypair.core.models.BcscKeyPair;
+import com.bcsccore.keypair.core.models.KeyCleanupReport;
+import com.bcsccore.keypair.core.models.KeyRetentionPolicy;
 import com.bcsccore.keypair.core.exceptions.BcscException;
 import com.bcsccore.keypair.core.utils.SimpleLog;
 import com.bcsccore.keypair.repos.key.BcscKeyPairRepo;
@@ -142,9 +144,10 @@ public class KeyPairExample {
     SimpleLog.i(TAG, "\n=== KeyPair Cleanup Demo ===");
     
     // Clean up old key pairs (keeps only the newest ones)
-    keyPairSource.cleanUpBcscKeyPairs();
+    KeyCleanupReport report = keyPairSource.cleanUpBcscKeyPairs(KeyRetentionPolicy.DEFAULT);
     
-    SimpleLog.i(TAG, "Key pair cleanup completed");
+    SimpleLog.i(TAG, "Key pair cleanup completed: deleted " + report.getDeleted()
+        + ", failed " + report.getFailed());
   }
 
   /**
@@ -1,29 +1,40 @@
 package com.bcsccore.keypair.repos.key;
 
 import android.os.Build;
-import android.os.Build.VERSION;
 import android.os.Build.VERSION_CODES;
 import android.security.keystore.KeyGenParameterSpec;
-import android.security.keystore.KeyProperties;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.annotation.RequiresApi;
+import com.bcsccore.keypair.core.utils.SharedKeyStore;
 import com.bcsccore.keypair.core.utils.SimpleLog;
 import com.bcsccore.keypair.core.exceptions.AlertKey;
+import com.bcsccore.keypair.core.models.AliasIndex;
 import com.bcsccore.keypair.core.models.BcscKeyPair;
+import com.bcsccore.keypair.core.models.CreatedAtIndex;
 import com.bcsccore.keypair.core.exceptions.BcscException;
 import com.bcsccore.keypair.core.exceptions.KeyAlreadyExistsException;
 import com.bcsccore.keypair.core.exceptions.KeyNotFoundException;
 import com.bcsccore.keypair.core.exceptions.KeypairGenerationException;
+import com.bcsccore.keypair.core.models.KeyBacking;
+import com.bcsccore.keypair.core.models.KeyCleanupReport;
 import com.bcsccore.keypair.core.models.KeyPairInfo;
+import com.bcsccore.keypair.core.models.KeyRetentionPolicy;
+import com.bcsccore.keypair.core.models.SignedClaimsResult;
 import com.bcsccore.keypair.core.interfaces.KeyPairInfoSource;
 import com.bcsccore.keypair.core.interfaces.BcscKeyPairSource;
-import com.nimbusds.jose.JWSAlgorithm;
+import com.bcsccore.keypair.core.interfaces.KeyAlgorithmProfile;
+import com.bcsccore.keypair.core.interfaces.KeyStoreMetrics;
+import com.bcsccore.keypair.core.interfaces.KeyStoreMetrics.Operation;
+import com.nimbusds.jose.JOSEException;
 import com.nimbusds.jose.JWSHeader;
-import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.JWSSigner;
+import com.nimbusds.jose.jwk.AsymmetricJWK;
 import com.nimbusds.jose.jwk.JWK;
-import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.JWKSet;
 import com.nimbusds.jwt.JWTClaimsSet;
 import com.nimbusds.jwt.SignedJWT;
+import java.security.GeneralSecurityException;
 import java.security.InvalidAlgorithmParameterException;
 import java.security.KeyPair;
 import java.security.KeyPairGenerator;
@@ -32,25 +43,35 @@ import java.security.KeyStoreException;
 import java.security.NoSuchAlgorithmException;
 import java.security.NoSuchProviderException;
 import java.security.PrivateKey;
+import java.security.ProviderException;
 import java.security.PublicKey;
 import java.security.UnrecoverableEntryException;
-import java.security.interfaces.RSAPublicKey;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Enumeration;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Set;
 import java.util.regex.Matcher;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.regex.Pattern;
 
 /**
  * Android KeyStore implementation of BcscKeyPairSource.
  * 
- * This class manages RSA key pairs stored in Android's hardware-backed KeyStore.
+ * This class manages signing key pairs stored in Android's hardware-backed KeyStore.
  * Key features:
- * - Generates 4096-bit RSA keys with RS512 signing
- * - Hardware security module backing when available
+ * - Generates 4096-bit RSA keys with RS512 signing by default; the algorithm
+ *   is pluggable through {@link KeyAlgorithmProfile} (e.g. EC P-256 / ES256)
+ * - Hardware security module backing when available, optionally requesting
+ *   StrongBox with automatic fallback to the TEE
  * - Automatic key rotation and cleanup
+ * - Optional background pre-generation of the next rotation key
+ * - Latency metrics for keystore operations through {@link KeyStoreMetrics}
  * - JWT signing with private keys
  * 
  * IMPORTANT: Keys generated by this class are:
@@ -60,21 +81,216 @@ import java.util.regex.Pattern;
  */
 public class BcscKeyPairRepo implements BcscKeyPairSource {
 
-  private static final String RSA_ALIAS_PREFIX = "rsa";
-  private static final String ALIAS_RSA = RSA_ALIAS_PREFIX + "1";
-  private static final String KEYSTORE_TYPE = "AndroidKeyStore";
   private static final String TAG = "BcscKeyPairRepo";
-  private static final Pattern RSA_ALIAS_PATTERN = Pattern.compile("^" + RSA_ALIAS_PREFIX + "(\\d+)$");
+
+  // How long the persisted alias index is trusted before it is re-verified
+  // against a full keystore enumeration.
+  private static final long ALIAS_INDEX_AUDIT_INTERVAL_MS = 24L * 60L * 60L * 1000L;
+
+  // Every profile the repo can sign with, so keys generated under an earlier
+  // profile keep working after the configured profile changes.
+  private static final KeyAlgorithmProfile[] KNOWN_PROFILES = {
+      new RsaKeyAlgorithmProfile(),
+      new EcKeyAlgorithmProfile(),
+  };
 
   @NonNull
   private final KeyPairInfoSource keyPairInfoSource;
 
+  // Profile used for newly generated keys and alias matching.
+  @NonNull
+  private final KeyAlgorithmProfile keyAlgorithmProfile;
+
+  @NonNull
+  private final String firstAlias;
+
+  @NonNull
+  private final Pattern aliasPattern;
+
+  // Aliases of every known profile; these are the ones kept in the alias index.
+  @NonNull
+  private final Pattern indexedAliasPattern;
+
+  // Serializes read-modify-write of the persisted alias index.
+  private final Object aliasIndexLock = new Object();
+
+  @NonNull
+  private final SharedKeyStore sharedKeyStore;
+
+  @NonNull
+  private final KeyStoreMetrics metrics;
+
+  private final Object activeSigningKeyLock = new Object();
+
+  // Collapses concurrent generations of the same alias into one.
+  private final KeyGenerationCoordinator keyGenerationCoordinator = new KeyGenerationCoordinator();
+
+  // Memoized JWK, thumbprint and encoded JWS header per alias.
+  private final PublicKeyCache publicKeyCache = new PublicKeyCache();
+
+  // Alias -> public JWK thumbprint, for matching local keys against the server jwks.
+  private final ThumbprintIndex thumbprintIndex = new ThumbprintIndex();
+
+  // Resolved signing state for the active key; null until first sign or after invalidation.
+  @Nullable
+  private volatile ActiveSigningKey activeSigningKey;
+
+  // Bumped on every invalidation so a resolve that raced with one is not cached;
+  // reported as the signing key version. Guarded by activeSigningKeyLock.
+  private long activeSigningKeyGeneration;
+
+  // Null when pre-generation is disabled; rotation then always generates synchronously.
+  @Nullable
+  private final KeyPairPreGenerator preGenerator;
+
+  // Serializes staging of the spare key with its promotion during rotation.
+  private final Object rotationLock = new Object();
+
+  private final AtomicBoolean stagingRequested = new AtomicBoolean(false);
+
+  private final boolean preferStrongBox;
+
+  // Set once a StrongBox request fails, so later generations in this process
+  // go straight to the TEE instead of paying for the failed attempt again.
+  private final AtomicBoolean strongBoxUnavailable = new AtomicBoolean(false);
+
+  // Backing of staged spares, which have no metadata entry until promoted.
+  private final ConcurrentHashMap<String, KeyBacking> stagedBackings = new ConcurrentHashMap<>();
+
+  // Null when usage isn't tracked; signing then doesn't touch metadata at all.
+  @Nullable
+  private final KeyUsageTracker usageTracker;
+
   /**
-   * Create a new BcscKeyPairRepo.
+   * Create a new BcscKeyPairRepo backed by the process-wide AndroidKeyStore handle.
    * @param keyPairInfoSource the source for storing key pair metadata
    */
   public BcscKeyPairRepo(@NonNull KeyPairInfoSource keyPairInfoSource) {
-    this.keyPairInfoSource = keyPairInfoSource;
+    this(new Builder(keyPairInfoSource));
+  }
+
+  /**
+   * Create a new BcscKeyPairRepo.
+   * @param keyPairInfoSource the source for storing key pair metadata
+   * @param sharedKeyStore the keystore handle shared with other keystore consumers
+   */
+  public BcscKeyPairRepo(@NonNull KeyPairInfoSource keyPairInfoSource,
+      @NonNull SharedKeyStore sharedKeyStore) {
+    this(new Builder(keyPairInfoSource).setSharedKeyStore(sharedKeyStore));
+  }
+
+  private BcscKeyPairRepo(@NonNull Builder builder) {
+    this.keyPairInfoSource = builder.keyPairInfoSource;
+    this.usageTracker = builder.usageTracker;
+    this.preferStrongBox = builder.preferStrongBox;
+    this.sharedKeyStore = builder.sharedKeyStore;
+    this.metrics = builder.metrics;
+    this.preGenerator = builder.preGenerator;
+    this.keyAlgorithmProfile = builder.keyAlgorithmProfile;
+    this.firstAlias = keyAlgorithmProfile.getAliasPrefix() + "1";
+    this.aliasPattern = Pattern.compile("^" + Pattern.quote(keyAlgorithmProfile.getAliasPrefix()) + "(\\d+)$");
+    StringBuilder prefixes = new StringBuilder(Pattern.quote(keyAlgorithmProfile.getAliasPrefix()));
+    for (KeyAlgorithmProfile profile : KNOWN_PROFILES) {
+      prefixes.append('|').append(Pattern.quote(profile.getAliasPrefix()));
+    }
+    this.indexedAliasPattern = Pattern.compile("^(?:" + prefixes + ")\\d+$");
+  }
+
+  /**
+   * Builder for a BcscKeyPairRepo. Only the metadata source is required; by
+   * default the repo uses the process-wide AndroidKeyStore handle, generates
+   * RSA-4096 / RS512 keys in the TEE, doesn't pre-generate rotation keys and
+   * records neither metrics nor usage statistics.
+   */
+  public static final class Builder {
+
+    @NonNull
+    private final KeyPairInfoSource keyPairInfoSource;
+
+    @NonNull
+    private SharedKeyStore sharedKeyStore = SharedKeyStore.getInstance();
+
+    @Nullable
+    private KeyPairPreGenerator preGenerator;
+
+    @NonNull
+    private KeyAlgorithmProfile keyAlgorithmProfile = new RsaKeyAlgorithmProfile();
+
+    @NonNull
+    private KeyStoreMetrics metrics = KeyStoreMetrics.NONE;
+
+    private boolean preferStrongBox;
+
+    @Nullable
+    private KeyUsageTracker usageTracker;
+
+    /**
+     * @param keyPairInfoSource the source for storing key pair metadata
+     */
+    public Builder(@NonNull KeyPairInfoSource keyPairInfoSource) {
+      this.keyPairInfoSource = keyPairInfoSource;
+    }
+
+    /**
+     * @param sharedKeyStore the keystore handle shared with other keystore consumers
+     */
+    @NonNull
+    public Builder setSharedKeyStore(@NonNull SharedKeyStore sharedKeyStore) {
+      this.sharedKeyStore = sharedKeyStore;
+      return this;
+    }
+
+    /**
+     * @param preGenerator stages the next rotation key in the background, or null to disable
+     */
+    @NonNull
+    public Builder setPreGenerator(@Nullable KeyPairPreGenerator preGenerator) {
+      this.preGenerator = preGenerator;
+      return this;
+    }
+
+    /**
+     * @param keyAlgorithmProfile the algorithm new keys are generated with
+     */
+    @NonNull
+    public Builder setKeyAlgorithmProfile(@NonNull KeyAlgorithmProfile keyAlgorithmProfile) {
+      this.keyAlgorithmProfile = keyAlgorithmProfile;
+      return this;
+    }
+
+    /**
+     * @param metrics receives latency measurements for keystore operations
+     */
+    @NonNull
+    public Builder setMetrics(@NonNull KeyStoreMetrics metrics) {
+      this.metrics = metrics;
+      return this;
+    }
+
+    /**
+     * @param preferStrongBox request StrongBox for new keys, falling back to the
+     *        TEE when the attempt fails
+     */
+    @NonNull
+    public Builder setPreferStrongBox(boolean preferStrongBox) {
+      this.preferStrongBox = preferStrongBox;
+      return this;
+    }
+
+    /**
+     * @param usageTracker records each signature against the signing alias, or
+     *        null to disable usage statistics; it must write to the metadata source
+     */
+    @NonNull
+    public Builder setUsageTracker(@Nullable KeyUsageTracker usageTracker) {
+      this.usageTracker = usageTracker;
+      return this;
+    }
+
+    @NonNull
+    public BcscKeyPairRepo build() {
+      return new BcscKeyPairRepo(this);
+    }
   }
 
   @Override
@@ -95,16 +311,20 @@ public class BcscKeyPairRepo implements BcscKeyPairSource {
       // Log full keystore contents on entry so we can diagnose both the
       // v3→older-v4→this-v4 path and the direct v3→this-v4 path.
       // Non-rsa\d+ aliases here indicate v3 keys that reconcile will ignore.
-      try {
-        java.util.List<String> allAliases = new java.util.ArrayList<>();
-        Enumeration<String> en = keyStore.aliases();
-        while (en.hasMoreElements()) allAliases.add(en.nextElement());
-        SimpleLog.d(TAG, "getCurrentBcscKeyPair: keystore aliases=" + allAliases);
-      } catch (KeyStoreException kse) {
-        SimpleLog.d(TAG, "getCurrentBcscKeyPair: could not list keystore aliases: " + kse.getMessage());
+      // Enumerating the keystore is itself a binder round trip, so skip it
+      // entirely unless debug logging is on.
+      if (SimpleLog.isLoggable(SimpleLog.Level.DEBUG)) {
+        try {
+          java.util.List<String> allAliases = new java.util.ArrayList<>();
+          Enumeration<String> en = keyStore.aliases();
+          while (en.hasMoreElements()) allAliases.add(en.nextElement());
+          SimpleLog.d(TAG, "getCurrentBcscKeyPair: keystore aliases=" + allAliases);
+        } catch (KeyStoreException kse) {
+          SimpleLog.d(TAG, "getCurrentBcscKeyPair: could not list keystore aliases: " + kse.getMessage());
+        }
+        SimpleLog.d(TAG, "getCurrentBcscKeyPair: " + keyAlgorithmProfile.getAliasPrefix() + " keystore aliases="
+            + findKeyAliasesInKeyStore(keyStore).values());
       }
-      SimpleLog.d(TAG, "getCurrentBcscKeyPair: rsa keystore aliases="
-          + findRsaAliasesInKeyStore(keyStore).values());
 
       // Reconcile metadata with the keystore before picking the active key.
       // Required for v3 -> v4 migrated users whose v4 SharedPreferences was
@@ -114,26 +334,31 @@ public class BcscKeyPairRepo implements BcscKeyPairSource {
       // registered with IAS.
       reconcileKeyPairInfoWithKeyStore(keyStore);
 
-      HashMap<String, KeyPairInfo> allInfo = keyPairInfoSource.getKeyPairInfo();
-      SimpleLog.d(TAG, "getCurrentBcscKeyPair: KeyPairInfo after reconcile=" + allInfo.keySet());
+      if (SimpleLog.isLoggable(SimpleLog.Level.DEBUG)) {
+        SimpleLog.d(TAG, "getCurrentBcscKeyPair: KeyPairInfo after reconcile="
+            + keyPairInfoSource.getKeyPairInfo().keySet());
+      }
 
-      KeyPairInfo info = getNewestKeyPairInfo(allInfo);
+      KeyPairInfo info = getNewestKeyPairInfo();
 
       if (info == null) {
-        SimpleLog.d(TAG, "getCurrentBcscKeyPair: no KeyPairInfo found — seeding fresh " + ALIAS_RSA);
-        info = new KeyPairInfo(ALIAS_RSA, System.currentTimeMillis());
+        SimpleLog.d(TAG, "getCurrentBcscKeyPair: no KeyPairInfo found — seeding fresh " + firstAlias);
+        info = new KeyPairInfo(firstAlias, System.currentTimeMillis());
         keyPairInfoSource.saveKeyPairInfo(info);
       } else {
-        SimpleLog.d(TAG, "getCurrentBcscKeyPair: newest KeyPairInfo="
-            + info.getAlias() + " createdAt=" + info.getCreatedAt());
+        final KeyPairInfo newest = info;
+        SimpleLog.d(TAG, () -> "getCurrentBcscKeyPair: newest KeyPairInfo="
+            + newest.getAlias() + " createdAt=" + newest.getCreatedAt());
       }
 
-      boolean aliasPresent = keyStore.containsAlias(info.getAlias());
-      SimpleLog.d(TAG, "getCurrentBcscKeyPair: alias '" + info.getAlias()
+      final String activeAlias = info.getAlias();
+      final boolean aliasPresent = keyStore.containsAlias(activeAlias);
+      SimpleLog.d(TAG, () -> "getCurrentBcscKeyPair: alias '" + activeAlias
           + "' present in keystore=" + aliasPresent);
       if (!aliasPresent) {
         SimpleLog.d(TAG, "getCurrentBcscKeyPair: generating new key pair for alias " + info.getAlias());
         generateKeyPair(info.getAlias());
+        info = withRecordedBacking(info);
       }
 
       final KeyPair keyPair;
@@ -143,7 +368,10 @@ public class BcscKeyPairRepo implements BcscKeyPairSource {
         throw new KeyNotFoundException(
             "Failed to retrieve key pair for alias '" + info.getAlias() + "': " + e.getMessage(), e);
       }
-      SimpleLog.d(TAG, "getCurrentBcscKeyPair: returning active key pair " + info.getAlias());
+      SimpleLog.d(TAG, () -> "getCurrentBcscKeyPair: returning active key pair " + activeAlias);
+      if (stagingRequested.compareAndSet(false, true)) {
+        stageNextBcscKeyPair();
+      }
       return new BcscKeyPair(keyPair, info);
     } catch (KeypairGenerationException e) {
       throw e;
@@ -159,6 +387,7 @@ public class BcscKeyPairRepo implements BcscKeyPairSource {
       KeyStore keyStore = loadAndroidKeyStore();
 
       if (!keyStore.containsAlias(kid)) {
+        dropAliasIndexIfListed(kid);
         return null;
       }
 
@@ -178,6 +407,20 @@ public class BcscKeyPairRepo implements BcscKeyPairSource {
   @NonNull
   @Override
   public BcscKeyPair getNewBcscKeyPair() throws BcscException {
+    final BcscKeyPair rotated;
+    synchronized (rotationLock) {
+      rotated = rotateKeyPair();
+    }
+    stageNextBcscKeyPair();
+    return rotated;
+  }
+
+  /**
+   * Rotate to the next rsa\d+ alias, promoting the staged spare when it is
+   * ready and generating synchronously otherwise. Caller holds rotationLock.
+   */
+  @NonNull
+  private BcscKeyPair rotateKeyPair() throws BcscException {
     try {
       KeyStore keyStore = loadAndroidKeyStore();
 
@@ -185,23 +428,31 @@ public class BcscKeyPairRepo implements BcscKeyPairSource {
       // alias rather than colliding with a leftover v3 keystore entry.
       reconcileKeyPairInfoWithKeyStore(keyStore);
 
-      KeyPairInfo info = getNewestKeyPairInfo(keyPairInfoSource.getKeyPairInfo());
+      KeyPairInfo info = getNewestKeyPairInfo();
 
       if (info == null) {
-        info = new KeyPairInfo(ALIAS_RSA, System.currentTimeMillis());
+        info = new KeyPairInfo(firstAlias, System.currentTimeMillis());
         keyPairInfoSource.saveKeyPairInfo(info);
       }
 
-      int id = Integer.parseInt(info.getAlias().replaceAll("\\D+", ""));
-
-      id += 1;
-
-      final String alias = String.format(Locale.ROOT, "%s%d", RSA_ALIAS_PREFIX, id);
+      final String alias = nextAlias(info);
+      final boolean promoted = takeStagedKeyPair(keyStore, alias);
+      // Checked before the alias is published in metadata; once it is,
+      // getCurrentBcscKeyPair may legitimately start generating it too.
+      if (!promoted && keyStore.containsAlias(alias)) {
+        throw new KeyAlreadyExistsException(
+            "Key pair already exists for alias '" + alias + "'");
+      }
 
-      final KeyPairInfo newInfo = new KeyPairInfo(alias, System.currentTimeMillis());
+      KeyPairInfo newInfo = new KeyPairInfo(alias, System.currentTimeMillis(),
+          promoted ? stagedBackings.remove(alias) : null);
       keyPairInfoSource.saveKeyPairInfo(newInfo);
+      invalidateActiveSigningKey();
 
-      generateKeyPair(alias);
+      if (!promoted) {
+        generateKeyPair(alias);
+        newInfo = withRecordedBacking(newInfo);
+      }
       final KeyPair keyPair;
       try {
         keyPair = getKeyPair(keyStore, alias);
@@ -209,7 +460,7 @@ public class BcscKeyPairRepo implements BcscKeyPairSource {
         throw new KeyNotFoundException(
             "Failed to retrieve newly generated key pair for alias '" + alias + "': " + e.getMessage(), e);
       }
-      SimpleLog.d(TAG, "Generated new key pair " + alias);
+      SimpleLog.d(TAG, (promoted ? "Promoted staged key pair " : "Generated new key pair ") + alias);
       return new BcscKeyPair(keyPair, newInfo);
     } catch (KeypairGenerationException e) {
       throw e;
@@ -218,69 +469,203 @@ public class BcscKeyPairRepo implements BcscKeyPairSource {
     }
   }
 
+  @Override
+  public void stageNextBcscKeyPair() {
+    if (preGenerator == null) {
+      return;
+    }
+    preGenerator.scheduleWhenIdle(() -> {
+      synchronized (rotationLock) {
+        stageNextKeyPairNow();
+      }
+    });
+  }
+
+  /**
+   * Generate the alias the next rotation will use, unless it is already
+   * staged. Runs on the pre-generation thread while holding rotationLock.
+   */
+  private void stageNextKeyPairNow() {
+    try {
+      KeyStore keyStore = loadAndroidKeyStore();
+      KeyPairInfo newest = getNewestKeyPairInfo();
+      if (newest == null) {
+        // Nothing active yet; getCurrentBcscKeyPair seeds the first key.
+        return;
+      }
+
+      final String alias = nextAlias(newest);
+      final String staged = keyPairInfoSource.getStagedAlias();
+      if (alias.equals(staged) && keyStore.containsAlias(alias)) {
+        return;
+      }
+      if (staged != null) {
+        discardStagedKeyPair(staged);
+      }
+      if (keyStore.containsAlias(alias)) {
+        SimpleLog.d(TAG, "stage: alias " + alias + " already in keystore; not staging");
+        return;
+      }
+
+      // Record the alias first so a crash mid-generation leaves a marker
+      // that the next stage or rotation cleans up.
+      keyPairInfoSource.saveStagedAlias(alias);
+      if (!alias.equals(keyPairInfoSource.getStagedAlias())) {
+        // Without a persisted marker the spare would be mistaken for a usable key.
+        SimpleLog.d(TAG, "stage: metadata source doesn't persist a staged alias; not pre-generating");
+        return;
+      }
+      generateKeyPair(alias);
+      SimpleLog.d(TAG, "stage: pre-generated spare key pair " + alias);
+    } catch (Exception e) {
+      SimpleLog.e(TAG, "stage: failed to pre-generate next key pair", e);
+    }
+  }
+
+  /**
+   * Claim the staged spare for promotion to the given alias. Any staged spare
+   * that can't be used is discarded. Caller holds rotationLock.
+   *
+   * @return true if a ready spare exists under the alias, false if the caller
+   *         must generate synchronously
+   */
+  private boolean takeStagedKeyPair(@NonNull KeyStore keyStore, @NonNull String alias)
+      throws Exception {
+    final String staged = keyPairInfoSource.getStagedAlias();
+    if (staged == null) {
+      return false;
+    }
+    if (staged.equals(alias) && keyStore.containsAlias(alias)) {
+      keyPairInfoSource.saveStagedAlias(null);
+      thumbprintIndex.invalidate(alias);
+      return true;
+    }
+    discardStagedKeyPair(staged);
+    return false;
+  }
+
+  /**
+   * Drop an orphaned staged spare. The keystore entry is only deleted when
+   * metadata doesn't track the alias, so a spare that was promoted just before
+   * its marker was cleared is never lost.
+   */
+  private void discardStagedKeyPair(@NonNull String staged) throws BcscException {
+    if (keyPairInfoSource.getKeyPairInfo(staged) == null) {
+      SimpleLog.d(TAG, "Discarding orphaned staged key pair " + staged);
+      deleteKeyEntry(staged);
+    }
+    stagedBackings.remove(staged);
+    keyPairInfoSource.saveStagedAlias(null);
+  }
+
+  @NonNull
+  private String nextAlias(@NonNull KeyPairInfo newest) {
+    int id = Integer.parseInt(newest.getAlias().replaceAll("\\D+", ""));
+    return String.format(Locale.ROOT, "%s%d", keyAlgorithmProfile.getAliasPrefix(), id + 1);
+  }
+
   @Override
   public void deleteBcscKeyPair(@NonNull String alias) throws BcscException {
     SimpleLog.d(TAG, "Deleting key pair " + alias);
+    if (usageTracker != null) {
+      usageTracker.discard(Collections.singletonList(alias));
+    }
     keyPairInfoSource.deleteKeyPairInfo(alias);
+    invalidateActiveSigningKey();
     boolean success = deleteKeyEntry(alias);
     if (!success) {
       throw new BcscException(AlertKey.ERR_108_UNABLE_TO_DELETE_KEY_PAIR);
     }
   }
 
+  @Deprecated
   @Override
   public void cleanUpBcscKeyPairs() throws BcscException {
-    KeyPairInfo info = getOldestKeyPairInfo(keyPairInfoSource.getKeyPairInfo());
-
-    if (info == null) {
-      return;
-    }
-    SimpleLog.d(TAG, "Cleaning up key pair " + info.getAlias());
-    keyPairInfoSource.deleteKeyPairInfo(info.getAlias());
-    boolean success = deleteKeyEntry(info.getAlias());
-    if (!success) {
+    KeyCleanupReport report = cleanUpBcscKeyPairs(KeyRetentionPolicy.DEFAULT);
+    if (!report.getFailed().isEmpty()) {
       throw new BcscException(AlertKey.ERR_108_UNABLE_TO_DELETE_KEY_PAIR);
     }
   }
 
-  @Nullable
-  private KeyPairInfo getNewestKeyPairInfo(HashMap<String, KeyPairInfo> infoMap) {
-    KeyPairInfo info = null;
-    for (KeyPairInfo keyPairInfo : infoMap.values()) {
-      if (info == null) {
-        info = keyPairInfo;
-      } else {
-        if (keyPairInfo.getCreatedAt() > info.getCreatedAt()) {
-          info = keyPairInfo;
-        }
-      }
+  @NonNull
+  @Override
+  public KeyCleanupReport cleanUpBcscKeyPairs(@NonNull KeyRetentionPolicy policy) throws BcscException {
+    HashMap<String, KeyPairInfo> infoMap = keyPairInfoSource.getKeyPairInfo();
+    CreatedAtIndex byCreatedAt = keyPairInfoSource.getCreatedAtIndex();
+    if (usageTracker != null) {
+      // Usage not yet flushed still counts towards keeping recently used keys.
+      HashMap<String, KeyPairInfo> stored = new HashMap<>(infoMap);
+      infoMap.replaceAll((alias, info) -> usageTracker.applyPending(info));
+      byCreatedAt = byCreatedAt.updated(stored, infoMap);
+    }
+    List<String> doomed = policy.selectForDeletion(byCreatedAt, System.currentTimeMillis());
+    spareLastHeldKey(doomed);
+    List<String> retained = new ArrayList<>(infoMap.keySet());
+    retained.removeAll(doomed);
+    Collections.sort(retained);
+    if (doomed.isEmpty()) {
+      return new KeyCleanupReport(Collections.emptyList(), Collections.emptyList(), retained);
     }
-    return info;
-  }
-
-  @Nullable
-  private KeyPairInfo getOldestKeyPairInfo(HashMap<String, KeyPairInfo> infoMap) {
 
-    if (infoMap.size() < 3) {
-      return null;
+    SimpleLog.d(TAG, "Cleaning up key pairs " + doomed);
+    if (usageTracker != null) {
+      usageTracker.discard(doomed);
     }
+    keyPairInfoSource.deleteKeyPairInfos(doomed);
+    invalidateActiveSigningKey();
+    List<String> failed = deleteKeyEntries(doomed);
+    List<String> deleted = new ArrayList<>(doomed);
+    deleted.removeAll(failed);
+    if (!failed.isEmpty()) {
+      SimpleLog.w(TAG, "Failed to delete keystore entries " + failed);
+    }
+    return new KeyCleanupReport(deleted, failed, retained);
+  }
 
-    String alias = null;
-    long currentOldKeyTime = System.currentTimeMillis();
-    for (KeyPairInfo keyPairInfo : infoMap.values()) {
-      if (keyPairInfo.getCreatedAt() < currentOldKeyTime) {
-        currentOldKeyTime = keyPairInfo.getCreatedAt();
-        alias = keyPairInfo.getAlias();
+  /**
+   * The policy only sees metadata, which can list keys the keystore no longer
+   * holds. Re-read the keystore, bypassing the alias index, and if the delete
+   * set covers every key it still holds, keep the newest of them.
+   */
+  private void spareLastHeldKey(@NonNull List<String> doomed) {
+    if (doomed.isEmpty()) {
+      return;
+    }
+    Collection<String> held = auditedKeyAliases().values();
+    if (held.isEmpty() || !doomed.containsAll(held)) {
+      return;
+    }
+    // The delete set is oldest first, so the last held alias in it is the newest.
+    String newestHeld = null;
+    for (String alias : doomed) {
+      if (held.contains(alias)) {
+        newestHeld = alias;
       }
     }
-    return infoMap.get(alias);
+    SimpleLog.w(TAG, "Cleanup would delete every key in the keystore; keeping " + newestHeld);
+    doomed.remove(newestHeld);
+  }
+
+  @Nullable
+  private KeyPairInfo getNewestKeyPairInfo() throws BcscException {
+    return keyPairInfoSource.getCreatedAtIndex().newest();
   }
 
   @NonNull
   private KeyStore loadAndroidKeyStore() throws Exception {
-    KeyStore keyStore = KeyStore.getInstance(KEYSTORE_TYPE);
-    keyStore.load(null);
-    return keyStore;
+    final long startNanos = System.nanoTime();
+    boolean success = false;
+    try {
+      KeyStore keyStore = sharedKeyStore.get();
+      success = true;
+      return keyStore;
+    } finally {
+      record(Operation.KEYSTORE_LOAD, null, startNanos, success);
+    }
+  }
+
+  private void record(@NonNull Operation operation, @Nullable String alias, long startNanos, boolean success) {
+    metrics.record(operation, alias, System.nanoTime() - startNanos, success);
   }
 
   /**
@@ -301,51 +686,104 @@ public class BcscKeyPairRepo implements BcscKeyPairSource {
    *     with synthetic createdAt values so the highest-numbered alias becomes
    *     newest. This is a last-resort guess (numeric ordering is wrong after
    *     a v3 account reset that restarts at rsa1); the recovery flow corrects
-   *     it on the first 401.
+   *     it on the first 401. The staged spare is never backfilled: the server
+   *     has not seen its kid.
    */
   private void reconcileKeyPairInfoWithKeyStore(@NonNull KeyStore keyStore) throws BcscException {
+    final long startNanos = System.nanoTime();
+    boolean success = false;
+    try {
+      bootstrapKeyPairInfoFromKeyStore(keyStore);
+      success = true;
+    } finally {
+      record(Operation.RECONCILE, null, startNanos, success);
+    }
+  }
+
+  private void bootstrapKeyPairInfoFromKeyStore(@NonNull KeyStore keyStore) throws BcscException {
     HashMap<String, KeyPairInfo> existing = keyPairInfoSource.getKeyPairInfo();
     if (!existing.isEmpty()) {
-      SimpleLog.d(TAG, "reconcile: metadata non-empty; trusting existing entries (" + existing.keySet() + ")");
+      SimpleLog.d(TAG, () -> "reconcile: metadata non-empty; trusting existing entries (" + existing.keySet() + ")");
       return;
     }
 
-    java.util.TreeMap<Integer, String> keystoreAliases = findRsaAliasesInKeyStore(keyStore);
+    java.util.TreeMap<Integer, String> keystoreAliases = findKeyAliasesInKeyStore(keyStore);
     if (keystoreAliases.isEmpty()) {
-      SimpleLog.d(TAG, "reconcile: metadata empty and no rsa\\d+ aliases in keystore; nothing to do");
+      SimpleLog.d(TAG, "reconcile: metadata empty and no " + keyAlgorithmProfile.getAliasPrefix()
+          + "\\d+ aliases in keystore; nothing to do");
       return;
     }
 
-    long now = System.currentTimeMillis();
-    int highestId = keystoreAliases.lastKey();
-    for (java.util.Map.Entry<Integer, String> entry : keystoreAliases.entrySet()) {
-      long createdAt = now - (long) (highestId - entry.getKey());
-      keyPairInfoSource.saveKeyPairInfo(new KeyPairInfo(entry.getValue(), createdAt));
+    final long now = System.currentTimeMillis();
+    final int highestId = keystoreAliases.lastKey();
+    final AtomicBoolean bootstrapped = new AtomicBoolean(false);
+    // One write for every alias; re-checked inside the update so a concurrent
+    // bootstrap or save isn't overwritten.
+    keyPairInfoSource.updateKeyPairInfo(infos -> {
+      if (!infos.isEmpty()) {
+        return;
+      }
+      // The spare may have been staged since the aliases were read; it must
+      // never be backfilled as a usable, let alone the newest, key.
+      String staged = keyPairInfoSource.getStagedAlias();
+      for (java.util.Map.Entry<Integer, String> entry : keystoreAliases.entrySet()) {
+        if (entry.getValue().equals(staged)) {
+          continue;
+        }
+        long createdAt = now - (long) (highestId - entry.getKey());
+        infos.put(entry.getValue(), new KeyPairInfo(entry.getValue(), createdAt));
+      }
+      bootstrapped.set(true);
+    });
+    if (bootstrapped.get()) {
+      SimpleLog.d(TAG, "reconcile: bootstrapped empty metadata from keystore aliases "
+          + keystoreAliases.values() + " (synthetic timestamps; will be corrected on first 401 recovery)");
     }
-    SimpleLog.d(TAG, "reconcile: bootstrapped empty metadata from keystore aliases "
-        + keystoreAliases.values() + " (synthetic timestamps; will be corrected on first 401 recovery)");
   }
 
   /**
-   * Enumerate every rsa\d+ alias that exists in the AndroidKeyStore, augmented
-   * with the createdAt from metadata when present. This is the source of truth
-   * for "what private keys does this device actually hold" — used by the
-   * recovery flow to match local keys against the server's jwks.
+   * Enumerate every rsa\d+ alias in the AndroidKeyStore, augmented with the
+   * createdAt from metadata when present. Used by the recovery flow to match
+   * local keys against the server's jwks.
+   *
+   * The aliases come from the persisted alias index, which is re-audited
+   * against the keystore only every 24 hours, so
+   * keys added or removed outside this repo may be missed or still listed
+   * until then. Destructive callers should use {@link #auditBcscKeyPairInfos()}.
    *
-   * @return list of KeyPairInfo, one per keystore alias matching rsa\d+. The
+   * @return list of KeyPairInfo, one per indexed alias matching rsa\d+. The
    *         createdAt is 0 for aliases not yet tracked in metadata. Empty list
    *         (never null) if the keystore can't be read.
    */
   @NonNull
   @Override
   public List<KeyPairInfo> getAllBcscKeyPairInfos() throws BcscException {
+    return keyPairInfos(false);
+  }
+
+  /**
+   * Like {@link #getAllBcscKeyPairInfos()}, but enumerates the keystore and
+   * refreshes the alias index first.
+   */
+  @NonNull
+  @Override
+  public List<KeyPairInfo> auditBcscKeyPairInfos() throws BcscException {
+    return keyPairInfos(true);
+  }
+
+  @NonNull
+  private List<KeyPairInfo> keyPairInfos(boolean audit) throws BcscException {
     try {
       KeyStore keyStore = loadAndroidKeyStore();
-      java.util.TreeMap<Integer, String> keystoreAliases = findRsaAliasesInKeyStore(keyStore);
+      java.util.TreeMap<Integer, String> keystoreAliases =
+          keyAliases(audit ? auditAliasIndex(keyStore) : indexedAliases(keyStore));
       HashMap<String, KeyPairInfo> metadata = keyPairInfoSource.getKeyPairInfo();
       List<KeyPairInfo> result = new ArrayList<>(keystoreAliases.size());
       for (String alias : keystoreAliases.values()) {
         KeyPairInfo tracked = metadata.get(alias);
+        if (tracked != null && usageTracker != null) {
+          tracked = usageTracker.applyPending(tracked);
+        }
         result.add(tracked != null ? tracked : new KeyPairInfo(alias, 0L));
       }
       return result;
@@ -366,73 +804,209 @@ public class BcscKeyPairRepo implements BcscKeyPairSource {
    */
   @Override
   public void markActiveBcscKeyPair(@NonNull String alias) throws BcscException {
-    keyPairInfoSource.saveKeyPairInfo(new KeyPairInfo(alias, System.currentTimeMillis()));
+    final long now = System.currentTimeMillis();
+    keyPairInfoSource.updateKeyPairInfo(infos -> {
+      KeyPairInfo existing = infos.get(alias);
+      infos.put(alias, existing != null ? existing.withCreatedAt(now) : new KeyPairInfo(alias, now));
+    });
+    invalidateActiveSigningKey();
     SimpleLog.d(TAG, "markActiveBcscKeyPair: " + alias + " stamped as newest");
   }
 
   /**
-   * Return every keystore alias that looks like rsa\d+, keyed by its number
-   * so iteration is in numeric order. Returns an empty map (never null) if
-   * the keystore can't be read.
+   * Return every keystore alias that matches the profile's prefix followed by
+   * a number (rsa\d+ by default), keyed by its number so iteration is in
+   * numeric order. The staged spare, if any, is excluded.
+   * Served from the persisted alias index when it is fresh, so the common
+   * path does not enumerate the keystore.
+   * Returns an empty map (never null) if the keystore can't be read.
    */
   @NonNull
-  private java.util.TreeMap<Integer, String> findRsaAliasesInKeyStore(@NonNull KeyStore keyStore) {
-    java.util.TreeMap<Integer, String> result = new java.util.TreeMap<>();
+  private java.util.TreeMap<Integer, String> findKeyAliasesInKeyStore(@NonNull KeyStore keyStore) {
+    return keyAliases(indexedAliases(keyStore));
+  }
+
+  /**
+   * Like {@link #findKeyAliasesInKeyStore(KeyStore)}, but enumerates the
+   * keystore and refreshes the alias index first.
+   */
+  @NonNull
+  private java.util.TreeMap<Integer, String> auditedKeyAliases() {
     try {
-      Enumeration<String> aliases = keyStore.aliases();
-      while (aliases.hasMoreElements()) {
-        String alias = aliases.nextElement();
-        Matcher m = RSA_ALIAS_PATTERN.matcher(alias);
-        if (m.matches()) {
-          result.put(Integer.parseInt(m.group(1)), alias);
-        }
+      return keyAliases(auditAliasIndex(loadAndroidKeyStore()));
+    } catch (Exception e) {
+      SimpleLog.e(TAG, "Failed to load keystore for alias audit", e);
+      return new java.util.TreeMap<>();
+    }
+  }
+
+  @NonNull
+  private java.util.TreeMap<Integer, String> keyAliases(@NonNull Collection<String> aliases) {
+    java.util.TreeMap<Integer, String> result = new java.util.TreeMap<>();
+    // A staged spare is not a usable key until rotation promotes it.
+    String staged = keyPairInfoSource.getStagedAlias();
+    for (String alias : aliases) {
+      if (alias.equals(staged)) {
+        continue;
+      }
+      Matcher m = aliasPattern.matcher(alias);
+      if (m.matches()) {
+        result.put(Integer.parseInt(m.group(1)), alias);
       }
-    } catch (KeyStoreException e) {
-      SimpleLog.e(TAG, "Failed to enumerate keystore aliases for reconciliation", e);
     }
     return result;
   }
 
   /**
-   * Generate a new RSA key pair in Android KeyStore.
-   * Creates a 4096-bit RSA key with SHA-512 digest for signing.
+   * Get the port's keystore aliases from the persisted index, re-auditing the
+   * keystore when the index is missing or older than the audit interval.
+   */
+  @NonNull
+  private Collection<String> indexedAliases(@NonNull KeyStore keyStore) {
+    AliasIndex index = keyPairInfoSource.getAliasIndex();
+    if (index != null && System.currentTimeMillis() - index.getAuditedAt() < ALIAS_INDEX_AUDIT_INTERVAL_MS) {
+      return index.getAliases();
+    }
+    return auditAliasIndex(keyStore);
+  }
+
+  /**
+   * Enumerate the keystore and persist the aliases of every known profile as
+   * a fresh index. Other libraries' aliases (and the enc1 key) are skipped.
+   * On failure nothing is persisted and an empty list is returned.
+   */
+  @NonNull
+  private Collection<String> auditAliasIndex(@NonNull KeyStore keyStore) {
+    synchronized (aliasIndexLock) {
+      final long startNanos = System.nanoTime();
+      boolean success = false;
+      List<String> aliases = new ArrayList<>();
+      try {
+        Enumeration<String> en = keyStore.aliases();
+        while (en.hasMoreElements()) {
+          String alias = en.nextElement();
+          if (indexedAliasPattern.matcher(alias).matches()) {
+            aliases.add(alias);
+          }
+        }
+        success = true;
+      } catch (KeyStoreException e) {
+        SimpleLog.e(TAG, "Failed to enumerate keystore aliases for reconciliation", e);
+        return Collections.emptyList();
+      } finally {
+        record(Operation.ALIAS_ENUMERATION, null, startNanos, success);
+      }
+
+      try {
+        keyPairInfoSource.saveAliasIndex(new AliasIndex(aliases, System.currentTimeMillis()));
+      } catch (BcscException e) {
+        SimpleLog.e(TAG, "Failed to persist alias index", e);
+      }
+      SimpleLog.d(TAG, () -> "Audited alias index: " + aliases);
+      return aliases;
+    }
+  }
+
+  /**
+   * Record a generated or deleted alias in the persisted index. Best effort:
+   * a missing index is left for the next lookup to audit, and a failed save
+   * only costs an extra enumeration later.
+   */
+  private void updateAliasIndex(@NonNull String alias, boolean present) {
+    if (!indexedAliasPattern.matcher(alias).matches()) {
+      return;
+    }
+    synchronized (aliasIndexLock) {
+      AliasIndex index = keyPairInfoSource.getAliasIndex();
+      if (index == null) {
+        return;
+      }
+      try {
+        keyPairInfoSource.saveAliasIndex(present ? index.withAlias(alias) : index.withoutAlias(alias));
+      } catch (BcscException e) {
+        SimpleLog.e(TAG, "Failed to update alias index for " + alias, e);
+      }
+    }
+  }
+
+  /**
+   * Drop several deleted aliases from the persisted index in one write.
+   * Best effort, like {@link #updateAliasIndex(String, boolean)}.
+   */
+  private void removeFromAliasIndex(@NonNull List<String> aliases) {
+    List<String> indexed = new ArrayList<>();
+    for (String alias : aliases) {
+      if (indexedAliasPattern.matcher(alias).matches()) {
+        indexed.add(alias);
+      }
+    }
+    if (indexed.isEmpty()) {
+      return;
+    }
+    synchronized (aliasIndexLock) {
+      AliasIndex index = keyPairInfoSource.getAliasIndex();
+      if (index == null) {
+        return;
+      }
+      try {
+        keyPairInfoSource.saveAliasIndex(index.withoutAliases(indexed));
+      } catch (BcscException e) {
+        SimpleLog.e(TAG, "Failed to update alias index for " + indexed, e);
+      }
+    }
+  }
+
+  /**
+   * Drop the persisted index if it lists an alias the keystore no longer
+   * holds (e.g. removed outside this repo), so the next lookup re-audits.
+   */
+  private void dropAliasIndexIfListed(@NonNull String alias) {
+    synchronized (aliasIndexLock) {
+      AliasIndex index = keyPairInfoSource.getAliasIndex();
+      if (index == null || !index.getAliases().contains(alias)) {
+        return;
+      }
+      SimpleLog.d(TAG, "Alias index lists missing alias " + alias + "; forcing re-audit");
+      try {
+        keyPairInfoSource.saveAliasIndex(null);
+      } catch (BcscException e) {
+        SimpleLog.e(TAG, "Failed to drop stale alias index", e);
+      }
+    }
+  }
+
+  /**
+   * Ensure a key pair exists in Android KeyStore under the alias, generating
+   * it with the configured {@link KeyAlgorithmProfile} (4096-bit RSA with
+   * SHA-512 by default) if absent. Concurrent calls for the same alias share
+   * a single generation; an alias that already holds a key is left untouched.
    * 
    * @param alias the alias to store the key pair under
    * @throws KeypairGenerationException if key generation fails
    */
   private void generateKeyPair(String alias) throws KeypairGenerationException {
+    keyGenerationCoordinator.generate(alias, () -> generateKeyPairIfAbsent(alias));
+  }
+
+  private void generateKeyPairIfAbsent(String alias) throws KeypairGenerationException {
     try {
       KeyStore keyStore = loadAndroidKeyStore();
       if (keyStore.containsAlias(alias)) {
-        throw new KeyAlreadyExistsException(
-            "Key pair already exists for alias '" + alias + "'");
+        SimpleLog.d(TAG, "Key pair for alias " + alias + " already generated");
+        return;
       }
 
-      final KeyGenParameterSpec.Builder builder = new KeyGenParameterSpec.Builder(
-          alias,
-          KeyProperties.PURPOSE_SIGN
-              | KeyProperties.PURPOSE_VERIFY
-              | KeyProperties.PURPOSE_ENCRYPT
-              | KeyProperties.PURPOSE_DECRYPT
-      );
-
-      builder.setDigests(KeyProperties.DIGEST_SHA512)
-          .setEncryptionPaddings(KeyProperties.ENCRYPTION_PADDING_RSA_PKCS1)
-          .setKeySize(4096)
-          .setSignaturePaddings(KeyProperties.SIGNATURE_PADDING_RSA_PKCS1);
-
-      if (VERSION.SDK_INT >= VERSION_CODES.N) {
-        builder.setInvalidatedByBiometricEnrollment(false);
+      KeyBacking backing = null;
+      if (preferStrongBox && Build.VERSION.SDK_INT >= VERSION_CODES.P && !strongBoxUnavailable.get()) {
+        backing = tryGenerateInStrongBox(alias);
       }
-
-      final KeyGenParameterSpec spec = builder.build();
-
-      final KeyPairGenerator gen = KeyPairGenerator.getInstance(
-          KeyProperties.KEY_ALGORITHM_RSA, "AndroidKeyStore");
-      gen.initialize(spec);
-      gen.generateKeyPair();
-    } catch (KeyAlreadyExistsException e) {
-      throw e;
+      if (backing == null) {
+        generateKeyPairWithSpec(alias, KeyBacking.TEE);
+        backing = KeyBacking.TEE;
+      }
+      updateAliasIndex(alias, true);
+      thumbprintIndex.invalidate(alias);
+      persistBacking(alias, backing);
     } catch (InvalidAlgorithmParameterException
         | NoSuchAlgorithmException
         | NoSuchProviderException e) {
@@ -444,22 +1018,279 @@ public class BcscKeyPairRepo implements BcscKeyPairSource {
     }
   }
 
+  /**
+   * Generate the key in StrongBox. Returns null, and remembers that StrongBox
+   * is unavailable, when the attempt fails for any reason: no StrongBox, a
+   * profile it can't hold, or an OEM implementation that rejects the spec or
+   * errors mid-generation. Whatever the failed attempt left under the alias
+   * is deleted so the caller can generate in the TEE.
+   */
+  @Nullable
+  @RequiresApi(api = VERSION_CODES.P)
+  private KeyBacking tryGenerateInStrongBox(@NonNull String alias) {
+    try {
+      generateKeyPairWithSpec(alias, KeyBacking.STRONGBOX);
+      return KeyBacking.STRONGBOX;
+    } catch (GeneralSecurityException | ProviderException | UnsupportedOperationException e) {
+      strongBoxUnavailable.set(true);
+      SimpleLog.i(TAG, "StrongBox unavailable for " + keyAlgorithmProfile.getAliasPrefix()
+          + " keys; falling back to TEE: " + e);
+      if (!deleteKeyEntry(alias)) {
+        SimpleLog.w(TAG, "Could not delete partial StrongBox entry " + alias);
+      }
+      return null;
+    }
+  }
+
+  private void generateKeyPairWithSpec(@NonNull String alias, @NonNull KeyBacking backing)
+      throws GeneralSecurityException {
+    final long startNanos = System.nanoTime();
+    boolean success = false;
+    try {
+      final KeyGenParameterSpec spec =
+          keyAlgorithmProfile.buildKeyGenParameterSpec(alias, backing == KeyBacking.STRONGBOX);
+
+      final KeyPairGenerator gen = KeyPairGenerator.getInstance(
+          keyAlgorithmProfile.getKeyAlgorithm(), SharedKeyStore.KEYSTORE_TYPE);
+      gen.initialize(spec);
+      gen.generateKeyPair();
+      success = true;
+    } finally {
+      metrics.record(Operation.KEY_GENERATION, alias, backing, System.nanoTime() - startNanos, success);
+    }
+  }
+
+  /**
+   * Record the backing a key was generated with: in its metadata entry when
+   * tracked, otherwise (a staged spare) in memory until promotion.
+   */
+  private void persistBacking(@NonNull String alias, @NonNull KeyBacking backing) {
+    try {
+      final AtomicBoolean tracked = new AtomicBoolean(false);
+      keyPairInfoSource.updateKeyPairInfo(infos -> {
+        KeyPairInfo info = infos.get(alias);
+        if (info != null) {
+          infos.put(alias, info.withBacking(backing));
+          tracked.set(true);
+        }
+      });
+      if (!tracked.get()) {
+        stagedBackings.put(alias, backing);
+      }
+    } catch (BcscException e) {
+      SimpleLog.e(TAG, "Failed to record key backing for " + alias, e);
+    }
+  }
+
+  /**
+   * Re-read a key's metadata after generation so the caller sees its backing.
+   */
+  @NonNull
+  private KeyPairInfo withRecordedBacking(@NonNull KeyPairInfo info) {
+    KeyPairInfo updated = keyPairInfoSource.getKeyPairInfo(info.getAlias());
+    return updated != null ? updated : info;
+  }
+
   private boolean deleteKeyEntry(String alias) {
     try {
       KeyStore keyStore = loadAndroidKeyStore();
       keyStore.deleteEntry(alias);
+      updateAliasIndex(alias, false);
       return true;
     } catch (Exception e) {
       return false;
+    } finally {
+      publicKeyCache.invalidate(alias);
+      thumbprintIndex.invalidate(alias);
+    }
+  }
+
+  /**
+   * Delete several keystore entries against a single keystore load, updating
+   * the alias index once.
+   *
+   * @return the aliases that could not be deleted
+   */
+  @NonNull
+  private List<String> deleteKeyEntries(@NonNull List<String> aliases) {
+    List<String> failed = new ArrayList<>();
+    List<String> deleted = new ArrayList<>();
+    try {
+      KeyStore keyStore = loadAndroidKeyStore();
+      for (String alias : aliases) {
+        try {
+          keyStore.deleteEntry(alias);
+          deleted.add(alias);
+        } catch (Exception e) {
+          SimpleLog.e(TAG, "Failed to delete keystore entry " + alias, e);
+          failed.add(alias);
+        }
+      }
+    } catch (Exception e) {
+      SimpleLog.e(TAG, "Failed to load keystore for cleanup", e);
+      failed.clear();
+      failed.addAll(aliases);
+      deleted.clear();
+    } finally {
+      for (String alias : aliases) {
+        publicKeyCache.invalidate(alias);
+        thumbprintIndex.invalidate(alias);
+      }
     }
+    removeFromAliasIndex(deleted);
+    return failed;
   }
 
   @NonNull
   @Override
   public JWK convertBcscKeyPairToJWK(@NonNull BcscKeyPair bcscKeyPair) {
-    return new RSAKey.Builder((RSAPublicKey) bcscKeyPair.getKeyPair().getPublic())
-        .keyID(bcscKeyPair.getKeyInfo().getAlias())
-        .build();
+    try {
+      return publicKeyEntry(bcscKeyPair).jwk;
+    } catch (JOSEException e) {
+      throw new IllegalStateException("Failed to convert key pair '"
+          + bcscKeyPair.getKeyInfo().getAlias() + "' to JWK: " + e.getMessage(), e);
+    }
+  }
+
+  @NonNull
+  @Override
+  public String getJWKThumbprint(@NonNull BcscKeyPair bcscKeyPair) throws BcscException {
+    try {
+      return publicKeyEntry(bcscKeyPair).thumbprint.toString();
+    } catch (Exception e) {
+      throw new BcscException("Failed to compute JWK thumbprint for '"
+          + bcscKeyPair.getKeyInfo().getAlias() + "': " + e.getMessage());
+    }
+  }
+
+  /**
+   * Compare thumbprints rather than encodings: the server jwks may hold
+   * legacy-encoded keys (e.g. a modulus with a leading zero byte), so each
+   * server key is decoded and re-encoded the way local keys are before it is
+   * thumbprinted. Local thumbprints come from the thumbprint index and only
+   * aliases missing from it are read from the keystore.
+   */
+  @NonNull
+  @Override
+  public List<String> findAliasesMatchingJWKSet(@NonNull JWKSet jwkSet) throws BcscException {
+    Set<String> serverThumbprints = canonicalThumbprints(jwkSet);
+    List<String> matches = new ArrayList<>();
+    if (serverThumbprints.isEmpty()) {
+      return matches;
+    }
+
+    final KeyStore keyStore;
+    try {
+      keyStore = loadAndroidKeyStore();
+    } catch (Exception e) {
+      throw new BcscException("Failed to load keystore for jwks matching: " + e.getMessage());
+    }
+    Collection<String> aliases = findKeyAliasesInKeyStore(keyStore).values();
+    thumbprintIndex.retainAll(aliases);
+    for (String alias : aliases) {
+      String thumbprint = indexedThumbprint(keyStore, alias);
+      if (thumbprint != null && serverThumbprints.contains(thumbprint)) {
+        matches.add(alias);
+      }
+    }
+    SimpleLog.d(TAG, () -> "findAliasesMatchingJWKSet: " + matches + " of " + aliases
+        + " match " + serverThumbprints.size() + " server key(s)");
+    return matches;
+  }
+
+  /**
+   * Get an alias's thumbprint from the index, reading its public key from the
+   * keystore and indexing it on a miss. Returns null if the key can't be read.
+   */
+  @Nullable
+  private String indexedThumbprint(@NonNull KeyStore keyStore, @NonNull String alias) {
+    String thumbprint = thumbprintIndex.get(alias);
+    if (thumbprint != null) {
+      return thumbprint;
+    }
+    final long readVersion = thumbprintIndex.version();
+    final long startNanos = System.nanoTime();
+    boolean success = false;
+    try {
+      java.security.cert.Certificate certificate = keyStore.getCertificate(alias);
+      if (certificate == null) {
+        return null;
+      }
+      PublicKey publicKey = certificate.getPublicKey();
+      KeyAlgorithmProfile profile = findProfile(publicKey);
+      if (profile == null) {
+        return null;
+      }
+      thumbprint = publicKeyCache.get(alias, publicKey, profile).thumbprint.toString();
+      thumbprintIndex.put(alias, thumbprint, readVersion);
+      success = true;
+      return thumbprint;
+    } catch (Exception e) {
+      SimpleLog.w(TAG, "Failed to compute thumbprint for " + alias + ": " + e.getMessage());
+      return null;
+    } finally {
+      record(Operation.ENTRY_FETCH, alias, startNanos, success);
+    }
+  }
+
+  /**
+   * Thumbprint every public key in the set that one of the known profiles can
+   * represent, after re-encoding it through that profile. Keys that can't be
+   * decoded are skipped.
+   */
+  @NonNull
+  private Set<String> canonicalThumbprints(@NonNull JWKSet jwkSet) {
+    Set<String> thumbprints = new HashSet<>();
+    for (JWK jwk : jwkSet.getKeys()) {
+      if (!(jwk instanceof AsymmetricJWK)) {
+        continue;
+      }
+      try {
+        PublicKey publicKey = ((AsymmetricJWK) jwk).toPublicKey();
+        KeyAlgorithmProfile profile = findProfile(publicKey);
+        if (profile != null) {
+          thumbprints.add(profile.toJWK(publicKey, "").computeThumbprint().toString());
+        }
+      } catch (Exception e) {
+        SimpleLog.w(TAG, "Skipping server key " + jwk.getKeyID() + ": " + e.getMessage());
+      }
+    }
+    return thumbprints;
+  }
+
+  /**
+   * Get the memoized public material (JWK, thumbprint, JWS header) for a key pair.
+   */
+  @NonNull
+  private PublicKeyCache.Entry publicKeyEntry(@NonNull BcscKeyPair bcscKeyPair) throws JOSEException {
+    if (bcscKeyPair.getKeyPair() == null) {
+      throw new JOSEException("No key pair available for alias '" + bcscKeyPair.getKeyInfo().getAlias() + "'");
+    }
+    PublicKey publicKey = bcscKeyPair.getKeyPair().getPublic();
+    KeyAlgorithmProfile profile = findProfile(publicKey);
+    if (profile == null) {
+      throw new JOSEException("Unsupported key algorithm '" + publicKey.getAlgorithm()
+          + "' for alias '" + bcscKeyPair.getKeyInfo().getAlias() + "'");
+    }
+    return publicKeyCache.get(bcscKeyPair.getKeyInfo().getAlias(), publicKey, profile);
+  }
+
+  /**
+   * Find the profile that can sign with and publish the given public key.
+   * The configured profile is preferred; keys from other known profiles
+   * (e.g. RSA keys left over after switching to EC) still resolve.
+   */
+  @Nullable
+  private KeyAlgorithmProfile findProfile(@NonNull PublicKey publicKey) {
+    if (keyAlgorithmProfile.matches(publicKey)) {
+      return keyAlgorithmProfile;
+    }
+    for (KeyAlgorithmProfile profile : KNOWN_PROFILES) {
+      if (profile.matches(publicKey)) {
+        return profile;
+      }
+    }
+    return null;
   }
 
   @Override
@@ -473,11 +1304,78 @@ public class BcscKeyPairRepo implements BcscKeyPairSource {
     }
   }
 
+  @Override
+  public long getSigningKeyVersion() {
+    synchronized (activeSigningKeyLock) {
+      return activeSigningKeyGeneration;
+    }
+  }
+
+  @Override
+  public void invalidateSigningKey() {
+    invalidateActiveSigningKey();
+  }
+
+  /**
+   * Sign every claims set against a single resolution of the active key.
+   * If the key can't be resolved, every item fails with the same error.
+   * The end-to-end batch cost is recorded as {@link Operation#SIGN_BATCH},
+   * successful only if every item was signed.
+   */
+  @NonNull
+  @Override
+  public List<SignedClaimsResult> signAndSerializeAll(@NonNull List<JWTClaimsSet> claimsSets) {
+    final long startNanos = System.nanoTime();
+    List<SignedClaimsResult> results = new ArrayList<>(claimsSets.size());
+    if (claimsSets.isEmpty()) {
+      return results;
+    }
+
+    final ActiveSigningKey signingKey;
+    try {
+      signingKey = resolveActiveSigningKey();
+    } catch (Exception e) {
+      BcscException error = new BcscException(AlertKey.ERR_207_UNABLE_TO_SIGN_CLAIMS_SET, e.getMessage(), e);
+      for (int i = 0; i < claimsSets.size(); i++) {
+        results.add(SignedClaimsResult.failure(error));
+      }
+      record(Operation.SIGN_BATCH, null, startNanos, false);
+      return results;
+    }
+
+    int failures = 0;
+    for (JWTClaimsSet claimsSet : claimsSets) {
+      try {
+        SignedJWT signedJWT = new SignedJWT(signingKey.header, claimsSet);
+        sign(signedJWT, signingKey);
+        results.add(SignedClaimsResult.success(signedJWT.serialize()));
+      } catch (Exception e) {
+        failures++;
+        results.add(SignedClaimsResult.failure(
+            new BcscException(AlertKey.ERR_207_UNABLE_TO_SIGN_CLAIMS_SET, e.getMessage(), e)));
+      }
+    }
+    if (failures > 0) {
+      invalidateActiveSigningKey();
+    }
+
+    record(Operation.SIGN_BATCH, signingKey.kid, startNanos, failures == 0);
+    final int signed = claimsSets.size() - failures;
+    SimpleLog.d(TAG, () -> "signAndSerializeAll: signed " + signed + "/" + claimsSets.size()
+        + " claims sets with " + signingKey.kid);
+    return results;
+  }
+
   /**
    * This is the core signing method where attestation signing happens.
    * 
    * Signs a JWT claims set using the current key pair's private key.
-   * Uses RS512 algorithm (RSA signature with SHA-512 hash).
+   * Uses the algorithm of the key's profile: RS512 (RSA signature with
+   * SHA-512 hash) by default, ES256 for EC P-256 keys.
+   *
+   * The active key, its JWS header and signer are resolved once and cached
+   * until the active key changes (see {@link #invalidateActiveSigningKey()}),
+   * so back-to-back signatures only pay for the RSA operation.
    * 
    * @param claimsSet the JWT claims to sign
    * @return the signed JWT
@@ -487,21 +1385,163 @@ public class BcscKeyPairRepo implements BcscKeyPairSource {
   @NonNull
   public SignedJWT signClaimsSet(@NonNull JWTClaimsSet claimsSet) throws BcscException {
     try {
-      BcscKeyPair currentKeyPair = getCurrentBcscKeyPair();
-      JWSHeader header = new JWSHeader.Builder(JWSAlgorithm.RS512)
-          .keyID(currentKeyPair.getKeyInfo().getAlias())
-          .build();
-      SignedJWT signedJWT = new SignedJWT(header, claimsSet);
-      signedJWT.sign(new RSASSASigner(currentKeyPair.getKeyPair().getPrivate()));
+      ActiveSigningKey signingKey = resolveActiveSigningKey();
+      SignedJWT signedJWT = new SignedJWT(signingKey.header, claimsSet);
+      try {
+        sign(signedJWT, signingKey);
+      } catch (Exception e) {
+        // The cached key may have been removed underneath us (e.g. a keychain
+        // clear); drop it so the next call resolves the active key again.
+        invalidateActiveSigningKey();
+        throw e;
+      }
       return signedJWT;
     } catch (Exception e) {
       throw new BcscException(AlertKey.ERR_207_UNABLE_TO_SIGN_CLAIMS_SET, e.getMessage());
     }
   }
 
+  private void sign(@NonNull SignedJWT signedJWT, @NonNull ActiveSigningKey signingKey) throws JOSEException {
+    final long startNanos = System.nanoTime();
+    boolean success = false;
+    try {
+      signedJWT.sign(signingKey.signer);
+      success = true;
+      if (usageTracker != null) {
+        usageTracker.recordSignature(signingKey.kid);
+      }
+    } finally {
+      metrics.record(Operation.SIGNING, signingKey.kid, signingKey.keyPair.getKeyInfo().getBacking(),
+          System.nanoTime() - startNanos, success);
+    }
+  }
+
+  /**
+   * Return the cached signing state for the active key, resolving it through
+   * {@link #getCurrentBcscKeyPair()} on a cache miss.
+   */
+  @NonNull
+  private ActiveSigningKey resolveActiveSigningKey() throws BcscException {
+    ActiveSigningKey cached = activeSigningKey;
+    if (cached != null) {
+      if (isStillActive(cached)) {
+        return cached;
+      }
+      SimpleLog.d(TAG, "Metadata changed; re-resolving active signing key " + cached.kid);
+      invalidateActiveSigningKey();
+    }
+
+    final long generation;
+    synchronized (activeSigningKeyLock) {
+      generation = activeSigningKeyGeneration;
+    }
+    final long metadataVersion = keyPairInfoSource.getVersion();
+
+    BcscKeyPair current = getCurrentBcscKeyPair();
+    if (current.getKeyPair() == null) {
+      throw new KeyNotFoundException(
+          "No key pair available for alias '" + current.getKeyInfo().getAlias() + "'");
+    }
+    KeyAlgorithmProfile profile = findProfile(current.getKeyPair().getPublic());
+    if (profile == null) {
+      throw new BcscException(AlertKey.ERR_207_UNABLE_TO_SIGN_CLAIMS_SET,
+          "Unsupported key algorithm for alias '" + current.getKeyInfo().getAlias() + "'");
+    }
+    final ActiveSigningKey resolved;
+    try {
+      resolved = new ActiveSigningKey(current, profile, publicKeyEntry(current).header, metadataVersion);
+    } catch (JOSEException e) {
+      throw new BcscException(AlertKey.ERR_207_UNABLE_TO_SIGN_CLAIMS_SET, e.getMessage(), e);
+    }
+
+    synchronized (activeSigningKeyLock) {
+      if (generation == activeSigningKeyGeneration) {
+        activeSigningKey = resolved;
+        SimpleLog.d(TAG, "Cached active signing key " + resolved.kid);
+      }
+    }
+    return resolved;
+  }
+
+  /**
+   * Check a cached signing key against the metadata version, to catch changes
+   * made through the metadata source rather than this repo. Not every change
+   * moves the active key (usage flushes, for one), so on a version mismatch
+   * the newest alias is compared and an unchanged key is re-stamped.
+   */
+  private boolean isStillActive(@NonNull ActiveSigningKey cached) throws BcscException {
+    final long version = keyPairInfoSource.getVersion();
+    if (version == cached.metadataVersion || version == KeyPairInfoSource.UNVERSIONED) {
+      return true;
+    }
+    KeyPairInfo newest = getNewestKeyPairInfo();
+    if (newest != null && newest.getAlias().equals(cached.kid)) {
+      cached.metadataVersion = version;
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Drop the cached active signing key and bump the signing key version.
+   * Called whenever the active key may have changed: rotation, promotion,
+   * deletion, cleanup and changes made outside this repo.
+   */
+  private void invalidateActiveSigningKey() {
+    synchronized (activeSigningKeyLock) {
+      activeSigningKeyGeneration++;
+      activeSigningKey = null;
+    }
+  }
+
+  /**
+   * Signing state for the active key: the key pair, its kid, the prebuilt
+   * JWS header for the key's profile and a reusable signer, all immutable,
+   * plus the metadata version the key was last confirmed active at.
+   */
+  private static final class ActiveSigningKey {
+
+    @NonNull
+    final BcscKeyPair keyPair;
+
+    @NonNull
+    final String kid;
+
+    @NonNull
+    final JWSHeader header;
+
+    @NonNull
+    final JWSSigner signer;
+
+    volatile long metadataVersion;
+
+    ActiveSigningKey(@NonNull BcscKeyPair keyPair, @NonNull KeyAlgorithmProfile profile,
+        @NonNull JWSHeader header, long metadataVersion) throws JOSEException {
+      this.keyPair = keyPair;
+      this.kid = keyPair.getKeyInfo().getAlias();
+      this.header = header;
+      this.signer = profile.createSigner(keyPair.getKeyPair().getPrivate());
+      this.metadataVersion = metadataVersion;
+    }
+  }
+
   @NonNull
   private KeyPair getKeyPair(@NonNull KeyStore keyStore, @NonNull String kid)
       throws UnrecoverableEntryException, NoSuchAlgorithmException, KeyStoreException {
+    final long startNanos = System.nanoTime();
+    boolean success = false;
+    try {
+      KeyPair keyPair = readKeyPair(keyStore, kid);
+      success = true;
+      return keyPair;
+    } finally {
+      record(Operation.ENTRY_FETCH, kid, startNanos, success);
+    }
+  }
+
+  @NonNull
+  private KeyPair readKeyPair(@NonNull KeyStore keyStore, @NonNull String kid)
+      throws UnrecoverableEntryException, NoSuchAlgorithmException, KeyStoreException {
     if (Build.VERSION.SDK_INT <= VERSION_CODES.O_MR1) {
       final PrivateKey privateKey = (PrivateKey) keyStore.getKey(kid, null);
       final PublicKey publicKey = keyStore.getCertificate(kid).getPublicKey();
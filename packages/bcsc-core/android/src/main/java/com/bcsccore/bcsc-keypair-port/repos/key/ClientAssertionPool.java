@@ -0,0 +1,397 @@
+package com.bcsccore.keypair.repos.key;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import com.bcsccore.keypair.core.interfaces.AsyncBcscKeyPairSource;
+import com.bcsccore.keypair.core.interfaces.AsyncBcscKeyPairSource.Priority;
+import com.bcsccore.keypair.core.interfaces.BcscKeyPairSource;
+import com.bcsccore.keypair.core.models.ClientAssertionPoolStats;
+import com.bcsccore.keypair.core.utils.SimpleLog;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Pre-signed OAuth client assertions (RFC 7523 private_key_jwt), pooled per
+ * (issuer, client ID), so a token request doesn't wait on the keystore.
+ *
+ * Assertions are short-lived and token refreshes are an access token lifetime
+ * apart, so the pool doesn't refill after each use: an assertion signed then
+ * would expire long before the next refresh. It pre-signs only on a signal
+ * that a refresh is close: {@link #prefillDue()}, called when the app comes to
+ * the foreground, fills the pools whose next refresh is expected within an
+ * assertion's usable lifetime, and {@link #prefill} fills one explicitly.
+ * Background signing runs at {@link Priority#PREFETCH}, behind any signing or
+ * keystore work a caller is waiting on.
+ *
+ * An assertion is handed out at most once and carries its own jti. Pooled
+ * assertions are dropped instead of served when fewer than
+ * {@code minRemainingMillis} of their lifetime remain, or when the source's
+ * signing key version has changed since they were signed (after a rotation,
+ * deletion, marking another key active or a keychain clear). A request that
+ * finds nothing usable takes an assertion still being signed in the
+ * background if there is one, and signs on demand otherwise. Assertions
+ * signed on demand are used straight away, so they keep the longer lifetime
+ * refresh assertions were signed with before they were pooled.
+ */
+public class ClientAssertionPool {
+
+  private static final String TAG = "ClientAssertionPool";
+
+  /** Assertions kept ready per (issuer, client ID). */
+  public static final int DEFAULT_TARGET_SIZE = 1;
+
+  /** Lifetime of every assertion the pool signs ahead of a request. */
+  public static final long DEFAULT_LIFETIME_MILLIS = 5L * 60L * 1000L;
+
+  /** Lifetime of assertions signed on demand, for a request that found none pooled. */
+  public static final long DEFAULT_ON_DEMAND_LIFETIME_MILLIS = 60L * 60L * 1000L;
+
+  /** Pooled assertions with less lifetime left than this are dropped. */
+  public static final long DEFAULT_MIN_REMAINING_MILLIS = 60L * 1000L;
+
+  /** Expected time between refreshes: the one-hour access token lifetime. */
+  public static final long DEFAULT_REFRESH_INTERVAL_MILLIS = 60L * 60L * 1000L;
+
+  @NonNull
+  private final AsyncBcscKeyPairSource source;
+
+  private final int targetSize;
+
+  private final long lifetimeMillis;
+
+  private final long onDemandLifetimeMillis;
+
+  private final long minRemainingMillis;
+
+  private final long refreshIntervalMillis;
+
+  @NonNull
+  private final LongSupplier clock;
+
+  // Guarded by this.
+  private final Map<String, Slot> slots = new HashMap<>();
+
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+  private final AtomicLong minted = new AtomicLong();
+  private final AtomicLong mintFailures = new AtomicLong();
+  private final AtomicLong expired = new AtomicLong();
+  private final AtomicLong invalidated = new AtomicLong();
+
+  /**
+   * Pooled assertions for one (issuer, client ID), oldest first, the number
+   * of background signatures still in flight for it, and the requests
+   * waiting on them.
+   */
+  private static final class Slot {
+    @NonNull
+    final String issuer;
+
+    @NonNull
+    final String clientId;
+
+    final ArrayDeque<PooledAssertion> ready = new ArrayDeque<>();
+    final ArrayDeque<CompletableFuture<PooledAssertion>> waiting = new ArrayDeque<>();
+    int minting;
+
+    // When an assertion was last handed out; 0 if never.
+    long lastAcquiredAtMillis;
+
+    Slot(@NonNull String issuer, @NonNull String clientId) {
+      this.issuer = issuer;
+      this.clientId = clientId;
+    }
+  }
+
+  private static final class PooledAssertion {
+    @NonNull
+    final String serialized;
+
+    final long signingKeyVersion;
+
+    final long expiresAtMillis;
+
+    PooledAssertion(@NonNull String serialized, long signingKeyVersion, long expiresAtMillis) {
+      this.serialized = serialized;
+      this.signingKeyVersion = signingKeyVersion;
+      this.expiresAtMillis = expiresAtMillis;
+    }
+  }
+
+  /**
+   * Create a pool keeping one five-minute assertion ready per (issuer, client
+   * ID) when a refresh is due, and signing one-hour assertions on demand.
+   * @param source signs the assertions
+   */
+  public ClientAssertionPool(@NonNull AsyncBcscKeyPairSource source) {
+    this(source, DEFAULT_TARGET_SIZE, DEFAULT_LIFETIME_MILLIS, DEFAULT_ON_DEMAND_LIFETIME_MILLIS,
+        DEFAULT_MIN_REMAINING_MILLIS, DEFAULT_REFRESH_INTERVAL_MILLIS);
+  }
+
+  /**
+   * Create a pool.
+   * @param source signs the assertions
+   * @param targetSize assertions kept ready per (issuer, client ID)
+   * @param lifetimeMillis lifetime of every assertion the pool signs ahead of a request
+   * @param onDemandLifetimeMillis lifetime of assertions signed on demand
+   * @param minRemainingMillis pooled assertions with less lifetime left are dropped
+   * @param refreshIntervalMillis expected time between two acquisitions for
+   *        the same (issuer, client ID), used by {@link #prefillDue()}
+   */
+  public ClientAssertionPool(@NonNull AsyncBcscKeyPairSource source, int targetSize,
+      long lifetimeMillis, long onDemandLifetimeMillis, long minRemainingMillis,
+      long refreshIntervalMillis) {
+    this(source, targetSize, lifetimeMillis, onDemandLifetimeMillis, minRemainingMillis,
+        refreshIntervalMillis, System::currentTimeMillis);
+  }
+
+  ClientAssertionPool(@NonNull AsyncBcscKeyPairSource source, int targetSize,
+      long lifetimeMillis, long onDemandLifetimeMillis, long minRemainingMillis,
+      long refreshIntervalMillis, @NonNull LongSupplier clock) {
+    if (minRemainingMillis >= lifetimeMillis) {
+      throw new IllegalArgumentException("minRemainingMillis must be shorter than lifetimeMillis");
+    }
+    this.source = source;
+    this.targetSize = targetSize;
+    this.lifetimeMillis = lifetimeMillis;
+    this.onDemandLifetimeMillis = onDemandLifetimeMillis;
+    this.minRemainingMillis = minRemainingMillis;
+    this.refreshIntervalMillis = refreshIntervalMillis;
+    this.clock = clock;
+  }
+
+  /**
+   * Get a serialized client assertion for the issuer and client: a usable
+   * pooled one, else one still being signed in the background, else one
+   * signed on demand. The pool is not refilled; see {@link #prefillDue()}.
+   * @param issuer the token endpoint's issuer, used as the audience
+   * @param clientId the OAuth client ID, used as issuer and subject
+   * @return a future completed with the compact-serialized assertion
+   */
+  @NonNull
+  public CompletableFuture<String> acquire(@NonNull String issuer, @NonNull String clientId) {
+    final PooledAssertion pooled;
+    CompletableFuture<PooledAssertion> joined = null;
+    synchronized (this) {
+      Slot slot = slot(issuer, clientId);
+      slot.lastAcquiredAtMillis = clock.getAsLong();
+      pooled = take(slot);
+      if (pooled == null && slot.minting > slot.waiting.size()) {
+        joined = new CompletableFuture<>();
+        slot.waiting.addLast(joined);
+      }
+    }
+    if (pooled != null) {
+      hits.incrementAndGet();
+      return CompletableFuture.completedFuture(pooled.serialized);
+    }
+    if (joined != null) {
+      return joined.thenCompose(assertion -> {
+        if (assertion != null && isUsable(assertion)) {
+          hits.incrementAndGet();
+          return CompletableFuture.completedFuture(assertion.serialized);
+        }
+        return signOnDemand(issuer, clientId);
+      });
+    }
+    return signOnDemand(issuer, clientId);
+  }
+
+  /**
+   * Start filling the pool for an issuer and client ahead of a request, e.g.
+   * once registration has completed. Returns immediately.
+   * @param issuer the token endpoint's issuer
+   * @param clientId the OAuth client ID
+   */
+  public void prefill(@NonNull String issuer, @NonNull String clientId) {
+    final Slot slot;
+    synchronized (this) {
+      slot = slot(issuer, clientId);
+    }
+    refill(slot);
+  }
+
+  /**
+   * Start filling the pools whose next refresh is due before an assertion
+   * signed now would stop being usable, judging by when each last handed
+   * one out. Pools that have never handed one out are left alone. Call it on
+   * a signal that requests are about to follow, such as the app coming to
+   * the foreground. Returns immediately.
+   */
+  public void prefillDue() {
+    final long now = clock.getAsLong();
+    final List<Slot> due = new ArrayList<>();
+    synchronized (this) {
+      for (Slot slot : slots.values()) {
+        if (slot.lastAcquiredAtMillis > 0L
+            && now >= slot.lastAcquiredAtMillis + refreshIntervalMillis - (lifetimeMillis - minRemainingMillis)) {
+          due.add(slot);
+        }
+      }
+    }
+    for (Slot slot : due) {
+      refill(slot);
+    }
+  }
+
+  /**
+   * Drop every pooled assertion and forget when each pool was last used.
+   * Signatures still in flight are discarded when they complete, and any
+   * request waiting on one signs on demand instead.
+   */
+  public synchronized void clear() {
+    slots.clear();
+  }
+
+  /**
+   * Get the pool's counters.
+   * @return a snapshot of hits, misses, background signatures and drops
+   */
+  @NonNull
+  public ClientAssertionPoolStats snapshot() {
+    int ready = 0;
+    synchronized (this) {
+      for (Slot slot : slots.values()) {
+        ready += slot.ready.size();
+      }
+    }
+    return new ClientAssertionPoolStats(hits.get(), misses.get(), minted.get(), mintFailures.get(),
+        expired.get(), invalidated.get(), ready);
+  }
+
+  @NonNull
+  private Slot slot(@NonNull String issuer, @NonNull String clientId) {
+    final String key = slotKey(issuer, clientId);
+    Slot slot = slots.get(key);
+    if (slot == null) {
+      slot = new Slot(issuer, clientId);
+      slots.put(key, slot);
+    }
+    return slot;
+  }
+
+  /**
+   * Take the oldest usable assertion, dropping any ahead of it that are close
+   * to expiry or were signed before the signing key last changed.
+   */
+  @Nullable
+  private PooledAssertion take(@NonNull Slot slot) {
+    PooledAssertion assertion;
+    while ((assertion = slot.ready.pollFirst()) != null) {
+      if (isUsable(assertion)) {
+        return assertion;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Check an assertion's remaining lifetime and signing key version, counting
+   * it as expired or invalidated if it can't be served.
+   */
+  private boolean isUsable(@NonNull PooledAssertion assertion) {
+    if (assertion.expiresAtMillis - clock.getAsLong() < minRemainingMillis) {
+      expired.incrementAndGet();
+      return false;
+    }
+    final long version = source.getSource().getSigningKeyVersion();
+    if (version == BcscKeyPairSource.UNVERSIONED || version != assertion.signingKeyVersion) {
+      invalidated.incrementAndGet();
+      return false;
+    }
+    return true;
+  }
+
+  @NonNull
+  private CompletableFuture<String> signOnDemand(@NonNull String issuer, @NonNull String clientId) {
+    misses.incrementAndGet();
+    return source.signAndSerializeClaimsSet(
+        claimsSet(issuer, clientId, clock.getAsLong(), onDemandLifetimeMillis));
+  }
+
+  private void refill(@NonNull Slot slot) {
+    final int toMint;
+    synchronized (this) {
+      dropExpired(slot);
+      toMint = targetSize - slot.ready.size() - slot.minting;
+      if (toMint <= 0) {
+        return;
+      }
+      slot.minting += toMint;
+    }
+    for (int i = 0; i < toMint; i++) {
+      mint(slot);
+    }
+  }
+
+  private void mint(@NonNull Slot slot) {
+    final JWTClaimsSet claimsSet = claimsSet(slot.issuer, slot.clientId, clock.getAsLong(), lifetimeMillis);
+    final long expiresAtMillis = claimsSet.getExpirationTime().getTime();
+    source.run(Priority.PREFETCH, s -> {
+      // Read before signing, so a key change during the signature makes the assertion stale.
+      final long version = s.getSigningKeyVersion();
+      final SignedJWT signedJWT = s.signClaimsSet(claimsSet);
+      return new PooledAssertion(signedJWT.serialize(), version, expiresAtMillis);
+    }).whenComplete((assertion, error) -> {
+      if (error == null) {
+        minted.incrementAndGet();
+      } else {
+        mintFailures.incrementAndGet();
+        SimpleLog.w(TAG, "Background client assertion signing failed: " + error.getMessage());
+      }
+      final CompletableFuture<PooledAssertion> waiter;
+      PooledAssertion handOff = assertion;
+      synchronized (this) {
+        slot.minting--;
+        waiter = slot.waiting.pollFirst();
+        // A slot replaced by clear() no longer accepts or hands out assertions.
+        if (slots.get(slotKey(slot.issuer, slot.clientId)) != slot) {
+          handOff = null;
+        } else if (waiter == null && assertion != null) {
+          slot.ready.addLast(assertion);
+        }
+      }
+      if (waiter != null) {
+        waiter.complete(handOff);
+      }
+    });
+  }
+
+  // Assertions are appended in signing order, so expired ones are at the head.
+  private void dropExpired(@NonNull Slot slot) {
+    final long now = clock.getAsLong();
+    PooledAssertion head;
+    while ((head = slot.ready.peekFirst()) != null && head.expiresAtMillis - now < minRemainingMillis) {
+      slot.ready.pollFirst();
+      expired.incrementAndGet();
+    }
+  }
+
+  @NonNull
+  private static JWTClaimsSet claimsSet(@NonNull String issuer, @NonNull String clientId, long nowMillis,
+      long lifetimeMillis) {
+    return new JWTClaimsSet.Builder()
+        .audience(issuer)
+        .issuer(clientId)
+        .subject(clientId)
+        .issueTime(new Date(nowMillis))
+        .expirationTime(new Date(nowMillis + lifetimeMillis))
+        .jwtID(UUID.randomUUID().toString())
+        .build();
+  }
+
+  @NonNull
+  private static String slotKey(@NonNull String issuer, @NonNull String clientId) {
+    return issuer + '\n' + clientId;
+  }
+}
@@ -0,0 +1,107 @@
+package com.bcsccore.keypair.repos.key;
+
+import android.os.Build.VERSION;
+import android.os.Build.VERSION_CODES;
+import android.security.keystore.KeyGenParameterSpec;
+import android.security.keystore.KeyProperties;
+import androidx.annotation.NonNull;
+import com.bcsccore.keypair.core.interfaces.KeyAlgorithmProfile;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSSigner;
+import com.nimbusds.jose.crypto.ECDSASigner;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWK;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.ECGenParameterSpec;
+
+/**
+ * EC P-256 keys signing with ES256, stored under ec\d+ aliases.
+ *
+ * On hardware keystores P-256 generation and signing are roughly an order of
+ * magnitude faster than RSA-4096. EC keys are sign-only: they cannot decrypt
+ * the RSA JWEs handled by decodePayload, so only select this profile where the
+ * server does not encrypt to the device key.
+ */
+public class EcKeyAlgorithmProfile implements KeyAlgorithmProfile {
+
+  private static final String ALIAS_PREFIX = "ec";
+  private static final String CURVE_NAME = "secp256r1";
+  private static final int KEY_SIZE = 256;
+
+  @NonNull
+  @Override
+  public String getAliasPrefix() {
+    return ALIAS_PREFIX;
+  }
+
+  @NonNull
+  @Override
+  public String getKeyAlgorithm() {
+    return KeyProperties.KEY_ALGORITHM_EC;
+  }
+
+  @Override
+  public int getKeySize() {
+    return KEY_SIZE;
+  }
+
+  @NonNull
+  @Override
+  public JWSAlgorithm getJwsAlgorithm() {
+    return JWSAlgorithm.ES256;
+  }
+
+  @NonNull
+  @Override
+  public KeyGenParameterSpec buildKeyGenParameterSpec(@NonNull String alias) {
+    return buildKeyGenParameterSpec(alias, false);
+  }
+
+  @NonNull
+  @Override
+  public KeyGenParameterSpec buildKeyGenParameterSpec(@NonNull String alias, boolean strongBoxBacked) {
+    final KeyGenParameterSpec.Builder builder = new KeyGenParameterSpec.Builder(
+        alias,
+        KeyProperties.PURPOSE_SIGN | KeyProperties.PURPOSE_VERIFY
+    );
+
+    builder.setAlgorithmParameterSpec(new ECGenParameterSpec(CURVE_NAME))
+        .setDigests(KeyProperties.DIGEST_SHA256);
+
+    if (VERSION.SDK_INT >= VERSION_CODES.N) {
+      builder.setInvalidatedByBiometricEnrollment(false);
+    }
+    if (strongBoxBacked && VERSION.SDK_INT >= VERSION_CODES.P) {
+      builder.setIsStrongBoxBacked(true);
+    }
+
+    return builder.build();
+  }
+
+  @NonNull
+  @Override
+  public JWSSigner createSigner(@NonNull PrivateKey privateKey) throws JOSEException {
+    // Keystore keys don't expose their parameters, so the curve is supplied explicitly.
+    return new ECDSASigner(privateKey, Curve.P_256);
+  }
+
+  @NonNull
+  @Override
+  public JWK toJWK(@NonNull PublicKey publicKey, @NonNull String kid) {
+    // alg is published so registration advertises ES256 rather than the RS512 default.
+    return new ECKey.Builder(Curve.P_256, (ECPublicKey) publicKey)
+        .keyID(kid)
+        .algorithm(JWSAlgorithm.ES256)
+        .build();
+  }
+
+  @Override
+  public boolean matches(@NonNull PublicKey publicKey) {
+    return publicKey instanceof ECPublicKey;
+  }
+
+}
@@ -0,0 +1,119 @@
+package com.bcsccore.keypair.repos.key;
+
+import androidx.annotation.NonNull;
+import com.bcsccore.keypair.core.interfaces.AsyncBcscKeyPairSource;
+import com.bcsccore.keypair.core.interfaces.BcscKeyPairSource;
+import com.bcsccore.keypair.core.models.BcscKeyPair;
+import com.bcsccore.keypair.core.models.KeyCleanupReport;
+import com.bcsccore.keypair.core.models.KeyPairInfo;
+import com.bcsccore.keypair.core.models.KeyRetentionPolicy;
+import com.bcsccore.keypair.core.models.SignedClaimsResult;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jwt.JWTClaimsSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * {@link AsyncBcscKeyPairSource} that runs a blocking {@link BcscKeyPairSource}
+ * on a {@link KeyStoreExecutor}.
+ *
+ * Signing is scheduled first, then reads, then writes (rotation, deletion,
+ * marking the active key), then cleanup.
+ */
+public class ExecutorAsyncBcscKeyPairSource implements AsyncBcscKeyPairSource {
+
+  @NonNull
+  private final BcscKeyPairSource source;
+
+  @NonNull
+  private final KeyStoreExecutor executor;
+
+  /**
+   * Create an async source.
+   * @param source the blocking source to delegate to
+   * @param executor the executor keystore work runs on
+   */
+  public ExecutorAsyncBcscKeyPairSource(@NonNull BcscKeyPairSource source, @NonNull KeyStoreExecutor executor) {
+    this.source = source;
+    this.executor = executor;
+  }
+
+  @NonNull
+  @Override
+  public BcscKeyPairSource getSource() {
+    return source;
+  }
+
+  @NonNull
+  @Override
+  public CompletableFuture<BcscKeyPair> getCurrentBcscKeyPair() {
+    return executor.submit(Priority.READ, source::getCurrentBcscKeyPair);
+  }
+
+  @NonNull
+  @Override
+  public CompletableFuture<BcscKeyPair> getBcscKeyPair(@NonNull String kid) {
+    return executor.submit(Priority.READ, () -> source.getBcscKeyPair(kid));
+  }
+
+  @NonNull
+  @Override
+  public CompletableFuture<BcscKeyPair> getNewBcscKeyPair() {
+    return executor.submit(Priority.WRITE, source::getNewBcscKeyPair);
+  }
+
+  @NonNull
+  @Override
+  public CompletableFuture<String> signAndSerializeClaimsSet(@NonNull JWTClaimsSet claimsSet) {
+    return executor.submit(Priority.SIGN, () -> source.signAndSerializeClaimsSet(claimsSet));
+  }
+
+  @NonNull
+  @Override
+  public CompletableFuture<List<SignedClaimsResult>> signAndSerializeAll(@NonNull List<JWTClaimsSet> claimsSets) {
+    return executor.submit(Priority.SIGN, () -> source.signAndSerializeAll(claimsSets));
+  }
+
+  @NonNull
+  @Override
+  public CompletableFuture<List<KeyPairInfo>> getAllBcscKeyPairInfos() {
+    return executor.submit(Priority.READ, source::getAllBcscKeyPairInfos);
+  }
+
+  @NonNull
+  @Override
+  public CompletableFuture<List<String>> findAliasesMatchingJWKSet(@NonNull JWKSet jwkSet) {
+    return executor.submit(Priority.READ, () -> source.findAliasesMatchingJWKSet(jwkSet));
+  }
+
+  @NonNull
+  @Override
+  public CompletableFuture<Void> markActiveBcscKeyPair(@NonNull String alias) {
+    return executor.submit(Priority.WRITE, () -> {
+      source.markActiveBcscKeyPair(alias);
+      return null;
+    });
+  }
+
+  @NonNull
+  @Override
+  public CompletableFuture<Void> deleteBcscKeyPair(@NonNull String alias) {
+    return executor.submit(Priority.WRITE, () -> {
+      source.deleteBcscKeyPair(alias);
+      return null;
+    });
+  }
+
+  @NonNull
+  @Override
+  public CompletableFuture<KeyCleanupReport> cleanUpBcscKeyPairs(@NonNull KeyRetentionPolicy policy) {
+    return executor.submit(Priority.CLEANUP, () -> source.cleanUpBcscKeyPairs(policy));
+  }
+
+  @NonNull
+  @Override
+  public <T> CompletableFuture<T> run(@NonNull Priority priority, @NonNull Task<T> task) {
+    return executor.submit(priority, () -> task.run(source));
+  }
+
+}
@@ -0,0 +1,73 @@
+package com.bcsccore.keypair.repos.key;
+
+import androidx.annotation.NonNull;
+import com.bcsccore.keypair.core.exceptions.KeypairGenerationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Per-alias single-flight for key generation.
+ *
+ * getCurrentBcscKeyPair and getNewBcscKeyPair can run at the same time on the
+ * React Native module thread and on background executors, and both may decide
+ * the same alias needs a key. The first caller for an alias runs the
+ * generation; concurrent callers for that alias wait on its result instead of
+ * starting a second multi-second generation. Different aliases never wait on
+ * each other.
+ */
+final class KeyGenerationCoordinator {
+
+  /**
+   * One key generation for a single alias.
+   */
+  interface Generation {
+    void run() throws KeypairGenerationException;
+  }
+
+  private final ConcurrentHashMap<String, CompletableFuture<Void>> inFlight = new ConcurrentHashMap<>();
+
+  /**
+   * Run the generation for the alias, or wait for the one already in flight.
+   * @param alias the alias being generated
+   * @param generation the generation to run if none is in flight
+   * @throws KeypairGenerationException if the (shared) generation failed
+   */
+  void generate(@NonNull String alias, @NonNull Generation generation) throws KeypairGenerationException {
+    CompletableFuture<Void> mine = new CompletableFuture<>();
+    CompletableFuture<Void> existing = inFlight.putIfAbsent(alias, mine);
+    if (existing != null) {
+      await(alias, existing);
+      return;
+    }
+
+    try {
+      generation.run();
+      mine.complete(null);
+    } catch (KeypairGenerationException | RuntimeException e) {
+      mine.completeExceptionally(e);
+      throw e;
+    } finally {
+      inFlight.remove(alias, mine);
+    }
+  }
+
+  private void await(@NonNull String alias, @NonNull CompletableFuture<Void> generation)
+      throws KeypairGenerationException {
+    try {
+      generation.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new KeypairGenerationException(
+          "Interrupted waiting for key generation for alias '" + alias + "'", e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof KeypairGenerationException) {
+        throw (KeypairGenerationException) cause;
+      }
+      throw new KeypairGenerationException(
+          "Key generation failed for alias '" + alias + "': " + cause.getMessage(), cause);
+    }
+  }
+
+}
@@ -0,0 +1,92 @@
+package com.bcsccore.keypair.repos.key;
+
+import android.os.Handler;
+import android.os.Looper;
+import androidx.annotation.NonNull;
+import com.bcsccore.keypair.core.utils.SimpleLog;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs key pre-generation jobs off-thread once the main thread goes idle.
+ *
+ * Generating a 4096-bit RSA key on TEE or StrongBox hardware takes seconds.
+ * BcscKeyPairRepo uses this to stage the next rotation key ahead of time, so
+ * getNewBcscKeyPair only has to promote it. Jobs run one at a time on a
+ * low-priority thread; at most one job is queued at once.
+ */
+public class KeyPairPreGenerator {
+
+  private static final String TAG = "KeyPairPreGenerator";
+
+  @NonNull
+  private final ExecutorService executor;
+
+  private final AtomicBoolean scheduled = new AtomicBoolean(false);
+
+  /**
+   * Create a pre-generator backed by its own low-priority thread.
+   */
+  public KeyPairPreGenerator() {
+    this(Executors.newSingleThreadExecutor(r -> {
+      Thread thread = new Thread(r, "BcscKeyPreGenerator");
+      thread.setPriority(Thread.MIN_PRIORITY);
+      thread.setDaemon(true);
+      return thread;
+    }));
+  }
+
+  /**
+   * Create a pre-generator backed by the given executor.
+   * @param executor the executor that runs generation jobs
+   */
+  public KeyPairPreGenerator(@NonNull ExecutorService executor) {
+    this.executor = executor;
+  }
+
+  /**
+   * Run the job on the pre-generation thread the next time the main thread is
+   * idle. Ignored while another job is already scheduled or running.
+   * @param job the generation job
+   */
+  public void scheduleWhenIdle(@NonNull Runnable job) {
+    if (!scheduled.compareAndSet(false, true)) {
+      return;
+    }
+    // Posting wakes the main looper; the idle handler then fires once the
+    // queue drains after it.
+    new Handler(Looper.getMainLooper()).post(() ->
+        Looper.myQueue().addIdleHandler(() -> {
+          submit(job);
+          return false;
+        }));
+  }
+
+  /**
+   * Stop accepting jobs. A generation already in progress is allowed to finish
+   * so the keystore is never left with a half-written entry.
+   */
+  public void shutdown() {
+    executor.shutdown();
+  }
+
+  private void submit(@NonNull Runnable job) {
+    try {
+      executor.execute(() -> {
+        try {
+          job.run();
+        } catch (Exception e) {
+          SimpleLog.e(TAG, "Key pre-generation failed", e);
+        } finally {
+          scheduled.set(false);
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      scheduled.set(false);
+      SimpleLog.d(TAG, "Pre-generator shut down; skipping job");
+    }
+  }
+
+}
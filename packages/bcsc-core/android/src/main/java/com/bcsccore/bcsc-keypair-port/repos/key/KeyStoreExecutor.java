@@ -0,0 +1,141 @@
+package com.bcsccore.keypair.repos.key;
+
+import androidx.annotation.NonNull;
+import com.bcsccore.keypair.core.interfaces.AsyncBcscKeyPairSource.Priority;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded, prioritized executor for blocking keystore work.
+ *
+ * Queued jobs run in {@link Priority} order (FIFO within a priority), so a
+ * signature requested while cleanup is queued goes first. A generation that
+ * is already running is never preempted; a second worker thread keeps
+ * signing responsive while one is in progress. At most {@code maxPending}
+ * jobs may be queued or running; further submissions fail fast with a
+ * {@link RejectedExecutionException} instead of growing the queue unbounded.
+ */
+public class KeyStoreExecutor {
+
+  private static final int DEFAULT_THREADS = 2;
+
+  private static final int DEFAULT_MAX_PENDING = 64;
+
+  private static final long KEEP_ALIVE_SECONDS = 30L;
+
+  @NonNull
+  private final ThreadPoolExecutor executor;
+
+  private final int maxPending;
+
+  private final AtomicInteger pending = new AtomicInteger();
+
+  private final AtomicLong sequence = new AtomicLong();
+
+  /**
+   * Create an executor with two worker threads and room for 64 pending jobs.
+   */
+  public KeyStoreExecutor() {
+    this(DEFAULT_THREADS, DEFAULT_MAX_PENDING);
+  }
+
+  /**
+   * Create an executor.
+   * @param threads the number of worker threads
+   * @param maxPending the maximum number of queued or running jobs
+   */
+  public KeyStoreExecutor(int threads, int maxPending) {
+    this.maxPending = maxPending;
+    final AtomicInteger threadCount = new AtomicInteger();
+    this.executor = new ThreadPoolExecutor(threads, threads, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+        new PriorityBlockingQueue<>(),
+        r -> {
+          Thread thread = new Thread(r, "BcscKeyStore-" + threadCount.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        });
+    // Idle workers exit so the executor costs nothing between bursts.
+    this.executor.allowCoreThreadTimeOut(true);
+  }
+
+  /**
+   * Run a job on a keystore worker.
+   * @param priority the job's priority
+   * @param job the blocking keystore work
+   * @param <T> the job's result type
+   * @return a future completed with the job's result, or exceptionally with
+   *         whatever it threw (or a RejectedExecutionException if the
+   *         executor is full or shut down)
+   */
+  @NonNull
+  public <T> CompletableFuture<T> submit(@NonNull Priority priority, @NonNull Callable<T> job) {
+    final CompletableFuture<T> future = new CompletableFuture<>();
+    if (pending.incrementAndGet() > maxPending) {
+      pending.decrementAndGet();
+      future.completeExceptionally(
+          new RejectedExecutionException("Keystore executor is full (" + maxPending + " pending jobs)"));
+      return future;
+    }
+    try {
+      executor.execute(new PrioritizedJob(priority, sequence.getAndIncrement(), () -> {
+        try {
+          future.complete(job.call());
+        } catch (Throwable t) {
+          future.completeExceptionally(t);
+        } finally {
+          pending.decrementAndGet();
+        }
+      }));
+    } catch (RejectedExecutionException e) {
+      pending.decrementAndGet();
+      future.completeExceptionally(e);
+    }
+    return future;
+  }
+
+  /**
+   * Stop accepting jobs. Queued and running jobs are allowed to finish so no
+   * keystore write is interrupted.
+   */
+  public void shutdown() {
+    executor.shutdown();
+  }
+
+  /**
+   * Queue entry ordered by priority, then by submission order.
+   */
+  private static final class PrioritizedJob implements Runnable, Comparable<PrioritizedJob> {
+
+    @NonNull
+    private final Priority priority;
+
+    private final long sequence;
+
+    @NonNull
+    private final Runnable job;
+
+    PrioritizedJob(@NonNull Priority priority, long sequence, @NonNull Runnable job) {
+      this.priority = priority;
+      this.sequence = sequence;
+      this.job = job;
+    }
+
+    @Override
+    public void run() {
+      job.run();
+    }
+
+    @Override
+    public int compareTo(@NonNull PrioritizedJob other) {
+      int byPriority = Integer.compare(priority.ordinal(), other.priority.ordinal());
+      return byPriority != 0 ? byPriority : Long.compare(sequence, other.sequence);
+    }
+  }
+
+}
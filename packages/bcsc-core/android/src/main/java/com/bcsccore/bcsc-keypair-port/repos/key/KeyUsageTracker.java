@@ -0,0 +1,202 @@
+package com.bcsccore.keypair.repos.key;
+
+import androidx.annotation.NonNull;
+import com.bcsccore.keypair.core.exceptions.BcscException;
+import com.bcsccore.keypair.core.interfaces.KeyPairInfoSource;
+import com.bcsccore.keypair.core.models.KeyPairInfo;
+import com.bcsccore.keypair.core.utils.SimpleLog;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+
+/**
+ * Accumulates per-alias signing usage (signature count and last-used time) in
+ * memory and writes it to the key pair metadata in batches.
+ *
+ * Signing only touches an in-memory counter. The first signature after a
+ * flush schedules the next one {@code flushDelayMillis} later, so a burst of
+ * signatures costs a single metadata write. Usage not yet flushed is folded
+ * into reads through {@link #applyPending}, and {@link #shutdown()} flushes
+ * whatever is left. Usage recorded for an alias with no metadata entry is
+ * dropped at flush time instead of creating one.
+ */
+public class KeyUsageTracker {
+
+  private static final String TAG = "KeyUsageTracker";
+
+  /** How long signatures accumulate before they are written. */
+  public static final long DEFAULT_FLUSH_DELAY_MILLIS = 30L * 1000L;
+
+  @NonNull
+  private final KeyPairInfoSource keyPairInfoSource;
+
+  private final long flushDelayMillis;
+
+  @NonNull
+  private final LongSupplier clock;
+
+  @NonNull
+  private final ScheduledThreadPoolExecutor scheduler;
+
+  private final ConcurrentHashMap<String, PendingUsage> pending = new ConcurrentHashMap<>();
+
+  private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+
+  /**
+   * Usage recorded since the last flush. Immutable; replaced on every signature.
+   */
+  private static final class PendingUsage {
+    final long count;
+    final long lastUsedAt;
+
+    PendingUsage(long count, long lastUsedAt) {
+      this.count = count;
+      this.lastUsedAt = lastUsedAt;
+    }
+
+    PendingUsage plus(@NonNull PendingUsage other) {
+      return new PendingUsage(count + other.count, Math.max(lastUsedAt, other.lastUsedAt));
+    }
+  }
+
+  /**
+   * Create a tracker flushing thirty seconds after the first unflushed signature.
+   * @param keyPairInfoSource the metadata the usage is written to
+   */
+  public KeyUsageTracker(@NonNull KeyPairInfoSource keyPairInfoSource) {
+    this(keyPairInfoSource, DEFAULT_FLUSH_DELAY_MILLIS);
+  }
+
+  /**
+   * Create a tracker.
+   * @param keyPairInfoSource the metadata the usage is written to
+   * @param flushDelayMillis how long signatures accumulate before they are written
+   */
+  public KeyUsageTracker(@NonNull KeyPairInfoSource keyPairInfoSource, long flushDelayMillis) {
+    this(keyPairInfoSource, flushDelayMillis, System::currentTimeMillis);
+  }
+
+  KeyUsageTracker(@NonNull KeyPairInfoSource keyPairInfoSource, long flushDelayMillis,
+      @NonNull LongSupplier clock) {
+    this.keyPairInfoSource = keyPairInfoSource;
+    this.flushDelayMillis = Math.max(0L, flushDelayMillis);
+    this.clock = clock;
+    this.scheduler = new ScheduledThreadPoolExecutor(1, r -> {
+      Thread thread = new Thread(r, "BcscKeyUsageFlush");
+      thread.setPriority(Thread.MIN_PRIORITY);
+      thread.setDaemon(true);
+      return thread;
+    });
+    // Let the thread go away while nothing is pending.
+    this.scheduler.setKeepAliveTime(flushDelayMillis + 1000L, TimeUnit.MILLISECONDS);
+    this.scheduler.allowCoreThreadTimeOut(true);
+  }
+
+  /**
+   * Record one signature made with the alias, and schedule a flush if none is
+   * pending.
+   * @param alias the alias that signed
+   */
+  public void recordSignature(@NonNull String alias) {
+    final PendingUsage usage = new PendingUsage(1L, clock.getAsLong());
+    pending.merge(alias, usage, PendingUsage::plus);
+    scheduleFlush();
+  }
+
+  /**
+   * Fold usage not yet flushed into key pair information read from the source.
+   * @param info the stored key pair information
+   * @return the information with pending usage applied, or {@code info} if there is none
+   */
+  @NonNull
+  public KeyPairInfo applyPending(@NonNull KeyPairInfo info) {
+    PendingUsage usage = pending.get(info.getAlias());
+    return usage != null ? info.withAddedUsage(usage.lastUsedAt, usage.count) : info;
+  }
+
+  /**
+   * Drop pending usage for aliases whose metadata is being deleted, so a
+   * flush doesn't write it back. Waits for a flush in progress to finish.
+   * @param aliases the aliases being deleted
+   */
+  public synchronized void discard(@NonNull Collection<String> aliases) {
+    pending.keySet().removeAll(aliases);
+  }
+
+  /**
+   * Drop all pending usage, e.g. when every key and its metadata is wiped, so
+   * a flush doesn't merge it into a new key generated under a reused alias.
+   * Waits for a flush in progress to finish.
+   */
+  public synchronized void discardAll() {
+    pending.clear();
+  }
+
+  /**
+   * Write all pending usage to the metadata in one batch. Usage that fails to
+   * save is kept and retried on the next flush.
+   */
+  public synchronized void flush() {
+    if (pending.isEmpty()) {
+      return;
+    }
+    Map<String, PendingUsage> batch = new HashMap<>();
+    for (String alias : new ArrayList<>(pending.keySet())) {
+      PendingUsage usage = pending.remove(alias);
+      if (usage != null) {
+        batch.put(alias, usage);
+      }
+    }
+
+    try {
+      // Merged inside the update so a concurrent metadata change isn't overwritten.
+      keyPairInfoSource.updateKeyPairInfo(infos -> {
+        for (Map.Entry<String, PendingUsage> entry : batch.entrySet()) {
+          KeyPairInfo info = infos.get(entry.getKey());
+          if (info != null) {
+            infos.put(entry.getKey(), info.withAddedUsage(entry.getValue().lastUsedAt, entry.getValue().count));
+          }
+        }
+      });
+      SimpleLog.d(TAG, () -> "Flushed usage for " + batch.keySet());
+    } catch (BcscException | RuntimeException e) {
+      SimpleLog.w(TAG, "Failed to flush key usage; will retry: " + e.getMessage());
+      for (Map.Entry<String, PendingUsage> entry : batch.entrySet()) {
+        pending.merge(entry.getKey(), entry.getValue(), PendingUsage::plus);
+      }
+      scheduleFlush();
+    }
+  }
+
+  /**
+   * Flush pending usage and stop the flush thread. Signatures recorded
+   * afterwards are kept in memory but no longer written on a schedule.
+   */
+  public void shutdown() {
+    scheduler.shutdown();
+    flush();
+  }
+
+  private void scheduleFlush() {
+    if (!flushScheduled.compareAndSet(false, true)) {
+      return;
+    }
+    try {
+      scheduler.schedule(() -> {
+        // Cleared first so a signature made during the flush schedules the next one.
+        flushScheduled.set(false);
+        flush();
+      }, flushDelayMillis, TimeUnit.MILLISECONDS);
+    } catch (RejectedExecutionException e) {
+      flushScheduled.set(false);
+    }
+  }
+
+}
@@ -0,0 +1,84 @@
+package com.bcsccore.keypair.repos.key;
+
+import androidx.annotation.NonNull;
+import com.bcsccore.keypair.core.interfaces.KeyAlgorithmProfile;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.util.Base64URL;
+import java.security.PublicKey;
+import java.text.ParseException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-alias memo of everything derived from a public key: the public JWK, its
+ * RFC 7638 thumbprint and the base64url-encoded protected JWS header.
+ *
+ * Entries are immutable and checked against the public key on every lookup, so
+ * a key regenerated under the same alias (e.g. after a keychain clear) is never
+ * served a stale entry. Deletions drop the alias explicitly.
+ */
+final class PublicKeyCache {
+
+  /**
+   * Derived public material for one alias.
+   */
+  static final class Entry {
+
+    @NonNull
+    final PublicKey publicKey;
+
+    @NonNull
+    final JWK jwk;
+
+    @NonNull
+    final Base64URL thumbprint;
+
+    // Parsed from its own encoding so Nimbus reuses the encoded form instead of
+    // re-serializing the header on every signature.
+    @NonNull
+    final JWSHeader header;
+
+    Entry(@NonNull String alias, @NonNull PublicKey publicKey, @NonNull KeyAlgorithmProfile profile)
+        throws JOSEException {
+      this.publicKey = publicKey;
+      this.jwk = profile.toJWK(publicKey, alias);
+      this.thumbprint = jwk.computeThumbprint();
+      Base64URL encodedHeader = new JWSHeader.Builder(profile.getJwsAlgorithm())
+          .keyID(alias)
+          .build()
+          .toBase64URL();
+      try {
+        this.header = JWSHeader.parse(encodedHeader);
+      } catch (ParseException e) {
+        throw new JOSEException("Failed to parse encoded JWS header: " + e.getMessage(), e);
+      }
+    }
+  }
+
+  private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+  /**
+   * Get the derived material for an alias, computing it on a miss or when the
+   * alias now holds a different public key.
+   */
+  @NonNull
+  Entry get(@NonNull String alias, @NonNull PublicKey publicKey, @NonNull KeyAlgorithmProfile profile)
+      throws JOSEException {
+    Entry entry = entries.get(alias);
+    if (entry != null && entry.publicKey.equals(publicKey)) {
+      return entry;
+    }
+    entry = new Entry(alias, publicKey, profile);
+    entries.put(alias, entry);
+    return entry;
+  }
+
+  /**
+   * Drop the entry for a deleted alias.
+   */
+  void invalidate(@NonNull String alias) {
+    entries.remove(alias);
+  }
+
+}
@@ -0,0 +1,105 @@
+package com.bcsccore.keypair.repos.key;
+
+import android.os.Build.VERSION;
+import android.os.Build.VERSION_CODES;
+import android.security.keystore.KeyGenParameterSpec;
+import android.security.keystore.KeyProperties;
+import androidx.annotation.NonNull;
+import com.bcsccore.keypair.core.interfaces.KeyAlgorithmProfile;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSSigner;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.RSAKey;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.interfaces.RSAPublicKey;
+
+/**
+ * The default profile: 4096-bit RSA keys signing with RS512 (SHA-512, PKCS#1),
+ * stored under rsa\d+ aliases. Keys also allow PKCS#1 encryption so the server
+ * can encrypt payloads to the device key.
+ *
+ * StrongBox is only required to support RSA-2048, so a StrongBox request for
+ * these keys fails on most devices and the repo falls back to the TEE.
+ */
+public class RsaKeyAlgorithmProfile implements KeyAlgorithmProfile {
+
+  private static final String ALIAS_PREFIX = "rsa";
+  private static final int KEY_SIZE = 4096;
+
+  @NonNull
+  @Override
+  public String getAliasPrefix() {
+    return ALIAS_PREFIX;
+  }
+
+  @NonNull
+  @Override
+  public String getKeyAlgorithm() {
+    return KeyProperties.KEY_ALGORITHM_RSA;
+  }
+
+  @Override
+  public int getKeySize() {
+    return KEY_SIZE;
+  }
+
+  @NonNull
+  @Override
+  public JWSAlgorithm getJwsAlgorithm() {
+    return JWSAlgorithm.RS512;
+  }
+
+  @NonNull
+  @Override
+  public KeyGenParameterSpec buildKeyGenParameterSpec(@NonNull String alias) {
+    return buildKeyGenParameterSpec(alias, false);
+  }
+
+  @NonNull
+  @Override
+  public KeyGenParameterSpec buildKeyGenParameterSpec(@NonNull String alias, boolean strongBoxBacked) {
+    final KeyGenParameterSpec.Builder builder = new KeyGenParameterSpec.Builder(
+        alias,
+        KeyProperties.PURPOSE_SIGN
+            | KeyProperties.PURPOSE_VERIFY
+            | KeyProperties.PURPOSE_ENCRYPT
+            | KeyProperties.PURPOSE_DECRYPT
+    );
+
+    builder.setDigests(KeyProperties.DIGEST_SHA512)
+        .setEncryptionPaddings(KeyProperties.ENCRYPTION_PADDING_RSA_PKCS1)
+        .setKeySize(KEY_SIZE)
+        .setSignaturePaddings(KeyProperties.SIGNATURE_PADDING_RSA_PKCS1);
+
+    if (VERSION.SDK_INT >= VERSION_CODES.N) {
+      builder.setInvalidatedByBiometricEnrollment(false);
+    }
+    if (strongBoxBacked && VERSION.SDK_INT >= VERSION_CODES.P) {
+      builder.setIsStrongBoxBacked(true);
+    }
+
+    return builder.build();
+  }
+
+  @NonNull
+  @Override
+  public JWSSigner createSigner(@NonNull PrivateKey privateKey) {
+    return new RSASSASigner(privateKey);
+  }
+
+  @NonNull
+  @Override
+  public JWK toJWK(@NonNull PublicKey publicKey, @NonNull String kid) {
+    return new RSAKey.Builder((RSAPublicKey) publicKey)
+        .keyID(kid)
+        .build();
+  }
+
+  @Override
+  public boolean matches(@NonNull PublicKey publicKey) {
+    return publicKey instanceof RSAPublicKey;
+  }
+
+}
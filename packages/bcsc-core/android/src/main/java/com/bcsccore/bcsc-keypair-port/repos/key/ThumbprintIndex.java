@@ -0,0 +1,65 @@
+package com.bcsccore.keypair.repos.key;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * In-memory index from keystore alias to the RFC 7638 thumbprint of its
+ * public JWK, so matching local keys against the server's jwks doesn't have to
+ * read every keystore entry again.
+ *
+ * Filled lazily, one alias at a time, as lookups miss. Generation and deletion
+ * invalidate the affected alias; each invalidation bumps a version so a
+ * thumbprint computed from a keystore read that raced with it is discarded
+ * instead of stored.
+ */
+final class ThumbprintIndex {
+
+  private final Map<String, String> thumbprintsByAlias = new HashMap<>();
+
+  private long version;
+
+  /**
+   * Get the indexed thumbprint for an alias, or null on a miss.
+   */
+  @Nullable
+  synchronized String get(@NonNull String alias) {
+    return thumbprintsByAlias.get(alias);
+  }
+
+  /**
+   * Get the current version. Read it before the keystore read whose result
+   * is passed to {@link #put}.
+   */
+  synchronized long version() {
+    return version;
+  }
+
+  /**
+   * Store a thumbprint unless an invalidation happened since {@code readVersion}.
+   */
+  synchronized void put(@NonNull String alias, @NonNull String thumbprint, long readVersion) {
+    if (readVersion == version) {
+      thumbprintsByAlias.put(alias, thumbprint);
+    }
+  }
+
+  /**
+   * Drop the entries for aliases no longer in the keystore.
+   */
+  synchronized void retainAll(@NonNull Collection<String> aliases) {
+    thumbprintsByAlias.keySet().retainAll(aliases);
+  }
+
+  /**
+   * Drop the entry for a generated or deleted alias.
+   */
+  synchronized void invalidate(@NonNull String alias) {
+    thumbprintsByAlias.remove(alias);
+    version++;
+  }
+
+}
@@ -0,0 +1,505 @@
+package com.bcsccore.keypair.repos.keypairinfo;
+
+import android.content.Context;
+import android.system.ErrnoException;
+import android.system.Os;
+import android.system.OsConstants;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import com.bcsccore.keypair.core.exceptions.BcscException;
+import com.bcsccore.keypair.core.interfaces.KeyPairInfoSource;
+import com.bcsccore.keypair.core.models.AliasIndex;
+import com.bcsccore.keypair.core.models.CreatedAtIndex;
+import com.bcsccore.keypair.core.models.KeyPairInfo;
+import com.bcsccore.keypair.core.utils.SimpleLog;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * KeyPairInfoSource kept in a dedicated file instead of SharedPreferences.
+ *
+ * SharedPreferences.apply() queues a disk write that Android waits on during
+ * Activity and Service lifecycle transitions, so a burst of metadata writes
+ * (rotation, cleanup, alias index updates) can stall the main thread. This
+ * source writes synchronously on the calling thread, which for the keypair
+ * port is the keystore executor, and serves every read from memory.
+ *
+ * Each write replaces the whole file: the new contents go to a temp file in
+ * the same directory, are fsynced and then renamed over the old file, and the
+ * directory is fsynced so the rename itself is durable. A crash leaves either
+ * the previous or the new metadata, never a partial file.
+ * A file that fails its checksum is moved aside and treated as lost metadata,
+ * which the repo rebuilds from the keystore.
+ *
+ * On first use, metadata held by a legacy source (the {@code bcsc_keypair_info}
+ * preferences) is copied into the file and removed from the legacy source,
+ * the same policy as {@link SimpleKeyPairInfoSource}'s JSON migration: a
+ * downgrade finds no metadata and rebuilds it from the keystore aliases
+ * rather than trusting a copy frozen at migration.
+ */
+public class FileKeyPairInfoSource implements KeyPairInfoSource {
+
+  private static final String TAG = "FileKeyPairInfoSource";
+
+  /** Name of the metadata file in the app's no-backup files directory. */
+  public static final String FILE_NAME = "bcsc_keypair_info.bin";
+
+  private static final int FILE_FORMAT = 1;
+
+  @NonNull
+  private final File file;
+
+  @Nullable
+  private final KeyPairInfoSource legacySource;
+
+  private final Object lock = new Object();
+
+  // Null until first loaded; replaced as a whole on every write.
+  @Nullable
+  private volatile State state;
+
+  /**
+   * Immutable view of everything the file holds.
+   */
+  private static final class State {
+    @NonNull
+    final Map<String, KeyPairInfo> infos;
+
+    @NonNull
+    final CreatedAtIndex byCreatedAt;
+
+    @Nullable
+    final String stagedAlias;
+
+    @Nullable
+    final AliasIndex aliasIndex;
+
+    final long version;
+
+    State(@NonNull Map<String, KeyPairInfo> infos, @Nullable String stagedAlias,
+        @Nullable AliasIndex aliasIndex, long version) {
+      this(infos, CreatedAtIndex.of(infos.values()), stagedAlias, aliasIndex, version);
+    }
+
+    State(@NonNull Map<String, KeyPairInfo> infos, @NonNull CreatedAtIndex byCreatedAt,
+        @Nullable String stagedAlias, @Nullable AliasIndex aliasIndex, long version) {
+      this.infos = Collections.unmodifiableMap(infos);
+      this.byCreatedAt = byCreatedAt;
+      this.stagedAlias = stagedAlias;
+      this.aliasIndex = aliasIndex;
+      this.version = version;
+    }
+  }
+
+  /**
+   * Create a source backed by {@value #FILE_NAME} in the no-backup files
+   * directory, migrating from the SharedPreferences store on first use.
+   * Keystore keys don't survive a restore onto another device, so neither
+   * should their metadata.
+   * @param context the Android context
+   */
+  public FileKeyPairInfoSource(@NonNull Context context) {
+    this(new File(context.getNoBackupFilesDir(), FILE_NAME), new SimpleKeyPairInfoSource(context));
+  }
+
+  /**
+   * Create a source backed by the given file.
+   * @param file the metadata file; its directory is created if missing
+   * @param legacySource metadata to migrate when the file doesn't exist yet, or null
+   */
+  public FileKeyPairInfoSource(@NonNull File file, @Nullable KeyPairInfoSource legacySource) {
+    this.file = file;
+    this.legacySource = legacySource;
+  }
+
+  @Nullable
+  @Override
+  public KeyPairInfo getKeyPairInfo(String kid) {
+    try {
+      return currentState().infos.get(kid);
+    } catch (BcscException e) {
+      SimpleLog.e(TAG, "Failed to get key pair info for " + kid, e);
+      return null;
+    }
+  }
+
+  @NonNull
+  @Override
+  public HashMap<String, KeyPairInfo> getKeyPairInfo() throws BcscException {
+    return new HashMap<>(currentState().infos);
+  }
+
+  @NonNull
+  @Override
+  public CreatedAtIndex getCreatedAtIndex() throws BcscException {
+    return currentState().byCreatedAt;
+  }
+
+  @Override
+  public long getVersion() {
+    try {
+      return currentState().version;
+    } catch (BcscException e) {
+      return UNVERSIONED;
+    }
+  }
+
+  @Override
+  public void saveKeyPairInfo(KeyPairInfo info) throws BcscException {
+    updateKeyPairInfo(infos -> infos.put(info.getAlias(), info));
+  }
+
+  @Override
+  public void saveKeyPairInfos(@NonNull Collection<KeyPairInfo> infos) throws BcscException {
+    updateKeyPairInfo(current -> {
+      for (KeyPairInfo info : infos) {
+        current.put(info.getAlias(), info);
+      }
+    });
+  }
+
+  @Override
+  public void deleteKeyPairInfo(String alias) throws BcscException {
+    updateKeyPairInfo(infos -> infos.remove(alias));
+  }
+
+  @Override
+  public void deleteKeyPairInfos(@NonNull Collection<String> aliases) throws BcscException {
+    updateKeyPairInfo(infos -> infos.keySet().removeAll(aliases));
+  }
+
+  @Override
+  public void updateKeyPairInfo(@NonNull Mutator mutator) throws BcscException {
+    synchronized (lock) {
+      State current = currentState();
+      HashMap<String, KeyPairInfo> infos = new HashMap<>(current.infos);
+      mutator.mutate(infos);
+      if (SimpleKeyPairInfoSource.isUnchanged(current.infos, infos)) {
+        return;
+      }
+      publish(new State(infos, current.byCreatedAt.updated(current.infos, infos), current.stagedAlias,
+          current.aliasIndex, current.version + 1));
+    }
+  }
+
+  @Nullable
+  @Override
+  public String getStagedAlias() {
+    try {
+      return currentState().stagedAlias;
+    } catch (BcscException e) {
+      SimpleLog.e(TAG, "Failed to get staged alias", e);
+      return null;
+    }
+  }
+
+  @Override
+  public void saveStagedAlias(@Nullable String alias) throws BcscException {
+    synchronized (lock) {
+      State current = currentState();
+      if (alias == null ? current.stagedAlias == null : alias.equals(current.stagedAlias)) {
+        return;
+      }
+      publish(new State(current.infos, current.byCreatedAt, alias, current.aliasIndex, current.version + 1));
+    }
+  }
+
+  @Nullable
+  @Override
+  public AliasIndex getAliasIndex() {
+    try {
+      return currentState().aliasIndex;
+    } catch (BcscException e) {
+      // A lost index is only a cache; the repo re-audits the keystore.
+      SimpleLog.e(TAG, "Failed to load alias index", e);
+      return null;
+    }
+  }
+
+  @Override
+  public void saveAliasIndex(@Nullable AliasIndex index) throws BcscException {
+    synchronized (lock) {
+      State current = currentState();
+      publish(new State(current.infos, current.byCreatedAt, current.stagedAlias, index, current.version + 1));
+    }
+  }
+
+  /**
+   * Delete the metadata file and forget everything held in memory, e.g. when
+   * the keystore is wiped. The legacy source is not migrated again.
+   */
+  public void clear() {
+    synchronized (lock) {
+      State current = state;
+      if (file.exists() && !file.delete()) {
+        SimpleLog.w(TAG, "Failed to delete " + file);
+      }
+      backupFile().delete();
+      state = new State(new HashMap<>(), null, null, current != null ? current.version + 1 : 1L);
+    }
+  }
+
+  @NonNull
+  private State currentState() throws BcscException {
+    State current = state;
+    if (current != null) {
+      return current;
+    }
+    synchronized (lock) {
+      if (state == null) {
+        state = load();
+      }
+      return state;
+    }
+  }
+
+  /**
+   * Write the state to disk, then make it visible to readers. Caller holds lock.
+   */
+  private void publish(@NonNull State next) throws BcscException {
+    try {
+      writeAtomically(encode(next));
+    } catch (IOException e) {
+      SimpleLog.e(TAG, "Failed to save key pair info", e);
+      throw new BcscException("Failed to save key pair information: " + e.getMessage());
+    }
+    state = next;
+  }
+
+  /**
+   * Read the file, or migrate from the legacy source when there is none. Caller holds lock.
+   */
+  @NonNull
+  private State load() throws BcscException {
+    File backup = backupFile();
+    if (!file.exists() && backup.exists()) {
+      // A crash interrupted the fallback replace in writeAtomically.
+      SimpleLog.w(TAG, "Restoring key pair info from " + backup.getName());
+      if (!backup.renameTo(file)) {
+        SimpleLog.w(TAG, "Failed to restore " + backup.getName());
+      }
+    }
+    if (file.exists()) {
+      try {
+        State loaded = decode(readFile());
+        SimpleLog.d(TAG, () -> "Loaded key pairs: " + loaded.infos.keySet());
+        return loaded;
+      } catch (IOException | IllegalArgumentException e) {
+        File corrupt = new File(file.getPath() + ".corrupt");
+        SimpleLog.e(TAG, "Unreadable key pair info; moving it to " + corrupt.getName(), e);
+        if (!file.renameTo(corrupt)) {
+          file.delete();
+        }
+        return new State(new HashMap<>(), null, null, 1L);
+      }
+    }
+    return migrateFromLegacySource();
+  }
+
+  @NonNull
+  private State migrateFromLegacySource() throws BcscException {
+    if (legacySource == null) {
+      return new State(new HashMap<>(), null, null, 1L);
+    }
+    HashMap<String, KeyPairInfo> infos = legacySource.getKeyPairInfo();
+    String stagedAlias = legacySource.getStagedAlias();
+    AliasIndex aliasIndex = legacySource.getAliasIndex();
+    State migrated = new State(infos, stagedAlias, aliasIndex, 1L);
+    if (infos.isEmpty() && stagedAlias == null && aliasIndex == null) {
+      return migrated;
+    }
+
+    // The file is written first, so a crash before the legacy copy is
+    // removed only leaves a stale copy that is never read again.
+    try {
+      writeAtomically(encode(migrated));
+    } catch (IOException e) {
+      SimpleLog.e(TAG, "Failed to migrate key pair info", e);
+      throw new BcscException("Failed to migrate key pair information: " + e.getMessage());
+    }
+    try {
+      legacySource.deleteKeyPairInfos(infos.keySet());
+      legacySource.saveStagedAlias(null);
+      legacySource.saveAliasIndex(null);
+    } catch (BcscException e) {
+      SimpleLog.w(TAG, "Migrated key pair info but failed to clear the legacy copy: " + e.getMessage());
+    }
+    SimpleLog.i(TAG, "Migrated " + infos.size() + " key pair entries to " + file.getName());
+    return migrated;
+  }
+
+  /**
+   * Replace the file with the given contents via temp-write, fsync and rename,
+   * then fsync the directory.
+   */
+  private void writeAtomically(@NonNull byte[] contents) throws IOException {
+    File parent = file.getParentFile();
+    if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+      throw new IOException("Failed to create " + parent);
+    }
+    File temp = File.createTempFile(file.getName() + "_", ".tmp", parent);
+    try {
+      try (FileOutputStream out = new FileOutputStream(temp)) {
+        out.write(contents);
+        out.flush();
+        // Flush to disk so the rename can't expose an empty file.
+        out.getFD().sync();
+      }
+      if (!temp.renameTo(file)) {
+        // renameTo can fail if the destination exists on some platforms. Move
+        // the old file aside rather than deleting it, so a second failure
+        // (or a crash, see load) still leaves the previous metadata.
+        File backup = backupFile();
+        if (file.exists() && !file.renameTo(backup)) {
+          throw new IOException("Failed to move " + file + " aside");
+        }
+        if (!temp.renameTo(file)) {
+          if (backup.exists() && !backup.renameTo(file)) {
+            SimpleLog.w(TAG, "Failed to restore " + file + " from " + backup.getName());
+          }
+          throw new IOException("Failed to rename temp file to " + file);
+        }
+        backup.delete();
+      }
+      if (parent != null) {
+        syncDirectory(parent);
+      }
+    } finally {
+      if (temp.exists()) {
+        temp.delete();
+      }
+    }
+  }
+
+  @NonNull
+  private File backupFile() {
+    return new File(file.getPath() + ".bak");
+  }
+
+  /**
+   * Flush a directory's entries to disk, so a rename into it survives power
+   * loss. Best effort: the new contents are already durable in the file.
+   */
+  private static void syncDirectory(@NonNull File dir) {
+    try {
+      FileDescriptor fd = Os.open(dir.getPath(), OsConstants.O_RDONLY, 0);
+      try {
+        Os.fsync(fd);
+      } finally {
+        Os.close(fd);
+      }
+    } catch (ErrnoException | RuntimeException | UnsatisfiedLinkError e) {
+      // UnsatisfiedLinkError: no native Os outside a device, e.g. in unit tests.
+      SimpleLog.w(TAG, "Failed to sync " + dir + ": " + e.getMessage());
+    }
+  }
+
+  @NonNull
+  private byte[] readFile() throws IOException {
+    try (FileInputStream in = new FileInputStream(file)) {
+      long length = file.length();
+      if (length > Integer.MAX_VALUE) {
+        throw new IOException("Key pair info file too large: " + length);
+      }
+      byte[] contents = new byte[(int) length];
+      new DataInputStream(in).readFully(contents);
+      return contents;
+    }
+  }
+
+  /**
+   * File layout (format 1): format byte, KeyPairInfoCodec bytes with an int
+   * length prefix, the staged alias, the alias index, then a CRC32 of
+   * everything before it.
+   */
+  @NonNull
+  private static byte[] encode(@NonNull State state) throws BcscException {
+    try {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      DataOutputStream out = new DataOutputStream(bytes);
+      out.writeByte(FILE_FORMAT);
+      byte[] infos = KeyPairInfoCodec.encode(state.infos.values());
+      out.writeInt(infos.length);
+      out.write(infos);
+      out.writeBoolean(state.stagedAlias != null);
+      if (state.stagedAlias != null) {
+        out.writeUTF(state.stagedAlias);
+      }
+      out.writeBoolean(state.aliasIndex != null);
+      if (state.aliasIndex != null) {
+        out.writeLong(state.aliasIndex.getAuditedAt());
+        out.writeInt(state.aliasIndex.getAliases().size());
+        for (String alias : state.aliasIndex.getAliases()) {
+          out.writeUTF(alias);
+        }
+      }
+      CRC32 crc = new CRC32();
+      crc.update(bytes.toByteArray());
+      out.writeLong(crc.getValue());
+      out.flush();
+      return bytes.toByteArray();
+    } catch (IOException e) {
+      // Writing to memory doesn't fail; an over-long alias does.
+      throw new BcscException("Failed to encode key pair information: " + e.getMessage());
+    }
+  }
+
+  @NonNull
+  private static State decode(@NonNull byte[] contents) throws IOException {
+    if (contents.length < 9) {
+      throw new IOException("Key pair info file truncated");
+    }
+    CRC32 crc = new CRC32();
+    crc.update(contents, 0, contents.length - 8);
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(contents));
+    in.skipBytes(contents.length - 8);
+    if (in.readLong() != crc.getValue()) {
+      throw new IOException("Key pair info checksum mismatch");
+    }
+
+    in = new DataInputStream(new ByteArrayInputStream(contents, 0, contents.length - 8));
+    int format = in.readUnsignedByte();
+    if (format != FILE_FORMAT) {
+      throw new IOException("Unknown key pair info file format " + format);
+    }
+    // Bound lengths by what's left before allocating; the checksum only
+    // catches accidental corruption, not a file written with a bad length.
+    int length = in.readInt();
+    if (length < 0 || length > in.available()) {
+      throw new IOException("Key pair info length " + length + " overruns the file");
+    }
+    byte[] infos = new byte[length];
+    in.readFully(infos);
+    String stagedAlias = in.readBoolean() ? in.readUTF() : null;
+    AliasIndex aliasIndex = null;
+    if (in.readBoolean()) {
+      long auditedAt = in.readLong();
+      int count = in.readInt();
+      // Each alias takes at least its two-byte length prefix.
+      if (count < 0 || count > in.available() / 2) {
+        throw new IOException("Alias index count " + count + " overruns the file");
+      }
+      List<String> aliases = new ArrayList<>(count);
+      for (int i = 0; i < count; i++) {
+        aliases.add(in.readUTF());
+      }
+      aliasIndex = new AliasIndex(aliases, auditedAt);
+    }
+    return new State(KeyPairInfoCodec.decode(infos), stagedAlias, aliasIndex, 1L);
+  }
+
+}
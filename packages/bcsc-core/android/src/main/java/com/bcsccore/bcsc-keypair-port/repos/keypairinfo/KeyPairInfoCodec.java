@@ -0,0 +1,189 @@
+package com.bcsccore.keypair.repos.keypairinfo;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import com.bcsccore.keypair.core.models.KeyBacking;
+import com.bcsccore.keypair.core.models.KeyPairInfo;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.HashMap;
+
+/**
+ * Compact binary encoding of the key pair metadata, parsed without reflection.
+ *
+ * Layout (format 1): a format byte, the entry count as a varint, then each
+ * entry as a varint byte length followed by its fields:
+ * <pre>
+ *   alias        varint length + UTF-8 bytes
+ *   createdAt    zigzag varint, milliseconds since epoch
+ *   backing      one byte: 0 unknown, 1 StrongBox, 2 TEE
+ *   lastUsedAt   zigzag varint, 0 if never used
+ *   signCount    zigzag varint
+ * </pre>
+ * Readers skip whatever follows the fields they know within an entry, so
+ * fields can be appended without a new format. A format byte the reader
+ * doesn't know is rejected rather than guessed at.
+ */
+final class KeyPairInfoCodec {
+
+  static final int FORMAT = 1;
+
+  private static final int BACKING_UNKNOWN = 0;
+  private static final int BACKING_STRONGBOX = 1;
+  private static final int BACKING_TEE = 2;
+
+  private KeyPairInfoCodec() {
+  }
+
+  @NonNull
+  static byte[] encode(@NonNull Collection<KeyPairInfo> infos) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream(16 + infos.size() * 32);
+    out.write(FORMAT);
+    writeVarLong(out, infos.size());
+    ByteArrayOutputStream entry = new ByteArrayOutputStream(32);
+    for (KeyPairInfo info : infos) {
+      entry.reset();
+      byte[] alias = info.getAlias().getBytes(StandardCharsets.UTF_8);
+      writeVarLong(entry, alias.length);
+      entry.write(alias, 0, alias.length);
+      writeVarLong(entry, zigZag(info.getCreatedAt()));
+      entry.write(backingCode(info.getBacking()));
+      writeVarLong(entry, zigZag(info.getLastUsedAt()));
+      writeVarLong(entry, zigZag(info.getSignCount()));
+
+      writeVarLong(out, entry.size());
+      out.write(entry.toByteArray(), 0, entry.size());
+    }
+    return out.toByteArray();
+  }
+
+  /**
+   * Decode metadata written by {@link #encode}.
+   * @throws IllegalArgumentException if the bytes are truncated, malformed or in an unknown format
+   */
+  @NonNull
+  static HashMap<String, KeyPairInfo> decode(@NonNull byte[] bytes) {
+    Reader in = new Reader(bytes, 0, bytes.length);
+    int format = in.readByte();
+    if (format != FORMAT) {
+      throw new IllegalArgumentException("Unknown key pair info format " + format);
+    }
+    int count = in.readLength();
+    HashMap<String, KeyPairInfo> infos = new HashMap<>(count * 2);
+    for (int i = 0; i < count; i++) {
+      int length = in.readLength();
+      Reader entry = in.slice(length);
+      String alias = entry.readString();
+      long createdAt = unZigZag(entry.readVarLong());
+      KeyBacking backing = backing(entry.readByte());
+      long lastUsedAt = unZigZag(entry.readVarLong());
+      long signCount = unZigZag(entry.readVarLong());
+      infos.put(alias, new KeyPairInfo(alias, createdAt, backing, lastUsedAt, signCount));
+    }
+    return infos;
+  }
+
+  // Codes are fixed here rather than taken from ordinal() so reordering the enum can't corrupt stored data.
+  private static int backingCode(@Nullable KeyBacking backing) {
+    if (backing == null) {
+      return BACKING_UNKNOWN;
+    }
+    switch (backing) {
+      case STRONGBOX:
+        return BACKING_STRONGBOX;
+      case TEE:
+        return BACKING_TEE;
+      default:
+        return BACKING_UNKNOWN;
+    }
+  }
+
+  // Unrecognised codes come from a newer version; treat as unknown rather than dropping the entry.
+  @Nullable
+  private static KeyBacking backing(int code) {
+    switch (code) {
+      case BACKING_STRONGBOX:
+        return KeyBacking.STRONGBOX;
+      case BACKING_TEE:
+        return KeyBacking.TEE;
+      default:
+        return null;
+    }
+  }
+
+  private static long zigZag(long value) {
+    return (value << 1) ^ (value >> 63);
+  }
+
+  private static long unZigZag(long value) {
+    return (value >>> 1) ^ -(value & 1L);
+  }
+
+  private static void writeVarLong(@NonNull ByteArrayOutputStream out, long value) {
+    while ((value & ~0x7FL) != 0L) {
+      out.write((int) ((value & 0x7FL) | 0x80L));
+      value >>>= 7;
+    }
+    out.write((int) value);
+  }
+
+  /**
+   * Bounds-checked cursor over a range of the encoded bytes.
+   */
+  private static final class Reader {
+    private final byte[] bytes;
+    private int position;
+    private final int end;
+
+    Reader(@NonNull byte[] bytes, int position, int end) {
+      this.bytes = bytes;
+      this.position = position;
+      this.end = end;
+    }
+
+    int readByte() {
+      if (position >= end) {
+        throw new IllegalArgumentException("Truncated key pair info");
+      }
+      return bytes[position++] & 0xFF;
+    }
+
+    long readVarLong() {
+      long value = 0L;
+      for (int shift = 0; shift < 64; shift += 7) {
+        int b = readByte();
+        value |= (long) (b & 0x7F) << shift;
+        if ((b & 0x80) == 0) {
+          return value;
+        }
+      }
+      throw new IllegalArgumentException("Malformed varint in key pair info");
+    }
+
+    int readLength() {
+      long length = readVarLong();
+      if (length < 0L || length > end - position) {
+        throw new IllegalArgumentException("Length " + length + " overruns key pair info");
+      }
+      return (int) length;
+    }
+
+    @NonNull
+    String readString() {
+      int length = readLength();
+      String value = new String(bytes, position, length, StandardCharsets.UTF_8);
+      position += length;
+      return value;
+    }
+
+    // Consumes length bytes; fields the slice's reader doesn't read are skipped.
+    @NonNull
+    Reader slice(int length) {
+      Reader slice = new Reader(bytes, position, position + length);
+      position += length;
+      return slice;
+    }
+  }
+
+}
@@ -2,20 +2,41 @@ package com.bcsccore.keypair.repos.keypairinfo;
 
 import android.content.Context;
 import android.content.SharedPreferences;
+import android.util.Base64;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import com.bcsccore.keypair.core.exceptions.BcscException;
+import com.bcsccore.keypair.core.models.AliasIndex;
+import com.bcsccore.keypair.core.models.CreatedAtIndex;
+import com.bcsccore.keypair.core.models.KeyBacking;
 import com.bcsccore.keypair.core.models.KeyPairInfo;
 import com.bcsccore.keypair.core.interfaces.KeyPairInfoSource;
 import com.bcsccore.keypair.core.utils.SimpleLog;
 import com.google.gson.Gson;
 import com.google.gson.reflect.TypeToken;
 import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Simple implementation of KeyPairInfoSource using SharedPreferences for storage.
- * This is a simplified version that stores key pair metadata as JSON in SharedPreferences.
+ * This is a simplified version that stores key pair metadata in SharedPreferences,
+ * in the compact binary form of {@link KeyPairInfoCodec} (Base64-encoded).
+ * Metadata written as JSON by earlier versions is read once and rewritten in
+ * the binary form, in the same edit that removes the JSON. A downgrade to a
+ * version that only reads JSON finds no metadata and rebuilds it from the
+ * keystore aliases, as for a fresh install; a kept copy would be stale and
+ * point it at keys that have since been rotated out or deleted.
+ *
+ * The decoded metadata is kept as an immutable snapshot, shared across threads
+ * and replaced as a whole on every write, so reads don't decode anything. Each
+ * read still checks the snapshot against the stored string (a reference
+ * comparison in the common case), so a write that bypasses this instance, such
+ * as clearing the preferences on logout, is picked up and bumps the version.
  * 
  * For production use, consider:
  * - Encrypting the stored data
@@ -26,11 +47,54 @@ public class SimpleKeyPairInfoSource implements KeyPairInfoSource {
 
   private static final String TAG = "SimpleKeyPairInfoSource";
   private static final String PREFS_NAME = "bcsc_keypair_info";
-  private static final String KEY_PAIR_INFO_KEY = "keypair_info_map";
+  private static final String KEY_PAIR_INFO_KEY = "keypair_info_bin";
+  // JSON map written by earlier versions; migrated on first read and removed.
+  private static final String LEGACY_KEY_PAIR_INFO_KEY = "keypair_info_map";
+  private static final String STAGED_ALIAS_KEY = "staged_keypair_alias";
+  private static final String ALIAS_INDEX_KEY = "keypair_alias_index";
+  private static final String NOTHING_STORED = "";
+  private static final Type INFO_MAP_TYPE = new TypeToken<HashMap<String, KeyPairInfoData>>(){}.getType();
 
   private final SharedPreferences sharedPreferences;
   private final Gson gson;
 
+  // Serializes writes and snapshot reloads.
+  private final Object writeLock = new Object();
+
+  // Null until the metadata is first read.
+  @Nullable
+  private volatile Snapshot snapshot;
+
+  /**
+   * Decoded metadata together with the stored string it was decoded from.
+   */
+  private static final class Snapshot {
+    @NonNull
+    final String encoded;
+
+    @NonNull
+    final Map<String, KeyPairInfo> infos;
+
+    @NonNull
+    final CreatedAtIndex byCreatedAt;
+
+    final long version;
+
+    Snapshot(@NonNull String encoded, @NonNull Map<String, KeyPairInfo> infos,
+        @NonNull CreatedAtIndex byCreatedAt, long version) {
+      this.encoded = encoded;
+      this.infos = Collections.unmodifiableMap(infos);
+      this.byCreatedAt = byCreatedAt;
+      this.version = version;
+    }
+
+    // SharedPreferences hands back the String it was given, so this is
+    // usually a reference comparison.
+    boolean isParsedFrom(@NonNull String stored) {
+      return encoded == stored || encoded.equals(stored);
+    }
+  }
+
   /**
    * Create a new SimpleKeyPairInfoSource.
    * @param context the Android context for accessing SharedPreferences
@@ -44,8 +108,7 @@ public class SimpleKeyPairInfoSource implements KeyPairInfoSource {
   @Override
   public KeyPairInfo getKeyPairInfo(String kid) {
     try {
-      HashMap<String, KeyPairInfo> infoMap = getKeyPairInfo();
-      return infoMap.get(kid);
+      return currentSnapshot().infos.get(kid);
     } catch (Exception e) {
       SimpleLog.e(TAG, "Failed to get key pair info for " + kid, e);
       return null;
@@ -55,46 +118,30 @@ public class SimpleKeyPairInfoSource implements KeyPairInfoSource {
   @NonNull
   @Override
   public HashMap<String, KeyPairInfo> getKeyPairInfo() throws BcscException {
+    HashMap<String, KeyPairInfo> infoMap = new HashMap<>(currentSnapshot().infos);
+    SimpleLog.d(TAG, () -> "Loaded key pairs: " + infoMap.keySet());
+    return infoMap;
+  }
+
+  @NonNull
+  @Override
+  public CreatedAtIndex getCreatedAtIndex() throws BcscException {
+    return currentSnapshot().byCreatedAt;
+  }
+
+  @Override
+  public long getVersion() {
     try {
-      String json = sharedPreferences.getString(KEY_PAIR_INFO_KEY, "{}");
-      Type type = new TypeToken<HashMap<String, KeyPairInfoData>>(){}.getType();
-      HashMap<String, KeyPairInfoData> dataMap = gson.fromJson(json, type);
-      
-      HashMap<String, KeyPairInfo> infoMap = new HashMap<>();
-      if (dataMap != null) {
-        for (String key : dataMap.keySet()) {
-          KeyPairInfoData data = dataMap.get(key);
-          if (data != null) {
-            infoMap.put(key, new KeyPairInfo(data.alias, data.createdAt));
-          }
-        }
-      }
-      
-      SimpleLog.d(TAG, "Loaded key pairs: " + infoMap.keySet());
-      return infoMap;
-    } catch (Exception e) {
-      SimpleLog.e(TAG, "Failed to load key pair info", e);
-      throw new BcscException("Failed to load key pair information: " + e.getMessage());
+      return currentSnapshot().version;
+    } catch (BcscException e) {
+      return UNVERSIONED;
     }
   }
 
   @Override
   public void saveKeyPairInfo(KeyPairInfo info) throws BcscException {
     try {
-      HashMap<String, KeyPairInfo> infoMap = getKeyPairInfo();
-      infoMap.put(info.getAlias(), info);
-      
-      HashMap<String, KeyPairInfoData> dataMap = new HashMap<>();
-      for (String key : infoMap.keySet()) {
-        KeyPairInfo keyInfo = infoMap.get(key);
-        if (keyInfo != null) {
-          dataMap.put(key, new KeyPairInfoData(keyInfo.getAlias(), keyInfo.getCreatedAt()));
-        }
-      }
-      
-      String json = gson.toJson(dataMap);
-      sharedPreferences.edit().putString(KEY_PAIR_INFO_KEY, json).apply();
-      
+      write(infoMap -> infoMap.put(info.getAlias(), info));
       SimpleLog.d(TAG, "Saved key pair info for " + info.getAlias());
     } catch (Exception e) {
       SimpleLog.e(TAG, "Failed to save key pair info", e);
@@ -103,22 +150,37 @@ public class SimpleKeyPairInfoSource implements KeyPairInfoSource {
   }
 
   @Override
-  public void deleteKeyPairInfo(String alias) throws BcscException {
+  public void saveKeyPairInfos(@NonNull Collection<KeyPairInfo> infos) throws BcscException {
     try {
-      HashMap<String, KeyPairInfo> infoMap = getKeyPairInfo();
-      infoMap.remove(alias);
-      
-      HashMap<String, KeyPairInfoData> dataMap = new HashMap<>();
-      for (String key : infoMap.keySet()) {
-        KeyPairInfo keyInfo = infoMap.get(key);
-        if (keyInfo != null) {
-          dataMap.put(key, new KeyPairInfoData(keyInfo.getAlias(), keyInfo.getCreatedAt()));
+      write(infoMap -> {
+        for (KeyPairInfo info : infos) {
+          infoMap.put(info.getAlias(), info);
         }
-      }
-      
-      String json = gson.toJson(dataMap);
-      sharedPreferences.edit().putString(KEY_PAIR_INFO_KEY, json).apply();
-      
+      });
+      SimpleLog.d(TAG, () -> "Saved key pair info for " + infos.size() + " key pairs");
+    } catch (Exception e) {
+      SimpleLog.e(TAG, "Failed to save key pair info", e);
+      throw new BcscException("Failed to save key pair information: " + e.getMessage());
+    }
+  }
+
+  @Override
+  public void updateKeyPairInfo(@NonNull Mutator mutator) throws BcscException {
+    try {
+      write(mutator);
+      SimpleLog.d(TAG, "Updated key pair info");
+    } catch (BcscException e) {
+      throw e;
+    } catch (Exception e) {
+      SimpleLog.e(TAG, "Failed to update key pair info", e);
+      throw new BcscException("Failed to update key pair information: " + e.getMessage());
+    }
+  }
+
+  @Override
+  public void deleteKeyPairInfo(String alias) throws BcscException {
+    try {
+      write(infoMap -> infoMap.remove(alias));
       SimpleLog.d(TAG, "Deleted key pair info for " + alias);
     } catch (Exception e) {
       SimpleLog.e(TAG, "Failed to delete key pair info", e);
@@ -126,17 +188,246 @@ public class SimpleKeyPairInfoSource implements KeyPairInfoSource {
     }
   }
 
+  @Override
+  public void deleteKeyPairInfos(@NonNull Collection<String> aliases) throws BcscException {
+    try {
+      write(infoMap -> infoMap.keySet().removeAll(aliases));
+      SimpleLog.d(TAG, "Deleted key pair info for " + aliases);
+    } catch (Exception e) {
+      SimpleLog.e(TAG, "Failed to delete key pair info", e);
+      throw new BcscException("Failed to delete key pair information: " + e.getMessage());
+    }
+  }
+
+  @Nullable
+  @Override
+  public String getStagedAlias() {
+    return sharedPreferences.getString(STAGED_ALIAS_KEY, null);
+  }
+
+  @Override
+  public void saveStagedAlias(@Nullable String alias) throws BcscException {
+    try {
+      if (alias == null) {
+        sharedPreferences.edit().remove(STAGED_ALIAS_KEY).apply();
+      } else {
+        sharedPreferences.edit().putString(STAGED_ALIAS_KEY, alias).apply();
+      }
+      SimpleLog.d(TAG, "Saved staged alias " + alias);
+    } catch (Exception e) {
+      SimpleLog.e(TAG, "Failed to save staged alias", e);
+      throw new BcscException("Failed to save staged alias: " + e.getMessage());
+    }
+  }
+
+  @Nullable
+  @Override
+  public AliasIndex getAliasIndex() {
+    try {
+      String json = sharedPreferences.getString(ALIAS_INDEX_KEY, null);
+      if (json == null) {
+        return null;
+      }
+      AliasIndexData data = gson.fromJson(json, AliasIndexData.class);
+      if (data == null || data.aliases == null) {
+        return null;
+      }
+      return new AliasIndex(data.aliases, data.auditedAt);
+    } catch (Exception e) {
+      // A corrupt index is only a cache; drop it and let the repo re-audit.
+      SimpleLog.e(TAG, "Failed to load alias index", e);
+      return null;
+    }
+  }
+
+  @Override
+  public void saveAliasIndex(@Nullable AliasIndex index) throws BcscException {
+    try {
+      if (index == null) {
+        sharedPreferences.edit().remove(ALIAS_INDEX_KEY).apply();
+      } else {
+        String json = gson.toJson(new AliasIndexData(
+            new ArrayList<>(index.getAliases()), index.getAuditedAt()));
+        sharedPreferences.edit().putString(ALIAS_INDEX_KEY, json).apply();
+      }
+      SimpleLog.d(TAG, () -> "Saved alias index " + (index != null ? index.getAliases() : null));
+    } catch (Exception e) {
+      SimpleLog.e(TAG, "Failed to save alias index", e);
+      throw new BcscException("Failed to save alias index: " + e.getMessage());
+    }
+  }
+
+  /**
+   * Return the snapshot for the stored metadata, decoding it again only if the
+   * stored string changed since the snapshot was taken.
+   */
+  @NonNull
+  private Snapshot currentSnapshot() throws BcscException {
+    Snapshot cached = snapshot;
+    if (cached != null && cached.isParsedFrom(storedEncoded())) {
+      return cached;
+    }
+    synchronized (writeLock) {
+      cached = snapshot;
+      String stored = storedEncoded();
+      if (cached != null && cached.isParsedFrom(stored)) {
+        return cached;
+      }
+      long version = cached != null ? cached.version + 1 : 1L;
+      if (stored.isEmpty()) {
+        String legacyJson = sharedPreferences.getString(LEGACY_KEY_PAIR_INFO_KEY, null);
+        if (legacyJson != null) {
+          return migrateLegacyJson(legacyJson, version);
+        }
+      }
+      HashMap<String, KeyPairInfo> infoMap = decode(stored);
+      Snapshot loaded = new Snapshot(stored, infoMap, CreatedAtIndex.of(infoMap.values()), version);
+      snapshot = loaded;
+      return loaded;
+    }
+  }
+
+  /**
+   * Rewrite metadata stored as JSON in the binary form, in the same edit that
+   * removes the JSON. Caller holds writeLock.
+   */
+  @NonNull
+  private Snapshot migrateLegacyJson(@NonNull String legacyJson, long version) throws BcscException {
+    HashMap<String, KeyPairInfo> infoMap = parseLegacyJson(legacyJson);
+    String encoded = encode(infoMap);
+    sharedPreferences.edit()
+        .putString(KEY_PAIR_INFO_KEY, encoded)
+        .remove(LEGACY_KEY_PAIR_INFO_KEY)
+        .apply();
+    SimpleLog.i(TAG, "Migrated " + infoMap.size() + " key pair entries from JSON");
+    Snapshot migrated = new Snapshot(encoded, infoMap, CreatedAtIndex.of(infoMap.values()), version);
+    snapshot = migrated;
+    return migrated;
+  }
+
+  /**
+   * Apply a change to a copy of the current metadata, store it and publish it
+   * as the new snapshot. A change that leaves every entry in place writes nothing.
+   */
+  private void write(@NonNull Mutator change) throws BcscException {
+    synchronized (writeLock) {
+      Snapshot current = currentSnapshot();
+      HashMap<String, KeyPairInfo> infoMap = new HashMap<>(current.infos);
+      change.mutate(infoMap);
+      if (isUnchanged(current.infos, infoMap)) {
+        return;
+      }
+
+      String encoded = encode(infoMap);
+      sharedPreferences.edit().putString(KEY_PAIR_INFO_KEY, encoded).apply();
+      snapshot = new Snapshot(encoded, infoMap, current.byCreatedAt.updated(current.infos, infoMap),
+          current.version + 1);
+    }
+  }
+
+  // Entries are immutable, so an unchanged entry is the same instance.
+  static boolean isUnchanged(@NonNull Map<String, KeyPairInfo> before,
+      @NonNull Map<String, KeyPairInfo> after) {
+    if (before.size() != after.size()) {
+      return false;
+    }
+    for (Map.Entry<String, KeyPairInfo> entry : after.entrySet()) {
+      if (before.get(entry.getKey()) != entry.getValue()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @NonNull
+  private String storedEncoded() {
+    String encoded = sharedPreferences.getString(KEY_PAIR_INFO_KEY, NOTHING_STORED);
+    return encoded != null ? encoded : NOTHING_STORED;
+  }
+
+  @NonNull
+  private static String encode(@NonNull Map<String, KeyPairInfo> infoMap) {
+    return Base64.encodeToString(KeyPairInfoCodec.encode(infoMap.values()), Base64.NO_WRAP);
+  }
+
+  @NonNull
+  private static HashMap<String, KeyPairInfo> decode(@NonNull String encoded) throws BcscException {
+    if (encoded.isEmpty()) {
+      return new HashMap<>();
+    }
+    try {
+      return KeyPairInfoCodec.decode(Base64.decode(encoded, Base64.NO_WRAP));
+    } catch (IllegalArgumentException e) {
+      SimpleLog.e(TAG, "Failed to load key pair info", e);
+      throw new BcscException("Failed to load key pair information: " + e.getMessage());
+    }
+  }
+
+  @NonNull
+  private HashMap<String, KeyPairInfo> parseLegacyJson(@NonNull String json) throws BcscException {
+    try {
+      HashMap<String, KeyPairInfoData> dataMap = gson.fromJson(json, INFO_MAP_TYPE);
+
+      HashMap<String, KeyPairInfo> infoMap = new HashMap<>();
+      if (dataMap != null) {
+        for (String key : dataMap.keySet()) {
+          KeyPairInfoData data = dataMap.get(key);
+          if (data != null) {
+            infoMap.put(key, data.toKeyPairInfo());
+          }
+        }
+      }
+      return infoMap;
+    } catch (Exception e) {
+      SimpleLog.e(TAG, "Failed to load legacy key pair info", e);
+      throw new BcscException("Failed to load key pair information: " + e.getMessage());
+    }
+  }
+
   /**
-   * Simple data class for JSON serialization.
-   * This avoids issues with serializing the KeyPairInfo class directly.
+   * JSON form of KeyPairInfo written by earlier versions; only read, for migration.
    */
   private static class KeyPairInfoData {
     public String alias;
     public Long createdAt;
+    // KeyBacking name; absent in entries written before backing was tracked.
+    public String backing;
+    // Usage statistics; absent in entries written before usage was tracked.
+    public Long lastUsedAt;
+    public Long signCount;
 
-    public KeyPairInfoData(String alias, Long createdAt) {
+    public KeyPairInfoData(String alias, Long createdAt, String backing, Long lastUsedAt, Long signCount) {
       this.alias = alias;
       this.createdAt = createdAt;
+      this.backing = backing;
+      this.lastUsedAt = lastUsedAt;
+      this.signCount = signCount;
+    }
+
+    KeyPairInfo toKeyPairInfo() {
+      KeyBacking parsed = null;
+      if (backing != null) {
+        try {
+          parsed = KeyBacking.valueOf(backing);
+        } catch (IllegalArgumentException e) {
+          // Written by a newer version; treat as unknown rather than dropping the entry.
+        }
+      }
+      return new KeyPairInfo(alias, createdAt != null ? createdAt : 0L, parsed,
+          lastUsedAt != null ? lastUsedAt : 0L, signCount != null ? signCount : 0L);
+    }
+  }
+
+  /**
+   * JSON form of {@link AliasIndex}.
+   */
+  private static class AliasIndexData {
+    public List<String> aliases;
+    public long auditedAt;
+
+    public AliasIndexData(List<String> aliases, long auditedAt) {
+      this.aliases = aliases;
+      this.auditedAt = auditedAt;
     }
   }
 
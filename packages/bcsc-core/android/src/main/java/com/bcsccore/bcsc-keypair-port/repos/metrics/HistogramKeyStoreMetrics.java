@@ -0,0 +1,132 @@
+package com.bcsccore.keypair.repos.metrics;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import com.bcsccore.keypair.core.interfaces.KeyStoreMetrics;
+import com.bcsccore.keypair.core.models.KeyBacking;
+import com.bcsccore.keypair.core.models.KeyStoreOperationStats;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory {@link KeyStoreMetrics} that keeps a latency histogram and counts
+ * per operation, plus a per-alias histogram for key generation and per-backing
+ * histograms for key generation and signing.
+ *
+ * The process-wide instance from {@link #getInstance()} accumulates from
+ * process start, independent of React Native module reloads, so slow unlocks
+ * can be correlated with the device they happened on.
+ */
+public final class HistogramKeyStoreMetrics implements KeyStoreMetrics {
+
+  private static final HistogramKeyStoreMetrics INSTANCE = new HistogramKeyStoreMetrics();
+
+  private final EnumMap<Operation, LatencyHistogram> histograms = new EnumMap<>(Operation.class);
+
+  private final ConcurrentHashMap<String, LatencyHistogram> generationByAlias = new ConcurrentHashMap<>();
+
+  private final EnumMap<KeyBacking, EnumMap<Operation, LatencyHistogram>> byBacking =
+      new EnumMap<>(KeyBacking.class);
+
+  private final long startedAtMillis = System.currentTimeMillis();
+
+  /**
+   * Create an empty recorder. Production code should use {@link #getInstance()}.
+   */
+  public HistogramKeyStoreMetrics() {
+    // Populated once up front so record() only reads the map.
+    for (Operation operation : Operation.values()) {
+      histograms.put(operation, new LatencyHistogram());
+    }
+    for (KeyBacking backing : KeyBacking.values()) {
+      EnumMap<Operation, LatencyHistogram> perOperation = new EnumMap<>(Operation.class);
+      perOperation.put(Operation.KEY_GENERATION, new LatencyHistogram());
+      perOperation.put(Operation.SIGNING, new LatencyHistogram());
+      byBacking.put(backing, perOperation);
+    }
+  }
+
+  /**
+   * Get the process-wide recorder.
+   * @return the shared recorder
+   */
+  @NonNull
+  public static HistogramKeyStoreMetrics getInstance() {
+    return INSTANCE;
+  }
+
+  @Override
+  public void record(@NonNull Operation operation, @Nullable String alias, long elapsedNanos, boolean success) {
+    histograms.get(operation).record(elapsedNanos, success);
+    if (operation == Operation.KEY_GENERATION && alias != null) {
+      generationByAlias.computeIfAbsent(alias, a -> new LatencyHistogram()).record(elapsedNanos, success);
+    }
+  }
+
+  @Override
+  public void record(@NonNull Operation operation, @NonNull String alias, @Nullable KeyBacking backing,
+      long elapsedNanos, boolean success) {
+    record(operation, alias, elapsedNanos, success);
+    if (backing != null) {
+      LatencyHistogram histogram = byBacking.get(backing).get(operation);
+      if (histogram != null) {
+        histogram.record(elapsedNanos, success);
+      }
+    }
+  }
+
+  /**
+   * Summarize every operation recorded so far.
+   * @return one summary per operation, including operations never recorded
+   */
+  @NonNull
+  public Map<Operation, KeyStoreOperationStats> snapshot() {
+    EnumMap<Operation, KeyStoreOperationStats> result = new EnumMap<>(Operation.class);
+    for (Map.Entry<Operation, LatencyHistogram> entry : histograms.entrySet()) {
+      result.put(entry.getKey(), entry.getValue().snapshot());
+    }
+    return result;
+  }
+
+  /**
+   * Summarize key generation per alias.
+   * @return summaries keyed by alias, in alias order
+   */
+  @NonNull
+  public Map<String, KeyStoreOperationStats> snapshotKeyGenerationByAlias() {
+    TreeMap<String, KeyStoreOperationStats> result = new TreeMap<>();
+    for (Map.Entry<String, LatencyHistogram> entry : generationByAlias.entrySet()) {
+      result.put(entry.getKey(), entry.getValue().snapshot());
+    }
+    return result;
+  }
+
+  /**
+   * Summarize key generation and signing per key backing.
+   * @return for each backing, one summary per recorded operation
+   *         ({@link Operation#KEY_GENERATION} and {@link Operation#SIGNING})
+   */
+  @NonNull
+  public Map<KeyBacking, Map<Operation, KeyStoreOperationStats>> snapshotByBacking() {
+    EnumMap<KeyBacking, Map<Operation, KeyStoreOperationStats>> result = new EnumMap<>(KeyBacking.class);
+    for (Map.Entry<KeyBacking, EnumMap<Operation, LatencyHistogram>> entry : byBacking.entrySet()) {
+      EnumMap<Operation, KeyStoreOperationStats> perOperation = new EnumMap<>(Operation.class);
+      for (Map.Entry<Operation, LatencyHistogram> histogram : entry.getValue().entrySet()) {
+        perOperation.put(histogram.getKey(), histogram.getValue().snapshot());
+      }
+      result.put(entry.getKey(), perOperation);
+    }
+    return result;
+  }
+
+  /**
+   * Get when recording started.
+   * @return the creation time in milliseconds since epoch
+   */
+  public long getStartedAtMillis() {
+    return startedAtMillis;
+  }
+
+}
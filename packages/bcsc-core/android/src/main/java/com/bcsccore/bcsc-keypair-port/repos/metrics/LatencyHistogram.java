@@ -0,0 +1,86 @@
+package com.bcsccore.keypair.repos.metrics;
+
+import androidx.annotation.NonNull;
+import com.bcsccore.keypair.core.models.KeyStoreOperationStats;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free log-scale latency histogram. Bucket i holds durations below 2^i
+ * microseconds, which covers sub-microsecond cache hits up to multi-minute
+ * StrongBox generations in 40 buckets.
+ */
+final class LatencyHistogram {
+
+  private static final int BUCKETS = 40;
+
+  private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+
+  private final AtomicLong count = new AtomicLong();
+
+  private final AtomicLong failures = new AtomicLong();
+
+  private final AtomicLong totalMicros = new AtomicLong();
+
+  private final AtomicLong maxMicros = new AtomicLong();
+
+  void record(long elapsedNanos, boolean success) {
+    final long micros = Math.max(0L, elapsedNanos / 1000L);
+    buckets.incrementAndGet(bucketOf(micros));
+    count.incrementAndGet();
+    if (!success) {
+      failures.incrementAndGet();
+    }
+    totalMicros.addAndGet(micros);
+    long max = maxMicros.get();
+    while (micros > max && !maxMicros.compareAndSet(max, micros)) {
+      max = maxMicros.get();
+    }
+  }
+
+  /**
+   * Summarize the histogram. Concurrent recording may make the summary
+   * slightly inconsistent (e.g. count one ahead of the buckets); that is
+   * acceptable for diagnostics and keeps the hot path lock-free.
+   */
+  @NonNull
+  KeyStoreOperationStats snapshot() {
+    final long[] copy = new long[BUCKETS];
+    long bucketTotal = 0L;
+    for (int i = 0; i < BUCKETS; i++) {
+      copy[i] = buckets.get(i);
+      bucketTotal += copy[i];
+    }
+    final long max = maxMicros.get();
+    return new KeyStoreOperationStats(
+        count.get(),
+        failures.get(),
+        totalMicros.get(),
+        percentile(copy, bucketTotal, 0.50, max),
+        percentile(copy, bucketTotal, 0.95, max),
+        percentile(copy, bucketTotal, 0.99, max),
+        max);
+  }
+
+  private static int bucketOf(long micros) {
+    // Index of the smallest power of two strictly greater than micros.
+    int bucket = 64 - Long.numberOfLeadingZeros(micros);
+    return Math.min(bucket, BUCKETS - 1);
+  }
+
+  private static long percentile(@NonNull long[] buckets, long total, double quantile, long max) {
+    if (total == 0L) {
+      return 0L;
+    }
+    final long rank = (long) Math.ceil(quantile * total);
+    long seen = 0L;
+    for (int i = 0; i < buckets.length; i++) {
+      seen += buckets[i];
+      if (seen >= rank) {
+        return Math.min((1L << i) - 1L, max);
+      }
+    }
+    return max;
+  }
+
+}
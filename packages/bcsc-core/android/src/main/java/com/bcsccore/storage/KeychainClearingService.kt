@@ -3,6 +3,9 @@ package com.bcsccore.storage
 import android.content.Context
 import android.util.Log
 import com.bcsccore.BuildConfig
+import com.bcsccore.keypair.core.utils.SharedKeyStore
+import com.bcsccore.keypair.repos.keypairinfo.FileKeyPairInfoSource
+import java.io.File
 import java.security.KeyStore
 import java.util.Collections
 
@@ -11,20 +14,18 @@ import java.util.Collections
  */
 class KeychainClearingService(
     private val context: Context,
-    // Overridable for tests — production always loads the real AndroidKeyStore.
-    private val keyStoreSupplier: () -> KeyStore = {
-        KeyStore.getInstance(ANDROID_KEY_STORE).apply { load(null) }
-    },
+    // Overridable for tests — production always uses the process-wide AndroidKeyStore handle.
+    private val keyStoreSupplier: () -> KeyStore = { SharedKeyStore.getInstance().get() },
 ) {
     companion object {
         private const val TAG = "KeychainClearingService"
-        private const val ANDROID_KEY_STORE = "AndroidKeyStore"
         private val LEGACY_PREFS_NAMES = listOf("bcsc_pin_secrets", "bcsc_keypair_info")
     }
 
     fun clearAll() {
         clearKeyStoreEntries()
         clearLegacyPrefs()
+        clearKeyPairInfoFile()
     }
 
     private fun clearKeyStoreEntries() {
@@ -61,4 +62,12 @@ class KeychainClearingService(
             }
         }
     }
+
+    // Key metadata written by FileKeyPairInfoSource instead of the bcsc_keypair_info prefs.
+    private fun clearKeyPairInfoFile() {
+        val file = File(context.noBackupFilesDir, FileKeyPairInfoSource.FILE_NAME)
+        if (file.exists() && !file.delete()) {
+            Log.w(TAG, "clearKeyPairInfoFile: failed to delete ${file.name}")
+        }
+    }
 }
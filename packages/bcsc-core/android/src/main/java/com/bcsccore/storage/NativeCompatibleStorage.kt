@@ -5,6 +5,7 @@ import android.util.Log
 import com.bcsccore.fileport.encryption.AESEncryptor
 import com.bcsccore.fileport.encryption.AndroidKeyStoreSource
 import com.bcsccore.fileport.encryption.Encryption
+import com.bcsccore.keypair.core.utils.SharedKeyStore
 import com.google.gson.Gson
 import com.google.gson.GsonBuilder
 import java.io.File
@@ -41,7 +42,7 @@ class NativeCompatibleStorage(
     }
 
     private val encryption: Encryption by lazy {
-        val keySource = AndroidKeyStoreSource()
+        val keySource = AndroidKeyStoreSource(SharedKeyStore.getInstance()::get)
         AESEncryptor(keySource)
     }
 
@@ -0,0 +1,89 @@
+package com.bcsccore.fileport
+
+import android.content.Context
+import androidx.test.core.app.ApplicationProvider
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNotSame
+import org.junit.Assert.assertNull
+import org.junit.Assert.assertSame
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import java.io.File
+
+/**
+ * Covers DirectorySnapshot and DirectoryIndex:
+ *  - prefix, suffix and wildcard queries return the matching entries in name order
+ *  - a snapshot is reused until the directory changes or the index is invalidated
+ *  - a listing taken just after a change is not reused
+ *  - readers of the same directory share one index
+ */
+@RunWith(RobolectricTestRunner::class)
+class DirectoryIndexTest {
+    private lateinit var context: Context
+    private lateinit var dir: File
+
+    @Before
+    fun setUp() {
+        context = ApplicationProvider.getApplicationContext()
+        dir = context.filesDir
+        dir.listFiles()?.forEach { it.deleteRecursively() }
+        for (name in listOf("tokens_2", "tokens_1", "accounts", "keypair.dat", "providers.dat")) {
+            File(dir, name).writeBytes(ByteArray(name.length))
+        }
+    }
+
+    private fun settle(ageMillis: Long = 60_000L) {
+        dir.setLastModified(System.currentTimeMillis() - ageMillis)
+    }
+
+    @Test
+    fun `queries return matching entries in name order`() {
+        val snapshot = DirectorySnapshot.list(dir)
+
+        assertEquals(listOf("tokens_1", "tokens_2"), snapshot.withPrefix("tokens").map { it.name })
+        assertEquals(listOf("keypair.dat", "providers.dat"), snapshot.withSuffix(".dat").map { it.name })
+        assertEquals(listOf("tokens_1"), snapshot.matching("tok*_1").map { it.name })
+        assertEquals(listOf("accounts"), snapshot.matching("accounts").map { it.name })
+        assertEquals(8L, snapshot.get("tokens_1")!!.size)
+        assertNull(snapshot.get("tokens"))
+    }
+
+    @Test
+    fun `snapshots are reused until the directory changes`() {
+        val index = DirectoryIndex.forDirectory(dir)
+        settle()
+        val first = index.snapshot()
+
+        assertSame(first, index.snapshot())
+
+        File(dir, "credentials").writeBytes(ByteArray(1))
+        val relisted = index.snapshot()
+        assertNotSame(first, relisted)
+        assertEquals(listOf("credentials"), relisted.withPrefix("cred").map { it.name })
+
+        settle(30_000L)
+        val settled = index.snapshot()
+        assertSame(settled, index.snapshot())
+        index.invalidate()
+        assertNotSame(settled, index.snapshot())
+    }
+
+    @Test
+    fun `a listing just after a change is not reused`() {
+        val index = DirectoryIndex.forDirectory(dir)
+        dir.setLastModified(System.currentTimeMillis())
+
+        assertNotSame(index.snapshot(), index.snapshot())
+    }
+
+    @Test
+    fun `readers of a directory share its index`() {
+        assertSame(EnhancedFileReader(context).directoryIndex, EnhancedFileReader(context).directoryIndex)
+        assertSame(DirectoryIndex.forDirectory(dir), EnhancedFileReader(context).directoryIndex)
+
+        val files = EnhancedFileReader(context).readBcscFiles().map { it.filename }
+        assertEquals(listOf("tokens_1", "tokens_2", "accounts", "providers.dat", "keypair.dat"), files)
+    }
+}
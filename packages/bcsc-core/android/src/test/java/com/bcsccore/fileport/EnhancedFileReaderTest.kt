@@ -0,0 +1,85 @@
+package com.bcsccore.fileport
+
+import android.content.Context
+import androidx.test.core.app.ApplicationProvider
+import org.junit.Assert.assertArrayEquals
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertNull
+import org.junit.Assert.assertTrue
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import java.io.File
+
+/**
+ * Covers EnhancedFileReader's pattern queries:
+ *  - matches carry name, size and modification time without reading contents
+ *  - contents are read on first access and kept, held or softly
+ *  - once read, the size is the contents', even after an in-place write
+ *  - directories match with size 0 and no data, as before
+ */
+@RunWith(RobolectricTestRunner::class)
+class EnhancedFileReaderTest {
+    private lateinit var context: Context
+
+    @Before
+    fun setUp() {
+        context = ApplicationProvider.getApplicationContext()
+        context.filesDir.listFiles()?.forEach { it.deleteRecursively() }
+        File(context.filesDir, "tokens_1").writeBytes(byteArrayOf(1, 2, 3))
+        File(context.filesDir, "tokens_2").writeBytes(ByteArray(4096))
+        File(context.filesDir, "accounts").writeBytes(byteArrayOf(9))
+    }
+
+    @Test
+    fun `pattern queries list without reading`() {
+        val reader = EnhancedFileReader(context)
+
+        val matches = reader.readFilesWithPrefix("tokens").associateBy { it.filename }
+
+        assertEquals(setOf("tokens_1", "tokens_2"), matches.keys)
+        val first = matches["tokens_1"] as LazyFileData
+        assertEquals(3L, first.fileSize)
+        assertEquals(File(context.filesDir, "tokens_1").lastModified(), first.lastModified)
+        assertFalse(first.isLoaded)
+        assertEquals(listOf("tokens_2"), reader.readFilesWithSuffix("_2").map { it.filename })
+        assertEquals(listOf("accounts"), reader.readFilesMatching("acc*").map { it.filename })
+    }
+
+    @Test
+    fun `contents are read on first access and kept`() {
+        for (releasable in listOf(false, true)) {
+            val reader = EnhancedFileReader(context, ChannelFileReadStrategy(), releasable)
+            val match = reader.readFilesWithPrefix("tokens_1").single() as LazyFileData
+
+            val data = match.data
+
+            assertArrayEquals(byteArrayOf(1, 2, 3), data)
+            assertTrue(match.isLoaded)
+            assertTrue("a second access reuses the bytes", data === match.data)
+        }
+    }
+
+    @Test
+    fun `loaded contents report their own size`() {
+        val match = EnhancedFileReader(context).readFilesWithPrefix("tokens_1").single()
+        File(context.filesDir, "tokens_1").writeBytes(byteArrayOf(1, 2, 3, 4, 5))
+
+        assertEquals("the listed size until the contents are read", 3L, match.fileSize)
+        assertEquals(5, match.data!!.size)
+        assertEquals(5L, match.fileSize)
+    }
+
+    @Test
+    fun `directories match with no data`() {
+        File(context.filesDir, "tokens_dir").mkdir()
+
+        val match = EnhancedFileReader(context).readFilesWithPrefix("tokens_dir").single()
+
+        assertEquals(0L, match.fileSize)
+        assertFalse(match.hasData())
+        assertNull(match.data)
+    }
+}
@@ -0,0 +1,56 @@
+package com.bcsccore.fileport
+
+import android.content.Context
+import androidx.test.core.app.ApplicationProvider
+import org.junit.Assert.assertArrayEquals
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNull
+import org.junit.Assert.assertTrue
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import java.io.File
+import java.nio.ByteBuffer
+import kotlin.random.Random
+
+/**
+ * Covers SimpleFileReader's read strategy:
+ *  - readFile returns the whole file whether it is read onto the heap or mapped
+ *  - files at or above the threshold come back as read-only mapped buffers
+ *  - missing files read as null
+ */
+@RunWith(RobolectricTestRunner::class)
+class SimpleFileReaderTest {
+    private lateinit var context: Context
+    private val contents = Random(42).nextBytes(300_000)
+
+    @Before
+    fun setUp() {
+        context = ApplicationProvider.getApplicationContext()
+        File(context.filesDir, "evidence").writeBytes(contents)
+    }
+
+    @Test
+    fun `readFile returns the whole file from either strategy`() {
+        assertArrayEquals(contents, SimpleFileReader(context, ChannelFileReadStrategy(Long.MAX_VALUE)).readFile("evidence"))
+        assertArrayEquals(contents, SimpleFileReader(context, ChannelFileReadStrategy(0L)).readFile("evidence"))
+    }
+
+    @Test
+    fun `large files are mapped read-only`() {
+        val buffer = SimpleFileReader(context, ChannelFileReadStrategy(1024L)).readFileBuffer("evidence")!!
+
+        assertTrue(buffer.isReadOnly)
+        assertEquals(contents.size, buffer.remaining())
+        assertEquals(ByteBuffer.wrap(contents), buffer)
+    }
+
+    @Test
+    fun `missing files read as null`() {
+        val reader = SimpleFileReader(context)
+
+        assertNull(reader.readFile("missing"))
+        assertNull(reader.readFileBuffer("missing"))
+    }
+}
@@ -0,0 +1,59 @@
+package com.bcsccore.keypair.core.models
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNull
+import org.junit.Assert.assertSame
+import org.junit.Test
+
+/**
+ * Covers CreatedAtIndex, the creation-ordered view of key pair metadata:
+ *  - entries are ordered oldest first, ties broken by alias
+ *  - an index updated from a change matches one built from scratch
+ *  - counting entries created before a cutoff
+ */
+class CreatedAtIndexTest {
+    private fun aliases(index: CreatedAtIndex) = (0 until index.size()).map { index.get(it).alias }
+
+    @Test
+    fun `entries are ordered oldest first with ties broken by alias`() {
+        val index =
+            CreatedAtIndex.of(
+                listOf(KeyPairInfo("rsa3", 3_000L), KeyPairInfo("rsa2", 1_000L), KeyPairInfo("rsa1", 1_000L)),
+            )
+
+        assertEquals(listOf("rsa1", "rsa2", "rsa3"), aliases(index))
+        assertEquals("rsa1", index.oldest()!!.alias)
+        assertEquals("rsa3", index.newest()!!.alias)
+        assertNull(CreatedAtIndex.EMPTY.newest())
+    }
+
+    @Test
+    fun `an updated index matches one built from scratch`() {
+        val before =
+            hashMapOf(
+                "rsa1" to KeyPairInfo("rsa1", 1_000L),
+                "rsa2" to KeyPairInfo("rsa2", 2_000L),
+                "rsa3" to KeyPairInfo("rsa3", 3_000L),
+            )
+        val index = CreatedAtIndex.of(before.values)
+        val after = HashMap(before)
+        after.remove("rsa1")
+        after["rsa2"] = before["rsa2"]!!.withCreatedAt(4_000L)
+        after["rsa4"] = KeyPairInfo("rsa4", 2_500L)
+
+        val updated = index.updated(before, after)
+
+        assertEquals(aliases(CreatedAtIndex.of(after.values)), aliases(updated))
+        assertEquals(listOf("rsa4", "rsa3", "rsa2"), aliases(updated))
+        assertSame("an unchanged map keeps the index", index, index.updated(before, HashMap(before)))
+    }
+
+    @Test
+    fun `counts entries created before a cutoff`() {
+        val index = CreatedAtIndex.of((1..5).map { KeyPairInfo("rsa$it", it * 1_000L) })
+
+        assertEquals(0, index.countCreatedBefore(1_000L))
+        assertEquals(2, index.countCreatedBefore(2_500L))
+        assertEquals(5, index.countCreatedBefore(9_000L))
+    }
+}
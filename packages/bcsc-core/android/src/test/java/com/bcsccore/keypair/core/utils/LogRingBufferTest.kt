@@ -0,0 +1,74 @@
+package com.bcsccore.keypair.core.utils
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+
+/**
+ * Covers LogRingBuffer, the bounded in-memory log sink:
+ *  - events are returned oldest first
+ *  - only the most recent `capacity` events are retained
+ *  - concurrent writers never produce more than `capacity` events or lose ordering
+ */
+class LogRingBufferTest {
+    @Test
+    fun `snapshot returns events oldest first`() {
+        val buffer = LogRingBuffer(4)
+
+        buffer.log(SimpleLog.Level.INFO, "Test", "one", null)
+        buffer.log(SimpleLog.Level.WARN, "Test", "two", IllegalStateException("boom"))
+
+        val events = buffer.snapshot()
+        assertEquals(listOf("one", "two"), events.map { it.message })
+        assertEquals("java.lang.IllegalStateException: boom", events[1].throwable)
+    }
+
+    @Test
+    fun `only the most recent events are retained`() {
+        val buffer = LogRingBuffer(3)
+
+        (1..10).forEach { buffer.log(SimpleLog.Level.DEBUG, "Test", "event $it", null) }
+
+        assertEquals(listOf("event 8", "event 9", "event 10"), buffer.snapshot().map { it.message })
+    }
+
+    @Test
+    fun `clear drops retained events`() {
+        val buffer = LogRingBuffer(3)
+        buffer.log(SimpleLog.Level.DEBUG, "Test", "event", null)
+
+        buffer.clear()
+
+        assertTrue(buffer.snapshot().isEmpty())
+    }
+
+    @Test
+    fun `concurrent writers keep the buffer bounded and ordered per writer`() {
+        val buffer = LogRingBuffer(64)
+        val writers = 8
+        val perWriter = 1_000
+        val pool = Executors.newFixedThreadPool(writers)
+        val done = CountDownLatch(writers)
+        try {
+            repeat(writers) { writer ->
+                pool.execute {
+                    repeat(perWriter) { buffer.log(SimpleLog.Level.DEBUG, "w$writer", "$it", null) }
+                    done.countDown()
+                }
+            }
+            assertTrue(done.await(10, TimeUnit.SECONDS))
+        } finally {
+            pool.shutdownNow()
+        }
+
+        val events = buffer.snapshot()
+        assertEquals(64, events.size)
+        events.groupBy { it.tag }.values.forEach { perTag ->
+            val indices = perTag.map { it.message.toInt() }
+            assertEquals("each writer's events must stay in order", indices.sorted(), indices)
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.bcsccore.keypair.core.utils
+
+import io.mockk.mockk
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNotSame
+import org.junit.Assert.assertSame
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import java.security.KeyStore
+
+/**
+ * Covers SharedKeyStore, the process-wide AndroidKeyStore handle:
+ *  - the store is loaded once and reused across calls
+ *  - invalidate() forces the next access to reload
+ *  - a failed load is not cached
+ */
+@RunWith(RobolectricTestRunner::class)
+class SharedKeyStoreTest {
+    private class CountingLoader : SharedKeyStore.Loader {
+        var loads = 0
+
+        override fun load(): KeyStore {
+            loads++
+            return mockk(relaxed = true)
+        }
+    }
+
+    @Test
+    fun `get loads the keystore once and reuses it`() {
+        val loader = CountingLoader()
+        val shared = SharedKeyStore(loader)
+
+        val first = shared.get()
+        val second = shared.get()
+
+        assertSame("the same loaded instance must be handed out", first, second)
+        assertEquals("the loader must run exactly once", 1, loader.loads)
+    }
+
+    @Test
+    fun `invalidate forces a reload on next access`() {
+        val loader = CountingLoader()
+        val shared = SharedKeyStore(loader)
+
+        val first = shared.get()
+        shared.invalidate()
+        val second = shared.get()
+
+        assertNotSame("a fresh instance must be loaded after invalidate", first, second)
+        assertEquals("the loader must run once per invalidation", 2, loader.loads)
+    }
+
+    @Test
+    fun `a failed load is retried on next access`() {
+        var attempts = 0
+        val shared =
+            SharedKeyStore {
+                attempts++
+                if (attempts == 1) throw IllegalStateException("keystore busy")
+                mockk(relaxed = true)
+            }
+
+        try {
+            shared.get()
+        } catch (_: IllegalStateException) {
+            // expected on first attempt
+        }
+        shared.get()
+
+        assertEquals("the loader must be retried after a failure", 2, attempts)
+    }
+}
@@ -0,0 +1,80 @@
+package com.bcsccore.keypair.core.utils
+
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+
+/**
+ * Covers SimpleLog's runtime level and sinks:
+ *  - message suppliers are never invoked below the runtime level
+ *  - sinks receive every message that passes the level, including throwables
+ *  - a failing sink does not break the caller
+ */
+@RunWith(RobolectricTestRunner::class)
+class SimpleLogTest {
+    private val received = mutableListOf<String>()
+    private val sink = SimpleLog.Sink { level, tag, message, throwable ->
+        received.add("$level/$tag: $message" + (throwable?.let { " (${it.message})" } ?: ""))
+    }
+
+    @After
+    fun tearDown() {
+        SimpleLog.removeSink(sink)
+        SimpleLog.setLevel(SimpleLog.Level.DEBUG)
+    }
+
+    @Test
+    fun `suppliers below the runtime level are never invoked`() {
+        SimpleLog.setLevel(SimpleLog.Level.INFO)
+        var built = 0
+
+        SimpleLog.d("Test") {
+            built++
+            "expensive"
+        }
+
+        assertEquals("a disabled level must not build its message", 0, built)
+        assertFalse(SimpleLog.isLoggable(SimpleLog.Level.DEBUG))
+        assertTrue(SimpleLog.isLoggable(SimpleLog.Level.WARN))
+    }
+
+    @Test
+    fun `sinks receive messages that pass the level`() {
+        SimpleLog.addSink(sink)
+        SimpleLog.setLevel(SimpleLog.Level.WARN)
+
+        SimpleLog.d("Test", "dropped")
+        SimpleLog.w("Test") { "kept" }
+        SimpleLog.e("Test", "failed", IllegalStateException("boom"))
+
+        assertEquals(listOf("WARN/Test: kept", "ERROR/Test: failed (boom)"), received)
+    }
+
+    @Test
+    fun `level NONE disables every message`() {
+        SimpleLog.addSink(sink)
+        SimpleLog.setLevel(SimpleLog.Level.NONE)
+
+        SimpleLog.e("Test", "dropped")
+
+        assertTrue(received.isEmpty())
+    }
+
+    @Test
+    fun `a failing sink does not break logging`() {
+        val broken = SimpleLog.Sink { _, _, _, _ -> throw IllegalStateException("sink down") }
+        SimpleLog.addSink(broken)
+        SimpleLog.addSink(sink)
+        try {
+            SimpleLog.i("Test", "still delivered")
+        } finally {
+            SimpleLog.removeSink(broken)
+        }
+
+        assertEquals(listOf("INFO/Test: still delivered"), received)
+    }
+}
@@ -0,0 +1,130 @@
+package com.bcsccore.keypair.repos.key
+
+import com.bcsccore.keypair.core.interfaces.KeyPairInfoSource
+import com.bcsccore.keypair.core.models.AliasIndex
+import com.bcsccore.keypair.core.models.KeyPairInfo
+import com.bcsccore.keypair.core.models.KeyRetentionPolicy
+import com.bcsccore.keypair.core.utils.SharedKeyStore
+import io.mockk.verify
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNotNull
+import org.junit.Assert.assertNull
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import java.security.KeyStore
+
+/**
+ * Verifies the persisted alias index used instead of keystore enumeration:
+ *  - the first lookup audits the keystore and persists only the port's aliases
+ *  - later lookups are served from the index without enumerating
+ *  - an index older than the audit interval is re-verified
+ *  - deletions update the index, and an alias found missing forces a re-audit
+ *  - destructive paths re-read the keystore instead of trusting the index
+ */
+@RunWith(RobolectricTestRunner::class)
+class BcscKeyPairRepoAliasIndexTest {
+    private fun indexedSource(
+        initial: Map<String, KeyPairInfo> = emptyMap(),
+        aliasIndex: AliasIndex? = null,
+    ) = TestKeyPairInfoSource(initial, aliasIndex = aliasIndex, indexesAliases = true)
+
+    private fun repo(
+        infoSource: KeyPairInfoSource,
+        keyStore: KeyStore,
+    ) = BcscKeyPairRepo(infoSource, SharedKeyStore { keyStore })
+
+    @Test
+    fun `first lookup audits the keystore and later lookups use the index`() {
+        val infoSource = indexedSource()
+        val keyStore = keyStoreHolding("rsa1", "rsa2", "enc1", "someOtherLibraryKey")
+        val repo = repo(infoSource, keyStore)
+
+        val first = repo.getAllBcscKeyPairInfos().map { it.alias }
+        val second = repo.getAllBcscKeyPairInfos().map { it.alias }
+
+        assertEquals(listOf("rsa1", "rsa2"), first)
+        assertEquals(first, second)
+        assertEquals(
+            "only the port's aliases are indexed",
+            setOf("rsa1", "rsa2"),
+            infoSource.aliasIndex!!.aliases,
+        )
+        verify(exactly = 1) { keyStore.aliases() }
+    }
+
+    @Test
+    fun `an index past the audit interval is re-verified`() {
+        val twoDaysAgo = System.currentTimeMillis() - 2L * 24 * 60 * 60 * 1000
+        val infoSource = indexedSource(aliasIndex = AliasIndex(listOf("rsa1"), twoDaysAgo))
+        val keyStore = keyStoreHolding("rsa1", "rsa3")
+
+        val aliases = repo(infoSource, keyStore).getAllBcscKeyPairInfos().map { it.alias }
+
+        assertEquals(listOf("rsa1", "rsa3"), aliases)
+        verify(exactly = 1) { keyStore.aliases() }
+    }
+
+    @Test
+    fun `deleting a key removes it from the index`() {
+        val infoSource =
+            indexedSource(
+                mapOf("rsa1" to KeyPairInfo("rsa1", 1L), "rsa2" to KeyPairInfo("rsa2", 2L)),
+                aliasIndex = AliasIndex(listOf("rsa1", "rsa2"), System.currentTimeMillis()),
+            )
+        val keyStore = keyStoreHolding("rsa1", "rsa2")
+
+        repo(infoSource, keyStore).deleteBcscKeyPair("rsa1")
+
+        assertEquals(setOf("rsa2"), infoSource.aliasIndex!!.aliases)
+        verify(exactly = 0) { keyStore.aliases() }
+    }
+
+    @Test
+    fun `a listed alias missing from the keystore forces a re-audit`() {
+        val infoSource =
+            indexedSource(
+                aliasIndex = AliasIndex(listOf("rsa1", "rsa2"), System.currentTimeMillis()),
+            )
+        // rsa2 was removed behind the repo's back.
+        val keyStore = keyStoreHolding("rsa1")
+        val repo = repo(infoSource, keyStore)
+
+        assertNull(repo.getBcscKeyPair("rsa2"))
+        assertNull("the stale index must be dropped", infoSource.aliasIndex)
+
+        assertEquals(listOf("rsa1"), repo.getAllBcscKeyPairInfos().map { it.alias })
+        assertNotNull("the re-audit must persist a fresh index", infoSource.aliasIndex)
+    }
+
+    @Test
+    fun `an audited enumeration sees keystore changes the fresh index misses`() {
+        val infoSource =
+            indexedSource(
+                aliasIndex = AliasIndex(listOf("rsa1", "rsa2"), System.currentTimeMillis()),
+            )
+        // rsa2 was removed behind the repo's back.
+        val repo = repo(infoSource, keyStoreHolding("rsa1"))
+
+        assertEquals(listOf("rsa1", "rsa2"), repo.getAllBcscKeyPairInfos().map { it.alias })
+        assertEquals(listOf("rsa1"), repo.auditBcscKeyPairInfos().map { it.alias })
+        assertEquals(setOf("rsa1"), infoSource.aliasIndex!!.aliases)
+    }
+
+    @Test
+    fun `cleanup keeps the newest key the keystore still holds`() {
+        val infoSource =
+            indexedSource(
+                (1..3).associate { "rsa$it" to KeyPairInfo("rsa$it", it.toLong()) },
+                aliasIndex = AliasIndex(listOf("rsa1", "rsa2", "rsa3"), System.currentTimeMillis()),
+            )
+        // rsa3, the newest in metadata, was removed behind the repo's back.
+        val keyStore = keyStoreHolding("rsa1", "rsa2")
+
+        val report = repo(infoSource, keyStore).cleanUpBcscKeyPairs(KeyRetentionPolicy(1, 0L, emptyList()))
+
+        assertEquals(listOf("rsa1"), report.deleted)
+        assertEquals(listOf("rsa2", "rsa3"), report.retained)
+        verify(exactly = 0) { keyStore.deleteEntry("rsa2") }
+    }
+}
@@ -0,0 +1,132 @@
+package com.bcsccore.keypair.repos.key
+
+import com.bcsccore.keypair.core.exceptions.BcscException
+import com.bcsccore.keypair.core.models.KeyPairInfo
+import com.bcsccore.keypair.core.models.KeyRetentionPolicy
+import com.bcsccore.keypair.core.utils.SharedKeyStore
+import io.mockk.every
+import io.mockk.mockk
+import io.mockk.verify
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Assert.fail
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import java.security.KeyStore
+import java.security.KeyStoreException
+
+/**
+ * Verifies retention cleanup:
+ *  - keep-N, max-age and server-confirmed kids combine into one delete set
+ *  - the newest key pair is never deleted
+ *  - key pairs that signed recently are kept
+ *  - the whole delete set runs against one metadata write and one keystore load
+ *  - keystore failures are reported instead of aborting the batch
+ */
+@RunWith(RobolectricTestRunner::class)
+class BcscKeyPairRepoRetentionTest {
+    companion object {
+        private const val DAY_MS = 24L * 60L * 60L * 1000L
+    }
+
+    private val now = System.currentTimeMillis()
+
+    // rsa1 oldest .. rsa5 newest, one day apart
+    private fun fiveKeys(): Map<String, KeyPairInfo> =
+        (1..5).associate { "rsa$it" to KeyPairInfo("rsa$it", now - (5 - it) * DAY_MS) }
+
+    @Test
+    fun `keep-N deletes everything beyond the newest N, oldest first`() {
+        val doomed = KeyRetentionPolicy(2, 0L, emptyList()).selectForDeletion(fiveKeys().values, now)
+
+        assertEquals(listOf("rsa1", "rsa2", "rsa3"), doomed)
+    }
+
+    @Test
+    fun `max-age deletes expired keys inside the keep-N window`() {
+        val doomed = KeyRetentionPolicy(5, 2 * DAY_MS + 1, emptyList()).selectForDeletion(fiveKeys().values, now)
+
+        assertEquals(listOf("rsa1", "rsa2"), doomed)
+    }
+
+    @Test
+    fun `server-confirmed kids and the newest key are always kept`() {
+        val infos = fiveKeys().values + KeyPairInfo("rsa6", now - 30 * DAY_MS)
+        // rsa6 has the oldest createdAt but is the confirmed kid; rsa5 is newest.
+        val doomed = KeyRetentionPolicy(1, DAY_MS / 2, listOf("rsa6", "rsa2")).selectForDeletion(infos, now)
+
+        assertEquals(listOf("rsa1", "rsa3", "rsa4"), doomed)
+        assertTrue(
+            "an expired newest key is still the signing key",
+            KeyRetentionPolicy(1, 1L, emptyList())
+                .selectForDeletion(listOf(KeyPairInfo("rsa1", now - DAY_MS)), now)
+                .isEmpty(),
+        )
+    }
+
+    @Test
+    fun `key pairs that signed within the usage window are kept`() {
+        val infos =
+            fiveKeys().values.map {
+                when (it.alias) {
+                    "rsa3" -> it.withAddedUsage(now - DAY_MS / 2, 10L)
+                    "rsa2" -> it.withAddedUsage(now - 3 * DAY_MS, 10L)
+                    else -> it
+                }
+            }
+
+        val doomed = KeyRetentionPolicy(1, 0L, emptyList(), DAY_MS).selectForDeletion(infos, now)
+
+        assertEquals(listOf("rsa1", "rsa2", "rsa4"), doomed)
+    }
+
+    @Test
+    fun `cleanup deletes the whole set in one batch and reports it`() {
+        val infoSource = TestKeyPairInfoSource(fiveKeys())
+        val keyStore = mockk<KeyStore>(relaxed = true)
+        var loads = 0
+        val repo = BcscKeyPairRepo(infoSource, SharedKeyStore { loads++; keyStore })
+
+        val report = repo.cleanUpBcscKeyPairs(KeyRetentionPolicy(2, 0L, emptyList()))
+
+        assertEquals(listOf("rsa1", "rsa2", "rsa3"), report.deleted)
+        assertTrue(report.failed.isEmpty())
+        assertEquals(listOf("rsa4", "rsa5"), report.retained)
+        assertEquals(setOf("rsa4", "rsa5"), infoSource.store.keys)
+        assertEquals("metadata must be written once", 1, infoSource.batchDeletes)
+        assertEquals("the keystore must be loaded once", 1, loads)
+        verify(exactly = 3) { keyStore.deleteEntry(any()) }
+    }
+
+    @Test
+    fun `a failed keystore delete is reported without aborting the batch`() {
+        val infoSource = TestKeyPairInfoSource(fiveKeys())
+        val keyStore = mockk<KeyStore>(relaxed = true)
+        every { keyStore.deleteEntry("rsa2") } throws KeyStoreException("entry locked")
+        val repo = BcscKeyPairRepo(infoSource, SharedKeyStore { keyStore })
+
+        val report = repo.cleanUpBcscKeyPairs(KeyRetentionPolicy(2, 0L, emptyList()))
+
+        assertEquals(listOf("rsa1", "rsa3"), report.deleted)
+        assertEquals(listOf("rsa2"), report.failed)
+        verify(exactly = 1) { keyStore.deleteEntry("rsa3") }
+    }
+
+    @Test
+    @Suppress("DEPRECATION")
+    fun `legacy cleanup applies the default policy and throws on failure`() {
+        val infoSource = TestKeyPairInfoSource(fiveKeys())
+        val keyStore = mockk<KeyStore>(relaxed = true)
+        every { keyStore.deleteEntry("rsa1") } throws KeyStoreException("entry locked")
+        val repo = BcscKeyPairRepo(infoSource, SharedKeyStore { keyStore })
+
+        try {
+            repo.cleanUpBcscKeyPairs()
+            fail("a failed keystore delete must surface as ERR_108")
+        } catch (_: BcscException) {
+            // expected
+        }
+        assertEquals("the rest of the batch still ran", setOf("rsa4", "rsa5"), infoSource.store.keys)
+    }
+}
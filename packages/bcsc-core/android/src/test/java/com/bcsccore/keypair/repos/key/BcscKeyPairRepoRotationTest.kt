@@ -0,0 +1,121 @@
+package com.bcsccore.keypair.repos.key
+
+import com.bcsccore.keypair.core.exceptions.KeypairGenerationException
+import com.bcsccore.keypair.core.interfaces.KeyStoreMetrics.Operation
+import com.bcsccore.keypair.core.interfaces.KeyPairInfoSource
+import com.bcsccore.keypair.core.models.KeyPairInfo
+import com.bcsccore.keypair.core.utils.SharedKeyStore
+import com.bcsccore.keypair.repos.metrics.HistogramKeyStoreMetrics
+import io.mockk.verify
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertNull
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import java.security.KeyStore
+
+/**
+ * Verifies rotation against a pre-generated (staged) spare key:
+ *  - a ready spare under the next alias is promoted without generating
+ *  - an orphaned spare under any other alias is deleted and its marker cleared
+ *  - the staged alias is hidden from keystore enumeration until promoted
+ *  - bootstrapping lost metadata from the keystore never backfills the spare
+ *  - rotation reports its keystore operations to the injected metrics
+ */
+@RunWith(RobolectricTestRunner::class)
+class BcscKeyPairRepoRotationTest {
+    private fun repo(
+        infoSource: KeyPairInfoSource,
+        keyStore: KeyStore,
+    ) = BcscKeyPairRepo(infoSource, SharedKeyStore { keyStore })
+
+    @Test
+    fun `rotation promotes a ready staged spare`() {
+        val infoSource =
+            TestKeyPairInfoSource(
+                mapOf("rsa1" to KeyPairInfo("rsa1", System.currentTimeMillis() - 1000L)),
+                stagedAlias = "rsa2",
+            )
+        val keyStore = keyStoreHolding("rsa1", "rsa2")
+
+        val rotated = repo(infoSource, keyStore).getNewBcscKeyPair()
+
+        assertEquals("the staged spare must become the new key", "rsa2", rotated.keyInfo.alias)
+        assertTrue("the promoted alias must be tracked in metadata", infoSource.store.containsKey("rsa2"))
+        assertNull("the staged marker must be cleared after promotion", infoSource.stagedAlias)
+        verify(exactly = 0) { keyStore.deleteEntry(any()) }
+    }
+
+    @Test
+    fun `rotation discards an orphaned staged spare and falls back to generation`() {
+        val infoSource =
+            TestKeyPairInfoSource(
+                mapOf("rsa1" to KeyPairInfo("rsa1", System.currentTimeMillis() - 1000L)),
+                stagedAlias = "rsa5",
+            )
+        val keyStore = keyStoreHolding("rsa1", "rsa5")
+
+        try {
+            repo(infoSource, keyStore).getNewBcscKeyPair()
+        } catch (_: KeypairGenerationException) {
+            // AndroidKeyStore generation is unavailable under Robolectric; only the
+            // cleanup that precedes the synchronous fallback is under test here.
+        }
+
+        verify(exactly = 1) { keyStore.deleteEntry("rsa5") }
+        assertNull("the orphaned marker must be cleared", infoSource.stagedAlias)
+    }
+
+    @Test
+    fun `staged spare is hidden from keystore enumeration`() {
+        val infoSource =
+            TestKeyPairInfoSource(
+                mapOf("rsa1" to KeyPairInfo("rsa1", System.currentTimeMillis())),
+                stagedAlias = "rsa2",
+            )
+        val keyStore = keyStoreHolding("rsa1", "rsa2")
+
+        val aliases = repo(infoSource, keyStore).getAllBcscKeyPairInfos().map { it.alias }
+
+        assertEquals(listOf("rsa1"), aliases)
+        assertFalse(aliases.contains("rsa2"))
+    }
+
+    @Test
+    fun `bootstrap from the keystore skips the staged spare`() {
+        val infoSource = TestKeyPairInfoSource(stagedAlias = "rsa3")
+        val keyStore = keyStoreHolding("rsa1", "rsa2", "rsa3")
+
+        val current = repo(infoSource, keyStore).getCurrentBcscKeyPair()
+
+        assertEquals("the newest promoted key must sign, not the spare", "rsa2", current.keyInfo.alias)
+        assertEquals(setOf("rsa1", "rsa2"), infoSource.store.keys)
+        assertEquals("rsa3", infoSource.stagedAlias)
+    }
+
+    @Test
+    fun `rotation reports keystore operations to metrics`() {
+        val infoSource =
+            TestKeyPairInfoSource(
+                mapOf("rsa1" to KeyPairInfo("rsa1", System.currentTimeMillis() - 1000L)),
+                stagedAlias = "rsa2",
+            )
+        val metrics = HistogramKeyStoreMetrics()
+        val repo =
+            BcscKeyPairRepo
+                .Builder(infoSource)
+                .setSharedKeyStore(SharedKeyStore { keyStoreHolding("rsa1", "rsa2") })
+                .setMetrics(metrics)
+                .build()
+
+        repo.getNewBcscKeyPair()
+
+        val snapshot = metrics.snapshot()
+        assertTrue(snapshot[Operation.KEYSTORE_LOAD]!!.count >= 1L)
+        assertEquals(1L, snapshot[Operation.RECONCILE]!!.count)
+        assertEquals(1L, snapshot[Operation.ENTRY_FETCH]!!.count)
+        assertEquals("promotion must not generate", 0L, snapshot[Operation.KEY_GENERATION]!!.count)
+    }
+}
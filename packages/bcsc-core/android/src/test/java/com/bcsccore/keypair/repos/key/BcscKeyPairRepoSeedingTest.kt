@@ -2,67 +2,59 @@ package com.bcsccore.keypair.repos.key
 
 import com.bcsccore.keypair.core.exceptions.BcscException
 import com.bcsccore.keypair.core.interfaces.KeyPairInfoSource
+import com.bcsccore.keypair.core.interfaces.KeyStoreMetrics
 import com.bcsccore.keypair.core.models.BcscKeyPair
 import com.bcsccore.keypair.core.models.KeyPairInfo
+import com.bcsccore.keypair.core.models.KeyRetentionPolicy
+import com.bcsccore.keypair.repos.metrics.HistogramKeyStoreMetrics
+import com.nimbusds.jose.JWSAlgorithm
+import com.nimbusds.jose.crypto.ECDSAVerifier
+import com.nimbusds.jose.jwk.ECKey
 import com.nimbusds.jose.crypto.RSASSAVerifier
 import com.nimbusds.jwt.JWTClaimsSet
 import com.nimbusds.jwt.SignedJWT
+import com.nimbusds.jose.jwk.RSAKey
 import io.mockk.every
-import io.mockk.mockk
 import io.mockk.spyk
+import io.mockk.verify
 import org.junit.Assert.assertEquals
 import org.junit.Assert.assertFalse
 import org.junit.Assert.assertNotNull
+import org.junit.Assert.assertNotEquals
 import org.junit.Assert.assertNull
+import org.junit.Assert.assertSame
 import org.junit.Assert.assertTrue
 import org.junit.Test
 import org.junit.runner.RunWith
 import org.robolectric.RobolectricTestRunner
 import java.security.KeyPairGenerator
 import java.security.KeyStore
+import java.security.interfaces.ECPublicKey
 import java.security.interfaces.RSAPublicKey
-import java.util.Collections
-import java.util.HashMap
+import java.security.spec.ECGenParameterSpec
 
 /**
  * Verifies the v3→v4 migration seeding logic in BcscKeyPairRepo:
  *  - reconcileKeyPairInfoWithKeyStore assigns createdAt values so the highest
  *    rsa\d+ alias is treated as newest.
- *  - getOldestKeyPairInfo picks the entry with the lowest createdAt, so the
- *    lowest-numbered alias is pruned first after rotation.
+ *  - the default retention policy prunes the entry with the lowest createdAt,
+ *    so the lowest-numbered alias is pruned first after rotation.
  *  - Aliases that don't match rsa\d+ are silently ignored.
  *
  * Also verifies signClaimsSet / signAndSerializeClaimsSet kid behaviour:
  *  - The kid field in the JWS header equals the alias of the active key.
  *  - The kid field corresponds to the key that actually produced the signature,
  *    so server-side key selection cannot silently regress.
+ *  - The active signing key is resolved once and reused until the active key changes.
+ *  - signAndSerializeAll signs a batch against one key resolution and records its cost.
+ *  - The EC P-256 profile signs with ES256, emits EC JWKs and matches ec\d+ aliases.
+ *  - JWKs and thumbprints are memoized per alias and follow the key held by the alias.
  */
 @RunWith(RobolectricTestRunner::class)
 class BcscKeyPairRepoSeedingTest {
     companion object {
-        // One 2048-bit key pair shared across all signing tests — key size does
-        // not affect kid logic and avoids per-test generation overhead.
-        private val TEST_KEY_PAIR: java.security.KeyPair by lazy {
-            KeyPairGenerator.getInstance("RSA").also { it.initialize(2048) }.generateKeyPair()
-        }
-    }
-
-    // Lightweight in-memory stand-in for SharedPreferences-backed KeyPairInfoSource.
-    private class InMemoryKeyPairInfoSource(
-        initial: Map<String, KeyPairInfo> = emptyMap(),
-    ) : KeyPairInfoSource {
-        val store = HashMap<String, KeyPairInfo>(initial)
-
-        override fun getKeyPairInfo(kid: String): KeyPairInfo? = store[kid]
-
-        override fun getKeyPairInfo(): HashMap<String, KeyPairInfo> = HashMap(store)
-
-        override fun saveKeyPairInfo(info: KeyPairInfo) {
-            store[info.alias] = info
-        }
-
-        override fun deleteKeyPairInfo(alias: String) {
-            store.remove(alias)
+        private val TEST_EC_KEY_PAIR: java.security.KeyPair by lazy {
+            KeyPairGenerator.getInstance("EC").also { it.initialize(ECGenParameterSpec("secp256r1")) }.generateKeyPair()
         }
     }
 
@@ -79,31 +71,16 @@ class BcscKeyPairRepoSeedingTest {
             .invoke(repo, keyStore)
     }
 
-    private fun getOldest(
-        repo: BcscKeyPairRepo,
-        map: HashMap<String, KeyPairInfo>,
-    ): KeyPairInfo? =
-        BcscKeyPairRepo::class.java
-            .getDeclaredMethod("getOldestKeyPairInfo", HashMap::class.java)
-            .also { it.isAccessible = true }
-            .invoke(repo, map) as? KeyPairInfo
-
-    private fun keystoreWith(aliases: List<String>): KeyStore {
-        val ks = mockk<KeyStore>(relaxed = true)
-        every { ks.aliases() } returns Collections.enumeration(aliases)
-        return ks
-    }
-
     // -----------------------------------------------------------------------
     // (1) Highest rsa\d+ alias is seeded with the newest createdAt
     // -----------------------------------------------------------------------
 
     @Test
     fun `highest rsa alias is assigned the newest createdAt during reconciliation`() {
-        val infoSource = InMemoryKeyPairInfoSource()
+        val infoSource = TestKeyPairInfoSource()
         val repo = BcscKeyPairRepo(infoSource)
 
-        reconcile(repo, keystoreWith(listOf("rsa1", "rsa3", "rsa5")))
+        reconcile(repo, keyStoreHolding("rsa1", "rsa3", "rsa5"))
 
         val saved = infoSource.store
         assertEquals("all three aliases must be backfilled", 3, saved.size)
@@ -114,42 +91,40 @@ class BcscKeyPairRepoSeedingTest {
 
         assertTrue("rsa5 (highest id) must have a higher createdAt than rsa3", ts5 > ts3)
         assertTrue("rsa3 must have a higher createdAt than rsa1 (lowest id)", ts3 > ts1)
+        assertEquals("every alias is backfilled in one write", 1, infoSource.writes)
     }
 
     // -----------------------------------------------------------------------
-    // (2) createdAt ordering → getOldestKeyPairInfo prunes lowest alias first
+    // (2) createdAt ordering → the default policy prunes lowest alias first
     // -----------------------------------------------------------------------
 
     @Test
-    fun `getOldestKeyPairInfo returns the entry with the lowest createdAt`() {
-        val repo = BcscKeyPairRepo(InMemoryKeyPairInfoSource())
+    fun `default retention prunes the entry with the lowest createdAt`() {
         val now = System.currentTimeMillis()
-        val map =
-            hashMapOf(
-                "rsa1" to KeyPairInfo("rsa1", now - 2000L),
-                "rsa2" to KeyPairInfo("rsa2", now - 1000L),
-                "rsa3" to KeyPairInfo("rsa3", now),
+        val infos =
+            listOf(
+                KeyPairInfo("rsa1", now - 2000L),
+                KeyPairInfo("rsa2", now - 1000L),
+                KeyPairInfo("rsa3", now),
             )
 
-        val oldest = getOldest(repo, map)
+        val doomed = KeyRetentionPolicy.DEFAULT.selectForDeletion(infos, now)
 
-        assertNotNull(oldest)
-        assertEquals("rsa1 has the lowest createdAt so it must be pruned first", "rsa1", oldest!!.alias)
+        assertEquals("rsa1 has the lowest createdAt so it must be pruned first", listOf("rsa1"), doomed)
     }
 
     @Test
-    fun `getOldestKeyPairInfo returns null when fewer than 3 entries exist`() {
-        val repo = BcscKeyPairRepo(InMemoryKeyPairInfoSource())
+    fun `default retention prunes nothing when fewer than 3 entries exist`() {
         val now = System.currentTimeMillis()
-        val map =
-            hashMapOf(
-                "rsa1" to KeyPairInfo("rsa1", now - 1000L),
-                "rsa2" to KeyPairInfo("rsa2", now),
+        val infos =
+            listOf(
+                KeyPairInfo("rsa1", now - 1000L),
+                KeyPairInfo("rsa2", now),
             )
 
-        assertNull(
-            "cleanup guard must prevent pruning when fewer than 3 keys are tracked",
-            getOldest(repo, map),
+        assertTrue(
+            "cleanup must not prune when fewer than 3 keys are tracked",
+            KeyRetentionPolicy.DEFAULT.selectForDeletion(infos, now).isEmpty(),
         )
     }
 
@@ -159,12 +134,12 @@ class BcscKeyPairRepoSeedingTest {
 
     @Test
     fun `non-matching aliases are ignored during reconciliation`() {
-        val infoSource = InMemoryKeyPairInfoSource()
+        val infoSource = TestKeyPairInfoSource()
         val repo = BcscKeyPairRepo(infoSource)
 
         reconcile(
             repo,
-            keystoreWith(listOf("rsa2", "firebase_key", "some_cert", "RSA4", "rsa4")),
+            keyStoreHolding("rsa2", "firebase_key", "some_cert", "RSA4", "rsa4"),
         )
 
         val saved = infoSource.store
@@ -191,13 +166,13 @@ class BcscKeyPairRepoSeedingTest {
     fun `reconcile preserves existing metadata and ignores orphan keystore aliases`() {
         val now = System.currentTimeMillis()
         val infoSource =
-            InMemoryKeyPairInfoSource(
+            TestKeyPairInfoSource(
                 mapOf("rsa1" to KeyPairInfo("rsa1", now)),
             )
         val repo = BcscKeyPairRepo(infoSource)
 
         // Keystore holds an orphan rsa2 left over from a v3 account reset.
-        reconcile(repo, keystoreWith(listOf("rsa1", "rsa2")))
+        reconcile(repo, keyStoreHolding("rsa1", "rsa2"))
 
         val saved = infoSource.store
         assertEquals(
@@ -223,7 +198,7 @@ class BcscKeyPairRepoSeedingTest {
 
     @Test
     fun `markActiveBcscKeyPair creates a metadata entry with the current timestamp`() {
-        val infoSource = InMemoryKeyPairInfoSource()
+        val infoSource = TestKeyPairInfoSource()
         val repo = BcscKeyPairRepo(infoSource)
 
         val before = System.currentTimeMillis()
@@ -244,7 +219,7 @@ class BcscKeyPairRepoSeedingTest {
         // markActiveBcscKeyPair still produces a strictly-greater timestamp.
         val rsa1CreatedAt = System.currentTimeMillis() - 60_000L
         val infoSource =
-            InMemoryKeyPairInfoSource(
+            TestKeyPairInfoSource(
                 mapOf(
                     "rsa1" to KeyPairInfo("rsa1", rsa1CreatedAt), // currently newest
                     "rsa2" to KeyPairInfo("rsa2", rsa1CreatedAt - 10_000L), // orphan, older
@@ -272,8 +247,17 @@ class BcscKeyPairRepoSeedingTest {
     // Returns a spy whose getCurrentBcscKeyPair() is stubbed to return a
     // BcscKeyPair backed by TEST_KEY_PAIR under the given alias, so the signing
     // path runs against a real JVM RSA key without touching AndroidKeyStore.
-    private fun repoSigningAs(alias: String): BcscKeyPairRepo {
-        val spy = spyk(BcscKeyPairRepo(InMemoryKeyPairInfoSource()))
+    private fun repoSigningAs(
+        alias: String,
+        metrics: KeyStoreMetrics = KeyStoreMetrics.NONE,
+    ): BcscKeyPairRepo {
+        val spy =
+            spyk(
+                BcscKeyPairRepo
+                    .Builder(TestKeyPairInfoSource())
+                    .setMetrics(metrics)
+                    .build(),
+            )
         val bcscKeyPair = BcscKeyPair(TEST_KEY_PAIR, KeyPairInfo(alias, System.currentTimeMillis()))
         every { spy.getCurrentBcscKeyPair() } returns bcscKeyPair
         return spy
@@ -324,4 +308,164 @@ class BcscKeyPairRepoSeedingTest {
             parsed.header.keyID,
         )
     }
+
+    // -----------------------------------------------------------------------
+    // (5) Active signing-key cache – resolved once, dropped when the active
+    //     key may have changed.
+    // -----------------------------------------------------------------------
+
+    @Test
+    fun `back-to-back signatures resolve the active key once`() {
+        val repo = repoSigningAs("rsa7")
+        val claims = JWTClaimsSet.Builder().subject("test-subject").build()
+
+        repo.signClaimsSet(claims)
+        repo.signAndSerializeClaimsSet(claims)
+        repo.signClaimsSet(claims)
+
+        verify(exactly = 1) { repo.getCurrentBcscKeyPair() }
+    }
+
+    @Test
+    fun `markActiveBcscKeyPair invalidates the cached signing key`() {
+        val repo = repoSigningAs("rsa7")
+        val claims = JWTClaimsSet.Builder().subject("test-subject").build()
+
+        repo.signClaimsSet(claims)
+        repo.markActiveBcscKeyPair("rsa8")
+        repo.signClaimsSet(claims)
+
+        verify(exactly = 2) { repo.getCurrentBcscKeyPair() }
+    }
+
+    // -----------------------------------------------------------------------
+    // (6) signAndSerializeAll – one key resolution, one result per item
+    // -----------------------------------------------------------------------
+
+    @Test
+    fun `signAndSerializeAll signs every claims set with one key resolution`() {
+        val metrics = HistogramKeyStoreMetrics()
+        val repo = repoSigningAs("rsa7", metrics)
+        val claims =
+            listOf("a", "b", "c").map { JWTClaimsSet.Builder().subject(it).build() }
+
+        val results = repo.signAndSerializeAll(claims)
+
+        assertEquals(3, results.size)
+        val verifier = RSASSAVerifier(TEST_KEY_PAIR.public as RSAPublicKey)
+        results.forEachIndexed { i, result ->
+            assertTrue("item $i must succeed", result.isSuccess)
+            val parsed = SignedJWT.parse(result.serialized)
+            assertEquals("results must keep input order", claims[i].subject, parsed.jwtClaimsSet.subject)
+            assertEquals("rsa7", parsed.header.keyID)
+            assertTrue(parsed.verify(verifier))
+        }
+        verify(exactly = 1) { repo.getCurrentBcscKeyPair() }
+        val batch = metrics.snapshot()[KeyStoreMetrics.Operation.SIGN_BATCH]!!
+        assertEquals("the batch is recorded once", 1L, batch.count)
+        assertEquals(0L, batch.failures)
+    }
+
+    @Test
+    fun `signAndSerializeAll reports a per-item error when the key cannot be resolved`() {
+        val spy = spyk(BcscKeyPairRepo(TestKeyPairInfoSource()))
+        every { spy.getCurrentBcscKeyPair() } throws BcscException("keystore unavailable")
+        val claims = listOf(JWTClaimsSet.Builder().subject("a").build(), JWTClaimsSet.Builder().subject("b").build())
+
+        val results = spy.signAndSerializeAll(claims)
+
+        assertEquals(2, results.size)
+        results.forEach {
+            assertFalse(it.isSuccess)
+            assertNull(it.serialized)
+            assertNotNull(it.error)
+        }
+    }
+
+    // -----------------------------------------------------------------------
+    // (7) EC P-256 profile – ES256 signatures, EC JWKs, ec\d+ aliases
+    // -----------------------------------------------------------------------
+
+    private fun ecRepo(infoSource: KeyPairInfoSource = TestKeyPairInfoSource()) =
+        BcscKeyPairRepo.Builder(infoSource).setKeyAlgorithmProfile(EcKeyAlgorithmProfile()).build()
+
+    @Test
+    fun `EC profile signs with ES256 and the kid of the active key`() {
+        val spy = spyk(ecRepo())
+        every { spy.getCurrentBcscKeyPair() } returns
+            BcscKeyPair(TEST_EC_KEY_PAIR, KeyPairInfo("ec2", System.currentTimeMillis()))
+
+        val jwt = spy.signClaimsSet(JWTClaimsSet.Builder().subject("test-subject").build())
+
+        assertEquals(JWSAlgorithm.ES256, jwt.header.algorithm)
+        assertEquals("ec2", jwt.header.keyID)
+        assertTrue(jwt.verify(ECDSAVerifier(TEST_EC_KEY_PAIR.public as ECPublicKey)))
+    }
+
+    @Test
+    fun `convertBcscKeyPairToJWK emits an EC JWK for EC keys`() {
+        val jwk =
+            ecRepo().convertBcscKeyPairToJWK(
+                BcscKeyPair(TEST_EC_KEY_PAIR, KeyPairInfo("ec1", System.currentTimeMillis())),
+            )
+
+        assertTrue("EC keys must convert to an ECKey", jwk is ECKey)
+        assertEquals("ec1", jwk.keyID)
+        assertEquals(JWSAlgorithm.ES256, jwk.algorithm)
+    }
+
+    @Test
+    fun `EC profile still signs with an RSA key generated before the switch`() {
+        val spy = spyk(ecRepo())
+        every { spy.getCurrentBcscKeyPair() } returns
+            BcscKeyPair(TEST_KEY_PAIR, KeyPairInfo("rsa3", System.currentTimeMillis()))
+
+        val jwt = spy.signClaimsSet(JWTClaimsSet.Builder().subject("test-subject").build())
+
+        assertEquals(JWSAlgorithm.RS512, jwt.header.algorithm)
+        assertTrue(jwt.verify(RSASSAVerifier(TEST_KEY_PAIR.public as RSAPublicKey)))
+    }
+
+    @Test
+    fun `EC profile reconciles only ec aliases`() {
+        val infoSource = TestKeyPairInfoSource()
+
+        reconcile(ecRepo(infoSource), keyStoreHolding("rsa1", "ec1", "ec2", "ecx"))
+
+        assertEquals(setOf("ec1", "ec2"), infoSource.store.keys)
+    }
+
+    // -----------------------------------------------------------------------
+    // (8) Per-alias JWK / thumbprint memo
+    // -----------------------------------------------------------------------
+
+    @Test
+    fun `convertBcscKeyPairToJWK memoizes the JWK per alias`() {
+        val repo = BcscKeyPairRepo(TestKeyPairInfoSource())
+        val keyPair = BcscKeyPair(TEST_KEY_PAIR, KeyPairInfo("rsa1", System.currentTimeMillis()))
+
+        assertSame(repo.convertBcscKeyPairToJWK(keyPair), repo.convertBcscKeyPairToJWK(keyPair))
+    }
+
+    @Test
+    fun `getJWKThumbprint matches the RFC 7638 thumbprint of the public key`() {
+        val repo = BcscKeyPairRepo(TestKeyPairInfoSource())
+        val keyPair = BcscKeyPair(TEST_KEY_PAIR, KeyPairInfo("rsa1", System.currentTimeMillis()))
+
+        val expected = RSAKey.Builder(TEST_KEY_PAIR.public as RSAPublicKey).build().computeThumbprint().toString()
+
+        assertEquals(expected, repo.getJWKThumbprint(keyPair))
+    }
+
+    @Test
+    fun `a different key under the same alias is not served the memoized JWK`() {
+        val repo = BcscKeyPairRepo(TestKeyPairInfoSource())
+        val other = KeyPairGenerator.getInstance("RSA").also { it.initialize(2048) }.generateKeyPair()
+        val now = System.currentTimeMillis()
+
+        val first = repo.getJWKThumbprint(BcscKeyPair(TEST_KEY_PAIR, KeyPairInfo("rsa1", now)))
+        val second = repo.getJWKThumbprint(BcscKeyPair(other, KeyPairInfo("rsa1", now)))
+
+        assertNotEquals("a regenerated rsa1 must not reuse the old thumbprint", first, second)
+    }
 }
@@ -0,0 +1,93 @@
+package com.bcsccore.keypair.repos.key
+
+import com.bcsccore.keypair.core.utils.SharedKeyStore
+import com.nimbusds.jose.jwk.JWKSet
+import com.nimbusds.jose.jwk.RSAKey
+import com.nimbusds.jose.util.Base64URL
+import io.mockk.verify
+import org.junit.Assert.assertEquals
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import java.security.KeyPair
+import java.security.KeyPairGenerator
+import java.security.interfaces.RSAPublicKey
+
+/**
+ * Verifies matching local keys against a server jwks by thumbprint:
+ *  - keys match by value, regardless of kid or a legacy modulus encoding
+ *  - thumbprints are indexed, so a repeat match doesn't re-read the keystore
+ *  - deleting a key drops it from the index
+ */
+@RunWith(RobolectricTestRunner::class)
+class BcscKeyPairRepoThumbprintTest {
+    companion object {
+        private val KEY_PAIRS: List<KeyPair> by lazy {
+            val generator = KeyPairGenerator.getInstance("RSA").also { it.initialize(2048) }
+            List(3) { generator.generateKeyPair() }
+        }
+    }
+
+    private fun serverKey(
+        keyPair: KeyPair,
+        kid: String,
+    ): RSAKey = RSAKey.Builder(keyPair.public as RSAPublicKey).keyID(kid).build()
+
+    @Test
+    fun `matches by key value regardless of kid`() {
+        val entries = mutableMapOf("rsa1" to KEY_PAIRS[0], "rsa2" to KEY_PAIRS[1])
+        val repo = BcscKeyPairRepo(TestKeyPairInfoSource(), SharedKeyStore { keyStoreHolding(entries) })
+
+        // rsa2's key under a drifted kid, and an unknown key under rsa2's kid.
+        val jwks = JWKSet(listOf(serverKey(KEY_PAIRS[1], "rsa7"), serverKey(KEY_PAIRS[2], "rsa2")))
+
+        val matches = repo.findAliasesMatchingJWKSet(jwks)
+
+        assertEquals(listOf("rsa2"), matches)
+    }
+
+    @Test
+    fun `matches a server key whose modulus has a leading zero byte`() {
+        val entries = mutableMapOf("rsa1" to KEY_PAIRS[0])
+        val repo = BcscKeyPairRepo(TestKeyPairInfoSource(), SharedKeyStore { keyStoreHolding(entries) })
+        val publicKey = KEY_PAIRS[0].public as RSAPublicKey
+        // BigInteger.toByteArray() keeps the sign byte, as older registrations did.
+        val legacy =
+            RSAKey
+                .Builder(
+                    Base64URL.encode(publicKey.modulus.toByteArray()),
+                    Base64URL.encode(publicKey.publicExponent),
+                ).keyID("rsa1")
+                .build()
+
+        assertEquals(listOf("rsa1"), repo.findAliasesMatchingJWKSet(JWKSet(legacy)))
+    }
+
+    @Test
+    fun `repeat match is served from the thumbprint index`() {
+        val entries = mutableMapOf("rsa1" to KEY_PAIRS[0], "rsa2" to KEY_PAIRS[1])
+        val keyStore = keyStoreHolding(entries)
+        val repo = BcscKeyPairRepo(TestKeyPairInfoSource(), SharedKeyStore { keyStore })
+        val jwks = JWKSet(serverKey(KEY_PAIRS[0], "rsa1"))
+
+        repo.findAliasesMatchingJWKSet(jwks)
+        repo.findAliasesMatchingJWKSet(jwks)
+
+        verify(exactly = 1) { keyStore.getCertificate("rsa1") }
+        verify(exactly = 1) { keyStore.getCertificate("rsa2") }
+    }
+
+    @Test
+    fun `deleting a key drops it from the index`() {
+        val entries = mutableMapOf("rsa1" to KEY_PAIRS[0], "rsa2" to KEY_PAIRS[1])
+        val keyStore = keyStoreHolding(entries)
+        val repo = BcscKeyPairRepo(TestKeyPairInfoSource(), SharedKeyStore { keyStore })
+        val jwks = JWKSet(listOf(serverKey(KEY_PAIRS[0], "rsa1"), serverKey(KEY_PAIRS[1], "rsa2")))
+        assertEquals(listOf("rsa1", "rsa2"), repo.findAliasesMatchingJWKSet(jwks))
+
+        repo.deleteBcscKeyPair("rsa1")
+
+        assertEquals(listOf("rsa2"), repo.findAliasesMatchingJWKSet(jwks))
+        verify(exactly = 1) { keyStore.getCertificate("rsa2") }
+    }
+}
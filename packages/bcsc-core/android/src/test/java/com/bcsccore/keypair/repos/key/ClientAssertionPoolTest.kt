@@ -0,0 +1,188 @@
+package com.bcsccore.keypair.repos.key
+
+import com.bcsccore.keypair.core.interfaces.AsyncBcscKeyPairSource
+import com.bcsccore.keypair.core.interfaces.AsyncBcscKeyPairSource.Priority
+import com.bcsccore.keypair.core.interfaces.BcscKeyPairSource
+import com.nimbusds.jose.JWSAlgorithm
+import com.nimbusds.jose.JWSHeader
+import com.nimbusds.jose.crypto.RSASSASigner
+import com.nimbusds.jwt.JWTClaimsSet
+import com.nimbusds.jwt.SignedJWT
+import io.mockk.every
+import io.mockk.mockk
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertNotEquals
+import org.junit.Before
+import org.junit.Test
+import java.security.KeyPairGenerator
+import java.util.concurrent.CompletableFuture
+
+/**
+ * Verifies the client assertion pool:
+ *  - acquisitions sign on demand, with the longer on-demand lifetime, and don't refill the pool
+ *  - prefillDue pre-signs only for pools whose next refresh is due, and that assertion is served
+ *  - each pooled assertion is handed out once, with its own jti
+ *  - assertions close to expiry, or signed before the signing key version changed, are dropped
+ *  - a request that finds nothing pooled takes a background signature still in flight
+ *  - pools are kept per (issuer, client ID)
+ */
+class ClientAssertionPoolTest {
+    companion object {
+        private const val ON_DEMAND = "on-demand"
+        private const val LIFETIME_MS = 300_000L
+        private const val ON_DEMAND_LIFETIME_MS = 3_600_000L
+        private const val MIN_REMAINING_MS = 60_000L
+        private const val REFRESH_INTERVAL_MS = 3_600_000L
+
+        private val SIGNER: RSASSASigner by lazy {
+            RSASSASigner(KeyPairGenerator.getInstance("RSA").also { it.initialize(2048) }.generateKeyPair().private)
+        }
+    }
+
+    private var now = 1_000_000L
+    private var keyVersion = 0L
+    private var deferMints = false
+    private val deferred = ArrayList<() -> Unit>()
+    private val onDemandClaims = ArrayList<JWTClaimsSet>()
+    private lateinit var pool: ClientAssertionPool
+
+    @Before
+    fun setUp() {
+        val blocking = mockk<BcscKeyPairSource>()
+        every { blocking.getSigningKeyVersion() } answers { keyVersion }
+        every { blocking.signClaimsSet(any()) } answers {
+            SignedJWT(JWSHeader.Builder(JWSAlgorithm.RS512).keyID("rsa1").build(), firstArg<JWTClaimsSet>())
+                .also { it.sign(SIGNER) }
+        }
+
+        val async = mockk<AsyncBcscKeyPairSource>()
+        every { async.getSource() } returns blocking
+        every { async.signAndSerializeClaimsSet(any()) } answers {
+            onDemandClaims.add(firstArg())
+            CompletableFuture.completedFuture(ON_DEMAND)
+        }
+        every { async.run(Priority.PREFETCH, any<AsyncBcscKeyPairSource.Task<Any>>()) } answers {
+            val task = secondArg<AsyncBcscKeyPairSource.Task<Any>>()
+            if (deferMints) {
+                CompletableFuture<Any>().also { future -> deferred.add { future.complete(task.run(blocking)) } }
+            } else {
+                CompletableFuture.completedFuture(task.run(blocking))
+            }
+        }
+
+        pool =
+            ClientAssertionPool(async, 1, LIFETIME_MS, ON_DEMAND_LIFETIME_MS, MIN_REMAINING_MS, REFRESH_INTERVAL_MS) {
+                now
+            }
+    }
+
+    private fun acquire(issuer: String = "https://idp.example") = pool.acquire(issuer, "client").get()
+
+    private fun prefill(issuer: String = "https://idp.example") = pool.prefill(issuer, "client")
+
+    @Test
+    fun `acquisitions sign on demand without refilling the pool`() {
+        assertEquals(ON_DEMAND, acquire())
+        assertEquals(ON_DEMAND, acquire())
+
+        val stats = pool.snapshot()
+        assertEquals(2L, stats.misses)
+        assertEquals(0L, stats.minted)
+        assertEquals(0, stats.ready)
+        assertEquals(now + ON_DEMAND_LIFETIME_MS, onDemandClaims.last().expirationTime.time)
+    }
+
+    @Test
+    fun `a due refresh is pre-signed and served from the pool`() {
+        acquire()
+        now += REFRESH_INTERVAL_MS - (LIFETIME_MS - MIN_REMAINING_MS)
+        pool.prefillDue()
+
+        val pooled = acquire()
+
+        assertNotEquals(ON_DEMAND, pooled)
+        val claims = SignedJWT.parse(pooled).jwtClaimsSet
+        assertEquals("client", claims.subject)
+        assertEquals(now + LIFETIME_MS, claims.expirationTime.time)
+        val stats = pool.snapshot()
+        assertEquals(1L, stats.hits)
+        assertEquals(1L, stats.misses)
+        assertEquals(1L, stats.minted)
+    }
+
+    @Test
+    fun `pools that are not due or never used are not pre-signed`() {
+        acquire()
+        now += REFRESH_INTERVAL_MS / 2
+        pool.prefillDue()
+
+        assertEquals(0L, pool.snapshot().minted)
+    }
+
+    @Test
+    fun `each pooled assertion is handed out once with its own jti`() {
+        prefill()
+        val first = SignedJWT.parse(acquire())
+        prefill()
+        val second = SignedJWT.parse(acquire())
+
+        assertNotEquals(first.jwtClaimsSet.jwtid, second.jwtClaimsSet.jwtid)
+        assertEquals(2L, pool.snapshot().hits)
+        assertEquals(ON_DEMAND, acquire())
+    }
+
+    @Test
+    fun `assertions close to expiry are dropped`() {
+        prefill()
+        now += LIFETIME_MS - MIN_REMAINING_MS + 1
+
+        assertEquals(ON_DEMAND, acquire())
+        assertEquals(1L, pool.snapshot().expired)
+    }
+
+    @Test
+    fun `assertions signed before the signing key changed are dropped`() {
+        prefill()
+        keyVersion++
+
+        assertEquals(ON_DEMAND, acquire())
+        assertEquals(1L, pool.snapshot().invalidated)
+    }
+
+    @Test
+    fun `a request waits for a background signature in flight`() {
+        deferMints = true
+        prefill()
+
+        val pending = pool.acquire("https://idp.example", "client")
+        assertFalse(pending.isDone)
+        deferred.forEach { it() }
+
+        assertNotEquals(ON_DEMAND, pending.get())
+        assertEquals(1L, pool.snapshot().hits)
+        assertEquals(0L, pool.snapshot().misses)
+    }
+
+    @Test
+    fun `a request waiting on a signature from before a clear signs on demand`() {
+        deferMints = true
+        prefill()
+        val pending = pool.acquire("https://idp.example", "client")
+
+        pool.clear()
+        deferred.forEach { it() }
+
+        assertEquals(ON_DEMAND, pending.get())
+        assertEquals(0, pool.snapshot().ready)
+    }
+
+    @Test
+    fun `pools are kept per issuer and client`() {
+        prefill("https://idp-a.example")
+
+        assertEquals(ON_DEMAND, acquire("https://idp-b.example"))
+        val pooled = SignedJWT.parse(acquire("https://idp-a.example"))
+        assertEquals(listOf("https://idp-a.example"), pooled.jwtClaimsSet.audience)
+    }
+}
@@ -0,0 +1,139 @@
+package com.bcsccore.keypair.repos.key
+
+import com.bcsccore.keypair.core.exceptions.KeypairGenerationException
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import java.util.Collections
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ * Stress-tests KeyGenerationCoordinator, the per-alias single-flight used by
+ * BcscKeyPairRepo:
+ *  - many concurrent callers for one alias share a single generation
+ *  - generations for different aliases do not wait on each other
+ *  - a failed generation is reported to every waiter and is not cached
+ */
+class KeyGenerationCoordinatorTest {
+    companion object {
+        private const val THREADS = 16
+        private const val ROUNDS = 50
+    }
+
+    @Test
+    fun `concurrent callers for one alias share a single generation`() {
+        val coordinator = KeyGenerationCoordinator()
+        val pool = Executors.newFixedThreadPool(THREADS)
+        try {
+            repeat(ROUNDS) { round ->
+                val alias = "rsa$round"
+                val generations = AtomicInteger()
+                val arrived = CountDownLatch(THREADS)
+                val failures = Collections.synchronizedList(mutableListOf<Throwable>())
+
+                val done = CountDownLatch(THREADS)
+                repeat(THREADS) {
+                    pool.execute {
+                        try {
+                            arrived.countDown()
+                            coordinator.generate(alias) {
+                                generations.incrementAndGet()
+                                // Hold the generation open until every caller has
+                                // arrived, so they all pile up behind it.
+                                arrived.await(5, TimeUnit.SECONDS)
+                                Thread.sleep(20)
+                            }
+                        } catch (t: Throwable) {
+                            failures.add(t)
+                        } finally {
+                            done.countDown()
+                        }
+                    }
+                }
+
+                assertTrue("callers must finish", done.await(10, TimeUnit.SECONDS))
+                assertTrue("no caller may fail: $failures", failures.isEmpty())
+                assertEquals("only one generation may run for $alias", 1, generations.get())
+            }
+        } finally {
+            pool.shutdownNow()
+        }
+    }
+
+    @Test
+    fun `different aliases generate concurrently`() {
+        val coordinator = KeyGenerationCoordinator()
+        val pool = Executors.newFixedThreadPool(2)
+        val bothRunning = CountDownLatch(2)
+        val done = CountDownLatch(2)
+        val failures = Collections.synchronizedList(mutableListOf<Throwable>())
+        try {
+            listOf("rsa1", "rsa2").forEach { alias ->
+                pool.execute {
+                    try {
+                        coordinator.generate(alias) {
+                            bothRunning.countDown()
+                            // Deadlocks (and times out) if the aliases were serialized.
+                            if (!bothRunning.await(5, TimeUnit.SECONDS)) {
+                                throw KeypairGenerationException("aliases were serialized")
+                            }
+                        }
+                    } catch (t: Throwable) {
+                        failures.add(t)
+                    } finally {
+                        done.countDown()
+                    }
+                }
+            }
+
+            assertTrue("callers must finish", done.await(10, TimeUnit.SECONDS))
+            assertTrue("no caller may fail: $failures", failures.isEmpty())
+        } finally {
+            pool.shutdownNow()
+        }
+    }
+
+    @Test
+    fun `a failed generation is reported to waiters and retried afterwards`() {
+        val coordinator = KeyGenerationCoordinator()
+        val pool = Executors.newFixedThreadPool(THREADS)
+        val entered = CountDownLatch(1)
+        val release = CountDownLatch(1)
+        val done = CountDownLatch(THREADS)
+        val messages = Collections.synchronizedList(mutableListOf<String?>())
+        try {
+            repeat(THREADS) {
+                pool.execute {
+                    try {
+                        coordinator.generate("rsa1") {
+                            entered.countDown()
+                            release.await(5, TimeUnit.SECONDS)
+                            throw KeypairGenerationException("keystore unavailable")
+                        }
+                    } catch (e: KeypairGenerationException) {
+                        messages.add(e.message)
+                    } finally {
+                        done.countDown()
+                    }
+                }
+            }
+            assertTrue(entered.await(5, TimeUnit.SECONDS))
+            Thread.sleep(5)
+            release.countDown()
+
+            assertTrue("callers must finish", done.await(10, TimeUnit.SECONDS))
+            assertEquals("every caller must see the failure", THREADS, messages.size)
+            assertTrue(messages.all { it == "keystore unavailable" })
+
+            // The failure is not cached: the next caller runs a fresh generation.
+            val generations = AtomicInteger()
+            coordinator.generate("rsa1") { generations.incrementAndGet() }
+            assertEquals(1, generations.get())
+        } finally {
+            pool.shutdownNow()
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.bcsccore.keypair.repos.key
+
+import com.bcsccore.keypair.core.exceptions.KeyNotFoundException
+import com.bcsccore.keypair.core.interfaces.AsyncBcscKeyPairSource.Priority
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Assert.fail
+import org.junit.Test
+import java.util.Collections
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.RejectedExecutionException
+import java.util.concurrent.TimeUnit
+
+/**
+ * Covers KeyStoreExecutor, the prioritized worker behind AsyncBcscKeyPairSource:
+ *  - queued jobs run in priority order, FIFO within a priority
+ *  - submissions beyond the pending bound fail fast
+ *  - a job's exception completes its future exceptionally
+ */
+class KeyStoreExecutorTest {
+    private fun <T> CompletableFuture<T>.await(): T = get(5, TimeUnit.SECONDS)
+
+    @Test
+    fun `queued jobs run in priority order`() {
+        val executor = KeyStoreExecutor(1, 16)
+        val started = CountDownLatch(1)
+        val release = CountDownLatch(1)
+        val order = Collections.synchronizedList(mutableListOf<String>())
+        try {
+            // Occupy the only worker so everything below queues up behind it.
+            val blocker =
+                executor.submit(Priority.CLEANUP) {
+                    started.countDown()
+                    release.await(5, TimeUnit.SECONDS)
+                }
+            assertTrue(started.await(5, TimeUnit.SECONDS))
+
+            val queued =
+                listOf(
+                    executor.submit(Priority.CLEANUP) { order.add("cleanup") },
+                    executor.submit(Priority.WRITE) { order.add("write") },
+                    executor.submit(Priority.READ) { order.add("read1") },
+                    executor.submit(Priority.SIGN) { order.add("sign") },
+                    executor.submit(Priority.READ) { order.add("read2") },
+                )
+            release.countDown()
+
+            blocker.await()
+            queued.forEach { it.await() }
+            assertEquals(listOf("sign", "read1", "read2", "write", "cleanup"), order)
+        } finally {
+            release.countDown()
+            executor.shutdown()
+        }
+    }
+
+    @Test
+    fun `submissions beyond the pending bound are rejected`() {
+        val executor = KeyStoreExecutor(1, 2)
+        val release = CountDownLatch(1)
+        try {
+            val first = executor.submit(Priority.READ) { release.await(5, TimeUnit.SECONDS) }
+            val second = executor.submit(Priority.READ) { "ok" }
+            val third = executor.submit(Priority.SIGN) { "too many" }
+
+            try {
+                third.await()
+                fail("a submission over the bound must be rejected")
+            } catch (e: ExecutionException) {
+                assertTrue(e.cause is RejectedExecutionException)
+            }
+
+            release.countDown()
+            first.await()
+            assertEquals("ok", second.await())
+            // Capacity frees up once the backlog drains.
+            assertEquals("again", executor.submit(Priority.READ) { "again" }.await())
+        } finally {
+            release.countDown()
+            executor.shutdown()
+        }
+    }
+
+    @Test
+    fun `a failing job completes its future exceptionally`() {
+        val executor = KeyStoreExecutor()
+        try {
+            val future = executor.submit<String>(Priority.READ) { throw KeyNotFoundException("rsa9 not found") }
+            try {
+                future.await()
+                fail("the job's exception must surface")
+            } catch (e: ExecutionException) {
+                assertTrue(e.cause is KeyNotFoundException)
+                assertEquals("rsa9 not found", e.cause!!.message)
+            }
+        } finally {
+            executor.shutdown()
+        }
+    }
+}
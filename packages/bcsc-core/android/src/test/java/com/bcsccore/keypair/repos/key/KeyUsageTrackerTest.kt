@@ -0,0 +1,98 @@
+package com.bcsccore.keypair.repos.key
+
+import com.bcsccore.keypair.core.models.KeyPairInfo
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Test
+
+/**
+ * Verifies write-behind usage tracking:
+ *  - signatures accumulate in memory and are written in one batch on flush
+ *  - pending usage is visible through applyPending before it is flushed
+ *  - usage for aliases without metadata, or being deleted, is never written
+ *  - usage discarded by a wipe isn't written to a new key under the same alias
+ *  - a failed write keeps the usage for the next flush
+ */
+class KeyUsageTrackerTest {
+    private var now = 10_000L
+    private val source = TestKeyPairInfoSource()
+
+    // A delay long enough that only explicit flushes write during a test.
+    private val tracker = KeyUsageTracker(source, 60_000L) { now }
+
+    @Test
+    fun `signatures are written in one batch on flush`() {
+        source.saveKeyPairInfo(KeyPairInfo("rsa1", 1_000L, null, 5_000L, 4L))
+        source.saveKeyPairInfo(KeyPairInfo("rsa2", 2_000L))
+
+        tracker.recordSignature("rsa1")
+        now += 1_000L
+        tracker.recordSignature("rsa1")
+        tracker.recordSignature("rsa2")
+        assertEquals("nothing is written before the flush", 4L, source.store["rsa1"]!!.signCount)
+
+        tracker.flush()
+
+        assertEquals(1, source.batchSaves)
+        assertEquals(6L, source.store["rsa1"]!!.signCount)
+        assertEquals(11_000L, source.store["rsa1"]!!.lastUsedAt)
+        assertEquals(1L, source.store["rsa2"]!!.signCount)
+        assertEquals(2_000L, source.store["rsa2"]!!.createdAt)
+    }
+
+    @Test
+    fun `pending usage is applied to reads`() {
+        val stored = KeyPairInfo("rsa1", 1_000L)
+        source.saveKeyPairInfo(stored)
+
+        tracker.recordSignature("rsa1")
+
+        val applied = tracker.applyPending(stored)
+        assertEquals(1L, applied.signCount)
+        assertEquals(10_000L, applied.lastUsedAt)
+
+        tracker.flush()
+        assertEquals("flushed usage is not applied twice", 1L, tracker.applyPending(source.store["rsa1"]!!).signCount)
+    }
+
+    @Test
+    fun `usage without metadata or for deleted aliases is never written`() {
+        source.saveKeyPairInfo(KeyPairInfo("rsa1", 1_000L))
+
+        tracker.recordSignature("rsa1")
+        tracker.recordSignature("rsa9")
+        tracker.discard(listOf("rsa1"))
+        source.deleteKeyPairInfo("rsa1")
+        tracker.flush()
+
+        assertFalse(source.store.containsKey("rsa1"))
+        assertFalse(source.store.containsKey("rsa9"))
+    }
+
+    @Test
+    fun `usage discarded by a wipe is not written to a reused alias`() {
+        source.saveKeyPairInfo(KeyPairInfo("rsa1", 1_000L))
+        tracker.recordSignature("rsa1")
+
+        tracker.discardAll()
+        source.deleteKeyPairInfo("rsa1")
+        source.saveKeyPairInfo(KeyPairInfo("rsa1", 2_000L))
+        tracker.flush()
+
+        assertEquals(0L, source.store["rsa1"]!!.signCount)
+    }
+
+    @Test
+    fun `a failed write keeps the usage for the next flush`() {
+        source.saveKeyPairInfo(KeyPairInfo("rsa1", 1_000L))
+        tracker.recordSignature("rsa1")
+        source.failSaves = true
+
+        tracker.flush()
+        tracker.recordSignature("rsa1")
+        source.failSaves = false
+        tracker.shutdown()
+
+        assertEquals(2L, source.store["rsa1"]!!.signCount)
+    }
+}
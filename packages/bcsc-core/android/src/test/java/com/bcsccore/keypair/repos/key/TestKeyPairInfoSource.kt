@@ -0,0 +1,68 @@
+package com.bcsccore.keypair.repos.key
+
+import com.bcsccore.keypair.core.exceptions.BcscException
+import com.bcsccore.keypair.core.interfaces.KeyPairInfoSource
+import com.bcsccore.keypair.core.models.AliasIndex
+import com.bcsccore.keypair.core.models.KeyPairInfo
+import java.util.HashMap
+
+/**
+ * In-memory stand-in for the SharedPreferences-backed KeyPairInfoSource,
+ * shared by the repo tests. Counts writes so tests can assert on batching,
+ * and can be told to fail batch saves.
+ *
+ * The alias index is only persisted when [indexesAliases] is set, so tests
+ * that don't exercise it keep enumerating the keystore on every lookup.
+ */
+internal class TestKeyPairInfoSource(
+    initial: Map<String, KeyPairInfo> = emptyMap(),
+    var stagedAlias: String? = null,
+    var aliasIndex: AliasIndex? = null,
+    private val indexesAliases: Boolean = false,
+) : KeyPairInfoSource {
+    val store = HashMap<String, KeyPairInfo>(initial)
+
+    /** Every save, single or batched. */
+    var writes = 0
+    var batchSaves = 0
+    var batchDeletes = 0
+    var failSaves = false
+
+    override fun getKeyPairInfo(kid: String): KeyPairInfo? = store[kid]
+
+    override fun getKeyPairInfo(): HashMap<String, KeyPairInfo> = HashMap(store)
+
+    override fun saveKeyPairInfo(info: KeyPairInfo) {
+        if (failSaves) throw BcscException("disk full")
+        writes++
+        store[info.alias] = info
+    }
+
+    override fun saveKeyPairInfos(infos: Collection<KeyPairInfo>) {
+        if (failSaves) throw BcscException("disk full")
+        writes++
+        batchSaves++
+        infos.forEach { store[it.alias] = it }
+    }
+
+    override fun deleteKeyPairInfo(alias: String) {
+        store.remove(alias)
+    }
+
+    override fun deleteKeyPairInfos(aliases: Collection<String>) {
+        batchDeletes++
+        store.keys.removeAll(aliases.toSet())
+    }
+
+    override fun getStagedAlias(): String? = stagedAlias
+
+    override fun saveStagedAlias(alias: String?) {
+        stagedAlias = alias
+    }
+
+    override fun getAliasIndex(): AliasIndex? = if (indexesAliases) aliasIndex else null
+
+    override fun saveAliasIndex(index: AliasIndex?) {
+        if (indexesAliases) aliasIndex = index
+    }
+}
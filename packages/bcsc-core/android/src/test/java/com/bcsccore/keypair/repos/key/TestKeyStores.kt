@@ -0,0 +1,48 @@
+package com.bcsccore.keypair.repos.key
+
+import io.mockk.every
+import io.mockk.mockk
+import java.security.KeyPair
+import java.security.KeyPairGenerator
+import java.security.KeyStore
+import java.security.cert.Certificate
+import java.util.Collections
+
+// One 2048-bit key pair shared across the repo tests — key size does not
+// affect the logic under test and avoids per-test generation overhead.
+internal val TEST_KEY_PAIR: KeyPair by lazy {
+    KeyPairGenerator.getInstance("RSA").also { it.initialize(2048) }.generateKeyPair()
+}
+
+/**
+ * A relaxed keystore mock holding the given entries, in insertion order.
+ * Entries, keys and certificates are served from the map, and deleteEntry
+ * removes from it, so tests can change the keystore behind the repo's back.
+ */
+internal fun keyStoreHolding(entries: MutableMap<String, KeyPair>): KeyStore {
+    val ks = mockk<KeyStore>(relaxed = true)
+    every { ks.aliases() } answers { Collections.enumeration(entries.keys.toList()) }
+    every { ks.containsAlias(any()) } answers { firstArg<String>() in entries }
+    every { ks.getCertificate(any()) } answers { entries[firstArg()]?.let(::certificateFor) }
+    every { ks.getKey(any(), any()) } answers { entries[firstArg()]?.private }
+    every { ks.getEntry(any(), any()) } answers {
+        entries[firstArg()]?.let { keyPair ->
+            mockk<KeyStore.PrivateKeyEntry>().also {
+                every { it.privateKey } returns keyPair.private
+                every { it.certificate } returns certificateFor(keyPair)
+            }
+        }
+    }
+    every { ks.deleteEntry(any()) } answers {
+        entries.remove(firstArg<String>())
+        Unit
+    }
+    return ks
+}
+
+/** A keystore holding [TEST_KEY_PAIR] under each of the given aliases. */
+internal fun keyStoreHolding(vararg aliases: String): KeyStore =
+    keyStoreHolding(aliases.associateWithTo(LinkedHashMap()) { TEST_KEY_PAIR })
+
+private fun certificateFor(keyPair: KeyPair): Certificate =
+    mockk<Certificate>().also { every { it.publicKey } returns keyPair.public }
@@ -0,0 +1,166 @@
+package com.bcsccore.keypair.repos.keypairinfo
+
+import android.content.Context
+import androidx.test.core.app.ApplicationProvider
+import com.bcsccore.keypair.core.exceptions.BcscException
+import com.bcsccore.keypair.core.models.AliasIndex
+import com.bcsccore.keypair.core.models.KeyBacking
+import com.bcsccore.keypair.core.models.KeyPairInfo
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertNotEquals
+import org.junit.Assert.assertNull
+import org.junit.Assert.assertTrue
+import org.junit.Assert.fail
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import java.io.ByteArrayOutputStream
+import java.io.DataOutputStream
+import java.io.File
+import java.util.zip.CRC32
+
+/**
+ * Covers FileKeyPairInfoSource:
+ *  - metadata, staged alias and alias index round-trip through the file
+ *  - prefs-backed metadata is migrated into the file once and removed from prefs
+ *  - batch updates apply atomically and leave no temp files behind
+ *  - an unreadable file, or one whose lengths overrun it, is moved aside and treated as empty
+ *  - a backup left by an interrupted replace is restored
+ *  - clear() deletes the file and moves the version on
+ */
+@RunWith(RobolectricTestRunner::class)
+class FileKeyPairInfoSourceTest {
+    private lateinit var context: Context
+    private lateinit var file: File
+
+    @Before
+    fun setUp() {
+        context = ApplicationProvider.getApplicationContext()
+        context.getSharedPreferences("bcsc_keypair_info", Context.MODE_PRIVATE).edit().clear().commit()
+        file = File(context.noBackupFilesDir, FileKeyPairInfoSource.FILE_NAME)
+        file.parentFile!!.listFiles()?.forEach { it.delete() }
+    }
+
+    private fun source() = FileKeyPairInfoSource(file, SimpleKeyPairInfoSource(context))
+
+    @Test
+    fun `metadata round-trips through the file`() {
+        val source = source()
+        source.saveKeyPairInfo(KeyPairInfo("rsa1", 1_000L, KeyBacking.TEE, 5_000L, 3L))
+        source.saveKeyPairInfo(KeyPairInfo("rsa2", 2_000L, KeyBacking.STRONGBOX))
+        source.saveStagedAlias("rsa3")
+        source.saveAliasIndex(AliasIndex(listOf("rsa1", "rsa2"), 7_000L))
+
+        val loaded = FileKeyPairInfoSource(file, null)
+
+        val infos = loaded.getKeyPairInfo()
+        assertEquals(KeyBacking.TEE, infos["rsa1"]!!.backing)
+        assertEquals(5_000L, infos["rsa1"]!!.lastUsedAt)
+        assertEquals(3L, infos["rsa1"]!!.signCount)
+        assertEquals(KeyBacking.STRONGBOX, infos["rsa2"]!!.backing)
+        assertEquals("rsa3", loaded.getStagedAlias())
+        assertEquals(setOf("rsa1", "rsa2"), loaded.getAliasIndex()!!.aliases)
+        assertEquals(7_000L, loaded.getAliasIndex()!!.auditedAt)
+    }
+
+    @Test
+    fun `prefs metadata is migrated once`() {
+        val legacy = SimpleKeyPairInfoSource(context)
+        legacy.saveKeyPairInfo(KeyPairInfo("rsa1", 1_000L, KeyBacking.TEE))
+        legacy.saveStagedAlias("rsa2")
+
+        val source = source()
+
+        assertEquals(setOf("rsa1"), source.getKeyPairInfo().keys)
+        assertEquals("rsa2", source.getStagedAlias())
+        assertTrue(file.exists())
+        val prefs = SimpleKeyPairInfoSource(context)
+        assertTrue("the legacy copy is removed", prefs.getKeyPairInfo().isEmpty())
+        assertNull(prefs.getStagedAlias())
+
+        // Once the file exists the prefs are no longer consulted.
+        prefs.saveKeyPairInfo(KeyPairInfo("stale", 9_000L))
+        assertEquals(setOf("rsa1"), source().getKeyPairInfo().keys)
+    }
+
+    @Test
+    fun `update applies atomically and leaves no temp files`() {
+        val source = source()
+        source.saveKeyPairInfo(KeyPairInfo("rsa1", 1_000L))
+        val version = source.version
+
+        source.updateKeyPairInfo { infos ->
+            infos.remove("rsa1")
+            infos["rsa2"] = KeyPairInfo("rsa2", 2_000L)
+        }
+
+        assertEquals(setOf("rsa2"), FileKeyPairInfoSource(file, null).getKeyPairInfo().keys)
+        assertNotEquals(version, source.version)
+        assertEquals(listOf(FileKeyPairInfoSource.FILE_NAME), file.parentFile!!.list()!!.toList())
+
+        try {
+            source.updateKeyPairInfo { infos ->
+                infos.clear()
+                throw BcscException("abort")
+            }
+            fail("expected the mutator's exception")
+        } catch (e: BcscException) {
+            // expected
+        }
+        assertEquals("an aborted update writes nothing", setOf("rsa2"), source.getKeyPairInfo().keys)
+    }
+
+    @Test
+    fun `an unreadable file is moved aside`() {
+        source().saveKeyPairInfo(KeyPairInfo("rsa1", 1_000L))
+        val bytes = file.readBytes()
+        bytes[bytes.size / 2] = (bytes[bytes.size / 2].toInt() xor 0xFF).toByte()
+        file.writeBytes(bytes)
+
+        val source = source()
+
+        assertTrue(source.getKeyPairInfo().isEmpty())
+        assertTrue(File(file.path + ".corrupt").exists())
+        source.saveKeyPairInfo(KeyPairInfo("rsa2", 2_000L))
+        assertEquals(setOf("rsa2"), FileKeyPairInfoSource(file, null).getKeyPairInfo().keys)
+    }
+
+    @Test
+    fun `a length that overruns the file is rejected before allocating`() {
+        val bytes = ByteArrayOutputStream()
+        DataOutputStream(bytes).use {
+            it.writeByte(1)
+            it.writeInt(Int.MAX_VALUE)
+        }
+        val crc = CRC32().apply { update(bytes.toByteArray()) }
+        DataOutputStream(bytes).use { it.writeLong(crc.value) }
+        file.writeBytes(bytes.toByteArray())
+
+        assertTrue(source().getKeyPairInfo().isEmpty())
+        assertTrue(File(file.path + ".corrupt").exists())
+    }
+
+    @Test
+    fun `a backup left by an interrupted replace is restored`() {
+        source().saveKeyPairInfo(KeyPairInfo("rsa1", 1_000L))
+        assertTrue(file.renameTo(File(file.path + ".bak")))
+
+        assertEquals(setOf("rsa1"), source().getKeyPairInfo().keys)
+        assertTrue(file.exists())
+    }
+
+    @Test
+    fun `clear deletes the file and moves the version on`() {
+        val source = source()
+        source.saveKeyPairInfo(KeyPairInfo("rsa1", 1_000L))
+        val version = source.version
+
+        source.clear()
+
+        assertFalse(file.exists())
+        assertTrue(source.getKeyPairInfo().isEmpty())
+        assertNotEquals(version, source.version)
+    }
+}
@@ -0,0 +1,69 @@
+package com.bcsccore.keypair.repos.keypairinfo
+
+import com.bcsccore.keypair.core.models.KeyBacking
+import com.bcsccore.keypair.core.models.KeyPairInfo
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNull
+import org.junit.Assert.assertTrue
+import org.junit.Test
+
+/**
+ * Covers the binary metadata encoding:
+ *  - every field round-trips, including negative and extreme values
+ *  - fields appended by a newer version are skipped, and unknown backings load as unknown
+ *  - unknown formats and truncated data are rejected
+ */
+class KeyPairInfoCodecTest {
+    @Test
+    fun `every field round-trips`() {
+        val infos =
+            listOf(
+                KeyPairInfo("rsa1", 1_700_000_000_000L, KeyBacking.TEE, 1_700_000_100_000L, 42L),
+                KeyPairInfo("ec12", -5L, KeyBacking.STRONGBOX, Long.MAX_VALUE, 1L shl 40),
+                KeyPairInfo("rsä3", 0L),
+            )
+
+        val decoded = KeyPairInfoCodec.decode(KeyPairInfoCodec.encode(infos))
+
+        assertEquals(infos.map { it.alias }.toSet(), decoded.keys)
+        for (info in infos) {
+            val copy = decoded[info.alias]!!
+            assertEquals(info.createdAt, copy.createdAt)
+            assertEquals(info.backing, copy.backing)
+            assertEquals(info.lastUsedAt, copy.lastUsedAt)
+            assertEquals(info.signCount, copy.signCount)
+        }
+    }
+
+    @Test
+    fun `fields appended by a newer version are skipped`() {
+        // format 1, one entry of 10 bytes: "rsa1", createdAt 1, backing 9 (unknown),
+        // lastUsedAt 0, signCount 0, then one trailing byte from a future field.
+        val bytes = byteArrayOf(1, 1, 10, 4, 'r'.code.toByte(), 's'.code.toByte(), 'a'.code.toByte(), '1'.code.toByte(), 2, 9, 0, 0, 0x7F)
+
+        val decoded = KeyPairInfoCodec.decode(bytes)
+
+        assertEquals(1L, decoded["rsa1"]!!.createdAt)
+        assertNull(decoded["rsa1"]!!.backing)
+    }
+
+    @Test
+    fun `unknown formats and truncated data are rejected`() {
+        val encoded = KeyPairInfoCodec.encode(listOf(KeyPairInfo("rsa1", 1_000L)))
+
+        assertRejected(byteArrayOf(2) + encoded.copyOfRange(1, encoded.size))
+        assertRejected(encoded.copyOf(encoded.size - 1))
+        assertRejected(byteArrayOf())
+    }
+
+    private fun assertRejected(bytes: ByteArray) {
+        val rejected =
+            try {
+                KeyPairInfoCodec.decode(bytes)
+                false
+            } catch (expected: IllegalArgumentException) {
+                true
+            }
+        assertTrue("decode must reject ${bytes.contentToString()}", rejected)
+    }
+}
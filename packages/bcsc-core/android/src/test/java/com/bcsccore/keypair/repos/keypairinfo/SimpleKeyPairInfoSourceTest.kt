@@ -0,0 +1,214 @@
+package com.bcsccore.keypair.repos.keypairinfo
+
+import android.content.Context
+import androidx.test.core.app.ApplicationProvider
+import com.bcsccore.keypair.core.exceptions.BcscException
+import com.bcsccore.keypair.core.models.KeyBacking
+import com.bcsccore.keypair.core.models.KeyPairInfo
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNotEquals
+import org.junit.Assert.assertNull
+import org.junit.Assert.assertTrue
+import org.junit.Assert.fail
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import kotlin.concurrent.thread
+
+/**
+ * Covers SimpleKeyPairInfoSource's on-disk format:
+ *  - the key backing round-trips per alias
+ *  - entries written before backing was tracked load with no backing
+ *  - legacy JSON metadata is migrated to the binary form once, and the JSON removed
+ *  - usage statistics round-trip, and a batch save is one write
+ *  - the cached snapshot's version moves on writes, including ones that bypass the source
+ *  - batch updates apply atomically, skip no-op writes and don't lose concurrent changes
+ *  - the creation-time index follows writes
+ */
+@RunWith(RobolectricTestRunner::class)
+class SimpleKeyPairInfoSourceTest {
+    private lateinit var context: Context
+
+    @Before
+    fun setUp() {
+        context = ApplicationProvider.getApplicationContext()
+        context.getSharedPreferences("bcsc_keypair_info", Context.MODE_PRIVATE).edit().clear().commit()
+    }
+
+    @Test
+    fun `backing round-trips per alias`() {
+        val source = SimpleKeyPairInfoSource(context)
+
+        source.saveKeyPairInfo(KeyPairInfo("rsa1", 1_000L, KeyBacking.TEE))
+        source.saveKeyPairInfo(KeyPairInfo("rsa2", 2_000L, KeyBacking.STRONGBOX))
+        source.saveKeyPairInfo(KeyPairInfo("rsa3", 3_000L))
+
+        val loaded = SimpleKeyPairInfoSource(context).getKeyPairInfo()
+        assertEquals(KeyBacking.TEE, loaded["rsa1"]!!.backing)
+        assertEquals(KeyBacking.STRONGBOX, loaded["rsa2"]!!.backing)
+        assertNull(loaded["rsa3"]!!.backing)
+    }
+
+    @Test
+    fun `entries without a backing field load as unknown`() {
+        context
+            .getSharedPreferences("bcsc_keypair_info", Context.MODE_PRIVATE)
+            .edit()
+            .putString(
+                "keypair_info_map",
+                """{"rsa1":{"alias":"rsa1","createdAt":1000},"rsa2":{"alias":"rsa2","createdAt":2000,"backing":"QUANTUM"}}""",
+            ).commit()
+
+        val loaded = SimpleKeyPairInfoSource(context).getKeyPairInfo()
+
+        assertEquals(1_000L, loaded["rsa1"]!!.createdAt)
+        assertNull(loaded["rsa1"]!!.backing)
+        assertNull("an unrecognised backing must not drop the entry", loaded["rsa2"]!!.backing)
+        assertEquals(0L, loaded["rsa1"]!!.lastUsedAt)
+        assertEquals(0L, loaded["rsa1"]!!.signCount)
+    }
+
+    @Test
+    fun `usage statistics round-trip through a batch save`() {
+        val source = SimpleKeyPairInfoSource(context)
+        source.saveKeyPairInfo(KeyPairInfo("rsa1", 1_000L, KeyBacking.TEE))
+
+        source.saveKeyPairInfos(
+            listOf(
+                KeyPairInfo("rsa1", 1_000L, KeyBacking.TEE, 5_000L, 3L),
+                KeyPairInfo("rsa2", 2_000L, null, 6_000L, 1L),
+            ),
+        )
+
+        val loaded = SimpleKeyPairInfoSource(context).getKeyPairInfo()
+        assertEquals(5_000L, loaded["rsa1"]!!.lastUsedAt)
+        assertEquals(3L, loaded["rsa1"]!!.signCount)
+        assertEquals(KeyBacking.TEE, loaded["rsa1"]!!.backing)
+        assertEquals(6_000L, loaded["rsa2"]!!.lastUsedAt)
+        assertEquals(1L, loaded["rsa2"]!!.signCount)
+    }
+
+    @Test
+    fun `version moves on writes and stays put on reads`() {
+        val source = SimpleKeyPairInfoSource(context)
+        val initial = source.version
+
+        source.saveKeyPairInfo(KeyPairInfo("rsa1", 1_000L))
+        val afterSave = source.version
+        source.getKeyPairInfo()
+        source.getKeyPairInfo("rsa1")
+
+        assertNotEquals(initial, afterSave)
+        assertEquals(afterSave, source.version)
+        source.deleteKeyPairInfo("rsa1")
+        assertNotEquals(afterSave, source.version)
+    }
+
+    @Test
+    fun `clearing the preferences directly is picked up`() {
+        val source = SimpleKeyPairInfoSource(context)
+        source.saveKeyPairInfo(KeyPairInfo("rsa1", 1_000L))
+        val before = source.version
+
+        context.getSharedPreferences("bcsc_keypair_info", Context.MODE_PRIVATE).edit().clear().commit()
+
+        assertTrue(source.getKeyPairInfo().isEmpty())
+        assertNull(source.getKeyPairInfo("rsa1"))
+        assertNotEquals(before, source.version)
+    }
+
+    @Test
+    fun `an update applies every change in one write`() {
+        val source = SimpleKeyPairInfoSource(context)
+        source.saveKeyPairInfo(KeyPairInfo("rsa1", 1_000L))
+        val before = source.version
+
+        source.updateKeyPairInfo { infos ->
+            infos.remove("rsa1")
+            (2..10).forEach { infos["rsa$it"] = KeyPairInfo("rsa$it", it * 1_000L) }
+        }
+
+        val loaded = SimpleKeyPairInfoSource(context).getKeyPairInfo()
+        assertEquals((2..10).map { "rsa$it" }.toSet(), loaded.keys)
+        assertEquals("one write, one version step", before + 1, source.version)
+    }
+
+    @Test
+    fun `an update that changes nothing or aborts writes nothing`() {
+        val source = SimpleKeyPairInfoSource(context)
+        source.saveKeyPairInfo(KeyPairInfo("rsa1", 1_000L))
+        val before = source.version
+
+        source.updateKeyPairInfo { }
+        try {
+            source.updateKeyPairInfo { infos ->
+                infos.clear()
+                throw BcscException("abort")
+            }
+            fail("the mutator's exception must propagate")
+        } catch (expected: BcscException) {
+        }
+
+        assertEquals(before, source.version)
+        assertEquals(setOf("rsa1"), SimpleKeyPairInfoSource(context).getKeyPairInfo().keys)
+    }
+
+    @Test
+    fun `concurrent updates are serialized`() {
+        val source = SimpleKeyPairInfoSource(context)
+        source.saveKeyPairInfo(KeyPairInfo("rsa1", 1_000L))
+
+        (1..4)
+            .map {
+                thread {
+                    repeat(50) {
+                        source.updateKeyPairInfo { infos -> infos["rsa1"] = infos["rsa1"]!!.withAddedUsage(it.toLong(), 1L) }
+                    }
+                }
+            }.forEach { it.join() }
+
+        assertEquals(200L, source.getKeyPairInfo("rsa1")!!.signCount)
+    }
+
+    @Test
+    fun `legacy JSON metadata is rewritten in the binary form`() {
+        val prefs = context.getSharedPreferences("bcsc_keypair_info", Context.MODE_PRIVATE)
+        prefs
+            .edit()
+            .putString(
+                "keypair_info_map",
+                """{"rsa1":{"alias":"rsa1","createdAt":1000,"backing":"TEE","lastUsedAt":1500,"signCount":4}}""",
+            ).commit()
+
+        val migrated = SimpleKeyPairInfoSource(context).getKeyPairInfo()
+
+        assertEquals(4L, migrated["rsa1"]!!.signCount)
+        assertNull("the JSON is removed once migrated", prefs.getString("keypair_info_map", null))
+        val reloaded = SimpleKeyPairInfoSource(context).getKeyPairInfo("rsa1")!!
+        assertEquals(1_000L, reloaded.createdAt)
+        assertEquals(KeyBacking.TEE, reloaded.backing)
+        assertEquals(1_500L, reloaded.lastUsedAt)
+        assertEquals(4L, reloaded.signCount)
+    }
+
+    @Test
+    fun `creation-time index follows writes`() {
+        val source = SimpleKeyPairInfoSource(context)
+        source.saveKeyPairInfos(listOf(KeyPairInfo("rsa1", 1_000L), KeyPairInfo("rsa2", 2_000L)))
+        assertEquals("rsa2", source.createdAtIndex.newest()!!.alias)
+
+        source.updateKeyPairInfo { infos ->
+            infos["rsa1"] = infos["rsa1"]!!.withCreatedAt(3_000L)
+            infos["rsa3"] = KeyPairInfo("rsa3", 500L)
+        }
+
+        assertEquals(listOf("rsa3", "rsa2", "rsa1"), oldestFirst(source))
+        assertEquals(listOf("rsa3", "rsa2", "rsa1"), oldestFirst(SimpleKeyPairInfoSource(context)))
+    }
+
+    private fun oldestFirst(source: SimpleKeyPairInfoSource): List<String> {
+        val index = source.createdAtIndex
+        return (0 until index.size()).map { index.get(it).alias }
+    }
+}
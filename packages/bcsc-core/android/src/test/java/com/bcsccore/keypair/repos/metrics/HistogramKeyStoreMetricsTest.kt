@@ -0,0 +1,82 @@
+package com.bcsccore.keypair.repos.metrics
+
+import com.bcsccore.keypair.core.interfaces.KeyStoreMetrics.Operation
+import com.bcsccore.keypair.core.models.KeyBacking
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Test
+
+/**
+ * Covers HistogramKeyStoreMetrics, the in-memory keystore latency recorder:
+ *  - counts, failures, totals and max are exact
+ *  - percentiles land in the right log-scale bucket and never exceed the max
+ *  - key generation is also broken down per alias
+ *  - key generation and signing are also broken down per key backing
+ */
+class HistogramKeyStoreMetricsTest {
+    private fun micros(value: Long) = value * 1000L
+
+    @Test
+    fun `records counts, failures and totals per operation`() {
+        val metrics = HistogramKeyStoreMetrics()
+
+        metrics.record(Operation.SIGNING, "rsa1", micros(100), true)
+        metrics.record(Operation.SIGNING, "rsa1", micros(300), false)
+
+        val signing = metrics.snapshot()[Operation.SIGNING]!!
+        assertEquals(2L, signing.count)
+        assertEquals(1L, signing.failures)
+        assertEquals(400L, signing.totalMicros)
+        assertEquals(300L, signing.maxMicros)
+        assertEquals("untouched operations report zero", 0L, metrics.snapshot()[Operation.RECONCILE]!!.count)
+    }
+
+    @Test
+    fun `percentiles follow the distribution and are capped at the max`() {
+        val metrics = HistogramKeyStoreMetrics()
+
+        // 98 fast entry fetches (~10us) and two slow outliers (~50ms).
+        repeat(98) { metrics.record(Operation.ENTRY_FETCH, "rsa1", micros(10), true) }
+        repeat(2) { metrics.record(Operation.ENTRY_FETCH, "rsa1", micros(50_000), true) }
+
+        val stats = metrics.snapshot()[Operation.ENTRY_FETCH]!!
+        assertTrue("p50 must sit in the fast bucket (${stats.p50Micros})", stats.p50Micros in 10L..15L)
+        assertTrue("p95 must sit in the fast bucket (${stats.p95Micros})", stats.p95Micros in 10L..15L)
+        assertTrue("p99 must sit in the slow bucket (${stats.p99Micros})", stats.p99Micros in 32_768L..50_000L)
+        assertTrue("no percentile may exceed the max", stats.p99Micros <= stats.maxMicros)
+    }
+
+    @Test
+    fun `key generation is broken down per alias`() {
+        val metrics = HistogramKeyStoreMetrics()
+
+        metrics.record(Operation.KEY_GENERATION, "rsa1", micros(2_000_000), true)
+        metrics.record(Operation.KEY_GENERATION, "rsa2", micros(3_000_000), true)
+        metrics.record(Operation.ENTRY_FETCH, "rsa1", micros(10), true)
+
+        val byAlias = metrics.snapshotKeyGenerationByAlias()
+        assertEquals(listOf("rsa1", "rsa2"), byAlias.keys.toList())
+        assertEquals(2_000_000L, byAlias["rsa1"]!!.maxMicros)
+        assertEquals(2L, metrics.snapshot()[Operation.KEY_GENERATION]!!.count)
+    }
+
+    @Test
+    fun `generation and signing are broken down per backing`() {
+        val metrics = HistogramKeyStoreMetrics()
+
+        metrics.record(Operation.KEY_GENERATION, "rsa1", KeyBacking.STRONGBOX, micros(900_000), false)
+        metrics.record(Operation.KEY_GENERATION, "rsa1", KeyBacking.TEE, micros(2_000_000), true)
+        metrics.record(Operation.SIGNING, "rsa1", KeyBacking.TEE, micros(40_000), true)
+        metrics.record(Operation.SIGNING, "rsa1", null, micros(50_000), true)
+
+        val byBacking = metrics.snapshotByBacking()
+        val strongBox = byBacking[KeyBacking.STRONGBOX]!!
+        val tee = byBacking[KeyBacking.TEE]!!
+        assertEquals(1L, strongBox[Operation.KEY_GENERATION]!!.failures)
+        assertEquals(0L, strongBox[Operation.SIGNING]!!.count)
+        assertEquals(2_000_000L, tee[Operation.KEY_GENERATION]!!.maxMicros)
+        assertEquals("unknown backing only counts in the totals", 1L, tee[Operation.SIGNING]!!.count)
+        assertEquals(2L, metrics.snapshot()[Operation.SIGNING]!!.count)
+        assertEquals(2L, metrics.snapshot()[Operation.KEY_GENERATION]!!.count)
+    }
+}
@@ -2,13 +2,16 @@ package com.bcsccore.storage
 
 import android.content.Context
 import androidx.test.core.app.ApplicationProvider
+import com.bcsccore.keypair.repos.keypairinfo.FileKeyPairInfoSource
 import io.mockk.every
 import io.mockk.mockk
 import io.mockk.verify
 import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
 import org.junit.Test
 import org.junit.runner.RunWith
 import org.robolectric.RobolectricTestRunner
+import java.io.File
 import java.security.KeyStore
 import java.util.Collections
 
@@ -59,6 +62,19 @@ class KeychainClearingServiceTest {
         assertEquals(0, context.getSharedPreferences("bcsc_keypair_info", Context.MODE_PRIVATE).all.size)
     }
 
+    @Test
+    fun `clearAll deletes the key pair info file`() {
+        val context = ApplicationProvider.getApplicationContext<Context>()
+        val file = File(context.noBackupFilesDir, FileKeyPairInfoSource.FILE_NAME)
+        file.writeBytes(byteArrayOf(1, 2, 3))
+
+        val service = KeychainClearingService(context, keyStoreSupplier = { keyStoreWith(emptyList()) })
+
+        service.clearAll()
+
+        assertFalse(file.exists())
+    }
+
     @Test
     fun `clearAll continues past a single alias delete failure`() {
         val keyStore = keyStoreWith(listOf("rsa1", "rsa2"))
@@ -2547,6 +2547,43 @@ class BcscCore: NSObject {
     resolve(isAutoGenerated)
   }
 
+  // MARK: - Keystore Diagnostics (stubs)
+
+  /// No-op stub on iOS. Keystore operation metrics are only collected by the Android keypair port.
+  func getKeyStoreMetrics(
+    _ resolve: @escaping RCTPromiseResolveBlock,
+    reject _: @escaping RCTPromiseRejectBlock
+  ) {
+    resolve([:])
+  }
+
+  /// No-op stub on iOS. The native diagnostic ring buffer only exists in the Android keypair port.
+  func getNativeDiagnosticLog(
+    _ resolve: @escaping RCTPromiseResolveBlock,
+    reject _: @escaping RCTPromiseRejectBlock
+  ) {
+    resolve([])
+  }
+
+  /// No-op stub on iOS. Retention cleanup is only implemented by the Android keypair port.
+  func applyKeyRetentionPolicy(
+    _: NSDictionary,
+    resolve: @escaping RCTPromiseResolveBlock,
+    reject _: @escaping RCTPromiseRejectBlock
+  ) {
+    resolve(["deleted": [], "failed": [], "retained": []])
+  }
+
+  /// Unsupported on iOS. Rejects rather than resolving an empty list, which the recovery flow
+  /// would read as "no local key matches"; callers fall back to getAllKeysWithPublicInfo.
+  func findKeysMatchingJwks(
+    _: String,
+    resolve _: @escaping RCTPromiseResolveBlock,
+    reject: @escaping RCTPromiseRejectBlock
+  ) {
+    reject("E_UNSUPPORTED", "findKeysMatchingJwks is only implemented on Android", nil)
+  }
+
   // MARK: - Android Global Flags Storage Methods (stubs)
 
   /// No-op stub on iOS. Platform branching in TypeScript routes iOS to getAccountFlags instead.
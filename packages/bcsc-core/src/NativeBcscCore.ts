@@ -39,6 +39,12 @@ export type PrivateKeyInfo = {
   keyType?: string;
   keySize?: number;
   created?: number; // Timestamp — SECONDS since epoch on iOS, MILLISECONDS on Android (see KeyPublicInfo.created)
+  /** Hardware the key was generated in, when recorded. Android only. */
+  backing?: KeyBacking;
+  /** When the key last signed, in milliseconds since epoch; absent if it never has. Android only. */
+  lastUsedAt?: number;
+  /** Signatures made with the key since usage was first tracked. Android only. */
+  signCount?: number;
 };
 
 export type KeyPair = {
@@ -69,6 +75,108 @@ export type KeyPublicInfo = {
    * only ever compares `created` values gathered from a single device's platform at runtime.
    */
   created?: number;
+  /**
+   * RFC 7638 SHA-256 thumbprint of the public JWK (base64url). Encoding-independent, so it
+   * can be compared against thumbprints of the server's jwks directly. Android only.
+   */
+  thumbprint?: string;
+};
+
+/**
+ * Latency summary for one keystore operation. Durations are milliseconds (fractional);
+ * percentiles come from a log-scale histogram and are accurate to within a factor of two.
+ */
+export type KeyStoreOperationStats = {
+  count: number;
+  failures: number;
+  totalMs: number;
+  p50Ms: number;
+  p95Ms: number;
+  p99Ms: number;
+  maxMs: number;
+};
+
+export type KeyStoreAliasStats = KeyStoreOperationStats & {
+  alias: string;
+};
+
+/** Secure hardware an Android key was generated in. */
+export type KeyBacking = 'strongbox' | 'tee';
+
+export type KeyStoreBackingStats = {
+  keyGeneration: KeyStoreOperationStats;
+  signing: KeyStoreOperationStats;
+};
+
+/** Counters for the pool of pre-signed refresh-token client assertions. */
+export type ClientAssertionPoolStats = {
+  /** Refreshes served a pre-signed assertion */
+  hits: number;
+  /** Refreshes that had to sign on demand */
+  misses: number;
+  /** Assertions signed in the background */
+  minted: number;
+  mintFailures: number;
+  /** Pooled assertions dropped unused because they were close to expiry */
+  expired: number;
+  /** Pooled assertions dropped because the signing key changed */
+  invalidated: number;
+  /** Assertions currently pooled */
+  ready: number;
+};
+
+/**
+ * Keystore operation metrics accumulated since process start. Android only; iOS resolves an
+ * empty object.
+ */
+export type KeyStoreMetrics = {
+  /** Epoch ms when recording started (process start) */
+  startedAt?: number;
+  deviceModel?: string;
+  sdkInt?: number;
+  operations?: {
+    keystoreLoad: KeyStoreOperationStats;
+    aliasEnumeration: KeyStoreOperationStats;
+    reconcile: KeyStoreOperationStats;
+    keyGeneration: KeyStoreOperationStats;
+    entryFetch: KeyStoreOperationStats;
+    signing: KeyStoreOperationStats;
+    /** Whole signAndSerializeAll batches, key resolution included */
+    signBatch: KeyStoreOperationStats;
+  };
+  keyGenerationByAlias?: KeyStoreAliasStats[];
+  /** Whether the device advertises a StrongBox keystore */
+  strongBoxAvailable?: boolean;
+  /** Key generation and signing latency split by the backing of the key used */
+  byBacking?: {
+    strongbox: KeyStoreBackingStats;
+    tee: KeyStoreBackingStats;
+  };
+  assertionPool?: ClientAssertionPoolStats;
+};
+
+/**
+ * Which key pairs a retention cleanup keeps. The newest key pair is always kept.
+ */
+export type KeyRetentionPolicy = {
+  /** How many of the newest key pairs to keep (default 2) */
+  keepNewest?: number;
+  /** Delete key pairs older than this many milliseconds (default: no age limit) */
+  maxAgeMs?: number;
+  /** Never delete key pairs that signed within this many milliseconds (default: usage ignored) */
+  keepUsedWithinMs?: number;
+  /** Kids the server still accepts; never deleted */
+  serverConfirmedKids?: string[];
+};
+
+/**
+ * Outcome of a retention cleanup. Android only; iOS resolves empty lists.
+ */
+export type KeyCleanupReport = {
+  deleted: string[];
+  /** Aliases whose metadata was removed but whose keystore entry could not be deleted */
+  failed: string[];
+  retained: string[];
 };
 
 // Assuming TokenType enum is defined in index.ts and will be used by the JS side.
@@ -281,6 +389,12 @@ export interface Spec extends TurboModule {
    * exponent). See {@link KeyPublicInfo} for the encoding caveats consumers must handle.
    */
   getAllKeysWithPublicInfo(): Promise<KeyPublicInfo[]>;
+  /**
+   * Aliases of the local keys whose public key is in the given jwks (JSON text), matched
+   * by RFC 7638 thumbprint. Rejects with E_INVALID_JWKS if the jwks can't be parsed.
+   * @platform Android only (rejects with E_UNSUPPORTED on iOS)
+   */
+  findKeysMatchingJwks(jwks: string): Promise<string[]>;
   /**
    * Mark a keystore alias as the active (newest) signing key. Rejects with
    * E_KEY_NOT_FOUND if the alias is not present in the keystore.
@@ -291,6 +405,21 @@ export interface Spec extends TurboModule {
    * E_KEY_DELETE_REFUSED_LAST if deleting would leave zero private keys.
    */
   deleteKey(alias: string): Promise<void>;
+  /**
+   * Latency percentiles and totals for keystore operations since process start.
+   * @platform Android only (resolves an empty object on iOS)
+   */
+  getKeyStoreMetrics(): Promise<KeyStoreMetrics>;
+  /**
+   * The most recent native keypair log lines, oldest first.
+   * @platform Android only (resolves an empty array on iOS)
+   */
+  getNativeDiagnosticLog(): Promise<string[]>;
+  /**
+   * Delete every key pair the policy doesn't keep, as one background job.
+   * @platform Android only (resolves empty lists on iOS)
+   */
+  applyKeyRetentionPolicy(policy: KeyRetentionPolicy): Promise<KeyCleanupReport>;
   getKeyPair(label: string): Promise<KeyPair>;
   getToken(tokenType: number): Promise<NativeToken | null>;
 
@@ -3,6 +3,9 @@ import NativeBcscCoreSpec, {
   type DecodePayloadResult,
   type JWK,
   type JWTClaims,
+  type KeyCleanupReport,
+  type KeyRetentionPolicy,
+  type KeyStoreMetrics,
   type LoginChallengeResult,
   type NativeAccount,
   type NativeAuthorizationRequest,
@@ -11,8 +14,16 @@ import NativeBcscCoreSpec, {
 } from './NativeBcscCore';
 export { AccountSecurityMethod, BCSCCardProcess } from './NativeBcscCore';
 export type {
+  ClientAssertionPoolStats,
   DecodePayloadResult,
   JWK,
+  KeyBacking,
+  KeyCleanupReport,
+  KeyRetentionPolicy,
+  KeyStoreAliasStats,
+  KeyStoreBackingStats,
+  KeyStoreMetrics,
+  KeyStoreOperationStats,
   LoginChallenge,
   LoginChallengeResult,
   NativeAccount,
@@ -151,6 +162,11 @@ export interface KeyPublicInfo {
    * only ever compares `created` values gathered from a single device's platform at runtime.
    */
   created?: number;
+  /**
+   * RFC 7638 SHA-256 thumbprint of the public JWK (base64url). Encoding-independent, so it
+   * can be compared against thumbprints of the server's jwks directly. Android only.
+   */
+  thumbprint?: string;
 }
 
 // This enum must match the native equivalent. See Token.swift for iOS
@@ -303,12 +319,25 @@ export const getAllKeys = (): Promise<PrivateKeyInfo[]> => {
 /**
  * Retrieves every local private key together with its public RSA components (modulus/
  * exponent). Used by the key-recovery flow to match local keys against the server's jwks by
- * modulus bytes — see {@link KeyPublicInfo} for encoding caveats.
+ * modulus bytes — see {@link KeyPublicInfo} for encoding caveats. Rejects with
+ * E_UNSUPPORTED_KEY_TYPE when the keys aren't RSA; use {@link findKeysMatchingJwks} for those.
  */
 export const getAllKeysWithPublicInfo = (): Promise<KeyPublicInfo[]> => {
   return BcscCore.getAllKeysWithPublicInfo();
 };
 
+/**
+ * Returns the aliases of the local keys whose public key appears in the server's jwks,
+ * matched by RFC 7638 thumbprint so drifted kids and legacy modulus encodings still match.
+ * Android keeps the local thumbprints indexed, so repeated calls don't re-read the keystore.
+ * Android only: rejects with `E_UNSUPPORTED` on iOS, where callers should fall back to
+ * {@link getAllKeysWithPublicInfo}.
+ * @param jwks The server's JWK set as JSON text (`{"keys": [...]}`).
+ */
+export const findKeysMatchingJwks = (jwks: string): Promise<string[]> => {
+  return BcscCore.findKeysMatchingJwks(jwks);
+};
+
 /**
  * Marks a keystore alias as the active (newest) signing key. Used by the 401
  * key-recovery flow to point the wallet at the kid the server confirms it
@@ -318,6 +347,33 @@ export const setActiveKeyAlias = (alias: string): Promise<void> => {
   return BcscCore.setActiveKeyAlias(alias);
 };
 
+/**
+ * Returns p50/p95/p99 latencies and totals for keystore operations (load, alias
+ * enumeration, reconcile, key generation, entry fetch, signing) since process start,
+ * together with the device model. Android only; resolves an empty object on iOS.
+ */
+export const getKeyStoreMetrics = (): Promise<KeyStoreMetrics> => {
+  return BcscCore.getKeyStoreMetrics();
+};
+
+/**
+ * Returns the most recent native keypair log lines (oldest first) kept in an in-memory ring
+ * buffer, for attaching to support reports. Release builds only keep info level and above.
+ * Android only; resolves an empty array on iOS.
+ */
+export const getNativeDiagnosticLog = (): Promise<string[]> => {
+  return BcscCore.getNativeDiagnosticLog();
+};
+
+/**
+ * Deletes every local key pair the policy doesn't keep (beyond the newest `keepNewest`, or
+ * older than `maxAgeMs`) in one background job and reports what was deleted. The newest key,
+ * any `serverConfirmedKids` and any key that signed within `keepUsedWithinMs` are always kept. Android only; resolves empty lists on iOS.
+ */
+export const applyKeyRetentionPolicy = (policy: KeyRetentionPolicy = {}): Promise<KeyCleanupReport> => {
+  return BcscCore.applyKeyRetentionPolicy(policy);
+};
+
 /**
  * Permanently deletes a keystore alias and its metadata entry. Used by the
  * 401 key-recovery flow to prune local keys the server does not recognise.